@@ -0,0 +1,53 @@
+-- Change tracking columns, the tombstone table and their triggers. The
+-- columns are added without a default and then given one, so neither step
+-- rewrites the table; existing rows stay null until V2 fills them in.
+ALTER TABLE employee ADD COLUMN IF NOT EXISTS change_txid bigint, ADD COLUMN IF NOT EXISTS updated_at timestamp;
+ALTER TABLE department ADD COLUMN IF NOT EXISTS change_txid bigint, ADD COLUMN IF NOT EXISTS updated_at timestamp;
+ALTER TABLE project ADD COLUMN IF NOT EXISTS change_txid bigint, ADD COLUMN IF NOT EXISTS updated_at timestamp;
+ALTER TABLE project_employee ADD COLUMN IF NOT EXISTS change_txid bigint, ADD COLUMN IF NOT EXISTS updated_at timestamp;
+
+ALTER TABLE employee ALTER COLUMN change_txid SET DEFAULT txid_current(), ALTER COLUMN updated_at SET DEFAULT now();
+ALTER TABLE department ALTER COLUMN change_txid SET DEFAULT txid_current(), ALTER COLUMN updated_at SET DEFAULT now();
+ALTER TABLE project ALTER COLUMN change_txid SET DEFAULT txid_current(), ALTER COLUMN updated_at SET DEFAULT now();
+ALTER TABLE project_employee ALTER COLUMN change_txid SET DEFAULT txid_current(), ALTER COLUMN updated_at SET DEFAULT now();
+
+CREATE TABLE IF NOT EXISTS project_employee_tombstone (
+	project_id integer NOT NULL,
+	employee_id integer NOT NULL,
+	change_txid bigint NOT NULL DEFAULT txid_current(),
+	deleted_at timestamp NOT NULL DEFAULT now()
+);
+
+CREATE OR REPLACE FUNCTION track_change() RETURNS trigger AS $$
+BEGIN
+	NEW.change_txid := txid_current();
+	NEW.updated_at := now();
+	RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS tr_employee_track_change ON employee;
+CREATE TRIGGER tr_employee_track_change BEFORE UPDATE ON employee
+	FOR EACH ROW EXECUTE PROCEDURE track_change();
+DROP TRIGGER IF EXISTS tr_department_track_change ON department;
+CREATE TRIGGER tr_department_track_change BEFORE UPDATE ON department
+	FOR EACH ROW EXECUTE PROCEDURE track_change();
+DROP TRIGGER IF EXISTS tr_project_track_change ON project;
+CREATE TRIGGER tr_project_track_change BEFORE UPDATE ON project
+	FOR EACH ROW EXECUTE PROCEDURE track_change();
+DROP TRIGGER IF EXISTS tr_project_employee_track_change ON project_employee;
+CREATE TRIGGER tr_project_employee_track_change BEFORE UPDATE ON project_employee
+	FOR EACH ROW EXECUTE PROCEDURE track_change();
+
+CREATE OR REPLACE FUNCTION record_project_employee_tombstone() RETURNS trigger AS $$
+BEGIN
+	INSERT INTO project_employee_tombstone (project_id, employee_id) VALUES (OLD.project_id, OLD.employee_id);
+	RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS tr_project_employee_tombstone ON project_employee;
+CREATE TRIGGER tr_project_employee_tombstone AFTER DELETE ON project_employee
+	FOR EACH ROW EXECUTE PROCEDURE record_project_employee_tombstone();
+
+CREATE INDEX IF NOT EXISTS ix_project_employee_tombstone_change_txid ON project_employee_tombstone (change_txid);
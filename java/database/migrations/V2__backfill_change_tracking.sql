@@ -0,0 +1,53 @@
+-- @no-transaction
+--
+-- Fills in the change tracking columns of rows that existed before V1, ten
+-- thousand rows per transaction, then makes them NOT NULL and indexes them
+-- without blocking writes. Each SET NOT NULL is preceded by a validated
+-- CHECK constraint so it doesn't scan the table under an exclusive lock.
+
+-- @repeat
+UPDATE employee SET change_txid = txid_current(), updated_at = now()
+WHERE employee_id IN (SELECT employee_id FROM employee WHERE change_txid IS NULL OR updated_at IS NULL LIMIT 10000);
+-- @repeat
+UPDATE department SET change_txid = txid_current(), updated_at = now()
+WHERE department_id IN (SELECT department_id FROM department WHERE change_txid IS NULL OR updated_at IS NULL LIMIT 10000);
+-- @repeat
+UPDATE project SET change_txid = txid_current(), updated_at = now()
+WHERE project_id IN (SELECT project_id FROM project WHERE change_txid IS NULL OR updated_at IS NULL LIMIT 10000);
+-- @repeat
+UPDATE project_employee SET change_txid = txid_current(), updated_at = now()
+WHERE (project_id, employee_id) IN (SELECT project_id, employee_id FROM project_employee
+									WHERE change_txid IS NULL OR updated_at IS NULL LIMIT 10000);
+
+ALTER TABLE employee DROP CONSTRAINT IF EXISTS ck_employee_change_tracked;
+ALTER TABLE employee ADD CONSTRAINT ck_employee_change_tracked
+	CHECK (change_txid IS NOT NULL AND updated_at IS NOT NULL) NOT VALID;
+ALTER TABLE employee VALIDATE CONSTRAINT ck_employee_change_tracked;
+ALTER TABLE employee ALTER COLUMN change_txid SET NOT NULL, ALTER COLUMN updated_at SET NOT NULL;
+ALTER TABLE employee DROP CONSTRAINT ck_employee_change_tracked;
+
+ALTER TABLE department DROP CONSTRAINT IF EXISTS ck_department_change_tracked;
+ALTER TABLE department ADD CONSTRAINT ck_department_change_tracked
+	CHECK (change_txid IS NOT NULL AND updated_at IS NOT NULL) NOT VALID;
+ALTER TABLE department VALIDATE CONSTRAINT ck_department_change_tracked;
+ALTER TABLE department ALTER COLUMN change_txid SET NOT NULL, ALTER COLUMN updated_at SET NOT NULL;
+ALTER TABLE department DROP CONSTRAINT ck_department_change_tracked;
+
+ALTER TABLE project DROP CONSTRAINT IF EXISTS ck_project_change_tracked;
+ALTER TABLE project ADD CONSTRAINT ck_project_change_tracked
+	CHECK (change_txid IS NOT NULL AND updated_at IS NOT NULL) NOT VALID;
+ALTER TABLE project VALIDATE CONSTRAINT ck_project_change_tracked;
+ALTER TABLE project ALTER COLUMN change_txid SET NOT NULL, ALTER COLUMN updated_at SET NOT NULL;
+ALTER TABLE project DROP CONSTRAINT ck_project_change_tracked;
+
+ALTER TABLE project_employee DROP CONSTRAINT IF EXISTS ck_project_employee_change_tracked;
+ALTER TABLE project_employee ADD CONSTRAINT ck_project_employee_change_tracked
+	CHECK (change_txid IS NOT NULL AND updated_at IS NOT NULL) NOT VALID;
+ALTER TABLE project_employee VALIDATE CONSTRAINT ck_project_employee_change_tracked;
+ALTER TABLE project_employee ALTER COLUMN change_txid SET NOT NULL, ALTER COLUMN updated_at SET NOT NULL;
+ALTER TABLE project_employee DROP CONSTRAINT ck_project_employee_change_tracked;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_employee_change_txid ON employee (change_txid);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_department_change_txid ON department (change_txid);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_project_change_txid ON project (change_txid);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_project_employee_change_txid ON project_employee (change_txid);
@@ -0,0 +1,5 @@
+-- Optimistic concurrency versions. A constant default is stored in the
+-- catalog rather than written to every row, so this is quick on any size
+-- of table.
+ALTER TABLE employee ADD COLUMN IF NOT EXISTS version integer NOT NULL DEFAULT 0;
+ALTER TABLE department ADD COLUMN IF NOT EXISTS version integer NOT NULL DEFAULT 0;
@@ -0,0 +1,4 @@
+-- @no-transaction
+--
+-- Keyset paging of the employee pickers.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_employee_name_order ON employee (last_name, first_name, employee_id);
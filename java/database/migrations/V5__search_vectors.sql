@@ -0,0 +1,30 @@
+-- Full-text search columns and the triggers that keep them current. Rows
+-- that already exist are filled in by V6.
+ALTER TABLE department ADD COLUMN IF NOT EXISTS search_vector tsvector;
+ALTER TABLE project ADD COLUMN IF NOT EXISTS search_vector tsvector;
+ALTER TABLE employee ADD COLUMN IF NOT EXISTS search_vector tsvector;
+
+CREATE OR REPLACE FUNCTION update_name_search_vector() RETURNS trigger AS $$
+BEGIN
+	NEW.search_vector := to_tsvector('simple', NEW.name);
+	RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION update_employee_search_vector() RETURNS trigger AS $$
+BEGIN
+	NEW.search_vector := setweight(to_tsvector('simple', NEW.last_name), 'A') ||
+						 setweight(to_tsvector('simple', NEW.first_name), 'B');
+	RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS tr_department_search_vector ON department;
+CREATE TRIGGER tr_department_search_vector BEFORE INSERT OR UPDATE OF name ON department
+	FOR EACH ROW EXECUTE PROCEDURE update_name_search_vector();
+DROP TRIGGER IF EXISTS tr_project_search_vector ON project;
+CREATE TRIGGER tr_project_search_vector BEFORE INSERT OR UPDATE OF name ON project
+	FOR EACH ROW EXECUTE PROCEDURE update_name_search_vector();
+DROP TRIGGER IF EXISTS tr_employee_search_vector ON employee;
+CREATE TRIGGER tr_employee_search_vector BEFORE INSERT OR UPDATE OF first_name, last_name ON employee
+	FOR EACH ROW EXECUTE PROCEDURE update_employee_search_vector();
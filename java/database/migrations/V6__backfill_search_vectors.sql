@@ -0,0 +1,19 @@
+-- @no-transaction
+--
+-- Fills in the search vectors of existing rows ten thousand at a time
+-- through the V5 triggers, then builds the GIN indexes without blocking
+-- writes.
+
+-- @repeat
+UPDATE department SET name = name
+WHERE department_id IN (SELECT department_id FROM department WHERE search_vector IS NULL LIMIT 10000);
+-- @repeat
+UPDATE project SET name = name
+WHERE project_id IN (SELECT project_id FROM project WHERE search_vector IS NULL LIMIT 10000);
+-- @repeat
+UPDATE employee SET first_name = first_name
+WHERE employee_id IN (SELECT employee_id FROM employee WHERE search_vector IS NULL LIMIT 10000);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_department_search ON department USING GIN (search_vector);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_project_search ON project USING GIN (search_vector);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_employee_search ON employee USING GIN (search_vector);
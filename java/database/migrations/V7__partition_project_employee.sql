@@ -0,0 +1,48 @@
+-- Moves project_employee to hash partitions on project_id. Needs PostgreSQL
+-- 13 or later.
+--
+-- Writers to project_employee wait until this commits; readers keep going
+-- against the old table until the final swap. Rows are copied before any
+-- index is built, which is much faster than maintaining the indexes row by
+-- row. The copy keeps each row's change_txid, so change tracking readers
+-- don't see every assignment as new.
+LOCK TABLE project_employee IN EXCLUSIVE MODE;
+
+CREATE TABLE project_employee_partitioned (
+	project_id integer NOT NULL,
+	employee_id integer NOT NULL,
+	change_txid bigint NOT NULL DEFAULT txid_current(),
+	updated_at timestamp NOT NULL DEFAULT now()
+) PARTITION BY HASH (project_id);
+
+CREATE TABLE project_employee_p0 PARTITION OF project_employee_partitioned FOR VALUES WITH (MODULUS 8, REMAINDER 0);
+CREATE TABLE project_employee_p1 PARTITION OF project_employee_partitioned FOR VALUES WITH (MODULUS 8, REMAINDER 1);
+CREATE TABLE project_employee_p2 PARTITION OF project_employee_partitioned FOR VALUES WITH (MODULUS 8, REMAINDER 2);
+CREATE TABLE project_employee_p3 PARTITION OF project_employee_partitioned FOR VALUES WITH (MODULUS 8, REMAINDER 3);
+CREATE TABLE project_employee_p4 PARTITION OF project_employee_partitioned FOR VALUES WITH (MODULUS 8, REMAINDER 4);
+CREATE TABLE project_employee_p5 PARTITION OF project_employee_partitioned FOR VALUES WITH (MODULUS 8, REMAINDER 5);
+CREATE TABLE project_employee_p6 PARTITION OF project_employee_partitioned FOR VALUES WITH (MODULUS 8, REMAINDER 6);
+CREATE TABLE project_employee_p7 PARTITION OF project_employee_partitioned FOR VALUES WITH (MODULUS 8, REMAINDER 7);
+
+INSERT INTO project_employee_partitioned (project_id, employee_id, change_txid, updated_at)
+SELECT project_id, employee_id, change_txid, updated_at
+FROM project_employee;
+
+-- Dropping the old table doesn't fire its delete trigger, so no tombstones
+-- are written for the rows that moved.
+DROP TABLE project_employee;
+ALTER TABLE project_employee_partitioned RENAME TO project_employee;
+
+ALTER TABLE project_employee ADD CONSTRAINT pk_project_employee_project_project_id_employee_id PRIMARY KEY (project_id, employee_id);
+ALTER TABLE project_employee ADD FOREIGN KEY (project_id) REFERENCES project(project_id);
+ALTER TABLE project_employee ADD FOREIGN KEY (employee_id) REFERENCES employee(employee_id);
+
+CREATE INDEX ix_project_employee_employee_id ON project_employee (employee_id, project_id);
+CREATE INDEX ix_project_employee_change_txid ON project_employee (change_txid);
+
+CREATE TRIGGER tr_project_employee_track_change BEFORE UPDATE ON project_employee
+	FOR EACH ROW EXECUTE PROCEDURE track_change();
+CREATE TRIGGER tr_project_employee_tombstone AFTER DELETE ON project_employee
+	FOR EACH ROW EXECUTE PROCEDURE record_project_employee_tombstone();
+
+ANALYZE project_employee;
@@ -0,0 +1,7 @@
+-- @no-transaction
+--
+-- Keyset paging matches and orders last names by lower(last_name) in the
+-- "C" collation, which lets the prefix search narrow the index scan. The
+-- index from V4 couldn't be used for the case-insensitive prefix.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_employee_lower_name_order ON employee ((lower(last_name) COLLATE "C"), first_name, employee_id);
+DROP INDEX CONCURRENTLY IF EXISTS ix_employee_name_order;
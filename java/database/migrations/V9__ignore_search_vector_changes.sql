@@ -0,0 +1,22 @@
+-- Recreates the change tracking triggers on the searchable tables so they
+-- only fire when a column readers fetch changes. An update that refills
+-- nothing but search_vector, as the V6 backfill does, then leaves
+-- change_txid and updated_at alone instead of sending every change
+-- tracking reader the whole table again. A column added to one of these
+-- tables later has to be added to its trigger's list too.
+DROP TRIGGER IF EXISTS tr_employee_track_change ON employee;
+CREATE TRIGGER tr_employee_track_change BEFORE UPDATE ON employee
+	FOR EACH ROW WHEN ((OLD.employee_id, OLD.department_id, OLD.first_name, OLD.last_name, OLD.birth_date,
+		OLD.gender, OLD.hire_date, OLD.version) IS DISTINCT FROM (NEW.employee_id, NEW.department_id,
+		NEW.first_name, NEW.last_name, NEW.birth_date, NEW.gender, NEW.hire_date, NEW.version))
+	EXECUTE PROCEDURE track_change();
+DROP TRIGGER IF EXISTS tr_department_track_change ON department;
+CREATE TRIGGER tr_department_track_change BEFORE UPDATE ON department
+	FOR EACH ROW WHEN ((OLD.department_id, OLD.name, OLD.version)
+		IS DISTINCT FROM (NEW.department_id, NEW.name, NEW.version))
+	EXECUTE PROCEDURE track_change();
+DROP TRIGGER IF EXISTS tr_project_track_change ON project;
+CREATE TRIGGER tr_project_track_change BEFORE UPDATE ON project
+	FOR EACH ROW WHEN ((OLD.project_id, OLD.name, OLD.from_date, OLD.to_date)
+		IS DISTINCT FROM (NEW.project_id, NEW.name, NEW.from_date, NEW.to_date))
+	EXECUTE PROCEDURE track_change();
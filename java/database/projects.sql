@@ -8,6 +8,9 @@ CREATE TABLE employee (
 	birth_date date NOT NULL,
 	gender char(1) NOT NULL,
 	hire_date date NOT NULL,
+	version integer NOT NULL DEFAULT 0,
+	change_txid bigint NOT NULL DEFAULT txid_current(),
+	updated_at timestamp NOT NULL DEFAULT now(),
 	CONSTRAINT pk_employee_employee_id PRIMARY KEY (employee_id),
 	CONSTRAINT ck_gender CHECK (gender IN ('M', 'F'))
 );
@@ -17,6 +20,9 @@ CREATE SEQUENCE seq_department_id;
 CREATE TABLE department (
 	department_id integer NOT NULL DEFAULT nextval('seq_department_id'),
 	name varchar(40) UNIQUE NOT NULL,
+	version integer NOT NULL DEFAULT 0,
+	change_txid bigint NOT NULL DEFAULT txid_current(),
+	updated_at timestamp NOT NULL DEFAULT now(),
 	CONSTRAINT pk_department_department_id PRIMARY KEY (department_id)
 );
 
@@ -27,14 +33,41 @@ CREATE TABLE project (
 	name varchar(40) UNIQUE NOT NULL,
 	from_date date,
 	to_date date,
+	change_txid bigint NOT NULL DEFAULT txid_current(),
+	updated_at timestamp NOT NULL DEFAULT now(),
 	CONSTRAINT pk_project_project_id PRIMARY KEY (project_id)
 );
 
+-- Remembers assignments that were deleted so incremental readers can find out
+-- about them. Rows can be purged once every reader has moved past them.
+CREATE TABLE project_employee_tombstone (
+	project_id integer NOT NULL,
+	employee_id integer NOT NULL,
+	change_txid bigint NOT NULL DEFAULT txid_current(),
+	deleted_at timestamp NOT NULL DEFAULT now()
+);
+
+-- Assignments are split into hash partitions on project_id so each
+-- partition, and each partition's indexes, stay a fraction of the whole as
+-- history piles up. Anything that names a project_id only touches that
+-- project's partition. Needs PostgreSQL 13 or later for the row triggers
+-- below. Migration V7 moves an existing database over.
 CREATE TABLE project_employee (
 	project_id integer NOT NULL,
 	employee_id integer NOT NULL,
+	change_txid bigint NOT NULL DEFAULT txid_current(),
+	updated_at timestamp NOT NULL DEFAULT now(),
 	CONSTRAINT pk_project_employee_project_project_id_employee_id PRIMARY KEY (project_id, employee_id)
-);
+) PARTITION BY HASH (project_id);
+
+CREATE TABLE project_employee_p0 PARTITION OF project_employee FOR VALUES WITH (MODULUS 8, REMAINDER 0);
+CREATE TABLE project_employee_p1 PARTITION OF project_employee FOR VALUES WITH (MODULUS 8, REMAINDER 1);
+CREATE TABLE project_employee_p2 PARTITION OF project_employee FOR VALUES WITH (MODULUS 8, REMAINDER 2);
+CREATE TABLE project_employee_p3 PARTITION OF project_employee FOR VALUES WITH (MODULUS 8, REMAINDER 3);
+CREATE TABLE project_employee_p4 PARTITION OF project_employee FOR VALUES WITH (MODULUS 8, REMAINDER 4);
+CREATE TABLE project_employee_p5 PARTITION OF project_employee FOR VALUES WITH (MODULUS 8, REMAINDER 5);
+CREATE TABLE project_employee_p6 PARTITION OF project_employee FOR VALUES WITH (MODULUS 8, REMAINDER 6);
+CREATE TABLE project_employee_p7 PARTITION OF project_employee FOR VALUES WITH (MODULUS 8, REMAINDER 7);
 
 -- Fill department and project before employee or project_employee because they have no foreign key dependencies
 INSERT INTO department (name) VALUES ('Department of Redundancy Department');
@@ -90,3 +123,120 @@ INSERT INTO project_employee (project_id, employee_id) VALUES (6, 11);
 ALTER TABLE employee ADD FOREIGN KEY (department_id) REFERENCES department(department_id);
 ALTER TABLE project_employee ADD FOREIGN KEY (project_id) REFERENCES project(project_id);
 ALTER TABLE project_employee ADD FOREIGN KEY (employee_id) REFERENCES employee(employee_id);
+
+-- Employee pickers page through employees in name order, starting each page
+-- after the last row of the previous one. Last names are matched and
+-- ordered case-insensitively, and in the "C" collation so that a last-name
+-- prefix narrows the index scan.
+CREATE INDEX ix_employee_lower_name_order ON employee ((lower(last_name) COLLATE "C"), first_name, employee_id);
+
+-- Lookups by employee can't be pruned to one partition, so every partition
+-- carries an index on employee_id to keep checking each one cheap.
+CREATE INDEX ix_project_employee_employee_id ON project_employee (employee_id, project_id);
+
+-- Change tracking: change_txid is the id of the transaction that last wrote
+-- the row. A reader that remembers txid_snapshot_xmin() from before its last
+-- read can fetch everything written since with change_txid >= that value.
+CREATE INDEX ix_employee_change_txid ON employee (change_txid);
+CREATE INDEX ix_department_change_txid ON department (change_txid);
+CREATE INDEX ix_project_change_txid ON project (change_txid);
+CREATE INDEX ix_project_employee_change_txid ON project_employee (change_txid);
+CREATE INDEX ix_project_employee_tombstone_change_txid ON project_employee_tombstone (change_txid);
+
+CREATE FUNCTION track_change() RETURNS trigger AS $$
+BEGIN
+	NEW.change_txid := txid_current();
+	NEW.updated_at := now();
+	RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+-- The triggers only fire when a column readers fetch changes, so refilling
+-- search_vector (below) isn't reported as a change. A new column has to be
+-- added to its table's list.
+CREATE TRIGGER tr_employee_track_change BEFORE UPDATE ON employee
+	FOR EACH ROW WHEN ((OLD.employee_id, OLD.department_id, OLD.first_name, OLD.last_name, OLD.birth_date,
+		OLD.gender, OLD.hire_date, OLD.version) IS DISTINCT FROM (NEW.employee_id, NEW.department_id,
+		NEW.first_name, NEW.last_name, NEW.birth_date, NEW.gender, NEW.hire_date, NEW.version))
+	EXECUTE PROCEDURE track_change();
+CREATE TRIGGER tr_department_track_change BEFORE UPDATE ON department
+	FOR EACH ROW WHEN ((OLD.department_id, OLD.name, OLD.version)
+		IS DISTINCT FROM (NEW.department_id, NEW.name, NEW.version))
+	EXECUTE PROCEDURE track_change();
+CREATE TRIGGER tr_project_track_change BEFORE UPDATE ON project
+	FOR EACH ROW WHEN ((OLD.project_id, OLD.name, OLD.from_date, OLD.to_date)
+		IS DISTINCT FROM (NEW.project_id, NEW.name, NEW.from_date, NEW.to_date))
+	EXECUTE PROCEDURE track_change();
+CREATE TRIGGER tr_project_employee_track_change BEFORE UPDATE ON project_employee
+	FOR EACH ROW EXECUTE PROCEDURE track_change();
+
+CREATE FUNCTION record_project_employee_tombstone() RETURNS trigger AS $$
+BEGIN
+	INSERT INTO project_employee_tombstone (project_id, employee_id) VALUES (OLD.project_id, OLD.employee_id);
+	RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER tr_project_employee_tombstone AFTER DELETE ON project_employee
+	FOR EACH ROW EXECUTE PROCEDURE record_project_employee_tombstone();
+
+-- Search: every searchable table keeps its names as a tsvector, kept current
+-- by a trigger and indexed with GIN so prefix queries (name:*) use the index
+-- instead of scanning the table. The 'simple' configuration lowercases words
+-- without stemming or dropping stop words, which suits names.
+ALTER TABLE department ADD COLUMN search_vector tsvector;
+ALTER TABLE project ADD COLUMN search_vector tsvector;
+ALTER TABLE employee ADD COLUMN search_vector tsvector;
+
+CREATE FUNCTION update_name_search_vector() RETURNS trigger AS $$
+BEGIN
+	NEW.search_vector := to_tsvector('simple', NEW.name);
+	RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Last names are weighted above first names so "coty" ranks Delora Coty
+-- ahead of anyone whose first name happens to start with it.
+CREATE FUNCTION update_employee_search_vector() RETURNS trigger AS $$
+BEGIN
+	NEW.search_vector := setweight(to_tsvector('simple', NEW.last_name), 'A') ||
+						 setweight(to_tsvector('simple', NEW.first_name), 'B');
+	RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER tr_department_search_vector BEFORE INSERT OR UPDATE OF name ON department
+	FOR EACH ROW EXECUTE PROCEDURE update_name_search_vector();
+CREATE TRIGGER tr_project_search_vector BEFORE INSERT OR UPDATE OF name ON project
+	FOR EACH ROW EXECUTE PROCEDURE update_name_search_vector();
+CREATE TRIGGER tr_employee_search_vector BEFORE INSERT OR UPDATE OF first_name, last_name ON employee
+	FOR EACH ROW EXECUTE PROCEDURE update_employee_search_vector();
+
+-- Fill in the rows inserted above.
+UPDATE department SET name = name;
+UPDATE project SET name = name;
+UPDATE employee SET first_name = first_name;
+
+CREATE INDEX ix_department_search ON department USING GIN (search_vector);
+CREATE INDEX ix_project_search ON project USING GIN (search_vector);
+CREATE INDEX ix_employee_search ON employee USING GIN (search_vector);
+
+-- Schema changes to existing databases are made by MigrationRunner from the
+-- scripts in database/migrations. This script already includes all of them,
+-- so they are recorded as applied; add a row here with every new migration.
+CREATE TABLE schema_migration (
+	version integer NOT NULL PRIMARY KEY,
+	description varchar(200) NOT NULL,
+	applied_at timestamp NOT NULL DEFAULT now(),
+	duration_ms bigint NOT NULL
+);
+
+INSERT INTO schema_migration (version, description, duration_ms) VALUES (1, 'track changes', 0);
+INSERT INTO schema_migration (version, description, duration_ms) VALUES (2, 'backfill change tracking', 0);
+INSERT INTO schema_migration (version, description, duration_ms) VALUES (3, 'row versions', 0);
+INSERT INTO schema_migration (version, description, duration_ms) VALUES (4, 'employee name order index', 0);
+INSERT INTO schema_migration (version, description, duration_ms) VALUES (5, 'search vectors', 0);
+INSERT INTO schema_migration (version, description, duration_ms) VALUES (6, 'backfill search vectors', 0);
+INSERT INTO schema_migration (version, description, duration_ms) VALUES (7, 'partition project employee', 0);
+INSERT INTO schema_migration (version, description, duration_ms) VALUES (8, 'employee lower name order index', 0);
+INSERT INTO schema_migration (version, description, duration_ms) VALUES (9, 'ignore search vector changes', 0);
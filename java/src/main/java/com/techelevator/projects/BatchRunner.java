@@ -0,0 +1,234 @@
+package com.techelevator.projects;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.techelevator.projects.model.Department;
+import com.techelevator.projects.model.DepartmentDAO;
+import com.techelevator.projects.model.Employee;
+import com.techelevator.projects.model.EmployeeDAO;
+import com.techelevator.projects.model.Project;
+import com.techelevator.projects.model.ProjectDAO;
+import com.techelevator.projects.model.UnitOfWork;
+
+/**
+ * Runs a script of CLI operations without the menus. Each line is one
+ * command; blank lines and lines starting with # are ignored.
+ *
+ * <pre>
+ * list departments|employees|projects
+ * search departments &lt;name pattern&gt;
+ * search employees &lt;first name pattern&gt; [&lt;last name pattern&gt;]
+ * assign &lt;project id&gt; &lt;employee id&gt;...
+ * unassign &lt;project id&gt; &lt;employee id&gt;...
+ * transfer &lt;department id&gt; &lt;employee id&gt;...
+ * </pre>
+ *
+ * The whole script is parsed before anything runs, so a typo on line 900
+ * doesn't leave the first 899 lines applied. It then runs in a single unit
+ * of work: if any command fails, every change the script made is rolled
+ * back. Consecutive writes of the same kind to the same project or
+ * department are sent as one batch DAO call.
+ */
+public class BatchRunner {
+
+	public static final int EXIT_OK = 0;
+	public static final int EXIT_INVALID_SCRIPT = 1;
+	public static final int EXIT_FAILED = 2;
+
+	private DepartmentDAO departmentDAO;
+	private EmployeeDAO employeeDAO;
+	private ProjectDAO projectDAO;
+	private UnitOfWork unitOfWork;
+	private PrintWriter out;
+
+	public BatchRunner(DepartmentDAO departmentDAO, EmployeeDAO employeeDAO, ProjectDAO projectDAO,
+					   UnitOfWork unitOfWork, PrintWriter out) {
+		this.departmentDAO = departmentDAO;
+		this.employeeDAO = employeeDAO;
+		this.projectDAO = projectDAO;
+		this.unitOfWork = unitOfWork;
+		this.out = out;
+	}
+
+	/**
+	 * Parse and run a script. Results and errors are written to the output
+	 * given to the constructor, which is flushed before returning.
+	 *
+	 * @param script the commands to run
+	 * @return {@link #EXIT_OK}, {@link #EXIT_INVALID_SCRIPT} if the script
+	 *         couldn't be parsed (nothing was run) or {@link #EXIT_FAILED} if
+	 *         a command failed (all changes were rolled back)
+	 */
+	public int run(Reader script) throws IOException {
+		try {
+			List<Step> steps;
+			try {
+				steps = parse(script);
+			} catch(IllegalArgumentException e) {
+				out.println(e.getMessage());
+				return EXIT_INVALID_SCRIPT;
+			}
+			try {
+				unitOfWork.run(() -> {
+					for(Step step : steps) {
+						step.run();
+					}
+				});
+			} catch(RuntimeException e) {
+				out.println("Script failed, no changes were saved: " + e.getMessage());
+				return EXIT_FAILED;
+			}
+			int changes = 0;
+			int batches = 0;
+			for(Step step : steps) {
+				if(step instanceof WriteStep) {
+					changes += ((WriteStep)step).employeeIds.size();
+					batches++;
+				}
+			}
+			out.println("Saved " + changes + " changes in " + batches + " batches");
+			return EXIT_OK;
+		} finally {
+			out.flush();
+		}
+	}
+
+	private List<Step> parse(Reader script) throws IOException {
+		List<Step> steps = new ArrayList<>();
+		BufferedReader lines = new BufferedReader(script);
+		String line;
+		int lineNumber = 0;
+		while((line = lines.readLine()) != null) {
+			lineNumber++;
+			line = line.trim();
+			if(line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			try {
+				Step step = parseCommand(line.split("\\s+"));
+				Step previous = steps.isEmpty() ? null : steps.get(steps.size() - 1);
+				if(step instanceof WriteStep && previous instanceof WriteStep
+						&& ((WriteStep)previous).canMerge((WriteStep)step)) {
+					((WriteStep)previous).employeeIds.addAll(((WriteStep)step).employeeIds);
+				} else {
+					steps.add(step);
+				}
+			} catch(IllegalArgumentException e) {
+				throw new IllegalArgumentException("line " + lineNumber + ": " + e.getMessage());
+			}
+		}
+		return steps;
+	}
+
+	private Step parseCommand(String[] words) {
+		String command = words[0].toLowerCase();
+		if(command.equals("list")) {
+			requireArguments(words, 2, 2);
+			return parseList(words[1].toLowerCase());
+		} else if(command.equals("search")) {
+			requireArguments(words, 3, 4);
+			return parseSearch(words);
+		} else if(command.equals("assign") || command.equals("unassign") || command.equals("transfer")) {
+			requireArguments(words, 3, Integer.MAX_VALUE);
+			WriteStep step = new WriteStep(command, parseId(words[1]));
+			for(int i = 2; i < words.length; i++) {
+				step.employeeIds.add(parseId(words[i]));
+			}
+			return step;
+		}
+		throw new IllegalArgumentException("unknown command '" + words[0] + "'");
+	}
+
+	private Step parseList(String what) {
+		if(what.equals("departments")) {
+			return () -> printDepartments(departmentDAO.getAllDepartments());
+		} else if(what.equals("employees")) {
+			return () -> printEmployees(employeeDAO.getAllEmployees());
+		} else if(what.equals("projects")) {
+			return () -> printProjects(projectDAO.getAllActiveProjects());
+		}
+		throw new IllegalArgumentException("can't list '" + what + "'");
+	}
+
+	private Step parseSearch(String[] words) {
+		String what = words[1].toLowerCase();
+		if(what.equals("departments")) {
+			requireArguments(words, 3, 3);
+			String name = words[2];
+			return () -> printDepartments(departmentDAO.searchDepartmentsByName(name));
+		} else if(what.equals("employees")) {
+			String firstName = words[2];
+			String lastName = words.length > 3 ? words[3] : "%";
+			return () -> printEmployees(employeeDAO.searchEmployeesByName(firstName, lastName));
+		}
+		throw new IllegalArgumentException("can't search '" + what + "'");
+	}
+
+	private static void requireArguments(String[] words, int min, int max) {
+		if(words.length < min || words.length > max) {
+			throw new IllegalArgumentException("wrong number of arguments for '" + words[0] + "'");
+		}
+	}
+
+	private static Long parseId(String word) {
+		try {
+			return Long.valueOf(word);
+		} catch(NumberFormatException e) {
+			throw new IllegalArgumentException("'" + word + "' is not an id");
+		}
+	}
+
+	private void printDepartments(List<Department> departments) {
+		for(Department department : departments) {
+			out.println(department.getId() + "\t" + department.getName());
+		}
+	}
+
+	private void printEmployees(List<Employee> employees) {
+		for(Employee employee : employees) {
+			out.println(employee.getId() + "\t" + employee.getLastName() + "\t" + employee.getFirstName());
+		}
+	}
+
+	private void printProjects(List<Project> projects) {
+		for(Project project : projects) {
+			out.println(project.getId() + "\t" + project.getName());
+		}
+	}
+
+	private interface Step {
+		void run();
+	}
+
+	private class WriteStep implements Step {
+
+		private String command;
+		private Long targetId;
+		private List<Long> employeeIds = new ArrayList<>();
+
+		WriteStep(String command, Long targetId) {
+			this.command = command;
+			this.targetId = targetId;
+		}
+
+		boolean canMerge(WriteStep next) {
+			return command.equals(next.command) && targetId.equals(next.targetId);
+		}
+
+		@Override
+		public void run() {
+			if(command.equals("assign")) {
+				projectDAO.addEmployeesToProject(targetId, employeeIds);
+			} else if(command.equals("unassign")) {
+				projectDAO.removeEmployeesFromProject(targetId, employeeIds);
+			} else {
+				employeeDAO.changeEmployeesDepartment(employeeIds, targetId);
+			}
+		}
+	}
+}
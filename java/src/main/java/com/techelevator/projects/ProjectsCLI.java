@@ -1,19 +1,63 @@
 package com.techelevator.projects;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import javax.sql.DataSource;
 
 import org.apache.commons.dbcp2.BasicDataSource;
+import org.springframework.dao.OptimisticLockingFailureException;
 
+import com.techelevator.projects.http.ProjectsHttpServer;
+import com.techelevator.projects.model.ChangeSet;
+import com.techelevator.projects.model.ChangeTrackingDAO;
 import com.techelevator.projects.model.Department;
 import com.techelevator.projects.model.DepartmentDAO;
 import com.techelevator.projects.model.Employee;
 import com.techelevator.projects.model.EmployeeDAO;
+import com.techelevator.projects.model.EmployeeRosterEntry;
 import com.techelevator.projects.model.Project;
 import com.techelevator.projects.model.ProjectDAO;
+import com.techelevator.projects.model.concurrent.BatchingDepartmentDAO;
+import com.techelevator.projects.model.concurrent.BatchingEmployeeDAO;
+import com.techelevator.projects.model.concurrent.CoalescingDepartmentDAO;
+import com.techelevator.projects.model.concurrent.CircuitBreaker;
+import com.techelevator.projects.model.concurrent.CoalescingEmployeeDAO;
+import com.techelevator.projects.model.concurrent.IndexedDepartmentDAO;
+import com.techelevator.projects.model.concurrent.IndexedEmployeeDAO;
+import com.techelevator.projects.model.concurrent.ResilientCalls;
+import com.techelevator.projects.model.concurrent.ResilientDepartmentDAO;
+import com.techelevator.projects.model.concurrent.ResilientEmployeeDAO;
+import com.techelevator.projects.model.concurrent.ResilientProjectDAO;
+import com.techelevator.projects.model.concurrent.ResilientSearchDAO;
+import com.techelevator.projects.model.concurrent.WriteBehindProjectDAO;
+import com.techelevator.projects.model.jdbc.DeadlinePoolDataSource;
+import com.techelevator.projects.model.jdbc.JDBCChangeTrackingDAO;
 import com.techelevator.projects.model.jdbc.JDBCDepartmentDAO;
 import com.techelevator.projects.model.jdbc.JDBCEmployeeDAO;
 import com.techelevator.projects.model.jdbc.JDBCProjectDAO;
+import com.techelevator.projects.model.jdbc.JDBCSearchDAO;
+import com.techelevator.projects.model.jdbc.JDBCUnitOfWork;
+import com.techelevator.projects.model.jdbc.Migration;
+import com.techelevator.projects.model.jdbc.MigrationRunner;
+import com.techelevator.projects.model.jdbc.ReadWriteRoutingDataSource;
 import com.techelevator.projects.view.Menu;
 
 public class ProjectsCLI {
@@ -42,10 +86,12 @@ public class ProjectsCLI {
 																		   MENU_OPTION_RETURN_TO_MAIN};
 	
 	private static final String EMPL_MENU_OPTION_ALL_EMPLOYEES = "Show all employees";
+	private static final String EMPL_MENU_OPTION_ROSTER = "Show employee roster";
 	private static final String EMPL_MENU_OPTION_SEARCH_BY_NAME = "Employee search by name";
 	private static final String EMPL_MENU_OPTION_EMPLOYEES_NO_PROJECTS = "Show employees without projects";
 	private static final String EMPL_MENU_OPTION_CHANGE_DEPARTMENT = "Change employee's department";
 	private static final String[] EMPL_MENU_OPTIONS = new String[] { EMPL_MENU_OPTION_ALL_EMPLOYEES,
+																	 EMPL_MENU_OPTION_ROSTER,
 																	 EMPL_MENU_OPTION_SEARCH_BY_NAME,
 																	 EMPL_MENU_OPTION_EMPLOYEES_NO_PROJECTS,
 																	 EMPL_MENU_OPTION_CHANGE_DEPARTMENT,
@@ -61,33 +107,349 @@ public class ProjectsCLI {
 																	 PROJ_MENU_OPTION_REMOVE_EMPLOYEE_FROM_PROJECT,
 																	 MENU_OPTION_RETURN_TO_MAIN };
 	
+	private static final String DATABASE_URL = "jdbc:postgresql://localhost:5432/projects";
+	private static final String REPLICA_URL_PROPERTY = "projects.replica.url";
+	private static final long REPLICA_STICKINESS_MILLIS = 5000;
+	private static final int MAX_CACHED_STATEMENTS_PER_CONNECTION = 50;
+	private static final String TIMING_PROPERTY = "projects.timing";
+	private static final String BATCH_OPTION = "--batch";
+	private static final int EMPLOYEE_PAGE_SIZE = 20;
+	private static final String SERVE_OPTION = "--serve";
+	private static final int DEFAULT_SERVER_PORT = 8080;
+	// One request thread per pooled connection; the pool holds 8 by default.
+	private static final int SERVER_THREADS = 8;
+	private static final int SERVER_QUEUE_CAPACITY = 256;
+	private static final long BATCH_WINDOW_MICROS = 1000;
+	private static final int MAX_BATCH_SIZE = 500;
+	private static final int BATCH_THREADS = 2;
+	private static final String NAME_INDEX_PROPERTY = "projects.nameIndex";
+	private static final long NAME_INDEX_POLL_MILLIS = 1000;
+	private static final String WRITE_BEHIND_PROPERTY = "projects.writeBehind";
+	private static final String WRITE_BEHIND_JOURNAL_PROPERTY = "projects.writeBehind.journal";
+	private static final String MIGRATE_OPTION = "--migrate";
+	private static final String DEFAULT_MIGRATIONS_DIRECTORY = "database/migrations";
+	private static final long MIGRATION_LOCK_TIMEOUT_MILLIS = 5000;
+	private static final int WRITE_BEHIND_CAPACITY = 10000;
+	private static final long WRITE_BEHIND_INTERVAL_MILLIS = 50;
+	private static final int DATABASE_MAX_ATTEMPTS = 3;
+	private static final long DATABASE_BACKOFF_MILLIS = 50;
+	private static final long DATABASE_TIMEOUT_MILLIS = 5000;
+	// Bounds on the waits a statement timeout doesn't cover. Calls made
+	// through ResilientCalls wait for a pooled connection only as long as
+	// their own limit allows. The socket timeout is a backstop above the
+	// longest limit below, for a server that stops answering altogether.
+	private static final long POOL_MAX_WAIT_MILLIS = DATABASE_TIMEOUT_MILLIS;
+	private static final int CONNECT_TIMEOUT_SECONDS = 5;
+	private static final int SOCKET_TIMEOUT_SECONDS = 60;
+	// Single-row lookups should be quick; whole-table reads get longer.
+	private static final long LOOKUP_TIMEOUT_MILLIS = 2000;
+	private static final long FULL_READ_TIMEOUT_MILLIS = 30000;
+	private static final int BREAKER_FAILURE_THRESHOLD = 5;
+	private static final long BREAKER_OPEN_MILLIS = 10000;
+	
+	private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+	/*
+	 * Everything the CLI prints goes through one buffered writer that is only
+	 * flushed when the user is prompted, so a long list costs one write to
+	 * the terminal rather than one synchronized, flushing println per row.
+	 */
+	private PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out), OUTPUT_BUFFER_SIZE));
 	private Menu menu;
+	private DataSource dataSource;
 	private DepartmentDAO departmentDAO;
 	private EmployeeDAO employeeDAO;
 	private ProjectDAO projectDAO;
+	private boolean reportTiming = Boolean.getBoolean(TIMING_PROPERTY);
+	private boolean firstMenuReported;
+	private boolean firstResultReported;
 	
-	public static void main(String[] args) {
+	/**
+	 * With no arguments, starts the interactive menus. With
+	 * {@code --batch [file]}, runs the commands in the file (or standard input
+	 * when no file is given) instead; see {@link BatchRunner} for the format.
+	 * With {@code --serve [port]}, serves the DAOs over HTTP until the process
+	 * is stopped; see {@link ProjectsHttpServer} for the endpoints. With
+	 * {@code --migrate [directory]}, applies the schema migrations in the
+	 * directory (or {@code database/migrations}) that the database doesn't
+	 * have yet; see {@link Migration} for the format.
+	 */
+	public static void main(String[] args) throws IOException {
 		ProjectsCLI application = new ProjectsCLI();
-		application.run();
+		if(args.length > 0 && args[0].equals(BATCH_OPTION)) {
+			System.exit(application.runBatch(args.length > 1 ? args[1] : null));
+		}
+		if(args.length > 0 && args[0].equals(MIGRATE_OPTION)) {
+			System.exit(application.migrate(args.length > 1 ? args[1] : DEFAULT_MIGRATIONS_DIRECTORY));
+		}
+		if(args.length > 0 && args[0].equals(SERVE_OPTION)) {
+			application.serve(args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SERVER_PORT);
+			return;
+		}
+		try {
+			application.run();
+		} finally {
+			application.out.flush();
+		}
 	}
 	
 	public ProjectsCLI() {
-		this.menu = new Menu(System.in, System.out);
-		
-		BasicDataSource dataSource = new BasicDataSource();
-		dataSource.setUrl("jdbc:postgresql://localhost:5432/projects");
+		this.menu = new Menu(System.in, out);
+	}
+
+	/*
+	 * The pool, the driver and the DAOs are only built when something first
+	 * needs them, so the banner and main menu never wait on the database.
+	 * The warm-up thread usually gets there first; the getters are
+	 * synchronized so whichever thread arrives second reuses its work.
+	 */
+	private synchronized DataSource getDataSource() {
+		if(dataSource == null) {
+			DataSource primary = createDataSource(DATABASE_URL);
+			String replicaUrl = System.getProperty(REPLICA_URL_PROPERTY);
+			if(replicaUrl != null) {
+				dataSource = new ReadWriteRoutingDataSource(primary, createDataSource(replicaUrl), REPLICA_STICKINESS_MILLIS);
+			} else {
+				dataSource = primary;
+			}
+		}
+		return dataSource;
+	}
+
+	private synchronized DepartmentDAO getDepartmentDAO() {
+		if(departmentDAO == null) {
+			departmentDAO = new JDBCDepartmentDAO(getDataSource());
+		}
+		return departmentDAO;
+	}
+
+	private synchronized EmployeeDAO getEmployeeDAO() {
+		if(employeeDAO == null) {
+			employeeDAO = new JDBCEmployeeDAO(getDataSource());
+		}
+		return employeeDAO;
+	}
+
+	private synchronized ProjectDAO getProjectDAO() {
+		if(projectDAO == null) {
+			projectDAO = new JDBCProjectDAO(getDataSource());
+		}
+		return projectDAO;
+	}
+
+	/**
+	 * Opens the first pooled connections and loads the DAO classes on a
+	 * daemon thread while the banner is printed and the user reads the main
+	 * menu. A database that is down is not reported here; the first real
+	 * query will fail with the usual error.
+	 */
+	private void startWarmUp() {
+		Thread warmUp = new Thread(() -> {
+			getDepartmentDAO();
+			getEmployeeDAO();
+			getProjectDAO();
+			// Open the replica (if any) before the primary: opening a primary
+			// connection makes this thread read from the primary for a while.
+			openAndRelease(ReadWriteRoutingDataSource.forReads(getDataSource()));
+			openAndRelease(getDataSource());
+		}, "projects-cli-warm-up");
+		warmUp.setDaemon(true);
+		warmUp.start();
+	}
+
+	private static void openAndRelease(DataSource dataSource) {
+		try(Connection connection = dataSource.getConnection()) {
+			connection.isValid(0);
+		} catch(SQLException e) {
+			// Reported by the first query instead.
+		}
+	}
+
+	private static BasicDataSource createDataSource(String url) {
+		BasicDataSource dataSource = new DeadlinePoolDataSource();
+		dataSource.setUrl(url);
 		dataSource.setUsername("postgres");
 		dataSource.setPassword("postgres1");
-		
-		departmentDAO = new JDBCDepartmentDAO(dataSource);
-		employeeDAO = new JDBCEmployeeDAO(dataSource);
-		projectDAO = new JDBCProjectDAO(dataSource);
+		// Keep each connection's prepared statements open between DAO calls and
+		// have the driver switch them to server-side statements on first use, so
+		// hot lookups skip parsing and planning after the first execution.
+		dataSource.setPoolPreparedStatements(true);
+		dataSource.setMaxOpenPreparedStatements(MAX_CACHED_STATEMENTS_PER_CONNECTION);
+		dataSource.addConnectionProperty("prepareThreshold", "1");
+		// The driver's cancel requests, sent when a statement times out, open
+		// a connection of their own under the same connect timeout.
+		dataSource.setMaxWaitMillis(POOL_MAX_WAIT_MILLIS);
+		dataSource.addConnectionProperty("connectTimeout", String.valueOf(CONNECT_TIMEOUT_SECONDS));
+		dataSource.addConnectionProperty("socketTimeout", String.valueOf(SOCKET_TIMEOUT_SECONDS));
+		return dataSource;
+	}
+
+	private int runBatch(String scriptFile) throws IOException {
+		BatchRunner runner = new BatchRunner(getDepartmentDAO(), getEmployeeDAO(), getProjectDAO(),
+											 new JDBCUnitOfWork(getDataSource()), out);
+		try(Reader script = scriptFile != null ? Files.newBufferedReader(Paths.get(scriptFile))
+											   : new InputStreamReader(System.in)) {
+			return runner.run(script);
+		}
+	}
+
+	private int migrate(String directory) throws IOException {
+		MigrationRunner runner = new MigrationRunner(getDataSource(), Paths.get(directory), MIGRATION_LOCK_TIMEOUT_MILLIS,
+				new MigrationRunner.ProgressListener() {
+					@Override
+					public void statementFinished(Migration migration, int statement, int runs, long rows, long elapsedNanos) {
+						out.printf("  V%d statement %d: %d rows in %d run(s), %.1f s%n", migration.getVersion(), statement,
+								rows, runs, elapsedNanos / 1e9);
+						out.flush();
+					}
+
+					@Override
+					public void migrationApplied(Migration migration, long elapsedMillis) {
+						out.printf("Applied V%d %s in %.1f s%n", migration.getVersion(), migration.getDescription(),
+								elapsedMillis / 1e3);
+						out.flush();
+					}
+				});
+		try {
+			List<Migration> applied = runner.migrate();
+			List<MigrationRunner.AppliedMigration> history = runner.getHistory();
+			out.println(applied.size() + " migration(s) applied; the schema is at version "
+					+ (history.isEmpty() ? 0 : history.get(history.size() - 1).getVersion()));
+			return 0;
+		} catch(IllegalStateException e) {
+			out.println("*** " + e.getMessage() + " ***");
+			return 1;
+		} finally {
+			out.flush();
+		}
+	}
+
+	private void serve(int port) throws IOException {
+		startWarmUp();
+		// Every database call gets a time limit and, where it is safe, a retry;
+		// a database that keeps timing out is left alone for a while so
+		// requests fail with 503 at once instead of tying up request threads.
+		CircuitBreaker breaker = new CircuitBreaker(BREAKER_FAILURE_THRESHOLD, BREAKER_OPEN_MILLIS, (from, to) -> {
+			out.println("Database circuit breaker " + from + " -> " + to);
+			out.flush();
+		});
+		ResilientCalls calls = new ResilientCalls(breaker, DATABASE_MAX_ATTEMPTS, DATABASE_BACKOFF_MILLIS,
+												  DATABASE_TIMEOUT_MILLIS, getDatabaseTimeouts());
+		DepartmentDAO resilientDepartments = new ResilientDepartmentDAO(getDepartmentDAO(), calls);
+		EmployeeDAO resilientEmployees = new ResilientEmployeeDAO(getEmployeeDAO(), calls);
+		ProjectDAO resilientProjects = new ResilientProjectDAO(getProjectDAO(), calls);
+		// Lookups of different departments or projects arriving within a
+		// millisecond are loaded with one query, and concurrent requests for
+		// the same one share a single lookup.
+		ScheduledExecutorService batchExecutor = Executors.newScheduledThreadPool(BATCH_THREADS, runnable -> {
+			Thread thread = new Thread(runnable, "projects-batch-loader");
+			thread.setDaemon(true);
+			return thread;
+		});
+		// Batches load on those threads, so a thread that has to read its own
+		// writes from the primary looks up for itself instead, and doesn't
+		// join another thread's lookup either.
+		DataSource routedSource = getDataSource();
+		BooleanSupplier readsOwnWrites = () -> ReadWriteRoutingDataSource.mustReadFromPrimary(routedSource);
+		BatchingDepartmentDAO batchedDepartments = new BatchingDepartmentDAO(resilientDepartments, BATCH_WINDOW_MICROS,
+																			 MAX_BATCH_SIZE, batchExecutor, readsOwnWrites);
+		BatchingEmployeeDAO batchedEmployees = new BatchingEmployeeDAO(resilientEmployees, BATCH_WINDOW_MICROS,
+																	   MAX_BATCH_SIZE, batchExecutor, readsOwnWrites);
+		DepartmentDAO searchedDepartments = batchedDepartments;
+		EmployeeDAO searchedEmployees = batchedEmployees;
+		if(Boolean.getBoolean(NAME_INDEX_PROPERTY)) {
+			// Name searches are answered from memory; see IndexedDepartmentDAO.
+			// Other writers' changes, and the rows behind entries left stale,
+			// are picked up by polling the change log from a token taken
+			// before the indexes load, so nothing falls in between.
+			ChangeTrackingDAO changeLog = new JDBCChangeTrackingDAO(getDataSource());
+			long[] nextToken = { changeLog.getCurrentChangeToken() };
+			IndexedDepartmentDAO indexedDepartments = new IndexedDepartmentDAO(batchedDepartments);
+			IndexedEmployeeDAO indexedEmployees = new IndexedEmployeeDAO(batchedEmployees);
+			ScheduledExecutorService indexExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "projects-name-index");
+				thread.setDaemon(true);
+				return thread;
+			});
+			indexExecutor.scheduleWithFixedDelay(() -> {
+				try {
+					ChangeSet changes = changeLog.changesSince(nextToken[0]);
+					indexedDepartments.apply(changes);
+					indexedEmployees.apply(changes);
+					nextToken[0] = changes.getNextToken();
+				} catch(RuntimeException e) {
+					// Tried again on the next poll; a failure here must not
+					// cancel the schedule.
+					out.println("*** Name index update failed: " + e.getMessage() + " ***");
+					out.flush();
+				}
+			}, NAME_INDEX_POLL_MILLIS, NAME_INDEX_POLL_MILLIS, TimeUnit.MILLISECONDS);
+			searchedDepartments = indexedDepartments;
+			searchedEmployees = indexedEmployees;
+		}
+		CoalescingDepartmentDAO departments = new CoalescingDepartmentDAO(searchedDepartments, readsOwnWrites);
+		CoalescingEmployeeDAO employees = new CoalescingEmployeeDAO(searchedEmployees, readsOwnWrites);
+		// Assignment changes can be queued and written in batches instead of one
+		// round trip per request; see WriteBehindProjectDAO for what that gives up.
+		WriteBehindProjectDAO writeBehind = null;
+		if(Boolean.getBoolean(WRITE_BEHIND_PROPERTY)) {
+			String journal = System.getProperty(WRITE_BEHIND_JOURNAL_PROPERTY);
+			writeBehind = new WriteBehindProjectDAO(resilientProjects, new JDBCUnitOfWork(getDataSource()),
+													WRITE_BEHIND_CAPACITY, WRITE_BEHIND_INTERVAL_MILLIS,
+													journal == null ? null : Paths.get(journal));
+		}
+		WriteBehindProjectDAO projects = writeBehind;
+		ProjectsHttpServer server = new ProjectsHttpServer(departments, employees,
+														   employees.watchingAssignments(projects != null ? projects : resilientProjects),
+														   new ResilientSearchDAO(new JDBCSearchDAO(getDataSource()), calls),
+														   port, SERVER_THREADS, SERVER_QUEUE_CAPACITY);
+		server.start();
+		out.println("Serving on http://localhost:" + server.getPort() + "/");
+		out.flush();
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			if(projects != null) {
+				server.stop(0);
+				try {
+					projects.close();
+				} catch(IllegalStateException e) {
+					out.println("*** " + e.getMessage() + " ***");
+				}
+				out.println("Assignment changes written: " + projects.getChangesWritten() + " in "
+						+ projects.getFlushes() + " batches, " + projects.getChangesCoalesced() + " coalesced");
+			}
+			out.println("getDepartmentById: " + departments.getDepartmentByIdFlight());
+			out.println("getAllDepartments: " + departments.getAllDepartmentsFlight());
+			out.println("getEmployeesByProjectId: " + employees.getEmployeesByProjectIdFlight());
+			out.println("getEmployeesByDepartmentId: " + employees.getEmployeesByDepartmentIdFlight());
+			out.println("getDepartmentById batches: " + batchedDepartments.getDepartmentByIdLoader());
+			out.println("getEmployeesByProjectId batches: " + batchedEmployees.getEmployeesByProjectIdLoader());
+			out.println("Database calls: " + calls);
+			out.flush();
+		}));
+	}
+
+	private static Map<String, Long> getDatabaseTimeouts() {
+		Map<String, Long> timeouts = new HashMap<>();
+		for(String method : new String[] { "getDepartmentById", "getDepartmentsByIds", "getEmployeesByIds",
+										   "searchDepartmentsByName", "searchEmployeesByName", "search" }) {
+			timeouts.put(method, LOOKUP_TIMEOUT_MILLIS);
+		}
+		for(String method : new String[] { "getAllEmployees", "getAllCompactEmployees", "getEmployeeRoster",
+										   "getEmployeeColumnStore", "forEachEmployee", "getAllProjects" }) {
+			timeouts.put(method, FULL_READ_TIMEOUT_MILLIS);
+		}
+		return timeouts;
 	}
 
 	private void run() {
+		startWarmUp();
 		displayApplicationBanner();	
 		while(true) {
 			printHeading("Main Menu");
+			if(!firstMenuReported) {
+				firstMenuReported = true;
+				printTiming("first menu");
+			}
 			String choice = (String)menu.getChoiceFromOptions(MAIN_MENU_OPTIONS);
 			if(choice.equals(MAIN_MENU_OPTION_DEPARTMENTS)) {
 				handleDepartments();
@@ -96,6 +458,7 @@ public class ProjectsCLI {
 			} else if(choice.equals(MAIN_MENU_OPTION_PROJECTS)) {
 				handleProjects();
 			} else if(choice.equals(MAIN_MENU_OPTION_EXIT)) {
+				out.flush();
 				System.exit(0);
 			}
 		}
@@ -122,59 +485,64 @@ public class ProjectsCLI {
 		String newDepartmentName = getUserInput("Enter new Department name");
 		Department newDepartment = new Department();
 		newDepartment.setName(newDepartmentName);
-		newDepartment = departmentDAO.createDepartment(newDepartment);
-		System.out.println("\n*** "+newDepartment.getName()+" created ***");
+		newDepartment = getDepartmentDAO().createDepartment(newDepartment);
+		out.println("\n*** "+newDepartment.getName()+" created ***");
 	}
 	
 	private void handleUpdateDepartmentName() {
 		printHeading("Update Department Name");
-		List<Department> allDepartments = departmentDAO.getAllDepartments();
+		List<Department> allDepartments = getDepartmentDAO().getAllDepartments();
 		if(allDepartments.size() > 0) {
-			System.out.println("\n*** Choose a Department ***");
+			out.println("\n*** Choose a Department ***");
 			Department selectedDepartment = (Department)menu.getChoiceFromOptions(allDepartments.toArray());
 			String newDepartmentName = getUserInput("Enter new Department name");
 			selectedDepartment.setName(newDepartmentName);
-			departmentDAO.saveDepartment(selectedDepartment);
+			try {
+				getDepartmentDAO().saveDepartment(selectedDepartment);
+			} catch(OptimisticLockingFailureException e) {
+				out.println("\n*** Someone else changed that department, please try again ***");
+			}
 		} else {
-			System.out.println("\n*** No results ***");
+			out.println("\n*** No results ***");
 		}
 	}
 
 	private void handleListAllDepartments() {
 		printHeading("All Departments");
-		List<Department> allDepartments = departmentDAO.getAllDepartments();
+		List<Department> allDepartments = getDepartmentDAO().getAllDepartments();
 		listDepartments(allDepartments);
 	}
 
 	private void handleDepartmentSearch() {
 		printHeading("Department Search");
 		String departmentSearch = getUserInput("Enter department name to search for");
-		List<Department> departments = departmentDAO.searchDepartmentsByName(departmentSearch);
+		List<Department> departments = getDepartmentDAO().searchDepartmentsByName(departmentSearch);
 		listDepartments(departments);
 	}
 	
 	private void handleDepartmentEmployeeList() {
 		printHeading("Department Employee List");
-		List<Department> allDepartments = departmentDAO.getAllDepartments();
+		List<Department> allDepartments = getDepartmentDAO().getAllDepartments();
 		if(allDepartments.size() > 0) {
-			System.out.println("\n*** Choose a Department ***");
+			out.println("\n*** Choose a Department ***");
 			Department selectedDepartment = (Department)menu.getChoiceFromOptions(allDepartments.toArray());
-			List<Employee> departmentEmployees = employeeDAO.getEmployeesByDepartmentId(selectedDepartment.getId());
+			List<Employee> departmentEmployees = getEmployeeDAO().getEmployeesByDepartmentId(selectedDepartment.getId());
 			listEmployees(departmentEmployees);
 		} else {
-			System.out.println("\n*** No results ***");
+			out.println("\n*** No results ***");
 		}
 	}
 
 	private void listDepartments(List<Department> departments) {
-		System.out.println();
+		out.println();
 		if(departments.size() > 0) {
 			for(Department dept : departments) {
-				System.out.println(dept.getName());
+				out.println(dept.getName());
 			}
 		} else {
-			System.out.println("\n*** No results ***");
+			out.println("\n*** No results ***");
 		}
+		reportFirstResult();
 	}
 	
 	private void handleEmployees() {
@@ -182,6 +550,8 @@ public class ProjectsCLI {
 		String choice = (String)menu.getChoiceFromOptions(EMPL_MENU_OPTIONS);
 		if(choice.equals(EMPL_MENU_OPTION_ALL_EMPLOYEES)) {
 			handleListAllEmployees();
+		} else if(choice.equals(EMPL_MENU_OPTION_ROSTER)) {
+			handleEmployeeRoster();
 		} else if(choice.equals(EMPL_MENU_OPTION_SEARCH_BY_NAME)) {
 			handleEmployeeSearch();
 		} else if(choice.equals(EMPL_MENU_OPTION_EMPLOYEES_NO_PROJECTS)) {
@@ -193,47 +563,78 @@ public class ProjectsCLI {
 
 	private void handleListAllEmployees() {
 		printHeading("All Employees");
-		List<Employee> allEmployees = employeeDAO.getAllEmployees();
-		listEmployees(allEmployees);
+		out.println();
+		int[] count = new int[1];
+		getEmployeeDAO().forEachEmployee(employee -> {
+			printEmployee(employee);
+			count[0]++;
+		});
+		if(count[0] == 0) {
+			out.println("\n*** No results ***");
+		}
+		reportFirstResult();
+	}
+
+	private void handleEmployeeRoster() {
+		printHeading("Employee Roster");
+		List<EmployeeRosterEntry> roster = getEmployeeDAO().getEmployeeRoster();
+		out.println();
+		if(roster.size() > 0) {
+			for(EmployeeRosterEntry entry : roster) {
+				String departmentName = entry.getDepartmentName() != null ? entry.getDepartmentName() : "No department";
+				out.println(entry + " (" + departmentName + ") " + String.join(", ", entry.getProjectNames()));
+			}
+		} else {
+			out.println("\n*** No results ***");
+		}
+		reportFirstResult();
 	}
 
 	private void handleEmployeeSearch() {
 		printHeading("Employee Search");
 		String firstNameSearch = getUserInput("Enter first name to search for");
 		String lastNameSearch = getUserInput("Enter last name to search for");
-		List<Employee> employees = employeeDAO.searchEmployeesByName(firstNameSearch, lastNameSearch);
+		List<Employee> employees = getEmployeeDAO().searchEmployeesByName(firstNameSearch, lastNameSearch);
 		listEmployees(employees);
 	}
 
 	private void handleUnassignedEmployeeSearch() {
 		printHeading("Unassigned Employees");
-		List<Employee> employees = employeeDAO.getEmployeesWithoutProjects();
+		List<Employee> employees = getEmployeeDAO().getEmployeesWithoutProjects();
 		listEmployees(employees);
 	}
 	
 	private void listEmployees(List<Employee> employees) {
-		System.out.println();
+		out.println();
 		if(employees.size() > 0) {
 			for(Employee emp : employees) {
-				System.out.println(emp.getLastName() + ", " + emp.getFirstName());
+				printEmployee(emp);
 			}
 		} else {
-			System.out.println("\n*** No results ***");
+			out.println("\n*** No results ***");
 		}
+		reportFirstResult();
+	}
+
+	private void printEmployee(Employee employee) {
+		out.println(employee.getLastName() + ", " + employee.getFirstName());
 	}
 	
 	private void handleChangeEmployeeDepartment() {
 		printHeading("Change Employee Department");
 		
-		System.out.println("Choose an employee to transfer:");
-		List<Employee> allEmployees = employeeDAO.getAllEmployees();
-		Employee selectedEmployee = (Employee)menu.getChoiceFromOptions(allEmployees.toArray());
+		out.println("Choose an employee to transfer:");
+		Employee selectedEmployee = getEmployeeSelectionFromUser();
 		
-		System.out.println("Choose the new department:");
-		List<Department> allDepartments = departmentDAO.getAllDepartments();
+		out.println("Choose the new department:");
+		List<Department> allDepartments = getDepartmentDAO().getAllDepartments();
 		Department selectedDepartment = (Department)menu.getChoiceFromOptions(allDepartments.toArray());
 		
-		employeeDAO.changeEmployeeDepartment(selectedEmployee.getId(), selectedDepartment.getId());
+		try {
+			getEmployeeDAO().changeEmployeeDepartment(selectedEmployee, selectedDepartment.getId());
+		} catch(OptimisticLockingFailureException e) {
+			out.println("\n*** Someone else changed that employee, please try again ***");
+		}
 	}
 
 	private void handleProjects() {
@@ -252,7 +653,7 @@ public class ProjectsCLI {
 
 	private void handleListActiveProjects() {
 		printHeading("Active Projects");
-		List<Project> projects = projectDAO.getAllActiveProjects();
+		List<Project> projects = getProjectDAO().getAllActiveProjects();
 		listProjects(projects);
 	}
 
@@ -261,14 +662,14 @@ public class ProjectsCLI {
 		
 		Project selectedProject = getProjectSelectionFromUser();
 		
-		System.out.println("Choose an employee to remove:");
-		List<Employee> projectEmployees = employeeDAO.getEmployeesByProjectId(selectedProject.getId());
+		out.println("Choose an employee to remove:");
+		List<Employee> projectEmployees = getEmployeeDAO().getEmployeesByProjectId(selectedProject.getId());
 		if(projectEmployees.size() > 0) {
 			Employee selectedEmployee = (Employee)menu.getChoiceFromOptions(projectEmployees.toArray());
-			projectDAO.removeEmployeeFromProject(selectedProject.getId(), selectedEmployee.getId());
-			System.out.println("\n*** "+selectedEmployee+" removed from "+selectedProject+" ***");
+			getProjectDAO().removeEmployeeFromProject(selectedProject.getId(), selectedEmployee.getId());
+			out.println("\n*** "+selectedEmployee+" removed from "+selectedProject+" ***");
 		} else {
-			System.out.println("\n*** No results ***");
+			out.println("\n*** No results ***");
 		}
 	}
 
@@ -277,60 +678,85 @@ public class ProjectsCLI {
 		
 		Project selectedProject = getProjectSelectionFromUser();
 		
-		System.out.println("Choose an employee to add:");
-		List<Employee> allEmployees = employeeDAO.getAllEmployees();
-		Employee selectedEmployee = (Employee)menu.getChoiceFromOptions(allEmployees.toArray());
+		out.println("Choose an employee to add:");
+		Employee selectedEmployee = getEmployeeSelectionFromUser();
 		
-		projectDAO.addEmployeeToProject(selectedProject.getId(), selectedEmployee.getId());
-		System.out.println("\n*** "+selectedEmployee+" added to "+selectedProject+" ***");
+		getProjectDAO().addEmployeeToProject(selectedProject.getId(), selectedEmployee.getId());
+		out.println("\n*** "+selectedEmployee+" added to "+selectedProject+" ***");
 	}
 	
 	private void handleProjectEmployeeList() {
 		Project selectedProject = getProjectSelectionFromUser();
-		List<Employee> projectEmployees = employeeDAO.getEmployeesByProjectId(selectedProject.getId());
+		List<Employee> projectEmployees = getEmployeeDAO().getEmployeesByProjectId(selectedProject.getId());
 		listEmployees(projectEmployees);
 	}
 
+	private Employee getEmployeeSelectionFromUser() {
+		return menu.getChoiceFromPages(
+				(lastNamePrefix, after, pageSize) -> getEmployeeDAO().getEmployeePage(lastNamePrefix, after, pageSize),
+				EMPLOYEE_PAGE_SIZE);
+	}
+
 	private Project getProjectSelectionFromUser() {
-		System.out.println("Choose a project:");
-		List<Project> allProjects = projectDAO.getAllActiveProjects();
+		out.println("Choose a project:");
+		List<Project> allProjects = getProjectDAO().getAllActiveProjects();
 		return (Project)menu.getChoiceFromOptions(allProjects.toArray());
 	}
 	
 	private void listProjects(List<Project> projects) {
-		System.out.println();
+		out.println();
 		if(projects.size() > 0) {
 			for(Project proj : projects) {
-				System.out.println(proj.getName());
+				out.println(proj.getName());
 			}
 		} else {
-			System.out.println("\n*** No results ***");
+			out.println("\n*** No results ***");
+		}
+		reportFirstResult();
+	}
+
+	private void reportFirstResult() {
+		if(!firstResultReported) {
+			firstResultReported = true;
+			printTiming("first result");
+		}
+	}
+
+	/**
+	 * With -Dprojects.timing=true, prints how long after JVM start the given
+	 * milestone was reached.
+	 */
+	private void printTiming(String milestone) {
+		if(reportTiming) {
+			long sinceStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+			out.println("[timing] " + milestone + " after " + sinceStart + " ms");
 		}
 	}
 
 	private void printHeading(String headingText) {
-		System.out.println("\n"+headingText);
+		out.println("\n"+headingText);
 		for(int i = 0; i < headingText.length(); i++) {
-			System.out.print("-");
+			out.print("-");
 		}
-		System.out.println();
+		out.println();
 	}
 	
 	@SuppressWarnings("resource")
 	private String getUserInput(String prompt) {
-		System.out.print(prompt + " >>> ");
+		out.print(prompt + " >>> ");
+		out.flush();
 		return new Scanner(System.in).nextLine();
 	}
 
 	private void displayApplicationBanner() {
-		System.out.println(" ______                 _                         _____           _           _     _____  ____");
-		System.out.println("|  ____|               | |                       |  __ \\         (_)         | |   |  __ \\|  _ \\");
-		System.out.println("| |__   _ __ ___  _ __ | | ___  _   _  ___  ___  | |__) | __ ___  _  ___  ___| |_  | |  | | |_) |");
-		System.out.println("|  __| | '_ ` _ \\| '_ \\| |/ _ \\| | | |/ _ \\/ _ \\ |  ___/ '__/ _ \\| |/ _ \\/ __| __| | |  | |  _ <");
-		System.out.println("| |____| | | | | | |_) | | (_) | |_| |  __/  __/ | |   | | | (_) | |  __/ (__| |_  | |__| | |_) |");
-		System.out.println("|______|_| |_| |_| .__/|_|\\___/ \\__, |\\___|\\___| |_|   |_|  \\___/| |\\___|\\___|\\__| |_____/|____/");
-		System.out.println("                 | |             __/ |                          _/ |");
-		System.out.println("                 |_|            |___/                          |__/");
-		System.out.println();
+		out.println(" ______                 _                         _____           _           _     _____  ____");
+		out.println("|  ____|               | |                       |  __ \\         (_)         | |   |  __ \\|  _ \\");
+		out.println("| |__   _ __ ___  _ __ | | ___  _   _  ___  ___  | |__) | __ ___  _  ___  ___| |_  | |  | | |_) |");
+		out.println("|  __| | '_ ` _ \\| '_ \\| |/ _ \\| | | |/ _ \\/ _ \\ |  ___/ '__/ _ \\| |/ _ \\/ __| __| | |  | |  _ <");
+		out.println("| |____| | | | | | |_) | | (_) | |_| |  __/  __/ | |   | | | (_) | |  __/ (__| |_  | |__| | |_) |");
+		out.println("|______|_| |_| |_| .__/|_|\\___/ \\__, |\\___|\\___| |_|   |_|  \\___/| |\\___|\\___|\\__| |_____/|____/");
+		out.println("                 | |             __/ |                          _/ |");
+		out.println("                 |_|            |___/                          |__/");
+		out.println();
 	}
 }
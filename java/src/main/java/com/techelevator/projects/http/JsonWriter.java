@@ -0,0 +1,152 @@
+package com.techelevator.projects.http;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Writes JSON straight to a {@link Writer} as values are added, so a list
+ * can be sent to the client while it is still being read from the database.
+ * It only keeps track of where commas go; it does not check that names and
+ * values are used in a valid order.
+ */
+public class JsonWriter {
+
+	private Writer out;
+	// One entry per open object or array: true until its first member is written.
+	private Deque<Boolean> firstInScope = new ArrayDeque<>();
+	private boolean afterName;
+
+	public JsonWriter(Writer out) {
+		this.out = out;
+	}
+
+	public JsonWriter beginObject() throws IOException {
+		beforeValue();
+		out.write('{');
+		firstInScope.push(true);
+		return this;
+	}
+
+	public JsonWriter endObject() throws IOException {
+		firstInScope.pop();
+		out.write('}');
+		return this;
+	}
+
+	public JsonWriter beginArray() throws IOException {
+		beforeValue();
+		out.write('[');
+		firstInScope.push(true);
+		return this;
+	}
+
+	public JsonWriter endArray() throws IOException {
+		firstInScope.pop();
+		out.write(']');
+		return this;
+	}
+
+	public JsonWriter name(String name) throws IOException {
+		beforeValue();
+		writeString(name);
+		out.write(':');
+		afterName = true;
+		return this;
+	}
+
+	public JsonWriter value(String value) throws IOException {
+		if (value == null) {
+			return nullValue();
+		}
+		beforeValue();
+		writeString(value);
+		return this;
+	}
+
+	public JsonWriter value(Number value) throws IOException {
+		if (value == null) {
+			return nullValue();
+		}
+		beforeValue();
+		out.write(value.toString());
+		return this;
+	}
+
+	public JsonWriter value(long value) throws IOException {
+		beforeValue();
+		out.write(Long.toString(value));
+		return this;
+	}
+
+	public JsonWriter value(boolean value) throws IOException {
+		beforeValue();
+		out.write(value ? "true" : "false");
+		return this;
+	}
+
+	/**
+	 * Dates are written as ISO-8601 strings, e.g. "2017-03-01".
+	 */
+	public JsonWriter value(LocalDate value) throws IOException {
+		return value(value == null ? null : value.toString());
+	}
+
+	public JsonWriter nullValue() throws IOException {
+		beforeValue();
+		out.write("null");
+		return this;
+	}
+
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	private void beforeValue() throws IOException {
+		if (afterName) {
+			afterName = false;
+			return;
+		}
+		if (!firstInScope.isEmpty()) {
+			if (firstInScope.peek()) {
+				firstInScope.pop();
+				firstInScope.push(false);
+			} else {
+				out.write(',');
+			}
+		}
+	}
+
+	private void writeString(String value) throws IOException {
+		out.write('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				out.write("\\\"");
+				break;
+			case '\\':
+				out.write("\\\\");
+				break;
+			case '\n':
+				out.write("\\n");
+				break;
+			case '\r':
+				out.write("\\r");
+				break;
+			case '\t':
+				out.write("\\t");
+				break;
+			default:
+				if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+					out.write(String.format("\\u%04x", (int) c));
+				} else {
+					out.write(c);
+				}
+			}
+		}
+		out.write('"');
+	}
+}
@@ -0,0 +1,479 @@
+package com.techelevator.projects.http;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.dao.IncorrectUpdateSemanticsDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.TransientDataAccessException;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.techelevator.projects.model.Department;
+import com.techelevator.projects.model.DepartmentDAO;
+import com.techelevator.projects.model.Employee;
+import com.techelevator.projects.model.EmployeeDAO;
+import com.techelevator.projects.model.Project;
+import com.techelevator.projects.model.ProjectDAO;
+import com.techelevator.projects.model.ProjectTimeline;
+import com.techelevator.projects.model.SearchDAO;
+import com.techelevator.projects.model.SearchHit;
+
+/**
+ * Serves the DAOs as JSON over HTTP using the JDK's built-in server.
+ *
+ * <pre>
+ * GET    /departments[?name=pattern]
+ * GET    /departments/{id}
+ * POST   /departments?name=...
+ * PUT    /departments/{id}?name=...&amp;version=n
+ * GET    /employees[?firstName=pattern&amp;lastName=pattern | ?departmentId=id | ?projectId=id | ?unassigned=true]
+ * PUT    /employees/{id}/department?departmentId=id[&amp;version=n]
+ * GET    /projects[?all=true | ?activeFrom=yyyy-mm-dd[&amp;activeTo=yyyy-mm-dd]]
+ * GET    /projects/active-counts?from=yyyy-mm-dd&amp;to=yyyy-mm-dd
+ * PUT    /projects/{id}/employees/{employeeId}
+ * DELETE /projects/{id}/employees/{employeeId}
+ * GET    /search?q=text[&amp;limit=n]
+ * </pre>
+ *
+ * Lists are written to the response as they are produced, using chunked
+ * encoding, rather than being built up in memory first. Writes take their
+ * arguments from the query string. Errors are returned as
+ * {@code {"error": "..."}} with a 400, 404, 405 or 409 status, or a 503
+ * when the database timed out or is being avoided for a while and the
+ * request is worth trying again later. Anything else is a 500. The 500 and
+ * 503 responses carry a fixed message, since the exception behind them can
+ * hold SQL and driver details; those are logged instead.
+ *
+ * Requests are handled by a fixed number of threads with a bounded queue in
+ * front of them. When the queue is full the server's own dispatcher thread
+ * runs the request, which stops it accepting new connections until it is
+ * done; clients see that as back pressure rather than as errors.
+ */
+public class ProjectsHttpServer {
+
+	private static final Logger LOG = Logger.getLogger(ProjectsHttpServer.class.getName());
+	private static final String JSON = "application/json; charset=utf-8";
+	private static final int NOT_FOUND = 404;
+	private static final int DEFAULT_SEARCH_LIMIT = 10;
+	private static final int MAX_SEARCH_LIMIT = 100;
+	// Each day counted costs an array slot and a line of output, so a
+	// request can't ask for centuries of them.
+	private static final long MAX_COUNT_DAYS = 3660;
+
+	static {
+		// A chunked response goes out as several small packets, and without
+		// TCP_NODELAY the last one waits for the client's delayed ACK: about
+		// 40 ms on every request. The JDK server reads this once, when its
+		// first instance is created.
+		if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+		}
+	}
+
+	private DepartmentDAO departmentDAO;
+	private EmployeeDAO employeeDAO;
+	private ProjectDAO projectDAO;
+	private SearchDAO searchDAO;
+	private HttpServer server;
+	private ThreadPoolExecutor executor;
+
+	public ProjectsHttpServer(DepartmentDAO departmentDAO, EmployeeDAO employeeDAO, ProjectDAO projectDAO,
+							  SearchDAO searchDAO, int port, int threads, int queueCapacity) throws IOException {
+		this.departmentDAO = departmentDAO;
+		this.employeeDAO = employeeDAO;
+		this.projectDAO = projectDAO;
+		this.searchDAO = searchDAO;
+
+		AtomicInteger threadNumber = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity),
+				runnable -> {
+					Thread thread = new Thread(runnable, "projects-http-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				},
+				new ThreadPoolExecutor.CallerRunsPolicy());
+
+		this.server = HttpServer.create(new InetSocketAddress(port), 0);
+		this.server.createContext("/departments", exchange -> handle(exchange, this::departments));
+		this.server.createContext("/employees", exchange -> handle(exchange, this::employees));
+		this.server.createContext("/projects", exchange -> handle(exchange, this::projects));
+		this.server.createContext("/search", exchange -> handle(exchange, this::search));
+		this.server.setExecutor(executor);
+	}
+
+	public void start() {
+		server.start();
+	}
+
+	/**
+	 * Stops accepting requests, gives the ones in progress up to
+	 * {@code delaySeconds} to finish and then shuts the worker threads down.
+	 */
+	public void stop(int delaySeconds) {
+		server.stop(delaySeconds);
+		executor.shutdownNow();
+	}
+
+	/**
+	 * @return the port the server is listening on, useful when it was
+	 *         created with port 0
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	private interface Handler {
+		void handle(Request request) throws IOException;
+	}
+
+	private void handle(HttpExchange exchange, Handler handler) throws IOException {
+		try {
+			Request request = new Request(exchange);
+			if (!request.path[0].equals(exchange.getHttpContext().getPath().substring(1))) {
+				throw new HttpError(NOT_FOUND, "Nothing at " + exchange.getRequestURI().getPath());
+			}
+			handler.handle(request);
+			request.finish();
+		} catch (HttpError e) {
+			sendError(exchange, e.status, e.getMessage());
+		} catch (NumberFormatException e) {
+			sendError(exchange, 400, "Not a number: " + e.getMessage());
+		} catch (DateTimeParseException e) {
+			sendError(exchange, 400, "Not a date (yyyy-mm-dd): " + e.getParsedString());
+		} catch (OptimisticLockingFailureException e) {
+			sendError(exchange, 409, e.getMessage());
+		} catch (TransientDataAccessException e) {
+			LOG.log(Level.WARNING, describe(exchange) + " could not reach the database", e);
+			sendError(exchange, 503, "The database is not available, try again later");
+		} catch (RuntimeException e) {
+			LOG.log(Level.SEVERE, describe(exchange) + " failed", e);
+			sendError(exchange, 500, "Internal server error");
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private void departments(Request request) throws IOException {
+		String[] path = request.path;
+		if (path.length == 1 && request.isGet()) {
+			String name = request.parameter("name");
+			List<Department> departments = name != null ? departmentDAO.searchDepartmentsByName(name)
+					: departmentDAO.getAllDepartments();
+			JsonWriter json = request.startJson(200);
+			json.beginArray();
+			for (Department department : departments) {
+				writeDepartment(json, department);
+			}
+			json.endArray();
+		} else if (path.length == 1 && request.isMethod("POST")) {
+			Department department = new Department();
+			department.setName(request.requiredParameter("name"));
+			writeDepartment(request.startJson(201), departmentDAO.createDepartment(department));
+		} else if (path.length == 2 && request.isGet()) {
+			Department department = departmentDAO.getDepartmentById(Long.valueOf(path[1]));
+			if (department == null) {
+				throw new HttpError(NOT_FOUND, "No department " + path[1]);
+			}
+			writeDepartment(request.startJson(200), department);
+		} else if (path.length == 2 && request.isMethod("PUT")) {
+			Department department = new Department();
+			department.setId(Long.valueOf(path[1]));
+			department.setName(request.requiredParameter("name"));
+			String version = request.parameter("version");
+			if (version != null) {
+				department.setVersion(Integer.valueOf(version));
+			}
+			try {
+				departmentDAO.saveDepartment(department);
+			} catch (IncorrectUpdateSemanticsDataAccessException e) {
+				// Saved without a version and nothing was updated
+				throw new HttpError(NOT_FOUND, "No department " + path[1]);
+			}
+			writeDepartment(request.startJson(200), department);
+		} else {
+			throw request.notAllowed();
+		}
+	}
+
+	private void employees(Request request) throws IOException {
+		String[] path = request.path;
+		if (path.length == 1 && request.isGet()) {
+			JsonWriter json;
+			if (request.parameter("departmentId") != null) {
+				json = writeEmployees(request, employeeDAO.getEmployeesByDepartmentId(Long.parseLong(request.parameter("departmentId"))));
+			} else if (request.parameter("projectId") != null) {
+				json = writeEmployees(request, employeeDAO.getEmployeesByProjectId(Long.valueOf(request.parameter("projectId"))));
+			} else if ("true".equals(request.parameter("unassigned"))) {
+				json = writeEmployees(request, employeeDAO.getEmployeesWithoutProjects());
+			} else if (request.parameter("firstName") != null || request.parameter("lastName") != null) {
+				String firstName = request.parameter("firstName");
+				String lastName = request.parameter("lastName");
+				json = writeEmployees(request, employeeDAO.searchEmployeesByName(firstName != null ? firstName : "%",
+						lastName != null ? lastName : "%"));
+			} else {
+				JsonWriter streamed = request.startJson(200);
+				streamed.beginArray();
+				employeeDAO.forEachEmployee(employee -> {
+					try {
+						writeEmployee(streamed, employee);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+				json = streamed;
+			}
+			json.endArray();
+		} else if (path.length == 3 && path[2].equals("department") && request.isMethod("PUT")) {
+			Long employeeId = Long.valueOf(path[1]);
+			Long departmentId = Long.valueOf(request.requiredParameter("departmentId"));
+			String version = request.parameter("version");
+			if (version != null) {
+				Employee employee = new Employee();
+				employee.setId(employeeId);
+				employee.setVersion(Integer.valueOf(version));
+				employeeDAO.changeEmployeeDepartment(employee, departmentId);
+			} else {
+				employeeDAO.changeEmployeeDepartment(employeeId, departmentId);
+			}
+			request.sendEmpty(204);
+		} else {
+			throw request.notAllowed();
+		}
+	}
+
+	private void projects(Request request) throws IOException {
+		String[] path = request.path;
+		if (path.length == 1 && request.isGet()) {
+			List<Project> projects;
+			String activeFrom = request.parameter("activeFrom");
+			if (activeFrom != null) {
+				String activeTo = request.parameter("activeTo");
+				projects = new ProjectTimeline(projectDAO.getAllProjects()).getActiveBetween(LocalDate.parse(activeFrom),
+						LocalDate.parse(activeTo != null ? activeTo : activeFrom));
+			} else if ("true".equals(request.parameter("all"))) {
+				projects = projectDAO.getAllProjects();
+			} else {
+				projects = projectDAO.getAllActiveProjects();
+			}
+			JsonWriter json = request.startJson(200);
+			json.beginArray();
+			for (Project project : projects) {
+				json.beginObject()
+					.name("id").value(project.getId())
+					.name("name").value(project.getName())
+					.name("startDate").value(project.getStartDate())
+					.name("endDate").value(project.getEndDate())
+					.endObject();
+			}
+			json.endArray();
+		} else if (path.length == 2 && path[1].equals("active-counts") && request.isGet()) {
+			LocalDate from = LocalDate.parse(request.requiredParameter("from"));
+			LocalDate to = LocalDate.parse(request.requiredParameter("to"));
+			if (to.isBefore(from)) {
+				throw new HttpError(400, "'to' is before 'from'");
+			}
+			if (ChronoUnit.DAYS.between(from, to) >= MAX_COUNT_DAYS) {
+				throw new HttpError(400, "Counts cover at most " + MAX_COUNT_DAYS + " days");
+			}
+			int[] counts = new ProjectTimeline(projectDAO.getAllProjects()).countActivePerDay(from, to);
+			JsonWriter json = request.startJson(200);
+			json.beginArray();
+			for (int day = 0; day < counts.length; day++) {
+				json.beginObject()
+					.name("date").value(from.plusDays(day))
+					.name("count").value(counts[day])
+					.endObject();
+			}
+			json.endArray();
+		} else if (path.length == 4 && path[2].equals("employees")
+				&& (request.isMethod("PUT") || request.isMethod("DELETE"))) {
+			Long projectId = Long.valueOf(path[1]);
+			Long employeeId = Long.valueOf(path[3]);
+			if (request.isMethod("PUT")) {
+				projectDAO.addEmployeeToProject(projectId, employeeId);
+			} else {
+				projectDAO.removeEmployeeFromProject(projectId, employeeId);
+			}
+			request.sendEmpty(204);
+		} else {
+			throw request.notAllowed();
+		}
+	}
+
+	private void search(Request request) throws IOException {
+		if (request.path.length != 1 || !request.isGet()) {
+			throw request.notAllowed();
+		}
+		String limit = request.parameter("limit");
+		List<SearchHit> hits = searchDAO.search(request.requiredParameter("q"),
+				limit == null ? DEFAULT_SEARCH_LIMIT : Math.min(Integer.parseInt(limit), MAX_SEARCH_LIMIT));
+		JsonWriter json = request.startJson(200);
+		json.beginArray();
+		for (SearchHit hit : hits) {
+			json.beginObject()
+				.name("kind").value(hit.getKind().name().toLowerCase(Locale.ROOT))
+				.name("id").value(hit.getId())
+				.name("label").value(hit.getLabel())
+				.name("rank").value(hit.getRank())
+				.endObject();
+		}
+		json.endArray();
+	}
+
+	private JsonWriter writeEmployees(Request request, List<Employee> employees) throws IOException {
+		JsonWriter json = request.startJson(200);
+		json.beginArray();
+		for (Employee employee : employees) {
+			writeEmployee(json, employee);
+		}
+		return json;
+	}
+
+	private static void writeDepartment(JsonWriter json, Department department) throws IOException {
+		json.beginObject()
+			.name("id").value(department.getId())
+			.name("name").value(department.getName())
+			.name("version").value(department.getVersion())
+			.endObject();
+	}
+
+	private static void writeEmployee(JsonWriter json, Employee employee) throws IOException {
+		json.beginObject()
+			.name("id").value(employee.getId())
+			.name("departmentId").value(employee.getDepartmentId())
+			.name("firstName").value(employee.getFirstName())
+			.name("lastName").value(employee.getLastName())
+			.name("birthDate").value(employee.getBirthDay())
+			.name("gender").value(String.valueOf(employee.getGender()))
+			.name("hireDate").value(employee.getHireDate())
+			.name("version").value(employee.getVersion())
+			.endObject();
+	}
+
+	private static String describe(HttpExchange exchange) {
+		return exchange.getRequestMethod() + " " + exchange.getRequestURI();
+	}
+
+	private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+		if (exchange.getResponseCode() != -1) {
+			// Part of the body has already gone out; all we can do is cut it short.
+			return;
+		}
+		JsonWriter json = startJson(exchange, status);
+		json.beginObject().name("error").value(message).endObject();
+		json.flush();
+	}
+
+	private static JsonWriter startJson(HttpExchange exchange, int status) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", JSON);
+		exchange.sendResponseHeaders(status, 0);
+		return new JsonWriter(new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * One exchange plus its parsed path and query string. The JSON writer
+	 * it hands out is flushed by {@link #finish()}.
+	 */
+	private static class Request {
+
+		private HttpExchange exchange;
+		private String[] path;
+		private Map<String, String> parameters = new HashMap<>();
+		private JsonWriter json;
+
+		Request(HttpExchange exchange) throws UnsupportedEncodingException {
+			this.exchange = exchange;
+			String rawPath = exchange.getRequestURI().getPath();
+			this.path = rawPath.replaceAll("^/+|/+$", "").split("/+");
+			String query = exchange.getRequestURI().getRawQuery();
+			if (query != null) {
+				for (String pair : query.split("&")) {
+					int equals = pair.indexOf('=');
+					if (equals > 0) {
+						parameters.put(decode(pair.substring(0, equals)), decode(pair.substring(equals + 1)));
+					}
+				}
+			}
+		}
+
+		private static String decode(String text) throws UnsupportedEncodingException {
+			try {
+				return URLDecoder.decode(text, "UTF-8");
+			} catch (IllegalArgumentException e) {
+				throw new HttpError(400, "Malformed percent-encoding in the query string");
+			}
+		}
+
+		boolean isGet() {
+			return isMethod("GET");
+		}
+
+		boolean isMethod(String method) {
+			return exchange.getRequestMethod().equalsIgnoreCase(method);
+		}
+
+		String parameter(String name) {
+			return parameters.get(name);
+		}
+
+		String requiredParameter(String name) {
+			String value = parameters.get(name);
+			if (value == null || value.isEmpty()) {
+				throw new HttpError(400, "Missing parameter '" + name + "'");
+			}
+			return value;
+		}
+
+		JsonWriter startJson(int status) throws IOException {
+			json = ProjectsHttpServer.startJson(exchange, status);
+			return json;
+		}
+
+		void finish() throws IOException {
+			if (json != null) {
+				json.flush();
+			}
+		}
+
+		void sendEmpty(int status) throws IOException {
+			exchange.sendResponseHeaders(status, -1);
+		}
+
+		HttpError notAllowed() {
+			return new HttpError(405, exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath() + " is not supported");
+		}
+	}
+
+	private static class HttpError extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		private int status;
+
+		HttpError(int status, String message) {
+			super(message);
+			this.status = status;
+		}
+	}
+}
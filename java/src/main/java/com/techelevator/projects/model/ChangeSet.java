@@ -0,0 +1,73 @@
+package com.techelevator.projects.model;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Everything written to the datastore after a change token, as returned by
+ * {@link ChangeTrackingDAO#changesSince(long)}. Rows hold their current
+ * values, not the values at the time of each change. The same row may show
+ * up again in the next change set, so consumers should apply rows as
+ * upserts.
+ */
+public class ChangeSet {
+
+	private long nextToken;
+	private Instant readAt;
+	private List<Department> departments;
+	private List<Project> projects;
+	private List<Employee> employees;
+	private ProjectAssignmentStore addedAssignments;
+	private ProjectAssignmentStore removedAssignments;
+
+	public ChangeSet(long nextToken, Instant readAt, List<Department> departments, List<Project> projects,
+			List<Employee> employees, ProjectAssignmentStore addedAssignments,
+			ProjectAssignmentStore removedAssignments) {
+		this.nextToken = nextToken;
+		this.readAt = readAt;
+		this.departments = departments;
+		this.projects = projects;
+		this.employees = employees;
+		this.addedAssignments = addedAssignments;
+		this.removedAssignments = removedAssignments;
+	}
+
+	/**
+	 * @return the token to pass to the next {@code changesSince} call
+	 */
+	public long getNextToken() {
+		return nextToken;
+	}
+	/**
+	 * @return the database time the changes were read at
+	 */
+	public Instant getReadAt() {
+		return readAt;
+	}
+	public List<Department> getDepartments() {
+		return departments;
+	}
+	public List<Project> getProjects() {
+		return projects;
+	}
+	public List<Employee> getEmployees() {
+		return employees;
+	}
+	/**
+	 * @return assignments that exist now and were written since the token
+	 */
+	public ProjectAssignmentStore getAddedAssignments() {
+		return addedAssignments;
+	}
+	/**
+	 * @return assignments that were deleted since the token and don't exist
+	 *         now
+	 */
+	public ProjectAssignmentStore getRemovedAssignments() {
+		return removedAssignments;
+	}
+	public boolean isEmpty() {
+		return departments.isEmpty() && projects.isEmpty() && employees.isEmpty()
+				&& addedAssignments.size() == 0 && removedAssignments.size() == 0;
+	}
+}
@@ -0,0 +1,33 @@
+package com.techelevator.projects.model;
+
+public interface ChangeTrackingDAO {
+
+	/**
+	 * Get a token that marks the current position in the datastore's change
+	 * history. Pass it to {@link #changesSince(long)} later to find out what
+	 * has been written since.
+	 * 
+	 * @return the current change token
+	 */
+	public long getCurrentChangeToken();
+
+	/**
+	 * Get every department, project, employee and project assignment that
+	 * was written after the token was taken, plus the assignments that were
+	 * deleted. Changes are never missed, but a change may be returned again
+	 * by the following call.
+	 * 
+	 * @param token a token from {@link #getCurrentChangeToken()} or from
+	 *        {@link ChangeSet#getNextToken()}
+	 * @return the changes, with the token to use next time
+	 */
+	public ChangeSet changesSince(long token);
+
+	/**
+	 * Forget deleted assignments that happened before the token. Only call
+	 * this with a token every consumer has already moved past.
+	 * 
+	 * @param token the oldest token any consumer still holds
+	 */
+	public void purgeTombstonesBefore(long token);
+}
@@ -0,0 +1,114 @@
+package com.techelevator.projects.model;
+
+import java.time.LocalDate;
+
+/**
+ * An immutable, memory-light copy of an {@link Employee} meant for holding
+ * large numbers of employees in memory. Ids are primitive ints, dates are
+ * stored as epoch days and the gender as a single char. An employee with no
+ * department has a department id of {@link #NO_DEPARTMENT}, the same 0 the
+ * JDBC DAO puts on an {@code Employee} without one.
+ */
+public final class CompactEmployee {
+
+	public static final int NO_DEPARTMENT = 0;
+
+	private final int id;
+	private final int departmentId;
+	private final int birthEpochDay;
+	private final int hireEpochDay;
+	private final char gender;
+	private final String firstName;
+	private final String lastName;
+
+	public CompactEmployee(int id, int departmentId, String firstName, String lastName, int birthEpochDay,
+			char gender, int hireEpochDay) {
+		this.id = id;
+		this.departmentId = departmentId;
+		this.firstName = firstName;
+		this.lastName = lastName;
+		this.birthEpochDay = birthEpochDay;
+		this.gender = gender;
+		this.hireEpochDay = hireEpochDay;
+	}
+
+	public static CompactEmployee from(Employee employee) {
+		return new CompactEmployee(employee.getId().intValue(),
+				(int) employee.getDepartmentId(),
+				employee.getFirstName(),
+				employee.getLastName(),
+				(int) employee.getBirthDay().toEpochDay(),
+				employee.getGender(),
+				(int) employee.getHireDate().toEpochDay());
+	}
+
+	public Employee toEmployee() {
+		Employee e = new Employee();
+		e.setId((long) id);
+		e.setDepartmentId((long) departmentId);
+		e.setFirstName(firstName);
+		e.setLastName(lastName);
+		e.setBirthDay(getBirthDay());
+		e.setGender(gender);
+		e.setHireDate(getHireDate());
+		return e;
+	}
+
+	public int getId() {
+		return id;
+	}
+	public int getDepartmentId() {
+		return departmentId;
+	}
+	public boolean hasDepartment() {
+		return departmentId != NO_DEPARTMENT;
+	}
+	public String getFirstName() {
+		return firstName;
+	}
+	public String getLastName() {
+		return lastName;
+	}
+	public int getBirthEpochDay() {
+		return birthEpochDay;
+	}
+	public LocalDate getBirthDay() {
+		return LocalDate.ofEpochDay(birthEpochDay);
+	}
+	public char getGender() {
+		return gender;
+	}
+	public int getHireEpochDay() {
+		return hireEpochDay;
+	}
+	public LocalDate getHireDate() {
+		return LocalDate.ofEpochDay(hireEpochDay);
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof CompactEmployee)) {
+			return false;
+		}
+		CompactEmployee that = (CompactEmployee) other;
+		return id == that.id
+				&& departmentId == that.departmentId
+				&& birthEpochDay == that.birthEpochDay
+				&& hireEpochDay == that.hireEpochDay
+				&& gender == that.gender
+				&& firstName.equals(that.firstName)
+				&& lastName.equals(that.lastName);
+	}
+
+	@Override
+	public int hashCode() {
+		return id;
+	}
+
+	public String toString() {
+		return lastName + ", " + firstName;
+	}
+}
@@ -4,6 +4,7 @@ public class Department {
 
 	private Long id;
 	private String name;
+	private Integer version;
 
 	public String getName() {
 		return name;
@@ -21,6 +22,19 @@ public class Department {
 		this.id = id;
 	}
 	
+	/**
+	 * The row version this object was read at, used to detect concurrent
+	 * updates. Null for a department that hasn't been read from or saved to
+	 * the datastore.
+	 */
+	public Integer getVersion() {
+		return version;
+	}
+	
+	public void setVersion(Integer version) {
+		this.version = version;
+	}
+	
 	public String toString() {
 		return this.name;
 	}
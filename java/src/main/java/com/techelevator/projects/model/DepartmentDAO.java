@@ -1,5 +1,6 @@
 package com.techelevator.projects.model;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface DepartmentDAO {
@@ -15,16 +16,30 @@ public interface DepartmentDAO {
 	 * Get all the departments whose name contains the search string. Remember
 	 * to use LIKE or ILIKE to do a fuzzy match on the search.
 	 * 
-	 * @param nameSearch the search string to look for in the department name
+	 * @param nameSearch the search string to look for in the department
+	 *        name; null matches nothing
 	 * @return all matching departments as Department objects in a List
 	 */
 	public List<Department> searchDepartmentsByName(String nameSearch);
 
 	/**
 	 * Update a department to the datastore. Only called on departments that
-	 * are already in the datastore.
+	 * are already in the datastore; saving one that isn't fails rather than
+	 * silently writing nothing.
+	 * <p>
+	 * If the department has a version, the update only succeeds if nobody
+	 * else has saved the department since it was read, and the object's
+	 * version is bumped to match.
+	 * <p>
+	 * Versioned writes all follow the same rule: a department without a
+	 * version is saved unconditionally, and its version stays null because
+	 * the new one isn't known.
 	 * 
 	 * @param updatedDepartment the department object to update
+	 * @throws org.springframework.dao.OptimisticLockingFailureException if
+	 *         the department was changed by someone else since it was read
+	 * @throws org.springframework.dao.IncorrectUpdateSemanticsDataAccessException
+	 *         if a department saved without a version doesn't exist
 	 */
 	public void saveDepartment(Department updatedDepartment);
 
@@ -43,4 +58,15 @@ public interface DepartmentDAO {
 	 * @return a filled out department object
 	 */
 	public Department getDepartmentById(Long id);
+
+	/**
+	 * Get every department whose id is in the given ids with as few queries
+	 * as possible. Use this instead of calling {@link #getDepartmentById(Long)}
+	 * in a loop. Ids that don't exist are skipped and the order of the result
+	 * is not guaranteed.
+	 * 
+	 * @param ids the department ids to get from the datastore
+	 * @return the matching departments as Department objects in a List
+	 */
+	public List<Department> getDepartmentsByIds(Collection<Long> ids);
 }
@@ -10,6 +10,7 @@ public class Employee {
 	private LocalDate birthDay;
 	private char gender;
 	private LocalDate hireDate;
+	private Integer version;
 	
 	public Long getId() {
 		return employeeId;
@@ -53,6 +54,12 @@ public class Employee {
 	public void setHireDate(LocalDate hireDate) {
 		this.hireDate = hireDate;
 	}
+	public Integer getVersion() {
+		return version;
+	}
+	public void setVersion(Integer version) {
+		this.version = version;
+	}
 	public String toString() {
 		return lastName + ", " + firstName;
 	}
@@ -0,0 +1,274 @@
+package com.techelevator.projects.model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A read-only, column-oriented copy of the employee table for analytic
+ * scans. Each attribute lives in its own primitive array (ids, department
+ * ids, birth and hire dates as epoch days) and gender is one bit per row, so
+ * filters and counts run as tight loops over contiguous memory that the JIT
+ * can unroll and vectorize. Names aren't kept; look employees up by id when
+ * you need them.
+ * <p>
+ * Rows without a department have a department id of
+ * {@link CompactEmployee#NO_DEPARTMENT}.
+ */
+public final class EmployeeColumnStore {
+
+	private final int size;
+	private final int[] ids;
+	private final int[] departmentIds;
+	private final int[] birthEpochDays;
+	private final int[] hireEpochDays;
+	private final long[] femaleBits;
+
+	private EmployeeColumnStore(int size, int[] ids, int[] departmentIds, int[] birthEpochDays, int[] hireEpochDays,
+			long[] femaleBits) {
+		this.size = size;
+		this.ids = ids;
+		this.departmentIds = departmentIds;
+		this.birthEpochDays = birthEpochDays;
+		this.hireEpochDays = hireEpochDays;
+		this.femaleBits = femaleBits;
+	}
+
+	/**
+	 * Join several stores into one, in the order given.
+	 */
+	public static EmployeeColumnStore concat(List<EmployeeColumnStore> stores) {
+		int total = 0;
+		for (EmployeeColumnStore store : stores) {
+			total += store.size;
+		}
+		int[] ids = new int[total];
+		int[] departmentIds = new int[total];
+		int[] birthEpochDays = new int[total];
+		int[] hireEpochDays = new int[total];
+		long[] femaleBits = new long[(total + 63) >>> 6];
+		int offset = 0;
+		for (EmployeeColumnStore store : stores) {
+			System.arraycopy(store.ids, 0, ids, offset, store.size);
+			System.arraycopy(store.departmentIds, 0, departmentIds, offset, store.size);
+			System.arraycopy(store.birthEpochDays, 0, birthEpochDays, offset, store.size);
+			System.arraycopy(store.hireEpochDays, 0, hireEpochDays, offset, store.size);
+			copyBits(store.femaleBits, store.size, femaleBits, offset);
+			offset += store.size;
+		}
+		return new EmployeeColumnStore(total, ids, departmentIds, birthEpochDays, hireEpochDays, femaleBits);
+	}
+
+	/*
+	 * Copies the first count bits of source into target from bit offset on;
+	 * the target bits must still be clear. Whole words are copied when the
+	 * offset is on a word boundary, otherwise each word is shifted into the
+	 * two words it straddles. Bits past count are always clear in a store.
+	 */
+	private static void copyBits(long[] source, int count, long[] target, int offset) {
+		int words = (count + 63) >>> 6;
+		int firstWord = offset >>> 6;
+		int shift = offset & 63;
+		if (shift == 0) {
+			System.arraycopy(source, 0, target, firstWord, words);
+			return;
+		}
+		for (int i = 0; i < words; i++) {
+			target[firstWord + i] |= source[i] << shift;
+			if (firstWord + i + 1 < target.length) {
+				target[firstWord + i + 1] |= source[i] >>> (64 - shift);
+			}
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getId(int row) {
+		return ids[row];
+	}
+
+	public int getDepartmentId(int row) {
+		return departmentIds[row];
+	}
+
+	public int getBirthEpochDay(int row) {
+		return birthEpochDays[row];
+	}
+
+	public int getHireEpochDay(int row) {
+		return hireEpochDays[row];
+	}
+
+	public char getGender(int row) {
+		return isFemale(row) ? 'F' : 'M';
+	}
+
+	private boolean isFemale(int row) {
+		return (femaleBits[row >>> 6] & (1L << row)) != 0;
+	}
+
+	/**
+	 * @return how many employees were hired strictly before the given date
+	 */
+	public int countHiredBefore(LocalDate date) {
+		int day = (int) date.toEpochDay();
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			count += hireEpochDays[i] < day ? 1 : 0;
+		}
+		return count;
+	}
+
+	/**
+	 * @return how many employees were born on or after {@code from} and
+	 *         strictly before {@code to}
+	 */
+	public int countBornBetween(LocalDate from, LocalDate to) {
+		int fromDay = (int) from.toEpochDay();
+		int toDay = (int) to.toEpochDay();
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			int day = birthEpochDays[i];
+			count += day >= fromDay & day < toDay ? 1 : 0;
+		}
+		return count;
+	}
+
+	public int countFemale() {
+		int count = 0;
+		for (long word : femaleBits) {
+			count += Long.bitCount(word);
+		}
+		return count;
+	}
+
+	public int countMale() {
+		return size - countFemale();
+	}
+
+	/**
+	 * @return the average number of days between hire date and {@code asOf},
+	 *         or 0 if the store is empty
+	 */
+	public double averageTenureDays(LocalDate asOf) {
+		if (size == 0) {
+			return 0;
+		}
+		long day = asOf.toEpochDay();
+		long total = 0;
+		for (int i = 0; i < size; i++) {
+			total += day - hireEpochDays[i];
+		}
+		return (double) total / size;
+	}
+
+	/**
+	 * @return employee counts keyed by department id, in department id order
+	 */
+	public Map<Integer, Integer> countByDepartment() {
+		return histogram(departmentIds, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @return counts of employees hired strictly before the given date, keyed
+	 *         by department id, in department id order
+	 */
+	public Map<Integer, Integer> countHiredBeforeByDepartment(LocalDate date) {
+		return histogram(departmentIds, (int) date.toEpochDay());
+	}
+
+	/*
+	 * Department ids are sequence values, not counts, so they are first
+	 * mapped to their position among the distinct ids in the store and
+	 * counted in an array that size.
+	 */
+	private Map<Integer, Integer> histogram(int[] keys, int hiredBeforeDay) {
+		int[] distinct = Arrays.copyOf(keys, size);
+		Arrays.sort(distinct);
+		int distinctCount = 0;
+		for (int i = 0; i < size; i++) {
+			if (distinctCount == 0 || distinct[distinctCount - 1] != distinct[i]) {
+				distinct[distinctCount++] = distinct[i];
+			}
+		}
+		int[] counts = new int[distinctCount];
+		for (int i = 0; i < size; i++) {
+			counts[Arrays.binarySearch(distinct, 0, distinctCount, keys[i])] += hireEpochDays[i] < hiredBeforeDay ? 1 : 0;
+		}
+		Map<Integer, Integer> result = new TreeMap<>();
+		for (int i = 0; i < distinctCount; i++) {
+			if (counts[i] > 0) {
+				result.put(distinct[i], counts[i]);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Collects rows one at a time and then freezes them into a store.
+	 */
+	public static final class Builder {
+
+		private int size;
+		private int[] ids;
+		private int[] departmentIds;
+		private int[] birthEpochDays;
+		private int[] hireEpochDays;
+		private long[] femaleBits;
+
+		public Builder() {
+			this(1024);
+		}
+
+		public Builder(int expectedSize) {
+			int capacity = Math.max(expectedSize, 16);
+			ids = new int[capacity];
+			departmentIds = new int[capacity];
+			birthEpochDays = new int[capacity];
+			hireEpochDays = new int[capacity];
+			femaleBits = new long[(capacity + 63) >>> 6];
+		}
+
+		public Builder add(int id, int departmentId, int birthEpochDay, int hireEpochDay, boolean female) {
+			if (size == ids.length) {
+				grow();
+			}
+			ids[size] = id;
+			departmentIds[size] = departmentId;
+			birthEpochDays[size] = birthEpochDay;
+			hireEpochDays[size] = hireEpochDay;
+			if (female) {
+				femaleBits[size >>> 6] |= 1L << size;
+			}
+			size++;
+			return this;
+		}
+
+		public Builder add(CompactEmployee employee) {
+			return add(employee.getId(), employee.getDepartmentId(), employee.getBirthEpochDay(),
+					employee.getHireEpochDay(), employee.getGender() == 'F');
+		}
+
+		public EmployeeColumnStore build() {
+			return new EmployeeColumnStore(size,
+					Arrays.copyOf(ids, size),
+					Arrays.copyOf(departmentIds, size),
+					Arrays.copyOf(birthEpochDays, size),
+					Arrays.copyOf(hireEpochDays, size),
+					Arrays.copyOf(femaleBits, (size + 63) >>> 6));
+		}
+
+		private void grow() {
+			int capacity = ids.length * 2;
+			ids = Arrays.copyOf(ids, capacity);
+			departmentIds = Arrays.copyOf(departmentIds, capacity);
+			birthEpochDays = Arrays.copyOf(birthEpochDays, capacity);
+			hireEpochDays = Arrays.copyOf(hireEpochDays, capacity);
+			femaleBits = Arrays.copyOf(femaleBits, (capacity + 63) >>> 6);
+		}
+	}
+}
@@ -1,6 +1,9 @@
 package com.techelevator.projects.model;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface EmployeeDAO {
 
@@ -11,6 +14,54 @@ public interface EmployeeDAO {
 	 */	
 	public List<Employee> getAllEmployees();
 
+	/**
+	 * Hands every employee to {@code action} as the rows arrive from the
+	 * datastore instead of collecting them into a List first, so callers can
+	 * start printing before the query finishes and never hold the whole
+	 * table in memory.
+	 * 
+	 * @param action called once per employee, in no particular order
+	 */
+	public void forEachEmployee(Consumer<Employee> action);
+
+	/**
+	 * Gets all employees from the datastore as {@link CompactEmployee}s,
+	 * for callers that keep large numbers of employees in memory. Repeated
+	 * first and last names share a single String.
+	 * 
+	 * @return all the employees as CompactEmployee objects in a List
+	 */
+	public List<CompactEmployee> getAllCompactEmployees();
+
+	/**
+	 * Loads the employee table into an {@link EmployeeColumnStore} for
+	 * analytic queries such as hire date and department breakdowns. The store
+	 * is a snapshot; it does not see later changes.
+	 * 
+	 * @return every employee, ordered by id, in columnar form
+	 */
+	public EmployeeColumnStore getEmployeeColumnStore();
+
+	/**
+	 * Get every employee whose id is in the given ids with as few queries as
+	 * possible. Ids that don't exist are skipped and the order of the result
+	 * is not guaranteed.
+	 * 
+	 * @param ids the employee ids to get from the datastore
+	 * @return the matching employees as Employee objects in a List
+	 */
+	public List<Employee> getEmployeesByIds(Collection<Long> ids);
+
+	/**
+	 * Gets every employee along with their department's name and the names
+	 * of all the projects they are assigned to, in one trip to the datastore.
+	 * Employees without a department have a null department name and
+	 * employees without projects have an empty project list.
+	 * 
+	 * @return the roster ordered by last name then first name
+	 */
+	public List<EmployeeRosterEntry> getEmployeeRoster();
+
 	/**
 	 * Find all employees whose names match the search strings. Names should
 	 * contain both first and last name searches. If a search string is blank,
@@ -22,6 +73,20 @@ public interface EmployeeDAO {
 	 */
 	public List<Employee> searchEmployeesByName(String firstNameSearch, String lastNameSearch);
 
+	/**
+	 * Get one page of employees ordered by last name ignoring case, then
+	 * first name and id, optionally only those whose last name starts with
+	 * the given prefix (also ignoring case). Pages are found by position
+	 * rather than by offset, so fetching the thousandth page costs the same
+	 * as the first.
+	 * 
+	 * @param lastNamePrefix the start of the last name, or blank for everyone
+	 * @param after the last employee of the previous page, or null for the first page
+	 * @param pageSize the most employees to return
+	 * @return the next page of employees as Employee objects in a List
+	 */
+	public List<Employee> getEmployeePage(String lastNamePrefix, Employee after, int pageSize);
+
 	/**
 	 * Get all the employees that are in the department with the {@code id}.
 	 * 
@@ -46,10 +111,49 @@ public interface EmployeeDAO {
 	public List<Employee> getEmployeesByProjectId(Long projectId);
 
 	/**
-	 * Change the given employee to the new department.
+	 * Get the employees on each of the given projects with as few queries as
+	 * possible. Use this instead of calling
+	 * {@link #getEmployeesByProjectId(Long)} in a loop.
+	 * 
+	 * @param projectIds the ids of the projects
+	 * @return each requested project id mapped to the employees on that
+	 *         project; projects with no employees, or that don't exist, map
+	 *         to an empty List
+	 */
+	public Map<Long, List<Employee>> getEmployeesByProjectIds(Collection<Long> projectIds);
+
+	/**
+	 * Change the given employee to the new department, regardless of any
+	 * other changes made to the employee in the meantime.
 	 * 
 	 * @param employeeId the employee's id that we want to move
 	 * @param departmentId the employee's new department
 	 */
-	public void changeEmployeeDepartment(Long employeeId, Long departmentId);			
+	public void changeEmployeeDepartment(Long employeeId, Long departmentId);
+
+	/**
+	 * Change the given employee to the new department, but only if nobody
+	 * else has changed the employee since it was read. On success the
+	 * object's department and version are updated to match.
+	 * <p>
+	 * Versioned writes all follow the same rule: an object without a version
+	 * is written unconditionally, like
+	 * {@link #changeEmployeeDepartment(Long, Long)}, and its version stays
+	 * null because the new one isn't known.
+	 * 
+	 * @param employee the employee we want to move, as read from the datastore
+	 * @param departmentId the employee's new department
+	 * @throws org.springframework.dao.OptimisticLockingFailureException if
+	 *         the employee was changed by someone else since it was read
+	 */
+	public void changeEmployeeDepartment(Employee employee, Long departmentId);
+
+	/**
+	 * Move every one of the given employees to the new department. The
+	 * updates are sent to the datastore as a single batch.
+	 * 
+	 * @param employeeIds the ids of the employees we want to move
+	 * @param departmentId the employees' new department
+	 */
+	public void changeEmployeesDepartment(List<Long> employeeIds, Long departmentId);
 }
@@ -0,0 +1,56 @@
+package com.techelevator.projects.model;
+
+import java.util.List;
+
+/**
+ * One line of the employee roster: the employee together with the name of
+ * their department and the names of every project they are on.
+ */
+public class EmployeeRosterEntry {
+	private Long employeeId;
+	private Long departmentId;
+	private String firstName;
+	private String lastName;
+	private String departmentName;
+	private List<String> projectNames;
+	
+	public Long getEmployeeId() {
+		return employeeId;
+	}
+	public void setEmployeeId(Long employeeId) {
+		this.employeeId = employeeId;
+	}
+	public Long getDepartmentId() {
+		return departmentId;
+	}
+	public void setDepartmentId(Long departmentId) {
+		this.departmentId = departmentId;
+	}
+	public String getFirstName() {
+		return firstName;
+	}
+	public void setFirstName(String firstName) {
+		this.firstName = firstName;
+	}
+	public String getLastName() {
+		return lastName;
+	}
+	public void setLastName(String lastName) {
+		this.lastName = lastName;
+	}
+	public String getDepartmentName() {
+		return departmentName;
+	}
+	public void setDepartmentName(String departmentName) {
+		this.departmentName = departmentName;
+	}
+	public List<String> getProjectNames() {
+		return projectNames;
+	}
+	public void setProjectNames(List<String> projectNames) {
+		this.projectNames = projectNames;
+	}
+	public String toString() {
+		return lastName + ", " + firstName;
+	}
+}
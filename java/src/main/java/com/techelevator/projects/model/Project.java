@@ -32,6 +32,14 @@ public class Project {
 	public void setEndDate(LocalDate endDate) {
 		this.endDate = endDate;
 	}
+	/**
+	 * A project is active on a day after its start date and before its end
+	 * date. A project with no end date is always active; one with an end
+	 * date but no start date has not started.
+	 */
+	public boolean isActiveOn(LocalDate date) {
+		return endDate == null || startDate != null && date.isAfter(startDate) && date.isBefore(endDate);
+	}
 	public String toString() {
 		return name;
 	}
@@ -0,0 +1,88 @@
+package com.techelevator.projects.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A read-only, column-oriented copy of the project_employee table: one pair
+ * of primitive ints per assignment.
+ */
+public final class ProjectAssignmentStore {
+
+	private final int size;
+	private final int[] projectIds;
+	private final int[] employeeIds;
+
+	private ProjectAssignmentStore(int size, int[] projectIds, int[] employeeIds) {
+		this.size = size;
+		this.projectIds = projectIds;
+		this.employeeIds = employeeIds;
+	}
+
+	/**
+	 * Join several stores into one, in the order given.
+	 */
+	public static ProjectAssignmentStore concat(List<ProjectAssignmentStore> stores) {
+		int total = 0;
+		for (ProjectAssignmentStore store : stores) {
+			total += store.size;
+		}
+		int[] projectIds = new int[total];
+		int[] employeeIds = new int[total];
+		int offset = 0;
+		for (ProjectAssignmentStore store : stores) {
+			System.arraycopy(store.projectIds, 0, projectIds, offset, store.size);
+			System.arraycopy(store.employeeIds, 0, employeeIds, offset, store.size);
+			offset += store.size;
+		}
+		return new ProjectAssignmentStore(total, projectIds, employeeIds);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getProjectId(int row) {
+		return projectIds[row];
+	}
+
+	public int getEmployeeId(int row) {
+		return employeeIds[row];
+	}
+
+	/**
+	 * @return how many employees are assigned to the given project
+	 */
+	public int countEmployeesOnProject(int projectId) {
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			count += projectIds[i] == projectId ? 1 : 0;
+		}
+		return count;
+	}
+
+	/**
+	 * Collects assignments one at a time and then freezes them into a store.
+	 */
+	public static final class Builder {
+
+		private int size;
+		private int[] projectIds = new int[1024];
+		private int[] employeeIds = new int[1024];
+
+		public Builder add(int projectId, int employeeId) {
+			if (size == projectIds.length) {
+				projectIds = Arrays.copyOf(projectIds, size * 2);
+				employeeIds = Arrays.copyOf(employeeIds, size * 2);
+			}
+			projectIds[size] = projectId;
+			employeeIds[size] = employeeId;
+			size++;
+			return this;
+		}
+
+		public ProjectAssignmentStore build() {
+			return new ProjectAssignmentStore(size, Arrays.copyOf(projectIds, size), Arrays.copyOf(employeeIds, size));
+		}
+	}
+}
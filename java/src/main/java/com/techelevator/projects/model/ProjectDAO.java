@@ -14,6 +14,13 @@ public interface ProjectDAO {
 	 */
 	public List<Project> getAllActiveProjects();
 
+	/**
+	 * Get every project, active or not.
+	 * 
+	 * @return all projects as Project objects in a List
+	 */
+	public List<Project> getAllProjects();
+
 	/**
 	 * Unassign the employee from a project.
 	 * 
@@ -29,4 +36,21 @@ public interface ProjectDAO {
 	 * @param employeeId the employee to assign
 	 */
 	public void addEmployeeToProject(Long projectId, Long employeeId);
+
+	/**
+	 * Assign several employees to a project in a single batch. Employees
+	 * already on the project are left alone.
+	 * 
+	 * @param projectId the project to put the employees on
+	 * @param employeeIds the employees to assign
+	 */
+	public void addEmployeesToProject(Long projectId, List<Long> employeeIds);
+
+	/**
+	 * Unassign several employees from a project in a single batch.
+	 * 
+	 * @param projectId the project to remove the employees from
+	 * @param employeeIds the employees to remove
+	 */
+	public void removeEmployeesFromProject(Long projectId, List<Long> employeeIds);
 }
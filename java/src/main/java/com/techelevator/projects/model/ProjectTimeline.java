@@ -0,0 +1,160 @@
+package com.techelevator.projects.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A read-only interval index over projects for asking which were active on
+ * a day or during a range of days, using the same rules as
+ * {@link Project#isActiveOn(LocalDate)}. Build one from a single
+ * {@link ProjectDAO#getAllProjects()} and ask it as many questions as you
+ * like; it does not see later changes.
+ * <p>
+ * Each project becomes the closed range of days it is active, from the day
+ * after its start to the day before its end, or every day if it has no end.
+ * The ranges are sorted by first day and laid out as an implicit balanced
+ * tree over that array, where each node also records the latest last day
+ * in its subtree. A query skips any subtree that ends before the range
+ * starts and everything to the right of a node that starts after the range
+ * ends, so it costs O(log n + matches).
+ */
+public final class ProjectTimeline {
+
+	private static final long ALWAYS_FIRST = LocalDate.MIN.toEpochDay();
+	private static final long ALWAYS_LAST = LocalDate.MAX.toEpochDay();
+
+	private final Project[] projects;
+	private final long[] firstDays;
+	private final long[] lastDays;
+	// The latest last day among the ranges in the subtree rooted at each index.
+	private final long[] maxLastDays;
+
+	public ProjectTimeline(List<Project> allProjects) {
+		List<Project> ranged = new ArrayList<>();
+		for (Project project : allProjects) {
+			if (firstDay(project) <= lastDay(project)) {
+				ranged.add(project);
+			}
+		}
+		ranged.sort(Comparator.comparingLong(ProjectTimeline::firstDay));
+
+		int size = ranged.size();
+		projects = ranged.toArray(new Project[size]);
+		firstDays = new long[size];
+		lastDays = new long[size];
+		maxLastDays = new long[size];
+		for (int i = 0; i < size; i++) {
+			firstDays[i] = firstDay(projects[i]);
+			lastDays[i] = lastDay(projects[i]);
+		}
+		buildMaxLastDays(0, size - 1);
+	}
+
+	/**
+	 * @return the projects active on the date, ordered by the first day they
+	 *         were active
+	 */
+	public List<Project> getActiveOn(LocalDate date) {
+		return getActiveBetween(date, date);
+	}
+
+	/**
+	 * @param from the first day of the range
+	 * @param to the last day of the range, inclusive
+	 * @return the projects active on at least one day of the range, ordered
+	 *         by the first day they were active
+	 */
+	public List<Project> getActiveBetween(LocalDate from, LocalDate to) {
+		List<Project> active = new ArrayList<>();
+		collect(0, projects.length - 1, from.toEpochDay(), to.toEpochDay(), active);
+		return active;
+	}
+
+	/**
+	 * Counts the active projects on every day of a range at once. Each
+	 * project overlapping the range adds one where its active days start and
+	 * subtracts one after they end; a running total then gives each day's
+	 * count, so the cost is the overlapping projects plus the days.
+	 *
+	 * @param from the first day of the range
+	 * @param to the last day of the range, inclusive
+	 * @return the number of active projects per day; index 0 is {@code from}
+	 */
+	public int[] countActivePerDay(LocalDate from, LocalDate to) {
+		long fromDay = from.toEpochDay();
+		long toDay = to.toEpochDay();
+		if (toDay < fromDay) {
+			throw new IllegalArgumentException("The range ends (" + to + ") before it starts (" + from + ")");
+		}
+		int days = Math.toIntExact(toDay - fromDay + 1);
+		int[] counts = new int[days + 1];
+		for (Project project : getActiveBetween(from, to)) {
+			counts[(int) (Math.max(firstDay(project), fromDay) - fromDay)]++;
+			counts[(int) (Math.min(lastDay(project), toDay) - fromDay) + 1]--;
+		}
+		int running = 0;
+		for (int i = 0; i < days; i++) {
+			running += counts[i];
+			counts[i] = running;
+		}
+		return Arrays.copyOf(counts, days);
+	}
+
+	/**
+	 * @return how many projects are active on at least one day
+	 */
+	public int size() {
+		return projects.length;
+	}
+
+	private long buildMaxLastDays(int low, int high) {
+		if (low > high) {
+			return Long.MIN_VALUE;
+		}
+		int middle = (low + high) >>> 1;
+		long max = Math.max(lastDays[middle], Math.max(buildMaxLastDays(low, middle - 1), buildMaxLastDays(middle + 1, high)));
+		maxLastDays[middle] = max;
+		return max;
+	}
+
+	private void collect(int low, int high, long fromDay, long toDay, List<Project> active) {
+		if (low > high) {
+			return;
+		}
+		int middle = (low + high) >>> 1;
+		if (maxLastDays[middle] < fromDay) {
+			return;
+		}
+		collect(low, middle - 1, fromDay, toDay, active);
+		if (firstDays[middle] > toDay) {
+			return;
+		}
+		if (lastDays[middle] >= fromDay) {
+			active.add(projects[middle]);
+		}
+		collect(middle + 1, high, fromDay, toDay, active);
+	}
+
+	private static long firstDay(Project project) {
+		if (project.getEndDate() == null) {
+			return ALWAYS_FIRST;
+		}
+		if (project.getStartDate() == null) {
+			return ALWAYS_LAST;
+		}
+		return project.getStartDate().toEpochDay() + 1;
+	}
+
+	private static long lastDay(Project project) {
+		if (project.getEndDate() == null) {
+			return ALWAYS_LAST;
+		}
+		if (project.getStartDate() == null) {
+			return ALWAYS_FIRST;
+		}
+		return project.getEndDate().toEpochDay() - 1;
+	}
+}
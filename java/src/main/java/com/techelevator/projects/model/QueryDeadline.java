@@ -0,0 +1,51 @@
+package com.techelevator.projects.model;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A time limit on the database work the current thread does inside
+ * {@link #within(long, Supplier)}. The JDBC DAOs give each statement
+ * whatever is left of it as the statement's timeout, so one slow query
+ * can't hold a thread for longer than its caller is prepared to wait.
+ * Limits nest; an inner one never extends an outer one.
+ */
+public final class QueryDeadline {
+
+	private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+	private QueryDeadline() {
+	}
+
+	/**
+	 * Runs the work with at most {@code timeoutMillis} for its statements.
+	 */
+	public static <T> T within(long timeoutMillis, Supplier<T> work) {
+		Long outer = DEADLINE.get();
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		if (outer == null || deadline - outer < 0) {
+			DEADLINE.set(deadline);
+		}
+		try {
+			return work.get();
+		} finally {
+			if (outer == null) {
+				DEADLINE.remove();
+			} else {
+				DEADLINE.set(outer);
+			}
+		}
+	}
+
+	/**
+	 * @return the milliseconds left, 0 if the time is up, or -1 if there is
+	 *         no limit
+	 */
+	public static long remainingMillis() {
+		Long deadline = DEADLINE.get();
+		if (deadline == null) {
+			return -1;
+		}
+		return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+	}
+}
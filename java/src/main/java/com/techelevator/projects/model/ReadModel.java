@@ -0,0 +1,129 @@
+package com.techelevator.projects.model;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An in-process copy of everything in the projects database: departments,
+ * projects, employees and project assignments, as of a single point in
+ * time. Use {@link #apply(ChangeSet)} to move it forward.
+ */
+public class ReadModel {
+
+	private long changeToken;
+	private Instant takenAt;
+	private List<Department> departments;
+	private List<Project> projects;
+	private List<CompactEmployee> employees;
+	private ProjectAssignmentStore assignments;
+
+	public ReadModel(long changeToken, Instant takenAt, List<Department> departments, List<Project> projects,
+			List<CompactEmployee> employees, ProjectAssignmentStore assignments) {
+		this.changeToken = changeToken;
+		this.takenAt = takenAt;
+		this.departments = Collections.unmodifiableList(departments);
+		this.projects = Collections.unmodifiableList(projects);
+		this.employees = Collections.unmodifiableList(employees);
+		this.assignments = assignments;
+	}
+
+	/**
+	 * Bring the model up to date with changes read since it was taken.
+	 * 
+	 * @param changes what changed since {@link #getChangeToken()}
+	 * @return a new model with the changes applied
+	 */
+	public ReadModel apply(ChangeSet changes) {
+		Map<Long, Department> departmentsById = new LinkedHashMap<>();
+		for (Department d : departments) {
+			departmentsById.put(d.getId(), d);
+		}
+		for (Department d : changes.getDepartments()) {
+			departmentsById.put(d.getId(), d);
+		}
+
+		Map<Long, Project> projectsById = new LinkedHashMap<>();
+		for (Project p : projects) {
+			projectsById.put(p.getId(), p);
+		}
+		for (Project p : changes.getProjects()) {
+			projectsById.put(p.getId(), p);
+		}
+
+		Map<Integer, CompactEmployee> employeesById = new LinkedHashMap<>();
+		for (CompactEmployee e : employees) {
+			employeesById.put(e.getId(), e);
+		}
+		for (Employee e : changes.getEmployees()) {
+			employeesById.put(e.getId().intValue(), CompactEmployee.from(e));
+		}
+
+		// an assignment is packed into one long, employee id in the high half,
+		// so sorting the keys orders assignments by employee then project
+		Set<Long> assignmentKeys = new HashSet<>();
+		for (int i = 0; i < assignments.size(); i++) {
+			assignmentKeys.add(assignmentKey(assignments, i));
+		}
+		ProjectAssignmentStore removed = changes.getRemovedAssignments();
+		for (int i = 0; i < removed.size(); i++) {
+			assignmentKeys.remove(assignmentKey(removed, i));
+		}
+		ProjectAssignmentStore added = changes.getAddedAssignments();
+		for (int i = 0; i < added.size(); i++) {
+			assignmentKeys.add(assignmentKey(added, i));
+		}
+		long[] sortedKeys = new long[assignmentKeys.size()];
+		int k = 0;
+		for (Long key : assignmentKeys) {
+			sortedKeys[k++] = key;
+		}
+		Arrays.sort(sortedKeys);
+		ProjectAssignmentStore.Builder newAssignments = new ProjectAssignmentStore.Builder();
+		for (long key : sortedKeys) {
+			newAssignments.add((int) key, (int) (key >>> 32));
+		}
+
+		return new ReadModel(changes.getNextToken(), changes.getReadAt(),
+				new ArrayList<>(departmentsById.values()),
+				new ArrayList<>(projectsById.values()),
+				new ArrayList<>(employeesById.values()),
+				newAssignments.build());
+	}
+
+	private static long assignmentKey(ProjectAssignmentStore store, int row) {
+		return ((long) store.getEmployeeId(row) << 32) | store.getProjectId(row);
+	}
+
+	/**
+	 * @return the change token to catch the model up from, see
+	 *         {@link ChangeTrackingDAO}
+	 */
+	public long getChangeToken() {
+		return changeToken;
+	}
+	/**
+	 * @return the database time the model was read at
+	 */
+	public Instant getTakenAt() {
+		return takenAt;
+	}
+	public List<Department> getDepartments() {
+		return departments;
+	}
+	public List<Project> getProjects() {
+		return projects;
+	}
+	public List<CompactEmployee> getEmployees() {
+		return employees;
+	}
+	public ProjectAssignmentStore getAssignments() {
+		return assignments;
+	}
+}
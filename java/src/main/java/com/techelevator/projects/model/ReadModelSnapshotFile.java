@@ -0,0 +1,215 @@
+package com.techelevator.projects.model;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Saves a {@link ReadModel} to a compact binary file and loads it back, so a
+ * restarted process can start from the file instead of re-reading every
+ * table. Both directions go through a memory-mapped buffer.
+ * <p>
+ * Every distinct string is stored once in a table at the front of the file
+ * and rows refer to it by index. Dates are epoch days and ids are ints. A
+ * file written by a different format version is rejected with an
+ * {@code IOException}; callers should fall back to the database. A single
+ * snapshot file can be at most 2 GB, the largest region one mapping can
+ * cover.
+ */
+public final class ReadModelSnapshotFile {
+
+	private static final int MAGIC = 0x50524A53; // "PRJS"
+	private static final int FORMAT_VERSION = 3;
+	private static final int NO_DATE = Integer.MIN_VALUE;
+	private static final int NO_VERSION = -1;
+
+	private ReadModelSnapshotFile() {
+	}
+
+	/**
+	 * Write the model to the given path. The file is written next to the
+	 * target first and moved into place, so a crash never leaves a
+	 * half-written snapshot behind.
+	 */
+	public static void write(ReadModel model, Path path) throws IOException {
+		Map<String, Integer> stringIndexes = new LinkedHashMap<>();
+		for (Department d : model.getDepartments()) {
+			indexOf(stringIndexes, d.getName());
+		}
+		for (Project p : model.getProjects()) {
+			indexOf(stringIndexes, p.getName());
+		}
+		for (CompactEmployee e : model.getEmployees()) {
+			indexOf(stringIndexes, e.getFirstName());
+			indexOf(stringIndexes, e.getLastName());
+		}
+		List<byte[]> strings = new ArrayList<>(stringIndexes.size());
+		long stringBytes = 0;
+		for (String s : stringIndexes.keySet()) {
+			byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+			strings.add(bytes);
+			stringBytes += 4 + bytes.length;
+		}
+
+		long size = 4 + 4 + 8 + 8 + 4
+				+ 4 + stringBytes
+				+ 4 + model.getDepartments().size() * 12L
+				+ 4 + model.getProjects().size() * 16L
+				+ 4 + model.getEmployees().size() * 26L
+				+ 4 + model.getAssignments().size() * 8L;
+
+		Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+			buffer.putInt(MAGIC);
+			buffer.putInt(FORMAT_VERSION);
+			buffer.putLong(model.getChangeToken());
+			buffer.putLong(model.getTakenAt().getEpochSecond());
+			buffer.putInt(model.getTakenAt().getNano());
+
+			buffer.putInt(strings.size());
+			for (byte[] bytes : strings) {
+				buffer.putInt(bytes.length);
+				buffer.put(bytes);
+			}
+
+			buffer.putInt(model.getDepartments().size());
+			for (Department d : model.getDepartments()) {
+				buffer.putInt(d.getId().intValue());
+				buffer.putInt(stringIndexes.get(d.getName()));
+				buffer.putInt(d.getVersion() == null ? NO_VERSION : d.getVersion());
+			}
+
+			buffer.putInt(model.getProjects().size());
+			for (Project p : model.getProjects()) {
+				buffer.putInt(p.getId().intValue());
+				buffer.putInt(stringIndexes.get(p.getName()));
+				buffer.putInt(toEpochDay(p.getStartDate()));
+				buffer.putInt(toEpochDay(p.getEndDate()));
+			}
+
+			buffer.putInt(model.getEmployees().size());
+			for (CompactEmployee e : model.getEmployees()) {
+				buffer.putInt(e.getId());
+				buffer.putInt(e.getDepartmentId());
+				buffer.putInt(stringIndexes.get(e.getFirstName()));
+				buffer.putInt(stringIndexes.get(e.getLastName()));
+				buffer.putInt(e.getBirthEpochDay());
+				buffer.putInt(e.getHireEpochDay());
+				buffer.putChar(e.getGender());
+			}
+
+			ProjectAssignmentStore assignments = model.getAssignments();
+			buffer.putInt(assignments.size());
+			for (int i = 0; i < assignments.size(); i++) {
+				buffer.putInt(assignments.getProjectId(i));
+				buffer.putInt(assignments.getEmployeeId(i));
+			}
+			buffer.force();
+		}
+		Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	public static ReadModel read(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return read(path, buffer);
+		} catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+			throw new IOException(path + " is truncated or corrupt", e);
+		}
+	}
+
+	private static ReadModel read(Path path, ByteBuffer buffer) throws IOException {
+		if (buffer.getInt() != MAGIC) {
+			throw new IOException(path + " is not a read model snapshot");
+		}
+		int version = buffer.getInt();
+		if (version != FORMAT_VERSION) {
+			throw new IOException(path + " has snapshot format " + version + ", expected " + FORMAT_VERSION);
+		}
+		long changeToken = buffer.getLong();
+		Instant takenAt = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+
+		String[] strings = new String[buffer.getInt()];
+		for (int i = 0; i < strings.length; i++) {
+			byte[] bytes = new byte[buffer.getInt()];
+			buffer.get(bytes);
+			strings[i] = new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		int count = buffer.getInt();
+		List<Department> departments = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Department d = new Department();
+			d.setId((long) buffer.getInt());
+			d.setName(strings[buffer.getInt()]);
+			int rowVersion = buffer.getInt();
+			d.setVersion(rowVersion == NO_VERSION ? null : rowVersion);
+			departments.add(d);
+		}
+
+		count = buffer.getInt();
+		List<Project> projects = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Project p = new Project();
+			p.setId((long) buffer.getInt());
+			p.setName(strings[buffer.getInt()]);
+			p.setStartDate(fromEpochDay(buffer.getInt()));
+			p.setEndDate(fromEpochDay(buffer.getInt()));
+			projects.add(p);
+		}
+
+		count = buffer.getInt();
+		List<CompactEmployee> employees = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			int id = buffer.getInt();
+			int departmentId = buffer.getInt();
+			String firstName = strings[buffer.getInt()];
+			String lastName = strings[buffer.getInt()];
+			int birthEpochDay = buffer.getInt();
+			int hireEpochDay = buffer.getInt();
+			char gender = buffer.getChar();
+			employees.add(new CompactEmployee(id, departmentId, firstName, lastName, birthEpochDay, gender,
+					hireEpochDay));
+		}
+
+		count = buffer.getInt();
+		ProjectAssignmentStore.Builder assignments = new ProjectAssignmentStore.Builder();
+		for (int i = 0; i < count; i++) {
+			assignments.add(buffer.getInt(), buffer.getInt());
+		}
+
+		return new ReadModel(changeToken, takenAt, departments, projects, employees, assignments.build());
+	}
+
+	private static int indexOf(Map<String, Integer> stringIndexes, String s) {
+		Integer index = stringIndexes.get(s);
+		if (index == null) {
+			index = stringIndexes.size();
+			stringIndexes.put(s, index);
+		}
+		return index;
+	}
+
+	private static int toEpochDay(LocalDate date) {
+		return date == null ? NO_DATE : (int) date.toEpochDay();
+	}
+
+	private static LocalDate fromEpochDay(int epochDay) {
+		return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+	}
+}
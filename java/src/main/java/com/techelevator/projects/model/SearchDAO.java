@@ -0,0 +1,19 @@
+package com.techelevator.projects.model;
+
+import java.util.List;
+
+public interface SearchDAO {
+
+	/**
+	 * Find departments, employees and projects whose names have words
+	 * starting with every word of the search text, best matches first. Made
+	 * for typeahead: "fra tru" finds Franklin Trumbauer. Case and punctuation
+	 * in the search text are ignored.
+	 * 
+	 * @param text what the user has typed so far
+	 * @param limit the most hits to return
+	 * @return the hits across all three kinds, ranked; empty if the text has
+	 *         no words in it
+	 */
+	public List<SearchHit> search(String text, int limit);
+}
@@ -0,0 +1,62 @@
+package com.techelevator.projects.model;
+
+/**
+ * One result of a {@link SearchDAO} search: which kind of thing matched, its
+ * id, the name to show for it and how well it matched.
+ */
+public class SearchHit {
+
+	public enum Kind {
+		DEPARTMENT, EMPLOYEE, PROJECT
+	}
+
+	private Kind kind;
+	private Long id;
+	private String label;
+	private double rank;
+
+	public Kind getKind() {
+		return kind;
+	}
+
+	public void setKind(Kind kind) {
+		this.kind = kind;
+	}
+
+	/**
+	 * The department, employee or project id, depending on the kind.
+	 */
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	/**
+	 * The department or project name, or the employee's first and last name.
+	 */
+	public String getLabel() {
+		return label;
+	}
+
+	public void setLabel(String label) {
+		this.label = label;
+	}
+
+	/**
+	 * Higher is a better match. Ranks are only comparable within one search.
+	 */
+	public double getRank() {
+		return rank;
+	}
+
+	public void setRank(double rank) {
+		this.rank = rank;
+	}
+
+	public String toString() {
+		return kind + " " + label;
+	}
+}
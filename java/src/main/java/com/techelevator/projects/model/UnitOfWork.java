@@ -0,0 +1,24 @@
+package com.techelevator.projects.model;
+
+import java.util.function.Supplier;
+
+public interface UnitOfWork {
+
+	/**
+	 * Run the given work in a single transaction. Every DAO call made inside
+	 * the work shares one connection and is committed once when the work
+	 * returns. If the work throws, everything it did is rolled back.
+	 * 
+	 * @param work the DAO calls to run together
+	 * @return whatever the work returned
+	 */
+	public <T> T execute(Supplier<T> work);
+
+	/**
+	 * Run the given work in a single transaction, same as
+	 * {@link #execute(Supplier)} but for work that doesn't return anything.
+	 * 
+	 * @param work the DAO calls to run together
+	 */
+	public void run(Runnable work);
+}
@@ -0,0 +1,31 @@
+package com.techelevator.projects.model.concurrent;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers updates to in-memory copies of the datastore until the write they
+ * mirror has been committed, so a rolled-back transaction leaves them alone.
+ */
+final class AfterCommit {
+
+	private AfterCommit() {
+	}
+
+	/**
+	 * Runs the update once the current transaction commits, or straight away
+	 * if there is no transaction.
+	 */
+	static void run(Runnable update) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			update.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				update.run();
+			}
+		});
+	}
+}
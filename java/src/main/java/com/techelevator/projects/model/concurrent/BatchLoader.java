@@ -0,0 +1,173 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Collects single-key lookups from many threads and loads them together
+ * with one bulk call. The first key of a batch starts a short timer; the
+ * batch is sent when the timer runs out or when it holds
+ * {@code maxBatchSize} keys, whichever comes first. A key asked for twice
+ * in the same batch is only loaded once.
+ * <p>
+ * Batches are loaded on the given executor, not on the callers' threads,
+ * so lookups that must run inside the caller's transaction should not go
+ * through a BatchLoader. If the executor refuses a batch's timer or load,
+ * for instance because it has been shut down, the batch's lookups fail with
+ * its {@code RejectedExecutionException} rather than waiting forever.
+ *
+ * @param <K> the key type
+ * @param <V> the value loaded for each key
+ */
+public class BatchLoader<K, V> {
+
+	private Function<Set<K>, Map<K, V>> batchFunction;
+	private long windowMicros;
+	private int maxBatchSize;
+	private ScheduledExecutorService executor;
+
+	private Map<K, CompletableFuture<V>> pending = new HashMap<>();
+	private LongAdder batches = new LongAdder();
+	private LongAdder keys = new LongAdder();
+
+	/**
+	 * @param batchFunction loads every key in the set at once; keys missing
+	 *        from the returned map load as null
+	 * @param windowMicros how long the first key of a batch waits for
+	 *        others to join it
+	 * @param maxBatchSize a batch is sent as soon as it holds this many keys
+	 * @param executor runs the timers and the batch loads
+	 */
+	public BatchLoader(Function<Set<K>, Map<K, V>> batchFunction, long windowMicros, int maxBatchSize,
+					   ScheduledExecutorService executor) {
+		this.batchFunction = batchFunction;
+		this.windowMicros = windowMicros;
+		this.maxBatchSize = maxBatchSize;
+		this.executor = executor;
+	}
+
+	/**
+	 * Adds the key to the current batch.
+	 *
+	 * @param key the key to load
+	 * @return completes with the key's value, or exceptionally if the batch
+	 *         it was loaded in failed
+	 */
+	public CompletableFuture<V> load(K key) {
+		CompletableFuture<V> future;
+		Map<K, CompletableFuture<V>> fullBatch = null;
+		RejectedExecutionException rejected = null;
+		synchronized (this) {
+			future = pending.get(key);
+			if (future == null) {
+				future = new CompletableFuture<>();
+				pending.put(key, future);
+				if (pending.size() == 1) {
+					try {
+						executor.schedule(() -> dispatch(takePending()), windowMicros, TimeUnit.MICROSECONDS);
+					} catch (RejectedExecutionException e) {
+						rejected = e;
+					}
+				}
+				if (rejected != null || pending.size() >= maxBatchSize) {
+					fullBatch = takePending();
+				}
+			}
+		}
+		if (fullBatch != null) {
+			Map<K, CompletableFuture<V>> batch = fullBatch;
+			if (rejected == null) {
+				try {
+					executor.execute(() -> dispatch(batch));
+				} catch (RejectedExecutionException e) {
+					rejected = e;
+				}
+			}
+			if (rejected != null) {
+				for (CompletableFuture<V> waiting : batch.values()) {
+					waiting.completeExceptionally(rejected);
+				}
+			}
+		}
+		return future;
+	}
+
+	/**
+	 * Loads the key and waits for it.
+	 *
+	 * @param key the key to load
+	 * @return the key's value, or null if the batch didn't return one
+	 */
+	public V get(K key) {
+		try {
+			return load(key).join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * @return how many bulk calls have been made
+	 */
+	public long getBatches() {
+		return batches.sum();
+	}
+
+	/**
+	 * @return how many distinct keys those bulk calls loaded in total
+	 */
+	public long getKeysLoaded() {
+		return keys.sum();
+	}
+
+	@Override
+	public String toString() {
+		long batches = getBatches();
+		return getKeysLoaded() + " keys in " + batches + " batches ("
+				+ (batches == 0 ? 0 : Math.round(getKeysLoaded() * 10.0 / batches) / 10.0) + " per batch)";
+	}
+
+	/*
+	 * The timer for a batch that was already sent because it filled up may
+	 * find the next batch here and send it early. That only makes the next
+	 * batch smaller, never wrong.
+	 */
+	private synchronized Map<K, CompletableFuture<V>> takePending() {
+		Map<K, CompletableFuture<V>> batch = pending;
+		pending = new HashMap<>();
+		return batch;
+	}
+
+	private void dispatch(Map<K, CompletableFuture<V>> batch) {
+		if (batch.isEmpty()) {
+			return;
+		}
+		batches.increment();
+		keys.add(batch.size());
+		try {
+			Map<K, V> results = batchFunction.apply(batch.keySet());
+			for (Map.Entry<K, CompletableFuture<V>> entry : batch.entrySet()) {
+				entry.getValue().complete(results.get(entry.getKey()));
+			}
+		} catch (RuntimeException | Error e) {
+			for (CompletableFuture<V> future : batch.values()) {
+				future.completeExceptionally(e);
+			}
+		}
+	}
+}
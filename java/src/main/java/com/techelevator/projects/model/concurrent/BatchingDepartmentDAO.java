@@ -0,0 +1,95 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.BooleanSupplier;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.techelevator.projects.model.Department;
+import com.techelevator.projects.model.DepartmentDAO;
+
+/**
+ * A {@link DepartmentDAO} that gathers {@link #getDepartmentById(Long)}
+ * calls from many threads into {@link DepartmentDAO#getDepartmentsByIds}
+ * calls using a {@link BatchLoader}. Callers get their own copies. Lookups
+ * inside a transaction, and all other methods, go straight to the wrapped
+ * DAO.
+ * <p>
+ * Batches load on the executor's threads, which haven't written anything,
+ * so with a read replica they read from the replica. A caller that has to
+ * see its own recent writes therefore skips the batch and looks up on its
+ * own thread, where the read goes to the primary.
+ */
+public class BatchingDepartmentDAO implements DepartmentDAO {
+
+	private DepartmentDAO departmentDAO;
+	private BooleanSupplier readsOwnWrites;
+	private BatchLoader<Long, Department> byId;
+
+	/**
+	 * @param departmentDAO the DAO to load batches with
+	 * @param windowMicros how long a lookup waits for others to join its batch
+	 * @param maxBatchSize the most ids in one batch
+	 * @param executor runs the batch loads
+	 * @param readsOwnWrites whether the calling thread has to read its own
+	 *        recent writes, e.g.
+	 *        {@code ReadWriteRoutingDataSource.mustReadFromPrimary}
+	 */
+	public BatchingDepartmentDAO(DepartmentDAO departmentDAO, long windowMicros, int maxBatchSize,
+								 ScheduledExecutorService executor, BooleanSupplier readsOwnWrites) {
+		this.departmentDAO = departmentDAO;
+		this.readsOwnWrites = readsOwnWrites;
+		this.byId = new BatchLoader<>(ids -> {
+			Map<Long, Department> departments = new HashMap<>();
+			for (Department department : departmentDAO.getDepartmentsByIds(ids)) {
+				departments.put(department.getId(), department);
+			}
+			return departments;
+		}, windowMicros, maxBatchSize, executor);
+	}
+
+	@Override
+	public List<Department> getAllDepartments() {
+		return departmentDAO.getAllDepartments();
+	}
+
+	@Override
+	public List<Department> searchDepartmentsByName(String nameSearch) {
+		return departmentDAO.searchDepartmentsByName(nameSearch);
+	}
+
+	@Override
+	public void saveDepartment(Department updatedDepartment) {
+		departmentDAO.saveDepartment(updatedDepartment);
+	}
+
+	@Override
+	public Department createDepartment(Department newDepartment) {
+		return departmentDAO.createDepartment(newDepartment);
+	}
+
+	@Override
+	public Department getDepartmentById(Long id) {
+		if (id == null || TransactionSynchronizationManager.isActualTransactionActive()
+				|| readsOwnWrites.getAsBoolean()) {
+			return departmentDAO.getDepartmentById(id);
+		}
+		return Copies.copy(byId.get(id));
+	}
+
+	@Override
+	public List<Department> getDepartmentsByIds(Collection<Long> ids) {
+		return departmentDAO.getDepartmentsByIds(ids);
+	}
+
+	/**
+	 * @return batching statistics for {@link #getDepartmentById(Long)}
+	 */
+	public BatchLoader<Long, Department> getDepartmentByIdLoader() {
+		return byId;
+	}
+}
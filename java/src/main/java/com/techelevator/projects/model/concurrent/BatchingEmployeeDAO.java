@@ -0,0 +1,133 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.techelevator.projects.model.CompactEmployee;
+import com.techelevator.projects.model.Employee;
+import com.techelevator.projects.model.EmployeeColumnStore;
+import com.techelevator.projects.model.EmployeeDAO;
+import com.techelevator.projects.model.EmployeeRosterEntry;
+
+/**
+ * An {@link EmployeeDAO} that gathers {@link #getEmployeesByProjectId(Long)}
+ * calls from many threads into {@link EmployeeDAO#getEmployeesByProjectIds}
+ * calls, the same way {@link BatchingDepartmentDAO} does for departments,
+ * including skipping the batch for callers that must read their own writes.
+ */
+public class BatchingEmployeeDAO implements EmployeeDAO {
+
+	private EmployeeDAO employeeDAO;
+	private BooleanSupplier readsOwnWrites;
+	private BatchLoader<Long, List<Employee>> byProjectId;
+
+	/**
+	 * @param employeeDAO the DAO to load batches with
+	 * @param windowMicros how long a lookup waits for others to join its batch
+	 * @param maxBatchSize the most project ids in one batch
+	 * @param executor runs the batch loads
+	 * @param readsOwnWrites whether the calling thread has to read its own
+	 *        recent writes, e.g.
+	 *        {@code ReadWriteRoutingDataSource.mustReadFromPrimary}
+	 */
+	public BatchingEmployeeDAO(EmployeeDAO employeeDAO, long windowMicros, int maxBatchSize,
+							   ScheduledExecutorService executor, BooleanSupplier readsOwnWrites) {
+		this.employeeDAO = employeeDAO;
+		this.readsOwnWrites = readsOwnWrites;
+		this.byProjectId = new BatchLoader<>(employeeDAO::getEmployeesByProjectIds, windowMicros, maxBatchSize, executor);
+	}
+
+	@Override
+	public List<Employee> getAllEmployees() {
+		return employeeDAO.getAllEmployees();
+	}
+
+	@Override
+	public void forEachEmployee(Consumer<Employee> action) {
+		employeeDAO.forEachEmployee(action);
+	}
+
+	@Override
+	public List<CompactEmployee> getAllCompactEmployees() {
+		return employeeDAO.getAllCompactEmployees();
+	}
+
+	@Override
+	public EmployeeColumnStore getEmployeeColumnStore() {
+		return employeeDAO.getEmployeeColumnStore();
+	}
+
+	@Override
+	public List<Employee> getEmployeesByIds(Collection<Long> ids) {
+		return employeeDAO.getEmployeesByIds(ids);
+	}
+
+	@Override
+	public List<EmployeeRosterEntry> getEmployeeRoster() {
+		return employeeDAO.getEmployeeRoster();
+	}
+
+	@Override
+	public List<Employee> searchEmployeesByName(String firstNameSearch, String lastNameSearch) {
+		return employeeDAO.searchEmployeesByName(firstNameSearch, lastNameSearch);
+	}
+
+	@Override
+	public List<Employee> getEmployeePage(String lastNamePrefix, Employee after, int pageSize) {
+		return employeeDAO.getEmployeePage(lastNamePrefix, after, pageSize);
+	}
+
+	@Override
+	public List<Employee> getEmployeesByDepartmentId(long id) {
+		return employeeDAO.getEmployeesByDepartmentId(id);
+	}
+
+	@Override
+	public List<Employee> getEmployeesWithoutProjects() {
+		return employeeDAO.getEmployeesWithoutProjects();
+	}
+
+	@Override
+	public List<Employee> getEmployeesByProjectId(Long projectId) {
+		if (projectId == null || TransactionSynchronizationManager.isActualTransactionActive()
+				|| readsOwnWrites.getAsBoolean()) {
+			return employeeDAO.getEmployeesByProjectId(projectId);
+		}
+		List<Employee> employees = byProjectId.get(projectId);
+		return employees != null ? Copies.copyEmployees(employees) : new ArrayList<>();
+	}
+
+	@Override
+	public Map<Long, List<Employee>> getEmployeesByProjectIds(Collection<Long> projectIds) {
+		return employeeDAO.getEmployeesByProjectIds(projectIds);
+	}
+
+	@Override
+	public void changeEmployeeDepartment(Long employeeId, Long departmentId) {
+		employeeDAO.changeEmployeeDepartment(employeeId, departmentId);
+	}
+
+	@Override
+	public void changeEmployeeDepartment(Employee employee, Long departmentId) {
+		employeeDAO.changeEmployeeDepartment(employee, departmentId);
+	}
+
+	@Override
+	public void changeEmployeesDepartment(List<Long> employeeIds, Long departmentId) {
+		employeeDAO.changeEmployeesDepartment(employeeIds, departmentId);
+	}
+
+	/**
+	 * @return batching statistics for {@link #getEmployeesByProjectId(Long)}
+	 */
+	public BatchLoader<Long, List<Employee>> getEmployeesByProjectIdLoader() {
+		return byProjectId;
+	}
+}
@@ -0,0 +1,151 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Stops calls to a dependency that keeps failing, so callers fail at once
+ * instead of each waiting out a timeout against it.
+ * <ul>
+ * <li>{@code CLOSED}: calls go through. Enough failures in a row open the
+ * breaker.</li>
+ * <li>{@code OPEN}: calls are refused until the open period is over.</li>
+ * <li>{@code HALF_OPEN}: one trial call goes through and the rest are
+ * refused. If it succeeds the breaker closes; if it fails it opens
+ * again.</li>
+ * </ul>
+ * Callers ask {@link #tryAcquire()} before a call and report how it went
+ * with {@link #onSuccess()} or {@link #onFailure()}.
+ */
+public class CircuitBreaker {
+
+	public enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	/**
+	 * Told about every change of state, after it has happened.
+	 */
+	public interface Listener {
+		void stateChanged(State from, State to);
+	}
+
+	private int failureThreshold;
+	private long openNanos;
+	private LongSupplier clock;
+	private Listener listener;
+
+	private State state = State.CLOSED;
+	private int consecutiveFailures;
+	private long openedAt;
+	private boolean trialInFlight;
+	private long timesOpened;
+	private LongAdder rejectedCalls = new LongAdder();
+
+	/**
+	 * @param failureThreshold how many failures in a row open the breaker
+	 * @param openMillis how long it stays open before a trial call
+	 * @param listener told about changes of state, may be null
+	 */
+	public CircuitBreaker(int failureThreshold, long openMillis, Listener listener) {
+		this(failureThreshold, openMillis, listener, System::nanoTime);
+	}
+
+	CircuitBreaker(int failureThreshold, long openMillis, Listener listener, LongSupplier clock) {
+		this.failureThreshold = failureThreshold;
+		this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+		this.listener = listener;
+		this.clock = clock;
+	}
+
+	/**
+	 * @return whether the call may go ahead; if so, its outcome must be
+	 *         reported
+	 */
+	public boolean tryAcquire() {
+		State from;
+		synchronized (this) {
+			if (state == State.CLOSED) {
+				return true;
+			}
+			if (state == State.OPEN && clock.getAsLong() - openedAt >= openNanos) {
+				from = state;
+				state = State.HALF_OPEN;
+				trialInFlight = true;
+			} else if (state == State.HALF_OPEN && !trialInFlight) {
+				trialInFlight = true;
+				return true;
+			} else {
+				rejectedCalls.increment();
+				return false;
+			}
+		}
+		notifyListener(from, State.HALF_OPEN);
+		return true;
+	}
+
+	/**
+	 * The call got an answer from the dependency, even if the answer was an
+	 * error of the caller's own making.
+	 */
+	public void onSuccess() {
+		synchronized (this) {
+			consecutiveFailures = 0;
+			if (state != State.HALF_OPEN) {
+				return;
+			}
+			trialInFlight = false;
+			state = State.CLOSED;
+		}
+		notifyListener(State.HALF_OPEN, State.CLOSED);
+	}
+
+	/**
+	 * The call timed out or couldn't reach the dependency.
+	 */
+	public void onFailure() {
+		State from;
+		synchronized (this) {
+			consecutiveFailures++;
+			if (state == State.OPEN || (state == State.CLOSED && consecutiveFailures < failureThreshold)) {
+				return;
+			}
+			from = state;
+			state = State.OPEN;
+			openedAt = clock.getAsLong();
+			trialInFlight = false;
+			timesOpened++;
+		}
+		notifyListener(from, State.OPEN);
+	}
+
+	public synchronized State getState() {
+		return state;
+	}
+
+	/**
+	 * @return how many times the breaker has opened
+	 */
+	public synchronized long getTimesOpened() {
+		return timesOpened;
+	}
+
+	/**
+	 * @return how many calls were refused while it was open
+	 */
+	public long getRejectedCalls() {
+		return rejectedCalls.sum();
+	}
+
+	@Override
+	public String toString() {
+		return getState() + ", opened " + getTimesOpened() + " times, " + getRejectedCalls() + " calls refused";
+	}
+
+	private void notifyListener(State from, State to) {
+		if (listener != null) {
+			listener.stateChanged(from, to);
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.techelevator.projects.model.Department;
+import com.techelevator.projects.model.DepartmentDAO;
+
+/**
+ * A {@link DepartmentDAO} that merges concurrent identical lookups by id, and
+ * concurrent requests for every department, into one query each. Every
+ * caller gets its own copy of the result, so callers can still modify what
+ * they get back. Calls made inside a transaction, or by a thread that has
+ * to read its own recent writes, skip the merging because they must see
+ * those changes. Everything else goes straight to the wrapped DAO.
+ * <p>
+ * Once a save or create made through this object has committed, lookups no
+ * longer join queries that started before it, so a client that saves a
+ * department and then reads it back sees its change.
+ */
+public class CoalescingDepartmentDAO implements DepartmentDAO {
+
+	private static final String ALL = "all";
+
+	private DepartmentDAO departmentDAO;
+	private BooleanSupplier readsOwnWrites;
+	private SingleFlight<Long, Department> byId = new SingleFlight<>();
+	private SingleFlight<String, List<Department>> all = new SingleFlight<>();
+
+	/**
+	 * @param departmentDAO the DAO whose lookups are merged
+	 * @param readsOwnWrites whether the calling thread has to read its own
+	 *        recent writes, e.g.
+	 *        {@code ReadWriteRoutingDataSource.mustReadFromPrimary}
+	 */
+	public CoalescingDepartmentDAO(DepartmentDAO departmentDAO, BooleanSupplier readsOwnWrites) {
+		this.departmentDAO = departmentDAO;
+		this.readsOwnWrites = readsOwnWrites;
+	}
+
+	@Override
+	public List<Department> getAllDepartments() {
+		return Copies.copyDepartments(coalesce(all, ALL, () -> departmentDAO.getAllDepartments()));
+	}
+
+	@Override
+	public List<Department> searchDepartmentsByName(String nameSearch) {
+		return departmentDAO.searchDepartmentsByName(nameSearch);
+	}
+
+	@Override
+	public void saveDepartment(Department updatedDepartment) {
+		departmentDAO.saveDepartment(updatedDepartment);
+		Long id = updatedDepartment.getId();
+		AfterCommit.run(() -> {
+			byId.invalidate(id);
+			all.invalidate(ALL);
+		});
+	}
+
+	@Override
+	public Department createDepartment(Department newDepartment) {
+		Department created = departmentDAO.createDepartment(newDepartment);
+		AfterCommit.run(() -> all.invalidate(ALL));
+		return created;
+	}
+
+	@Override
+	public Department getDepartmentById(Long id) {
+		return Copies.copy(coalesce(byId, id, () -> departmentDAO.getDepartmentById(id)));
+	}
+
+	@Override
+	public List<Department> getDepartmentsByIds(Collection<Long> ids) {
+		return departmentDAO.getDepartmentsByIds(ids);
+	}
+
+	/**
+	 * @return merging statistics for {@link #getDepartmentById(Long)}
+	 */
+	public SingleFlight<Long, Department> getDepartmentByIdFlight() {
+		return byId;
+	}
+
+	/**
+	 * @return merging statistics for {@link #getAllDepartments()}
+	 */
+	public SingleFlight<String, List<Department>> getAllDepartmentsFlight() {
+		return all;
+	}
+
+	private <K, V> V coalesce(SingleFlight<K, V> flight, K key, Supplier<V> work) {
+		if (TransactionSynchronizationManager.isActualTransactionActive() || readsOwnWrites.getAsBoolean()) {
+			return work.get();
+		}
+		return flight.execute(key, work);
+	}
+}
@@ -0,0 +1,208 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.techelevator.projects.model.CompactEmployee;
+import com.techelevator.projects.model.Employee;
+import com.techelevator.projects.model.EmployeeColumnStore;
+import com.techelevator.projects.model.EmployeeDAO;
+import com.techelevator.projects.model.EmployeeRosterEntry;
+import com.techelevator.projects.model.Project;
+import com.techelevator.projects.model.ProjectDAO;
+
+/**
+ * An {@link EmployeeDAO} that merges concurrent identical lookups of a
+ * project's or a department's employees into one query each. As with
+ * {@link CoalescingDepartmentDAO}, callers get their own copies, calls
+ * inside a transaction or from a thread that has to read its own writes
+ * aren't merged, lookups don't join queries that
+ * started before a committed department change made through this object,
+ * and everything else goes straight to the wrapped DAO. Assignment changes
+ * are made through a {@link ProjectDAO}; wrap it with
+ * {@link #watchingAssignments(ProjectDAO)} so they are treated the same.
+ */
+public class CoalescingEmployeeDAO implements EmployeeDAO {
+
+	private EmployeeDAO employeeDAO;
+	private BooleanSupplier readsOwnWrites;
+	private SingleFlight<Long, List<Employee>> byProjectId = new SingleFlight<>();
+	private SingleFlight<Long, List<Employee>> byDepartmentId = new SingleFlight<>();
+
+	/**
+	 * @param employeeDAO the DAO whose lookups are merged
+	 * @param readsOwnWrites whether the calling thread has to read its own
+	 *        recent writes, e.g.
+	 *        {@code ReadWriteRoutingDataSource.mustReadFromPrimary}
+	 */
+	public CoalescingEmployeeDAO(EmployeeDAO employeeDAO, BooleanSupplier readsOwnWrites) {
+		this.employeeDAO = employeeDAO;
+		this.readsOwnWrites = readsOwnWrites;
+	}
+
+	@Override
+	public List<Employee> getAllEmployees() {
+		return employeeDAO.getAllEmployees();
+	}
+
+	@Override
+	public void forEachEmployee(Consumer<Employee> action) {
+		employeeDAO.forEachEmployee(action);
+	}
+
+	@Override
+	public List<CompactEmployee> getAllCompactEmployees() {
+		return employeeDAO.getAllCompactEmployees();
+	}
+
+	@Override
+	public EmployeeColumnStore getEmployeeColumnStore() {
+		return employeeDAO.getEmployeeColumnStore();
+	}
+
+	@Override
+	public List<Employee> getEmployeesByIds(Collection<Long> ids) {
+		return employeeDAO.getEmployeesByIds(ids);
+	}
+
+	@Override
+	public List<EmployeeRosterEntry> getEmployeeRoster() {
+		return employeeDAO.getEmployeeRoster();
+	}
+
+	@Override
+	public List<Employee> searchEmployeesByName(String firstNameSearch, String lastNameSearch) {
+		return employeeDAO.searchEmployeesByName(firstNameSearch, lastNameSearch);
+	}
+
+	@Override
+	public List<Employee> getEmployeePage(String lastNamePrefix, Employee after, int pageSize) {
+		return employeeDAO.getEmployeePage(lastNamePrefix, after, pageSize);
+	}
+
+	@Override
+	public List<Employee> getEmployeesByDepartmentId(long id) {
+		return Copies.copyEmployees(coalesce(byDepartmentId, id, () -> employeeDAO.getEmployeesByDepartmentId(id)));
+	}
+
+	@Override
+	public List<Employee> getEmployeesWithoutProjects() {
+		return employeeDAO.getEmployeesWithoutProjects();
+	}
+
+	@Override
+	public List<Employee> getEmployeesByProjectId(Long projectId) {
+		return Copies.copyEmployees(coalesce(byProjectId, projectId, () -> employeeDAO.getEmployeesByProjectId(projectId)));
+	}
+
+	@Override
+	public Map<Long, List<Employee>> getEmployeesByProjectIds(Collection<Long> projectIds) {
+		return employeeDAO.getEmployeesByProjectIds(projectIds);
+	}
+
+	@Override
+	public void changeEmployeeDepartment(Long employeeId, Long departmentId) {
+		employeeDAO.changeEmployeeDepartment(employeeId, departmentId);
+		AfterCommit.run(this::departmentsChanged);
+	}
+
+	@Override
+	public void changeEmployeeDepartment(Employee employee, Long departmentId) {
+		employeeDAO.changeEmployeeDepartment(employee, departmentId);
+		AfterCommit.run(this::departmentsChanged);
+	}
+
+	@Override
+	public void changeEmployeesDepartment(List<Long> employeeIds, Long departmentId) {
+		employeeDAO.changeEmployeesDepartment(employeeIds, departmentId);
+		AfterCommit.run(this::departmentsChanged);
+	}
+
+	/**
+	 * @return the project DAO with its assignment changes, once committed,
+	 *         stopping lookups of that project's employees from joining
+	 *         queries that started before them
+	 */
+	public ProjectDAO watchingAssignments(ProjectDAO projectDAO) {
+		return new AssignmentWatchingProjectDAO(projectDAO);
+	}
+
+	/**
+	 * @return merging statistics for {@link #getEmployeesByProjectId(Long)}
+	 */
+	public SingleFlight<Long, List<Employee>> getEmployeesByProjectIdFlight() {
+		return byProjectId;
+	}
+
+	/**
+	 * @return merging statistics for {@link #getEmployeesByDepartmentId(long)}
+	 */
+	public SingleFlight<Long, List<Employee>> getEmployeesByDepartmentIdFlight() {
+		return byDepartmentId;
+	}
+
+	/*
+	 * The employee's old department isn't known, and every list that
+	 * includes the employee carries its department id.
+	 */
+	private void departmentsChanged() {
+		byDepartmentId.invalidateAll();
+		byProjectId.invalidateAll();
+	}
+
+	private <K, V> V coalesce(SingleFlight<K, V> flight, K key, Supplier<V> work) {
+		if (TransactionSynchronizationManager.isActualTransactionActive() || readsOwnWrites.getAsBoolean()) {
+			return work.get();
+		}
+		return flight.execute(key, work);
+	}
+
+	private class AssignmentWatchingProjectDAO implements ProjectDAO {
+
+		private ProjectDAO projectDAO;
+
+		AssignmentWatchingProjectDAO(ProjectDAO projectDAO) {
+			this.projectDAO = projectDAO;
+		}
+
+		@Override
+		public List<Project> getAllActiveProjects() {
+			return projectDAO.getAllActiveProjects();
+		}
+
+		@Override
+		public List<Project> getAllProjects() {
+			return projectDAO.getAllProjects();
+		}
+
+		@Override
+		public void removeEmployeeFromProject(Long projectId, Long employeeId) {
+			projectDAO.removeEmployeeFromProject(projectId, employeeId);
+			AfterCommit.run(() -> byProjectId.invalidate(projectId));
+		}
+
+		@Override
+		public void addEmployeeToProject(Long projectId, Long employeeId) {
+			projectDAO.addEmployeeToProject(projectId, employeeId);
+			AfterCommit.run(() -> byProjectId.invalidate(projectId));
+		}
+
+		@Override
+		public void addEmployeesToProject(Long projectId, List<Long> employeeIds) {
+			projectDAO.addEmployeesToProject(projectId, employeeIds);
+			AfterCommit.run(() -> byProjectId.invalidate(projectId));
+		}
+
+		@Override
+		public void removeEmployeesFromProject(Long projectId, List<Long> employeeIds) {
+			projectDAO.removeEmployeesFromProject(projectId, employeeIds);
+			AfterCommit.run(() -> byProjectId.invalidate(projectId));
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.techelevator.projects.model.Department;
+import com.techelevator.projects.model.Employee;
+
+/**
+ * Copies of model objects for decorators that hand one result to several
+ * callers or keep objects of their own, so no caller sees another's changes.
+ */
+final class Copies {
+
+	private Copies() {
+	}
+
+	static Department copy(Department department) {
+		if (department == null) {
+			return null;
+		}
+		Department copy = new Department();
+		copy.setId(department.getId());
+		copy.setName(department.getName());
+		copy.setVersion(department.getVersion());
+		return copy;
+	}
+
+	static List<Department> copyDepartments(List<Department> departments) {
+		List<Department> copies = new ArrayList<>(departments.size());
+		for (Department department : departments) {
+			copies.add(copy(department));
+		}
+		return copies;
+	}
+
+	static Employee copy(Employee employee) {
+		Employee copy = new Employee();
+		copy.setId(employee.getId());
+		copy.setDepartmentId(employee.getDepartmentId());
+		copy.setFirstName(employee.getFirstName());
+		copy.setLastName(employee.getLastName());
+		copy.setBirthDay(employee.getBirthDay());
+		copy.setGender(employee.getGender());
+		copy.setHireDate(employee.getHireDate());
+		copy.setVersion(employee.getVersion());
+		return copy;
+	}
+
+	static List<Employee> copyEmployees(List<Employee> employees) {
+		List<Employee> copies = new ArrayList<>(employees.size());
+		for (Employee employee : employees) {
+			copies.add(copy(employee));
+		}
+		return copies;
+	}
+}
@@ -0,0 +1,192 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.techelevator.projects.model.ChangeSet;
+import com.techelevator.projects.model.Department;
+import com.techelevator.projects.model.DepartmentDAO;
+
+/**
+ * A {@link DepartmentDAO} that answers {@link #searchDepartmentsByName(String)}
+ * from an in-memory {@link NameIndex} instead of the datastore, with the same
+ * LIKE semantics, so typeahead doesn't cost a round trip per keystroke.
+ * Results come back in id order, as copies.
+ * <p>
+ * The index is loaded when the DAO is created. Departments created or saved
+ * through this DAO are added once their transaction commits. A department
+ * saved without a version is indexed with none, marking the entry stale
+ * until {@link #apply(ChangeSet)} or {@link #reload()} brings the row
+ * itself. Changes made any other way are only seen after one of those, so
+ * with more than one writer apply() should be called regularly. Searches inside a transaction go to the datastore so
+ * they see the transaction's own changes. Everything else goes straight to
+ * the wrapped DAO.
+ * <p>
+ * A null search matches nothing, as it does in the datastore.
+ */
+public class IndexedDepartmentDAO implements DepartmentDAO {
+
+	private DepartmentDAO departmentDAO;
+	private ReadWriteLock lock = new ReentrantReadWriteLock();
+	private Map<Long, Department> departments = new HashMap<>();
+	private NameIndex names = new NameIndex();
+	// Copies of the departments changed while reload() reads the datastore,
+	// which its read may have missed; null when no reload is running.
+	private List<Department> changedDuringReload;
+
+	public IndexedDepartmentDAO(DepartmentDAO departmentDAO) {
+		this.departmentDAO = departmentDAO;
+		reload();
+	}
+
+	/**
+	 * Rebuilds the index from every department in the datastore. Changes
+	 * indexed while the datastore is being read are indexed again afterwards
+	 * unless the read already has them, judged by version, so a commit that
+	 * lands during the read isn't lost. Reloads run one at a time.
+	 */
+	public synchronized void reload() {
+		lock.writeLock().lock();
+		try {
+			changedDuringReload = new ArrayList<>();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		List<Department> all = null;
+		try {
+			all = departmentDAO.getAllDepartments();
+		} finally {
+			lock.writeLock().lock();
+			try {
+				if (all != null) {
+					departments.clear();
+					names.clear();
+					for (Department department : all) {
+						index(department);
+					}
+					for (Department changed : changedDuringReload) {
+						Department loaded = departments.get(changed.getId());
+						if (loaded == null || !alreadyLoaded(loaded.getVersion(), changed.getVersion())) {
+							index(changed);
+						}
+					}
+				}
+				changedDuringReload = null;
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+	}
+
+	/**
+	 * Brings the index up to date with departments changed elsewhere.
+	 * Changes older than what is already indexed are skipped, judged by
+	 * version, so a change set read before a save through this DAO doesn't
+	 * undo it.
+	 *
+	 * @param changes changes read from a ChangeTrackingDAO
+	 */
+	public void apply(ChangeSet changes) {
+		lock.writeLock().lock();
+		try {
+			for (Department department : changes.getDepartments()) {
+				Department indexed = departments.get(department.getId());
+				if (indexed == null || !alreadyLoaded(indexed.getVersion(), department.getVersion())) {
+					index(department);
+					recordChange(department);
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public List<Department> getAllDepartments() {
+		return departmentDAO.getAllDepartments();
+	}
+
+	@Override
+	public List<Department> searchDepartmentsByName(String nameSearch) {
+		if (TransactionSynchronizationManager.isActualTransactionActive()) {
+			return departmentDAO.searchDepartmentsByName(nameSearch);
+		}
+		LikePattern pattern = LikePattern.compile(nameSearch == null ? null : "%" + nameSearch + "%");
+		List<Department> matches = new ArrayList<>();
+		lock.readLock().lock();
+		try {
+			for (Long id : new TreeSet<>(names.matching(pattern))) {
+				matches.add(Copies.copy(departments.get(id)));
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return matches;
+	}
+
+	@Override
+	public void saveDepartment(Department updatedDepartment) {
+		// Returns only once a row was written. Without a version the saved
+		// copy's stays null, which is what marks the entry stale.
+		departmentDAO.saveDepartment(updatedDepartment);
+		Department saved = Copies.copy(updatedDepartment);
+		AfterCommit.run(() -> update(saved));
+	}
+
+	@Override
+	public Department createDepartment(Department newDepartment) {
+		Department created = departmentDAO.createDepartment(newDepartment);
+		Department copy = Copies.copy(created);
+		AfterCommit.run(() -> update(copy));
+		return created;
+	}
+
+	@Override
+	public Department getDepartmentById(Long id) {
+		return departmentDAO.getDepartmentById(id);
+	}
+
+	@Override
+	public List<Department> getDepartmentsByIds(Collection<Long> ids) {
+		return departmentDAO.getDepartmentsByIds(ids);
+	}
+
+	private void update(Department department) {
+		lock.writeLock().lock();
+		try {
+			index(department);
+			recordChange(department);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void recordChange(Department department) {
+		if (changedDuringReload != null) {
+			changedDuringReload.add(Copies.copy(department));
+		}
+	}
+
+	/*
+	 * Whether an indexed row already includes a change, such as one indexed
+	 * while reload() was reading. Without both versions, as for a stale
+	 * entry, the change is indexed again.
+	 */
+	private static boolean alreadyLoaded(Integer loadedVersion, Integer changedVersion) {
+		return loadedVersion != null && changedVersion != null && loadedVersion >= changedVersion;
+	}
+
+	private void index(Department department) {
+		Department copy = Copies.copy(department);
+		departments.put(copy.getId(), copy);
+		names.put(copy.getId(), copy.getName());
+	}
+}
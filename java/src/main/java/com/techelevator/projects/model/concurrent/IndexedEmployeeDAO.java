@@ -0,0 +1,254 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.techelevator.projects.model.ChangeSet;
+import com.techelevator.projects.model.CompactEmployee;
+import com.techelevator.projects.model.Employee;
+import com.techelevator.projects.model.EmployeeColumnStore;
+import com.techelevator.projects.model.EmployeeDAO;
+import com.techelevator.projects.model.EmployeeRosterEntry;
+
+/**
+ * An {@link EmployeeDAO} that answers
+ * {@link #searchEmployeesByName(String, String)} from in-memory
+ * {@link NameIndex}es of first and last names, with the same LIKE semantics
+ * as the datastore. It works the same way as {@link IndexedDepartmentDAO}:
+ * loaded up front, updated by department changes made through this DAO once
+ * they commit, by {@link #apply(ChangeSet)} and by {@link #reload()}, and
+ * bypassed inside transactions. Changes made during a reload survive it,
+ * and an employee moved without a version is left stale until the next
+ * apply() or reload().
+ */
+public class IndexedEmployeeDAO implements EmployeeDAO {
+
+	private EmployeeDAO employeeDAO;
+	private ReadWriteLock lock = new ReentrantReadWriteLock();
+	private Map<Long, Employee> employees = new HashMap<>();
+	private NameIndex firstNames = new NameIndex();
+	private NameIndex lastNames = new NameIndex();
+	// Copies of the employees changed while reload() reads the datastore;
+	// null when no reload is running.
+	private List<Employee> changedDuringReload;
+
+	public IndexedEmployeeDAO(EmployeeDAO employeeDAO) {
+		this.employeeDAO = employeeDAO;
+		reload();
+	}
+
+	/**
+	 * Rebuilds the index from every employee in the datastore, then indexes
+	 * again the changes made while it was reading that the read missed, as
+	 * {@link IndexedDepartmentDAO#reload()} does.
+	 */
+	public synchronized void reload() {
+		lock.writeLock().lock();
+		try {
+			changedDuringReload = new ArrayList<>();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		List<Employee> all = new ArrayList<>();
+		boolean loaded = false;
+		try {
+			employeeDAO.forEachEmployee(all::add);
+			loaded = true;
+		} finally {
+			lock.writeLock().lock();
+			try {
+				if (loaded) {
+					employees.clear();
+					firstNames.clear();
+					lastNames.clear();
+					for (Employee employee : all) {
+						index(employee);
+					}
+					for (Employee changed : changedDuringReload) {
+						Employee read = employees.get(changed.getId());
+						if (read == null || !alreadyLoaded(read.getVersion(), changed.getVersion())) {
+							index(changed);
+						}
+					}
+				}
+				changedDuringReload = null;
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+	}
+
+	/**
+	 * Brings the index up to date with employees changed elsewhere, skipping
+	 * changes older than what is already indexed.
+	 *
+	 * @param changes changes read from a ChangeTrackingDAO
+	 */
+	public void apply(ChangeSet changes) {
+		lock.writeLock().lock();
+		try {
+			for (Employee employee : changes.getEmployees()) {
+				Employee indexed = employees.get(employee.getId());
+				if (indexed == null || !alreadyLoaded(indexed.getVersion(), employee.getVersion())) {
+					index(employee);
+					recordChange(employee);
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public List<Employee> getAllEmployees() {
+		return employeeDAO.getAllEmployees();
+	}
+
+	@Override
+	public void forEachEmployee(Consumer<Employee> action) {
+		employeeDAO.forEachEmployee(action);
+	}
+
+	@Override
+	public List<CompactEmployee> getAllCompactEmployees() {
+		return employeeDAO.getAllCompactEmployees();
+	}
+
+	@Override
+	public EmployeeColumnStore getEmployeeColumnStore() {
+		return employeeDAO.getEmployeeColumnStore();
+	}
+
+	@Override
+	public List<Employee> getEmployeesByIds(Collection<Long> ids) {
+		return employeeDAO.getEmployeesByIds(ids);
+	}
+
+	@Override
+	public List<EmployeeRosterEntry> getEmployeeRoster() {
+		return employeeDAO.getEmployeeRoster();
+	}
+
+	@Override
+	public List<Employee> searchEmployeesByName(String firstNameSearch, String lastNameSearch) {
+		if (TransactionSynchronizationManager.isActualTransactionActive()) {
+			return employeeDAO.searchEmployeesByName(firstNameSearch, lastNameSearch);
+		}
+		LikePattern firstName = LikePattern.compile(firstNameSearch);
+		LikePattern lastName = LikePattern.compile(lastNameSearch);
+		List<Employee> matches = new ArrayList<>();
+		lock.readLock().lock();
+		try {
+			Set<Long> ids = new TreeSet<>(lastNames.matching(lastName));
+			if (!ids.isEmpty()) {
+				ids.retainAll(firstNames.matching(firstName));
+			}
+			for (Long id : ids) {
+				matches.add(Copies.copy(employees.get(id)));
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return matches;
+	}
+
+	@Override
+	public List<Employee> getEmployeePage(String lastNamePrefix, Employee after, int pageSize) {
+		return employeeDAO.getEmployeePage(lastNamePrefix, after, pageSize);
+	}
+
+	@Override
+	public List<Employee> getEmployeesByDepartmentId(long id) {
+		return employeeDAO.getEmployeesByDepartmentId(id);
+	}
+
+	@Override
+	public List<Employee> getEmployeesWithoutProjects() {
+		return employeeDAO.getEmployeesWithoutProjects();
+	}
+
+	@Override
+	public List<Employee> getEmployeesByProjectId(Long projectId) {
+		return employeeDAO.getEmployeesByProjectId(projectId);
+	}
+
+	@Override
+	public Map<Long, List<Employee>> getEmployeesByProjectIds(Collection<Long> projectIds) {
+		return employeeDAO.getEmployeesByProjectIds(projectIds);
+	}
+
+	@Override
+	public void changeEmployeeDepartment(Long employeeId, Long departmentId) {
+		employeeDAO.changeEmployeeDepartment(employeeId, departmentId);
+		AfterCommit.run(() -> moveToDepartment(employeeId, departmentId, null));
+	}
+
+	@Override
+	public void changeEmployeeDepartment(Employee employee, Long departmentId) {
+		employeeDAO.changeEmployeeDepartment(employee, departmentId);
+		Integer version = employee.getVersion();
+		AfterCommit.run(() -> moveToDepartment(employee.getId(), departmentId, version));
+	}
+
+	@Override
+	public void changeEmployeesDepartment(List<Long> employeeIds, Long departmentId) {
+		employeeDAO.changeEmployeesDepartment(employeeIds, departmentId);
+		List<Long> moved = new ArrayList<>(employeeIds);
+		AfterCommit.run(() -> {
+			for (Long employeeId : moved) {
+				moveToDepartment(employeeId, departmentId, null);
+			}
+		});
+	}
+
+	/*
+	 * The version is the row's new one after a versioned update. Without it
+	 * the new version isn't known, since others may have written the row
+	 * too, so the entry is marked stale by clearing its version.
+	 */
+	private void moveToDepartment(Long employeeId, Long departmentId, Integer version) {
+		lock.writeLock().lock();
+		try {
+			Employee employee = employees.get(employeeId);
+			if (employee != null) {
+				employee.setDepartmentId(departmentId);
+				employee.setVersion(version);
+				recordChange(employee);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void recordChange(Employee employee) {
+		if (changedDuringReload != null) {
+			changedDuringReload.add(Copies.copy(employee));
+		}
+	}
+
+	/*
+	 * Whether an indexed row already includes a change, such as one made
+	 * while reload() was reading. Without both versions, as for a stale
+	 * entry, the change is indexed again.
+	 */
+	private static boolean alreadyLoaded(Integer readVersion, Integer changedVersion) {
+		return readVersion != null && changedVersion != null && readVersion >= changedVersion;
+	}
+
+	private void index(Employee employee) {
+		Employee copy = Copies.copy(employee);
+		employees.put(copy.getId(), copy);
+		firstNames.put(copy.getId(), copy.getFirstName());
+		lastNames.put(copy.getId(), copy.getLastName());
+	}
+}
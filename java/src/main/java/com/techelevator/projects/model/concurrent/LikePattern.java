@@ -0,0 +1,91 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A SQL LIKE pattern matched in memory the way PostgreSQL matches it: case
+ * sensitive, over the whole string, {@code %} for any run of characters,
+ * {@code _} for exactly one and a backslash to take the next character
+ * literally. A null pattern matches nothing, as {@code LIKE NULL} does.
+ */
+final class LikePattern {
+
+	private static final LikePattern NOTHING = new LikePattern(null, "", Collections.<String>emptyList());
+
+	private final Pattern regex;
+	private final String prefix;
+	private final List<String> literals;
+
+	private LikePattern(Pattern regex, String prefix, List<String> literals) {
+		this.regex = regex;
+		this.prefix = prefix;
+		this.literals = literals;
+	}
+
+	static LikePattern compile(String like) {
+		if (like == null) {
+			return NOTHING;
+		}
+		StringBuilder regex = new StringBuilder();
+		String prefix = null;
+		List<String> literals = new ArrayList<>();
+		StringBuilder literal = new StringBuilder();
+		for (int i = 0; i < like.length(); i++) {
+			char c = like.charAt(i);
+			if (c == '\\') {
+				if (++i == like.length()) {
+					throw new IllegalArgumentException("LIKE pattern must not end with escape character: " + like);
+				}
+				literal.append(like.charAt(i));
+			} else if (c == '%' || c == '_') {
+				if (prefix == null) {
+					prefix = literal.toString();
+				}
+				endLiteral(literal, regex, literals);
+				regex.append(c == '%' ? ".*" : ".");
+			} else {
+				literal.append(c);
+			}
+		}
+		if (prefix == null) {
+			prefix = literal.toString();
+		}
+		endLiteral(literal, regex, literals);
+		return new LikePattern(Pattern.compile(regex.toString(), Pattern.DOTALL), prefix, literals);
+	}
+
+	boolean matches(String text) {
+		return regex != null && text != null && regex.matcher(text).matches();
+	}
+
+	boolean matchesNothing() {
+		return regex == null;
+	}
+
+	/**
+	 * @return the text every match starts with; empty if the pattern starts
+	 *         with a wildcard
+	 */
+	String getPrefix() {
+		return prefix;
+	}
+
+	/**
+	 * @return the runs of literal text between wildcards, each of which every
+	 *         match contains
+	 */
+	List<String> getLiterals() {
+		return literals;
+	}
+
+	private static void endLiteral(StringBuilder literal, StringBuilder regex, List<String> literals) {
+		if (literal.length() > 0) {
+			literals.add(literal.toString());
+			regex.append(Pattern.quote(literal.toString()));
+			literal.setLength(0);
+		}
+	}
+}
@@ -0,0 +1,155 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Finds the ids whose name matches a {@link LikePattern} without testing
+ * every name. Two indexes narrow the search before the pattern is checked:
+ * <ul>
+ * <li>every three-character piece (trigram) of every name, so a pattern
+ * containing a literal of three or more characters only looks at names
+ * containing all of that literal's trigrams;</li>
+ * <li>the names in sorted order, so a pattern that starts with literal text
+ * only looks at names starting with it.</li>
+ * </ul>
+ * A pattern with neither, such as {@code %a%}, checks every name. Matching
+ * is case sensitive, like LIKE. Not thread safe.
+ */
+final class NameIndex {
+
+	private static final int GRAM_LENGTH = 3;
+
+	private Map<Long, String> names = new HashMap<>();
+	private Map<String, Set<Long>> idsByTrigram = new HashMap<>();
+	private TreeMap<String, Set<Long>> idsByName = new TreeMap<>();
+
+	void put(Long id, String name) {
+		remove(id);
+		if (name == null) {
+			return;
+		}
+		names.put(id, name);
+		idsByName.computeIfAbsent(name, key -> new HashSet<>()).add(id);
+		for (String trigram : trigrams(name)) {
+			idsByTrigram.computeIfAbsent(trigram, key -> new HashSet<>()).add(id);
+		}
+	}
+
+	void remove(Long id) {
+		String name = names.remove(id);
+		if (name == null) {
+			return;
+		}
+		removeId(idsByName, name, id);
+		for (String trigram : trigrams(name)) {
+			removeId(idsByTrigram, trigram, id);
+		}
+	}
+
+	void clear() {
+		names.clear();
+		idsByTrigram.clear();
+		idsByName.clear();
+	}
+
+	/**
+	 * @return the ids of every name the pattern matches, in no particular order
+	 */
+	Set<Long> matching(LikePattern pattern) {
+		Set<Long> matches = new HashSet<>();
+		if (pattern.matchesNothing()) {
+			return matches;
+		}
+		List<Set<Long>> postings = trigramPostings(pattern);
+		if (postings == null) {
+			return matches;
+		}
+		if (!postings.isEmpty()) {
+			// Walk the shortest posting list and check the others, rather than
+			// building the intersection first.
+			postings.sort(Comparator.comparingInt(Set::size));
+			List<Set<Long>> others = postings.subList(1, postings.size());
+			for (Long id : postings.get(0)) {
+				if (containsAll(others, id) && pattern.matches(names.get(id))) {
+					matches.add(id);
+				}
+			}
+			return matches;
+		}
+		for (Long id : candidates(pattern.getPrefix())) {
+			if (pattern.matches(names.get(id))) {
+				matches.add(id);
+			}
+		}
+		return matches;
+	}
+
+	/*
+	 * The ids for each trigram of the pattern's literals: empty when no
+	 * literal is long enough to have one, null when some trigram is in no
+	 * name, so nothing can match.
+	 */
+	private List<Set<Long>> trigramPostings(LikePattern pattern) {
+		List<Set<Long>> postings = new ArrayList<>();
+		for (String literal : pattern.getLiterals()) {
+			for (String trigram : trigrams(literal)) {
+				Set<Long> ids = idsByTrigram.get(trigram);
+				if (ids == null) {
+					return null;
+				}
+				postings.add(ids);
+			}
+		}
+		return postings;
+	}
+
+	private Collection<Long> candidates(String prefix) {
+		if (!prefix.isEmpty()) {
+			List<Long> candidates = new ArrayList<>();
+			for (Map.Entry<String, Set<Long>> entry : idsByName.tailMap(prefix, true).entrySet()) {
+				if (!entry.getKey().startsWith(prefix)) {
+					break;
+				}
+				candidates.addAll(entry.getValue());
+			}
+			return candidates;
+		}
+
+		return names.keySet();
+	}
+
+	private static boolean containsAll(List<Set<Long>> postings, Long id) {
+		for (Set<Long> ids : postings) {
+			if (!ids.contains(id)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static Set<String> trigrams(String text) {
+		Set<String> trigrams = new HashSet<>();
+		for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+			trigrams.add(text.substring(i, i + GRAM_LENGTH));
+		}
+		return trigrams;
+	}
+
+	private static void removeId(Map<String, Set<Long>> index, String key, Long id) {
+		Set<Long> ids = index.get(key);
+		if (ids != null) {
+			ids.remove(id);
+			if (ids.isEmpty()) {
+				index.remove(key);
+			}
+		}
+	}
+}
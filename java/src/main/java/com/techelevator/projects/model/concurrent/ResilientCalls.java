@@ -0,0 +1,266 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.techelevator.projects.model.QueryDeadline;
+
+/**
+ * Runs DAO calls with a time limit, a few retries and a
+ * {@link CircuitBreaker}, so a slow or unreachable database costs each
+ * caller a bounded wait instead of a thread stuck indefinitely.
+ * <ul>
+ * <li>Each method has a time limit covering all of its attempts, set as
+ * the {@link QueryDeadline} its statements run under. A
+ * {@code DeadlinePoolDataSource} holds the wait for a pooled connection to
+ * the same limit, failing with a {@code CannotGetJdbcConnectionException},
+ * and the driver's connect and socket timeouts bound the rest. A statement
+ * that runs out of time fails with a {@code QueryTimeoutException} and is
+ * not retried.</li>
+ * <li>A call is retried, after a random pause that grows with each
+ * attempt, only when the failure shows it can safely run again:
+ * serialization failures, deadlocks and lock timeouts, which roll the
+ * statement back; no connection being available, where nothing ran; and a
+ * connection lost part way through, but only for reads.</li>
+ * <li>Timeouts and connection failures count against the breaker. While it
+ * is open calls fail at once with a
+ * {@code TransientDataAccessResourceException}. Any other outcome,
+ * including errors such as constraint violations, shows the database is
+ * answering.</li>
+ * </ul>
+ * Calls made inside a transaction still get their time limit, but are
+ * neither retried nor counted against the breaker: a failed statement has
+ * already spoiled the transaction, so only its owner can retry it.
+ */
+public class ResilientCalls {
+
+	/**
+	 * What a call does, which decides which failures it can be retried
+	 * after.
+	 */
+	public enum Kind {
+		/** Reads and returns its results. */
+		READ,
+		/** Changes data. */
+		WRITE,
+		/** Hands rows to a callback as they arrive, so may have been partly seen. */
+		STREAM
+	}
+
+	private enum Failure {
+		TIMEOUT, UNAVAILABLE, CONNECTION_LOST, CONFLICT, OTHER
+	}
+
+	private CircuitBreaker breaker;
+	private int maxAttempts;
+	private long backoffMillis;
+	private long defaultTimeoutMillis;
+	private Map<String, Long> timeoutMillis;
+
+	private LongAdder calls = new LongAdder();
+	private LongAdder retries = new LongAdder();
+	private ConcurrentMap<String, LongAdder> timeouts = new ConcurrentHashMap<>();
+
+	/**
+	 * @param breaker shared by every call
+	 * @param maxAttempts the most times a call is tried, including the first
+	 * @param backoffMillis the longest pause before the first retry; it
+	 *        doubles for each retry after that
+	 * @param defaultTimeoutMillis the time limit for methods not in
+	 *        {@code timeoutMillis}
+	 * @param timeoutMillis time limits by method name
+	 */
+	public ResilientCalls(CircuitBreaker breaker, int maxAttempts, long backoffMillis, long defaultTimeoutMillis,
+			Map<String, Long> timeoutMillis) {
+		this.breaker = breaker;
+		this.maxAttempts = maxAttempts;
+		this.backoffMillis = backoffMillis;
+		this.defaultTimeoutMillis = defaultTimeoutMillis;
+		this.timeoutMillis = new HashMap<>(timeoutMillis);
+	}
+
+	public <T> T call(String method, Kind kind, Supplier<T> work) {
+		long timeout = timeoutMillis.getOrDefault(method, defaultTimeoutMillis);
+		if (TransactionSynchronizationManager.isActualTransactionActive()) {
+			return QueryDeadline.within(timeout, work);
+		}
+		calls.increment();
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		for (int attempt = 1;; attempt++) {
+			if (!breaker.tryAcquire()) {
+				throw new TransientDataAccessResourceException("The database circuit breaker is open; " + method
+						+ " was not tried");
+			}
+			long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+			RuntimeException failure;
+			Failure cause;
+			boolean answered = false;
+			try {
+				T result = QueryDeadline.within(remainingMillis, work);
+				answered = true;
+				return result;
+			} catch (RuntimeException e) {
+				failure = e;
+				cause = classify(e);
+				answered = cause != Failure.TIMEOUT && cause != Failure.UNAVAILABLE
+						&& cause != Failure.CONNECTION_LOST;
+			} finally {
+				// Reported here so anything else thrown, such as an Error,
+				// counts as a failure and still ends a half-open trial.
+				if (answered) {
+					breaker.onSuccess();
+				} else {
+					breaker.onFailure();
+				}
+			}
+
+			if (cause == Failure.TIMEOUT) {
+				timeouts.computeIfAbsent(method, key -> new LongAdder()).increment();
+				if (failure instanceof QueryTimeoutException) {
+					throw failure;
+				}
+				throw new QueryTimeoutException(method + " took longer than " + timeout + " ms", failure);
+			}
+			if (attempt >= maxAttempts || !retryable(cause, kind)) {
+				throw failure;
+			}
+			long pauseMillis = ThreadLocalRandom.current().nextLong((backoffMillis << (attempt - 1)) + 1);
+			if (deadline - System.nanoTime() <= TimeUnit.MILLISECONDS.toNanos(pauseMillis)) {
+				throw failure;
+			}
+			retries.increment();
+			try {
+				Thread.sleep(pauseMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw failure;
+			}
+		}
+	}
+
+	public void run(String method, Kind kind, Runnable work) {
+		call(method, kind, () -> {
+			work.run();
+			return null;
+		});
+	}
+
+	public CircuitBreaker getBreaker() {
+		return breaker;
+	}
+
+	/**
+	 * @return how many calls have been made outside a transaction
+	 */
+	public long getCalls() {
+		return calls.sum();
+	}
+
+	/**
+	 * @return how many retries those calls needed
+	 */
+	public long getRetries() {
+		return retries.sum();
+	}
+
+	/**
+	 * @return how many calls ran out of time
+	 */
+	public long getTimeouts() {
+		long total = 0;
+		for (LongAdder count : timeouts.values()) {
+			total += count.sum();
+		}
+		return total;
+	}
+
+	/**
+	 * @return how many calls of each method ran out of time, for the methods
+	 *         that have
+	 */
+	public Map<String, Long> getTimeoutsByMethod() {
+		Map<String, Long> byMethod = new TreeMap<>();
+		for (Map.Entry<String, LongAdder> entry : timeouts.entrySet()) {
+			byMethod.put(entry.getKey(), entry.getValue().sum());
+		}
+		return byMethod;
+	}
+
+	@Override
+	public String toString() {
+		return getCalls() + " calls, " + getRetries() + " retries, " + getTimeouts() + " timed out "
+				+ getTimeoutsByMethod() + "; breaker " + breaker;
+	}
+
+	private static boolean retryable(Failure cause, Kind kind) {
+		switch (cause) {
+		case UNAVAILABLE:
+			return true;
+		case CONFLICT:
+			return kind != Kind.STREAM;
+		case CONNECTION_LOST:
+			return kind == Kind.READ;
+		default:
+			return false;
+		}
+	}
+
+	/*
+	 * By PostgreSQL SQLSTATE where there is one, since the driver reports a
+	 * cancelled statement and a dropped connection with plain SQLExceptions.
+	 */
+	private static Failure classify(RuntimeException failure) {
+		if (failure instanceof QueryTimeoutException) {
+			return Failure.TIMEOUT;
+		}
+		if (failure instanceof CannotGetJdbcConnectionException) {
+			return Failure.UNAVAILABLE;
+		}
+		if (failure instanceof PessimisticLockingFailureException) {
+			// Spring's translation of the conflict states below
+			return Failure.CONFLICT;
+		}
+		String state = sqlState(failure);
+		if (state == null) {
+			return Failure.OTHER;
+		}
+		if (state.equals("57014")) {
+			// query_canceled: the statement timeout went off
+			return Failure.TIMEOUT;
+		}
+		if (state.startsWith("08") || state.equals("57P01") || state.equals("57P02") || state.equals("57P03")
+				|| state.equals("53300")) {
+			// Connection exceptions, the server shutting down or starting up,
+			// too many connections
+			return Failure.CONNECTION_LOST;
+		}
+		if (state.equals("40001") || state.equals("40P01") || state.equals("55P03")) {
+			// serialization_failure, deadlock_detected, lock_not_available
+			return Failure.CONFLICT;
+		}
+		return Failure.OTHER;
+	}
+
+	private static String sqlState(Throwable failure) {
+		for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+			if (cause instanceof SQLException && ((SQLException) cause).getSQLState() != null) {
+				return ((SQLException) cause).getSQLState();
+			}
+		}
+		return null;
+	}
+}
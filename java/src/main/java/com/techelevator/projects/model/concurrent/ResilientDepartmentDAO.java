@@ -0,0 +1,54 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.techelevator.projects.model.Department;
+import com.techelevator.projects.model.DepartmentDAO;
+import com.techelevator.projects.model.concurrent.ResilientCalls.Kind;
+
+/**
+ * A {@link DepartmentDAO} whose calls run through {@link ResilientCalls}:
+ * time limited, retried where that is safe and refused while the database
+ * circuit breaker is open. Time limits are looked up by method name.
+ */
+public class ResilientDepartmentDAO implements DepartmentDAO {
+
+	private DepartmentDAO departmentDAO;
+	private ResilientCalls calls;
+
+	public ResilientDepartmentDAO(DepartmentDAO departmentDAO, ResilientCalls calls) {
+		this.departmentDAO = departmentDAO;
+		this.calls = calls;
+	}
+
+	@Override
+	public List<Department> getAllDepartments() {
+		return calls.call("getAllDepartments", Kind.READ, () -> departmentDAO.getAllDepartments());
+	}
+
+	@Override
+	public List<Department> searchDepartmentsByName(String nameSearch) {
+		return calls.call("searchDepartmentsByName", Kind.READ, () -> departmentDAO.searchDepartmentsByName(nameSearch));
+	}
+
+	@Override
+	public void saveDepartment(Department updatedDepartment) {
+		calls.run("saveDepartment", Kind.WRITE, () -> departmentDAO.saveDepartment(updatedDepartment));
+	}
+
+	@Override
+	public Department createDepartment(Department newDepartment) {
+		return calls.call("createDepartment", Kind.WRITE, () -> departmentDAO.createDepartment(newDepartment));
+	}
+
+	@Override
+	public Department getDepartmentById(Long id) {
+		return calls.call("getDepartmentById", Kind.READ, () -> departmentDAO.getDepartmentById(id));
+	}
+
+	@Override
+	public List<Department> getDepartmentsByIds(Collection<Long> ids) {
+		return calls.call("getDepartmentsByIds", Kind.READ, () -> departmentDAO.getDepartmentsByIds(ids));
+	}
+}
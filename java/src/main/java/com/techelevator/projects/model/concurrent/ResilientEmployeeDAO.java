@@ -0,0 +1,106 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.techelevator.projects.model.CompactEmployee;
+import com.techelevator.projects.model.Employee;
+import com.techelevator.projects.model.EmployeeColumnStore;
+import com.techelevator.projects.model.EmployeeDAO;
+import com.techelevator.projects.model.EmployeeRosterEntry;
+import com.techelevator.projects.model.concurrent.ResilientCalls.Kind;
+
+/**
+ * An {@link EmployeeDAO} whose calls run through {@link ResilientCalls}, like
+ * {@link ResilientDepartmentDAO}. {@link #forEachEmployee(Consumer)} is not
+ * retried after its action may have seen some employees.
+ */
+public class ResilientEmployeeDAO implements EmployeeDAO {
+
+	private EmployeeDAO employeeDAO;
+	private ResilientCalls calls;
+
+	public ResilientEmployeeDAO(EmployeeDAO employeeDAO, ResilientCalls calls) {
+		this.employeeDAO = employeeDAO;
+		this.calls = calls;
+	}
+
+	@Override
+	public List<Employee> getAllEmployees() {
+		return calls.call("getAllEmployees", Kind.READ, () -> employeeDAO.getAllEmployees());
+	}
+
+	@Override
+	public void forEachEmployee(Consumer<Employee> action) {
+		calls.run("forEachEmployee", Kind.STREAM, () -> employeeDAO.forEachEmployee(action));
+	}
+
+	@Override
+	public List<CompactEmployee> getAllCompactEmployees() {
+		return calls.call("getAllCompactEmployees", Kind.READ, () -> employeeDAO.getAllCompactEmployees());
+	}
+
+	@Override
+	public EmployeeColumnStore getEmployeeColumnStore() {
+		return calls.call("getEmployeeColumnStore", Kind.READ, () -> employeeDAO.getEmployeeColumnStore());
+	}
+
+	@Override
+	public List<Employee> getEmployeesByIds(Collection<Long> ids) {
+		return calls.call("getEmployeesByIds", Kind.READ, () -> employeeDAO.getEmployeesByIds(ids));
+	}
+
+	@Override
+	public List<EmployeeRosterEntry> getEmployeeRoster() {
+		return calls.call("getEmployeeRoster", Kind.READ, () -> employeeDAO.getEmployeeRoster());
+	}
+
+	@Override
+	public List<Employee> searchEmployeesByName(String firstNameSearch, String lastNameSearch) {
+		return calls.call("searchEmployeesByName", Kind.READ,
+				() -> employeeDAO.searchEmployeesByName(firstNameSearch, lastNameSearch));
+	}
+
+	@Override
+	public List<Employee> getEmployeePage(String lastNamePrefix, Employee after, int pageSize) {
+		return calls.call("getEmployeePage", Kind.READ, () -> employeeDAO.getEmployeePage(lastNamePrefix, after, pageSize));
+	}
+
+	@Override
+	public List<Employee> getEmployeesByDepartmentId(long id) {
+		return calls.call("getEmployeesByDepartmentId", Kind.READ, () -> employeeDAO.getEmployeesByDepartmentId(id));
+	}
+
+	@Override
+	public List<Employee> getEmployeesWithoutProjects() {
+		return calls.call("getEmployeesWithoutProjects", Kind.READ, () -> employeeDAO.getEmployeesWithoutProjects());
+	}
+
+	@Override
+	public List<Employee> getEmployeesByProjectId(Long projectId) {
+		return calls.call("getEmployeesByProjectId", Kind.READ, () -> employeeDAO.getEmployeesByProjectId(projectId));
+	}
+
+	@Override
+	public Map<Long, List<Employee>> getEmployeesByProjectIds(Collection<Long> projectIds) {
+		return calls.call("getEmployeesByProjectIds", Kind.READ, () -> employeeDAO.getEmployeesByProjectIds(projectIds));
+	}
+
+	@Override
+	public void changeEmployeeDepartment(Long employeeId, Long departmentId) {
+		calls.run("changeEmployeeDepartment", Kind.WRITE, () -> employeeDAO.changeEmployeeDepartment(employeeId, departmentId));
+	}
+
+	@Override
+	public void changeEmployeeDepartment(Employee employee, Long departmentId) {
+		calls.run("changeEmployeeDepartment", Kind.WRITE, () -> employeeDAO.changeEmployeeDepartment(employee, departmentId));
+	}
+
+	@Override
+	public void changeEmployeesDepartment(List<Long> employeeIds, Long departmentId) {
+		calls.run("changeEmployeesDepartment", Kind.WRITE,
+				() -> employeeDAO.changeEmployeesDepartment(employeeIds, departmentId));
+	}
+}
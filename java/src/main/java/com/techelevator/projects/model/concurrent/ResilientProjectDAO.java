@@ -0,0 +1,53 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.util.List;
+
+import com.techelevator.projects.model.Project;
+import com.techelevator.projects.model.ProjectDAO;
+import com.techelevator.projects.model.concurrent.ResilientCalls.Kind;
+
+/**
+ * A {@link ProjectDAO} whose calls run through {@link ResilientCalls}, like
+ * {@link ResilientDepartmentDAO}.
+ */
+public class ResilientProjectDAO implements ProjectDAO {
+
+	private ProjectDAO projectDAO;
+	private ResilientCalls calls;
+
+	public ResilientProjectDAO(ProjectDAO projectDAO, ResilientCalls calls) {
+		this.projectDAO = projectDAO;
+		this.calls = calls;
+	}
+
+	@Override
+	public List<Project> getAllActiveProjects() {
+		return calls.call("getAllActiveProjects", Kind.READ, () -> projectDAO.getAllActiveProjects());
+	}
+
+	@Override
+	public List<Project> getAllProjects() {
+		return calls.call("getAllProjects", Kind.READ, () -> projectDAO.getAllProjects());
+	}
+
+	@Override
+	public void removeEmployeeFromProject(Long projectId, Long employeeId) {
+		calls.run("removeEmployeeFromProject", Kind.WRITE, () -> projectDAO.removeEmployeeFromProject(projectId, employeeId));
+	}
+
+	@Override
+	public void addEmployeeToProject(Long projectId, Long employeeId) {
+		calls.run("addEmployeeToProject", Kind.WRITE, () -> projectDAO.addEmployeeToProject(projectId, employeeId));
+	}
+
+	@Override
+	public void addEmployeesToProject(Long projectId, List<Long> employeeIds) {
+		calls.run("addEmployeesToProject", Kind.WRITE, () -> projectDAO.addEmployeesToProject(projectId, employeeIds));
+	}
+
+	@Override
+	public void removeEmployeesFromProject(Long projectId, List<Long> employeeIds) {
+		calls.run("removeEmployeesFromProject", Kind.WRITE,
+				() -> projectDAO.removeEmployeesFromProject(projectId, employeeIds));
+	}
+}
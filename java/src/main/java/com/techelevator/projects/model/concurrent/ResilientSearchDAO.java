@@ -0,0 +1,27 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.util.List;
+
+import com.techelevator.projects.model.SearchDAO;
+import com.techelevator.projects.model.SearchHit;
+import com.techelevator.projects.model.concurrent.ResilientCalls.Kind;
+
+/**
+ * A {@link SearchDAO} whose calls run through {@link ResilientCalls}, like
+ * {@link ResilientDepartmentDAO}.
+ */
+public class ResilientSearchDAO implements SearchDAO {
+
+	private SearchDAO searchDAO;
+	private ResilientCalls calls;
+
+	public ResilientSearchDAO(SearchDAO searchDAO, ResilientCalls calls) {
+		this.searchDAO = searchDAO;
+		this.calls = calls;
+	}
+
+	@Override
+	public List<SearchHit> search(String text, int limit) {
+		return calls.call("search", Kind.READ, () -> searchDAO.search(text, limit));
+	}
+}
@@ -0,0 +1,159 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Merges concurrent calls for the same key into one. The first caller for a
+ * key runs the work; anyone who asks for the same key before it finishes
+ * waits for that result instead of running the work again. Once the work
+ * returns, the next call for the key runs it afresh.
+ * <p>
+ * A caller that joins a run gets a result computed from a start that came
+ * before its own, so it could miss a write it has just made. Writers call
+ * {@link #invalidate(Object)} or {@link #invalidateAll()} once their change
+ * is committed. A caller that arrives after that never joins a run started
+ * before it; it starts a new run, and later callers join that one instead.
+ * Writes nobody reports are only seen by runs that start after them.
+ *
+ * @param <K> the key identifying identical calls
+ * @param <V> the result of the work
+ */
+public class SingleFlight<K, V> {
+
+	// Keys share generation counters by hash; a write to one key then only
+	// costs the keys sharing its counter a merge, never a stale result.
+	private static final int GENERATION_STRIPES = 64;
+
+	private ConcurrentMap<K, Run<V>> inFlight = new ConcurrentHashMap<>();
+	private AtomicLongArray keyGenerations = new AtomicLongArray(GENERATION_STRIPES);
+	private AtomicLong allGeneration = new AtomicLong();
+	private LongAdder calls = new LongAdder();
+	private LongAdder coalescedCalls = new LongAdder();
+
+	private static class Run<V> {
+		private final long generation;
+		private final CompletableFuture<V> result = new CompletableFuture<>();
+
+		Run(long generation) {
+			this.generation = generation;
+		}
+	}
+
+	/**
+	 * Runs {@code work} for the key, or waits for a run in progress that
+	 * started after the key was last invalidated. If the work throws, every
+	 * caller waiting on it gets the same exception.
+	 *
+	 * @param key identifies the work
+	 * @param work computes the result; only called if there is no run to join
+	 * @return the result, possibly shared with other callers
+	 */
+	public V execute(K key, Supplier<V> work) {
+		calls.increment();
+		Run<V> run = new Run<>(generation(key));
+		while (true) {
+			Run<V> running = inFlight.putIfAbsent(key, run);
+			if (running == null) {
+				break;
+			}
+			if (running.generation >= run.generation) {
+				coalescedCalls.increment();
+				return await(running.result);
+			}
+			// Started before a write this caller may need to see: take its
+			// place, and let it finish for the callers already waiting on it.
+			if (inFlight.replace(key, running, run)) {
+				break;
+			}
+		}
+		try {
+			V result = work.get();
+			run.result.complete(result);
+			return result;
+		} catch (RuntimeException | Error e) {
+			run.result.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, run);
+		}
+	}
+
+	/**
+	 * Stops callers from here on joining runs for the key that have already
+	 * started. Call it after a write that changes the key's result has been
+	 * committed.
+	 */
+	public void invalidate(K key) {
+		keyGenerations.incrementAndGet(stripe(key));
+	}
+
+	/**
+	 * {@link #invalidate(Object)} for every key, for writes whose affected
+	 * keys aren't known.
+	 */
+	public void invalidateAll() {
+		allGeneration.incrementAndGet();
+	}
+
+	/**
+	 * @return how many times {@link #execute} has been called
+	 */
+	public long getCalls() {
+		return calls.sum();
+	}
+
+	/**
+	 * @return how many calls waited on another caller's run instead of
+	 *         running the work themselves
+	 */
+	public long getCoalescedCalls() {
+		return coalescedCalls.sum();
+	}
+
+	/**
+	 * @return how many times the work was actually run
+	 */
+	public long getExecutions() {
+		return getCalls() - getCoalescedCalls();
+	}
+
+	@Override
+	public String toString() {
+		long calls = getCalls();
+		long coalesced = getCoalescedCalls();
+		return calls + " calls, " + coalesced + " coalesced ("
+				+ (calls == 0 ? 0 : Math.round(coalesced * 100.0 / calls)) + "%)";
+	}
+
+	// Both counters only grow, so a later read of the sum is never smaller.
+	private long generation(K key) {
+		return allGeneration.get() + keyGenerations.get(stripe(key));
+	}
+
+	private static int stripe(Object key) {
+		int hash = key.hashCode();
+		return (hash ^ (hash >>> 16)) & (GENERATION_STRIPES - 1);
+	}
+
+	private static <V> V await(CompletableFuture<V> running) {
+		try {
+			return running.join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+	}
+}
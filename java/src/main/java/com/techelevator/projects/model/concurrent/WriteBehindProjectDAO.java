@@ -0,0 +1,527 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.techelevator.projects.model.Project;
+import com.techelevator.projects.model.ProjectDAO;
+import com.techelevator.projects.model.UnitOfWork;
+
+/**
+ * A {@link ProjectDAO} that queues assignment changes in memory and writes
+ * them to the wrapped DAO from a background thread, so callers don't wait
+ * on the database. Reading projects goes straight to the wrapped DAO.
+ * <p>
+ * <b>Coalescing.</b> Only the last change queued for each project and
+ * employee pair is written. An add followed by a remove becomes a single
+ * remove, which does nothing if the employee was never on the project.
+ * <p>
+ * <b>Batches.</b> The writer waits up to {@code flushIntervalMillis} after
+ * the first change of a batch, or until the queue is full, and then writes
+ * everything queued in one unit of work with one batch call per project.
+ * If the write fails, the changes go back in the queue (behind any newer
+ * change to the same pair) and are retried after another interval, or
+ * straight away if {@link #flush()} is called.
+ * <p>
+ * <b>Back pressure.</b> Once {@code capacity} changes are waiting, further
+ * changes block until the writer has taken the queue. At most
+ * {@code capacity} changes are waiting while another batch is being
+ * written, plus whatever the last call added past the limit.
+ * <p>
+ * <b>Durability.</b> Without a journal, queued changes are lost if the
+ * process dies before they are written. With a journal, each change is
+ * appended and forced to disk before the call returns. If that fails the
+ * call throws and the journal is cut back to where it was, so a change the
+ * caller was told failed is never replayed. A new instance
+ * opened on the same journal queues everything in it again. Replaying is
+ * safe because adding an existing assignment and removing a missing one
+ * both do nothing. The journal is rewritten to just the unwritten changes
+ * after each successful batch.
+ * <p>
+ * <b>Visibility.</b> Other DAOs don't see a queued change until it is
+ * written. Call {@link #flush()} when a caller needs to read its own
+ * changes back. {@link #close()} writes everything that is left.
+ */
+public class WriteBehindProjectDAO implements ProjectDAO, AutoCloseable {
+
+	private static final char ADD = '+';
+	private static final char REMOVE = '-';
+
+	private ProjectDAO projectDAO;
+	private UnitOfWork unitOfWork;
+	private int capacity;
+	private long flushIntervalNanos;
+	private Path journal;
+	private FileOutputStream journalStream;
+	private Writer journalWriter;
+
+	private ReentrantLock lock = new ReentrantLock();
+	// Signalled when changes are queued, a flush is asked for or the DAO is closed.
+	private Condition changed = lock.newCondition();
+	// Signalled when the writer takes the queue.
+	private Condition notFull = lock.newCondition();
+	// Signalled after every attempt to write a batch.
+	private Condition attempted = lock.newCondition();
+
+	// true to add the pair, false to remove it
+	private Map<Assignment, Boolean> pending = new LinkedHashMap<>();
+	private long callsQueued;
+	private long callsWritten;
+	private boolean flushRequested;
+	private boolean closed;
+	private RuntimeException lastFailure;
+	private long flushes;
+	private long failedFlushes;
+	private long changesWritten;
+	private long changesCoalesced;
+	private Thread writer;
+
+	/**
+	 * @param projectDAO the DAO the changes are written to
+	 * @param unitOfWork the transaction each batch is written in
+	 * @param capacity how many changes may wait before callers block
+	 * @param flushIntervalMillis how long a change may wait before it is written
+	 * @param journal the file to journal changes to, or null to keep them
+	 *        only in memory
+	 * @throws IOException if the journal can't be read or opened
+	 */
+	public WriteBehindProjectDAO(ProjectDAO projectDAO, UnitOfWork unitOfWork, int capacity, long flushIntervalMillis,
+								 Path journal) throws IOException {
+		this.projectDAO = projectDAO;
+		this.unitOfWork = unitOfWork;
+		this.capacity = capacity;
+		this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+		this.journal = journal;
+		if (journal != null) {
+			replayJournal();
+			// Starts a fresh file, without any line a crash cut short.
+			compactJournal();
+			if (lastFailure != null) {
+				throw ((UncheckedIOException) lastFailure).getCause();
+			}
+		}
+		this.writer = new Thread(this::writeBehind, "project-write-behind");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	@Override
+	public List<Project> getAllActiveProjects() {
+		return projectDAO.getAllActiveProjects();
+	}
+
+	@Override
+	public List<Project> getAllProjects() {
+		return projectDAO.getAllProjects();
+	}
+
+	@Override
+	public void removeEmployeeFromProject(Long projectId, Long employeeId) {
+		queue(projectId, Arrays.asList(employeeId), false);
+	}
+
+	@Override
+	public void addEmployeeToProject(Long projectId, Long employeeId) {
+		queue(projectId, Arrays.asList(employeeId), true);
+	}
+
+	@Override
+	public void addEmployeesToProject(Long projectId, List<Long> employeeIds) {
+		queue(projectId, employeeIds, true);
+	}
+
+	@Override
+	public void removeEmployeesFromProject(Long projectId, List<Long> employeeIds) {
+		queue(projectId, employeeIds, false);
+	}
+
+	/**
+	 * Blocks until every change queued before the call has been written.
+	 *
+	 * @throws RuntimeException the write failure, if an attempt to write
+	 *         them fails while waiting; the changes stay queued
+	 */
+	public void flush() {
+		lock.lock();
+		try {
+			long target = callsQueued;
+			long failuresBefore = failedFlushes;
+			while (callsWritten < target) {
+				if (failedFlushes > failuresBefore) {
+					throw lastFailure;
+				}
+				if (!writer.isAlive()) {
+					throw new IllegalStateException("The write-behind writer has stopped", lastFailure);
+				}
+				flushRequested = true;
+				changed.signalAll();
+				attempted.awaitUninterruptibly();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Writes everything still queued and stops the background writer. If the
+	 * last write fails, the changes are left in the journal, if there is one.
+	 *
+	 * @throws IllegalStateException if some changes could not be written
+	 */
+	@Override
+	public void close() {
+		lock.lock();
+		try {
+			closed = true;
+			changed.signalAll();
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		lock.lock();
+		try {
+			closeJournal();
+			if (!pending.isEmpty()) {
+				throw new IllegalStateException(pending.size() + " assignment changes were not written"
+						+ (journal != null ? "; they are kept in " + journal : ""), lastFailure);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return how many changes are waiting to be written
+	 */
+	public int getPendingChanges() {
+		lock.lock();
+		try {
+			return pending.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return how many batches have been written
+	 */
+	public long getFlushes() {
+		lock.lock();
+		try {
+			return flushes;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return how many batches failed and were queued again
+	 */
+	public long getFailedFlushes() {
+		lock.lock();
+		try {
+			return failedFlushes;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return how many changes have been written
+	 */
+	public long getChangesWritten() {
+		lock.lock();
+		try {
+			return changesWritten;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return how many changes replaced an earlier queued change to the same
+	 *         pair and so were never written separately
+	 */
+	public long getChangesCoalesced() {
+		lock.lock();
+		try {
+			return changesCoalesced;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void queue(Long projectId, List<Long> employeeIds, boolean add) {
+		lock.lock();
+		try {
+			while (pending.size() >= capacity && !closed) {
+				changed.signalAll();
+				try {
+					notFull.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("Interrupted while waiting for room in the write-behind queue");
+				}
+			}
+			if (closed) {
+				throw new IllegalStateException("The write-behind queue is closed");
+			}
+			if (journalWriter != null) {
+				appendToJournal(projectId, employeeIds, add);
+			}
+			for (Long employeeId : employeeIds) {
+				if (pending.put(new Assignment(projectId, employeeId), add) != null) {
+					changesCoalesced++;
+				}
+			}
+			callsQueued++;
+			changed.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void writeBehind() {
+		lock.lock();
+		try {
+			while (true) {
+				while (pending.isEmpty() && !closed) {
+					changed.awaitUninterruptibly();
+				}
+				if (pending.isEmpty()) {
+					return;
+				}
+				long remaining = flushIntervalNanos;
+				while (remaining > 0 && !closed && !flushRequested && pending.size() < capacity) {
+					remaining = awaitChange(remaining);
+				}
+				flushRequested = false;
+
+				Map<Assignment, Boolean> batch = pending;
+				long batchCalls = callsQueued;
+				pending = new LinkedHashMap<>();
+				notFull.signalAll();
+
+				RuntimeException failure = null;
+				lock.unlock();
+				try {
+					write(batch);
+				} catch (RuntimeException e) {
+					failure = e;
+				} finally {
+					lock.lock();
+				}
+
+				if (failure == null) {
+					flushes++;
+					changesWritten += batch.size();
+					callsWritten = batchCalls;
+					compactJournal();
+				} else {
+					failedFlushes++;
+					lastFailure = failure;
+					for (Map.Entry<Assignment, Boolean> change : batch.entrySet()) {
+						pending.putIfAbsent(change.getKey(), change.getValue());
+					}
+				}
+				attempted.signalAll();
+				if (failure != null) {
+					if (closed) {
+						return;
+					}
+					long backOff = flushIntervalNanos;
+					while (backOff > 0 && !closed && !flushRequested) {
+						backOff = awaitChange(backOff);
+					}
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private long awaitChange(long nanos) {
+		try {
+			return changed.awaitNanos(nanos);
+		} catch (InterruptedException e) {
+			// Only close() stops the writer.
+			return nanos;
+		}
+	}
+
+	private void write(Map<Assignment, Boolean> batch) {
+		Map<Long, List<Long>> adds = new LinkedHashMap<>();
+		Map<Long, List<Long>> removes = new LinkedHashMap<>();
+		for (Map.Entry<Assignment, Boolean> change : batch.entrySet()) {
+			Map<Long, List<Long>> byProject = change.getValue() ? adds : removes;
+			byProject.computeIfAbsent(change.getKey().projectId, id -> new ArrayList<>()).add(change.getKey().employeeId);
+		}
+		unitOfWork.run(() -> {
+			for (Map.Entry<Long, List<Long>> project : removes.entrySet()) {
+				projectDAO.removeEmployeesFromProject(project.getKey(), project.getValue());
+			}
+			for (Map.Entry<Long, List<Long>> project : adds.entrySet()) {
+				projectDAO.addEmployeesToProject(project.getKey(), project.getValue());
+			}
+		});
+	}
+
+	private void replayJournal() throws IOException {
+		if (!Files.exists(journal)) {
+			return;
+		}
+		String contents = new String(Files.readAllBytes(journal), StandardCharsets.UTF_8);
+		// Only lines ending in a newline were written in full. Whatever
+		// follows the last one was cut short by a crash and never
+		// acknowledged, and "+ 1 15" cut to "+ 1 1" would still parse.
+		int end = contents.lastIndexOf('\n');
+		for (String line : contents.substring(0, end + 1).split("\n")) {
+			String[] fields = line.split(" ");
+			if (fields.length != 3 || fields[0].length() != 1
+					|| (fields[0].charAt(0) != ADD && fields[0].charAt(0) != REMOVE)) {
+				continue;
+			}
+			Assignment assignment;
+			try {
+				assignment = new Assignment(Long.valueOf(fields[1]), Long.valueOf(fields[2]));
+			} catch (NumberFormatException e) {
+				continue;
+			}
+			pending.put(assignment, fields[0].charAt(0) == ADD);
+		}
+		if (!pending.isEmpty()) {
+			callsQueued++;
+		}
+	}
+
+	private void openJournal() throws IOException {
+		journalStream = new FileOutputStream(journal.toFile(), true);
+		journalWriter = new BufferedWriter(new OutputStreamWriter(journalStream, StandardCharsets.UTF_8));
+	}
+
+	private void appendToJournal(Long projectId, List<Long> employeeIds, boolean add) {
+		long length = -1;
+		try {
+			length = journalStream.getChannel().size();
+			for (Long employeeId : employeeIds) {
+				journalWriter.write((add ? ADD : REMOVE) + " " + projectId + " " + employeeId + "\n");
+			}
+			journalWriter.flush();
+			journalStream.getChannel().force(false);
+		} catch (IOException e) {
+			UncheckedIOException failure = new UncheckedIOException("Could not journal assignment change", e);
+			if (length >= 0) {
+				truncateJournal(length, failure);
+			}
+			throw failure;
+		}
+	}
+
+	/*
+	 * Undoes a failed append. The writer is replaced so nothing left in its
+	 * buffer reaches the file later, and whatever it did write is cut off.
+	 * If even that fails, the lines stay and are replayed on the next start.
+	 */
+	private void truncateJournal(long length, UncheckedIOException failure) {
+		journalWriter = new BufferedWriter(new OutputStreamWriter(journalStream, StandardCharsets.UTF_8));
+		try {
+			journalStream.getChannel().truncate(length);
+			journalStream.getChannel().force(false);
+		} catch (IOException truncateFailure) {
+			failure.addSuppressed(truncateFailure);
+		}
+	}
+
+	/*
+	 * Replaces the journal with just the changes still queued, so it doesn't
+	 * grow forever. If this fails the old journal stays; replaying changes
+	 * that were already written does no harm.
+	 */
+	private void compactJournal() {
+		if (journal == null) {
+			return;
+		}
+		try {
+			Path compacted = journal.resolveSibling(journal.getFileName() + ".tmp");
+			try (FileOutputStream stream = new FileOutputStream(compacted.toFile());
+				 Writer writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8))) {
+				for (Map.Entry<Assignment, Boolean> change : pending.entrySet()) {
+					writer.write((change.getValue() ? ADD : REMOVE) + " " + change.getKey().projectId + " "
+							+ change.getKey().employeeId + "\n");
+				}
+				writer.flush();
+				stream.getChannel().force(false);
+			}
+			closeJournal();
+			Files.move(compacted, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			openJournal();
+		} catch (IOException e) {
+			lastFailure = new UncheckedIOException("Could not compact the write-behind journal", e);
+			if (journalWriter == null) {
+				try {
+					openJournal();
+				} catch (IOException reopenFailure) {
+					lastFailure = new UncheckedIOException("Could not reopen the write-behind journal", reopenFailure);
+				}
+			}
+		}
+	}
+
+	private void closeJournal() {
+		if (journalWriter != null) {
+			try {
+				journalWriter.close();
+			} catch (IOException e) {
+				// Everything was already forced to disk.
+			}
+			journalWriter = null;
+			journalStream = null;
+		}
+	}
+
+	private static final class Assignment {
+
+		private final Long projectId;
+		private final Long employeeId;
+
+		Assignment(Long projectId, Long employeeId) {
+			this.projectId = projectId;
+			this.employeeId = employeeId;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof Assignment)) {
+				return false;
+			}
+			Assignment assignment = (Assignment) other;
+			return projectId.equals(assignment.projectId) && employeeId.equals(assignment.employeeId);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * projectId.hashCode() + employeeId.hashCode();
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package com.techelevator.projects.model.jdbc;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.apache.commons.dbcp2.PoolableConnection;
+import org.apache.commons.dbcp2.PoolingDataSource;
+import org.apache.commons.pool2.ObjectPool;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+
+import com.techelevator.projects.model.QueryDeadline;
+
+/**
+ * A connection pool whose callers wait for a connection no longer than
+ * their {@link QueryDeadline} allows. A statement's timeout only starts
+ * once it has a connection, so without this a call that finds the pool
+ * exhausted would wait out {@code maxWaitMillis} however little of its
+ * time was left. Callers with no deadline wait up to
+ * {@code maxWaitMillis} as usual, which should itself be bounded.
+ */
+public class DeadlinePoolDataSource extends BasicDataSource {
+
+	@Override
+	protected DataSource createDataSourceInstance() throws SQLException {
+		PoolingDataSource<PoolableConnection> dataSource = new PoolingDataSource<>(new DeadlinePool(getConnectionPool()));
+		dataSource.setAccessToUnderlyingConnectionAllowed(isAccessToUnderlyingConnectionAllowed());
+		return dataSource;
+	}
+
+	/*
+	 * Borrows with the shorter of the pool's wait and the caller's time left.
+	 * Everything else, including returning connections, which they do
+	 * themselves, goes to the pool.
+	 */
+	private class DeadlinePool implements ObjectPool<PoolableConnection> {
+
+		private GenericObjectPool<PoolableConnection> pool;
+
+		DeadlinePool(GenericObjectPool<PoolableConnection> pool) {
+			this.pool = pool;
+		}
+
+		@Override
+		public PoolableConnection borrowObject() throws Exception {
+			long waitMillis = getMaxWaitMillis();
+			long remainingMillis = QueryDeadline.remainingMillis();
+			if (remainingMillis >= 0 && (waitMillis < 0 || remainingMillis < waitMillis)) {
+				waitMillis = remainingMillis;
+			}
+			return pool.borrowObject(waitMillis);
+		}
+
+		@Override
+		public void returnObject(PoolableConnection connection) throws Exception {
+			pool.returnObject(connection);
+		}
+
+		@Override
+		public void invalidateObject(PoolableConnection connection) throws Exception {
+			pool.invalidateObject(connection);
+		}
+
+		@Override
+		public void addObject() throws Exception {
+			pool.addObject();
+		}
+
+		@Override
+		public int getNumIdle() {
+			return pool.getNumIdle();
+		}
+
+		@Override
+		public int getNumActive() {
+			return pool.getNumActive();
+		}
+
+		@Override
+		public void clear() throws Exception {
+			pool.clear();
+		}
+
+		@Override
+		public void close() {
+			pool.close();
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package com.techelevator.projects.model.jdbc;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.rowset.SqlRowSet;
+
+import com.techelevator.projects.model.ChangeSet;
+import com.techelevator.projects.model.ChangeTrackingDAO;
+import com.techelevator.projects.model.Department;
+import com.techelevator.projects.model.Project;
+import com.techelevator.projects.model.ProjectAssignmentStore;
+
+/**
+ * Finds changes through the {@code change_txid} column on every table and the
+ * {@code project_employee_tombstone} table.
+ * <p>
+ * A token is the oldest transaction id still running when it was taken. Any
+ * transaction that commits afterwards has an id at least that large, so
+ * reading rows with {@code change_txid >= token} can't miss a write. Rows
+ * written by transactions that happened to commit just before the token may
+ * be returned twice.
+ */
+public class JDBCChangeTrackingDAO implements ChangeTrackingDAO {
+
+	static final String SQL_GET_CHANGE_TOKEN = "SELECT txid_snapshot_xmin(txid_current_snapshot()) AS token, now() AS read_at";
+	private static final String CHANGED_SINCE = "WHERE change_txid >= ?";
+	private static final String SQL_GET_CHANGED_DEPARTMENTS = JDBCDepartmentDAO.SELECT_DEPARTMENT + CHANGED_SINCE;
+	private static final String SQL_GET_CHANGED_PROJECTS = JDBCProjectDAO.SELECT_PROJECT + CHANGED_SINCE;
+	private static final String SQL_GET_CHANGED_EMPLOYEES = JDBCEmployeeDAO.SELECT_EMPLOYEE + CHANGED_SINCE;
+	private static final String SQL_GET_ADDED_ASSIGNMENTS = "SELECT project_id, employee_id " +
+															"FROM project_employee " +
+															CHANGED_SINCE;
+	private static final String SQL_GET_REMOVED_ASSIGNMENTS = "SELECT DISTINCT project_id, employee_id " +
+															  "FROM project_employee_tombstone tombstone " +
+															  "WHERE change_txid >= ? " +
+															  "AND NOT EXISTS (SELECT 1 FROM project_employee " +
+															  				  "WHERE project_employee.project_id = tombstone.project_id " +
+															  				  "AND project_employee.employee_id = tombstone.employee_id)";
+	private static final String SQL_PURGE_TOMBSTONES = "DELETE FROM project_employee_tombstone " +
+													   "WHERE change_txid < ?";
+
+	private JdbcTemplate jdbcTemplate;
+	private JdbcTemplate readTemplate;
+
+	public JDBCChangeTrackingDAO(DataSource dataSource) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.readTemplate = new JdbcTemplate(ReadWriteRoutingDataSource.forReads(dataSource));
+	}
+
+	@Override
+	public long getCurrentChangeToken() {
+		SqlRowSet results = readTemplate.queryForRowSet(SQL_GET_CHANGE_TOKEN, JDBCStatements.NO_PARAMETERS);
+		results.next();
+		return results.getLong("token");
+	}
+
+	@Override
+	public ChangeSet changesSince(long token) {
+		// The next token is taken before reading, so anything that commits
+		// while the reads below are running is picked up next time.
+		SqlRowSet tokenRow = readTemplate.queryForRowSet(SQL_GET_CHANGE_TOKEN, JDBCStatements.NO_PARAMETERS);
+		tokenRow.next();
+		long nextToken = tokenRow.getLong("token");
+		Timestamp readAt = tokenRow.getTimestamp("read_at");
+
+		List<Department> departments = new ArrayList<>();
+		SqlRowSet results = readTemplate.queryForRowSet(SQL_GET_CHANGED_DEPARTMENTS, token);
+		while (results.next()) {
+			departments.add(JDBCDepartmentDAO.mapRowToDepartment(results));
+		}
+
+		List<Project> projects = new ArrayList<>();
+		results = readTemplate.queryForRowSet(SQL_GET_CHANGED_PROJECTS, token);
+		while (results.next()) {
+			projects.add(JDBCProjectDAO.mapRowToProject(results));
+		}
+
+		results = readTemplate.queryForRowSet(SQL_GET_CHANGED_EMPLOYEES, token);
+
+		return new ChangeSet(nextToken, readAt.toInstant(), departments, projects,
+				JDBCEmployeeDAO.mapRowsToEmployees(results),
+				queryAssignments(SQL_GET_ADDED_ASSIGNMENTS, token),
+				queryAssignments(SQL_GET_REMOVED_ASSIGNMENTS, token));
+	}
+
+	@Override
+	public void purgeTombstonesBefore(long token) {
+		jdbcTemplate.update(SQL_PURGE_TOMBSTONES, token);
+	}
+
+	private ProjectAssignmentStore queryAssignments(String sql, long token) {
+		ProjectAssignmentStore.Builder assignments = new ProjectAssignmentStore.Builder();
+		readTemplate.query(sql, new Object[] { token },
+				(RowCallbackHandler) row -> assignments.add(row.getInt("project_id"), row.getInt("employee_id")));
+		return assignments.build();
+	}
+}
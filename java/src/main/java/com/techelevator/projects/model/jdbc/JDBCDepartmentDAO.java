@@ -1,10 +1,13 @@
 package com.techelevator.projects.model.jdbc;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import javax.sql.DataSource;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.JdbcUpdateAffectedIncorrectNumberOfRowsException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 
@@ -13,27 +16,40 @@ import com.techelevator.projects.model.DepartmentDAO;
 
 public class JDBCDepartmentDAO implements DepartmentDAO {
 
+	// The SQL is built once so every call hands the driver the identical
+	// string, which is what lets pooled prepared statements be reused.
+	static final String SELECT_DEPARTMENT = "SELECT department_id, name, version " +
+											"FROM department ";
+	private static final String SQL_GET_ALL_DEPARTMENTS = SELECT_DEPARTMENT;
+	private static final String SQL_SEARCH_DEPARTMENTS_BY_NAME = SELECT_DEPARTMENT +
+																 "WHERE name LIKE ?";
+	private static final String SQL_GET_DEPARTMENT_BY_ID = SELECT_DEPARTMENT +
+														   "WHERE department_id = ?";
+	private static final String SQL_GET_DEPARTMENTS_BY_IDS = SELECT_DEPARTMENT +
+															 "WHERE department_id = ANY(?)";
+	private static final String SQL_SAVE_DEPARTMENT = "UPDATE department " +
+													  "SET name = ?, version = version + 1 " +
+													  "WHERE department_id = ?";
+	private static final String SQL_SAVE_DEPARTMENT_AT_VERSION = SQL_SAVE_DEPARTMENT + " AND version = ?";
+	private static final String SQL_CREATE_DEPARTMENT = "INSERT INTO department (name) " +
+														"VALUES (?) RETURNING department_id, version";
+
 	private JdbcTemplate jdbcTemplate;
+	private JdbcTemplate readTemplate;
 
 	public JDBCDepartmentDAO(DataSource dataSource) {
-		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.jdbcTemplate = JDBCStatements.template(dataSource);
+		this.readTemplate = JDBCStatements.template(ReadWriteRoutingDataSource.forReads(dataSource));
 	}
 
 	@Override
 	public List<Department> getAllDepartments() {
 		List<Department> departments = new ArrayList<>();
 
-		String sql = "SELECT department_id, name " + "FROM department";
-
-		SqlRowSet results = jdbcTemplate.queryForRowSet(sql);
+		SqlRowSet results = readTemplate.queryForRowSet(SQL_GET_ALL_DEPARTMENTS, JDBCStatements.NO_PARAMETERS);
 
-		Department d = null;
 		while (results.next()) {
-			d = new Department();
-			d.setId(results.getLong("department_id"));
-			d.setName(results.getString("name"));
-
-			departments.add(d);
+			departments.add(mapRowToDepartment(results));
 		}
 
 		return departments;
@@ -43,17 +59,15 @@ public class JDBCDepartmentDAO implements DepartmentDAO {
 	public List<Department> searchDepartmentsByName(String nameSearch) {
 		List<Department> departments = new ArrayList<>();
 
-		String sql = "SELECT department_id, name " + "FROM department " + "WHERE name LIKE ?";
+		if (nameSearch == null) {
+			// Like a NULL pattern in SQL, rather than a search for "null"
+			return departments;
+		}
 
-		SqlRowSet results = jdbcTemplate.queryForRowSet(sql, "%" + nameSearch + "%");
+		SqlRowSet results = readTemplate.queryForRowSet(SQL_SEARCH_DEPARTMENTS_BY_NAME, "%" + nameSearch + "%");
 
-		Department d = null;
 		while (results.next()) {
-			d = new Department();
-			d.setId(results.getLong("department_id"));
-			d.setName(results.getString("name"));
-
-			departments.add(d);
+			departments.add(mapRowToDepartment(results));
 		}
 
 		return departments;
@@ -61,20 +75,31 @@ public class JDBCDepartmentDAO implements DepartmentDAO {
 
 	@Override
 	public void saveDepartment(Department updatedDepartment) {
-		String sql = "UPDATE department " +
-					 "SET name = ? " +
-					 "WHERE department_id = ?";
-		jdbcTemplate.update(sql, updatedDepartment.getName(), updatedDepartment.getId());
+		Integer version = updatedDepartment.getVersion();
+		if (version == null) {
+			int rowsUpdated = jdbcTemplate.update(SQL_SAVE_DEPARTMENT, updatedDepartment.getName(),
+					updatedDepartment.getId());
+			if (rowsUpdated == 0) {
+				throw new JdbcUpdateAffectedIncorrectNumberOfRowsException(SQL_SAVE_DEPARTMENT, 1, rowsUpdated);
+			}
+			return;
+		}
+		
+		int rowsUpdated = jdbcTemplate.update(SQL_SAVE_DEPARTMENT_AT_VERSION, updatedDepartment.getName(),
+				updatedDepartment.getId(), version);
+		if (rowsUpdated == 0) {
+			throw new OptimisticLockingFailureException("Department " + updatedDepartment.getId() +
+					" was changed or removed by someone else after version " + version + " was read");
+		}
+		updatedDepartment.setVersion(version + 1);
 	}
 
 	@Override
 	public Department createDepartment(Department newDepartment) {
-		String sql = "INSERT INTO department (name) " +
-				     "VALUES (?) RETURNING department_id";
-	
-		SqlRowSet results = jdbcTemplate.queryForRowSet(sql, newDepartment.getName());
+		SqlRowSet results = jdbcTemplate.queryForRowSet(SQL_CREATE_DEPARTMENT, newDepartment.getName());
 		if(results.next()) {
 			newDepartment.setId(results.getLong("department_id"));
+			newDepartment.setVersion(results.getInt("version"));
 		}
 		
 		return newDepartment;
@@ -83,18 +108,36 @@ public class JDBCDepartmentDAO implements DepartmentDAO {
 	@Override
 	public Department getDepartmentById(Long id) {
 		Department department = null;
-		String sql = "SELECT department_id, name " +
-					 "FROM department " + 
-					 "WHERE department_id = ?";
 		
-		SqlRowSet results = this.jdbcTemplate.queryForRowSet(sql, id);
+		SqlRowSet results = readTemplate.queryForRowSet(SQL_GET_DEPARTMENT_BY_ID, id);
 		
 		if(results.next()) {
-			department = new Department();
-			department.setId(results.getLong("department_id"));
-			department.setName(results.getString("name"));
+			department = mapRowToDepartment(results);
 		}
 		return department;
 	}
 
+	@Override
+	public List<Department> getDepartmentsByIds(Collection<Long> ids) {
+		List<Department> departments = new ArrayList<>();
+
+		for (List<Long> chunk : JDBCStatements.idChunks(ids)) {
+			SqlRowSet results = readTemplate.queryForRowSet(SQL_GET_DEPARTMENTS_BY_IDS, JDBCStatements.idArray(chunk));
+			while (results.next()) {
+				departments.add(mapRowToDepartment(results));
+			}
+		}
+
+		return departments;
+	}
+
+	static Department mapRowToDepartment(SqlRowSet row) {
+		Department d = new Department();
+		
+		d.setId(row.getLong("department_id"));
+		d.setName(row.getString("name"));
+		d.setVersion(row.getInt("version"));
+		
+		return d;
+	}
 }
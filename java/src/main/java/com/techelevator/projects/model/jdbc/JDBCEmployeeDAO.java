@@ -1,131 +1,284 @@
 package com.techelevator.projects.model.jdbc;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import javax.sql.DataSource;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.rowset.ResultSetWrappingSqlRowSet;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 
+import com.techelevator.projects.model.CompactEmployee;
 import com.techelevator.projects.model.Employee;
+import com.techelevator.projects.model.EmployeeColumnStore;
 import com.techelevator.projects.model.EmployeeDAO;
+import com.techelevator.projects.model.EmployeeRosterEntry;
 
 public class JDBCEmployeeDAO implements EmployeeDAO {
 
+	private static final String EMPLOYEE_COLUMNS = "employee.employee_id, employee.department_id, first_name, last_name, birth_date, gender, hire_date, employee.version ";
+	static final String SELECT_EMPLOYEE = "SELECT " + EMPLOYEE_COLUMNS +
+										  "FROM employee ";
+	private static final String SQL_GET_ALL_EMPLOYEES = SELECT_EMPLOYEE;
+	private static final String SQL_GET_EMPLOYEES_BY_IDS = SELECT_EMPLOYEE +
+														   "WHERE employee_id = ANY(?)";
+	private static final String SQL_SEARCH_EMPLOYEES_BY_NAME = SELECT_EMPLOYEE +
+															   "WHERE first_name LIKE ? AND last_name LIKE ?";
+	// The prefix filter, the order and the keyset all use the expression
+	// ix_employee_lower_name_order indexes, lower(last_name) in the "C"
+	// collation, so each page is one range scan of that index. A btree can
+	// only narrow a LIKE prefix in the "C" collation.
+	static final String SQL_GET_FIRST_EMPLOYEE_PAGE = SELECT_EMPLOYEE +
+													  "WHERE lower(last_name) COLLATE \"C\" LIKE lower(?) " +
+													  "ORDER BY lower(last_name) COLLATE \"C\", first_name, employee_id " +
+													  "LIMIT ?";
+	static final String SQL_GET_NEXT_EMPLOYEE_PAGE = SELECT_EMPLOYEE +
+													 "WHERE lower(last_name) COLLATE \"C\" LIKE lower(?) " +
+													 "AND (lower(last_name) COLLATE \"C\", first_name, employee_id) > (lower(?), ?, ?) " +
+													 "ORDER BY lower(last_name) COLLATE \"C\", first_name, employee_id " +
+													 "LIMIT ?";
+	private static final String SQL_GET_EMPLOYEES_BY_DEPARTMENT_ID = SELECT_EMPLOYEE +
+																	 "JOIN department ON employee.department_id = department.department_id " +
+																	 "WHERE department.department_id = ?";
+	// NOT EXISTS stops at the first assignment it finds in each partition's
+	// employee_id index, where NOT IN had to collect every assignment first.
+	private static final String SQL_GET_EMPLOYEES_WITHOUT_PROJECTS = SELECT_EMPLOYEE +
+																	 "WHERE NOT EXISTS (SELECT 1 FROM project_employee " +
+																	 				   "WHERE project_employee.employee_id = employee.employee_id)";
+	private static final String SQL_GET_EMPLOYEES_BY_PROJECT_ID = SELECT_EMPLOYEE +
+																  "JOIN project_employee ON project_employee.employee_id = employee.employee_id " +
+																  "WHERE project_employee.project_id = ?";
+	private static final String SQL_GET_EMPLOYEES_BY_PROJECT_IDS = "SELECT project_employee.project_id, " + EMPLOYEE_COLUMNS +
+																   "FROM employee " +
+																   "JOIN project_employee ON project_employee.employee_id = employee.employee_id " +
+																   "WHERE project_employee.project_id = ANY(?)";
+	private static final String SQL_GET_EMPLOYEE_ROSTER = "SELECT employee.employee_id, employee.department_id, first_name, last_name, " +
+														  		 "department.name AS department_name, " +
+														  		 "array_remove(array_agg(project.name ORDER BY project.name), NULL) AS project_names " +
+														  "FROM employee " +
+														  "LEFT JOIN department ON department.department_id = employee.department_id " +
+														  "LEFT JOIN project_employee ON project_employee.employee_id = employee.employee_id " +
+														  "LEFT JOIN project ON project.project_id = project_employee.project_id " +
+														  "GROUP BY employee.employee_id, department.name " +
+														  "ORDER BY last_name, first_name, employee.employee_id";
+	private static final String SQL_GET_EMPLOYEE_COLUMNS = "SELECT employee_id, department_id, birth_date, gender, hire_date " +
+														   "FROM employee " +
+														   "ORDER BY employee_id";
+	private static final String SQL_CHANGE_EMPLOYEE_DEPARTMENT = "UPDATE employee " +
+																 "SET department_id = ?, version = version + 1 " +
+																 "WHERE employee_id = ?";
+	private static final String SQL_CHANGE_EMPLOYEE_DEPARTMENT_AT_VERSION = SQL_CHANGE_EMPLOYEE_DEPARTMENT + " AND version = ?";
+
+	private static final int STREAMING_FETCH_SIZE = 1000;
+
 	private JdbcTemplate jdbcTemplate;
+	private JdbcTemplate readTemplate;
 
 	public JDBCEmployeeDAO(DataSource dataSource) {
-		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.jdbcTemplate = JDBCStatements.template(dataSource);
+		this.readTemplate = JDBCStatements.template(ReadWriteRoutingDataSource.forReads(dataSource));
 	}
 	
 	@Override
 	public List<Employee> getAllEmployees() {
-		List<Employee> employees = new ArrayList<>();
-
-		String sql = "SELECT employee_id, department_id, first_name, last_name, birth_date, gender, hire_date " + "FROM employee";
+		SqlRowSet results = readTemplate.queryForRowSet(SQL_GET_ALL_EMPLOYEES, JDBCStatements.NO_PARAMETERS);
+		return mapRowsToEmployees(results);
+	}
 
-		SqlRowSet results = jdbcTemplate.queryForRowSet(sql);
+	@Override
+	public void forEachEmployee(Consumer<Employee> action) {
+		readTemplate.execute((ConnectionCallback<Void>) connection -> {
+			// The driver only fetches in batches inside a transaction; with
+			// autocommit on it reads the whole result before returning.
+			boolean autoCommit = connection.getAutoCommit();
+			if (autoCommit) {
+				connection.setAutoCommit(false);
+			}
+			try (PreparedStatement statement = connection.prepareStatement(SQL_GET_ALL_EMPLOYEES)) {
+				statement.setFetchSize(STREAMING_FETCH_SIZE);
+				try (ResultSet results = statement.executeQuery()) {
+					SqlRowSet rows = new ResultSetWrappingSqlRowSet(results);
+					while (rows.next()) {
+						action.accept(mapRowToEmployee(rows));
+					}
+				}
+			} finally {
+				if (autoCommit) {
+					connection.rollback();
+					connection.setAutoCommit(true);
+				}
+			}
+			return null;
+		});
+	}
 
-		Employee e = null;
-		while (results.next()) {
-			e = this.mapRowToEmployee(results);
-			employees.add(e);
-		}
+	@Override
+	public List<CompactEmployee> getAllCompactEmployees() {
+		Map<String, String> names = new HashMap<>();
+		return readTemplate.query(SQL_GET_ALL_EMPLOYEES, JDBCStatements.NO_PARAMETERS, (row, rowNum) -> {
+			return new CompactEmployee(row.getInt("employee_id"),
+					row.getInt("department_id"),
+					intern(names, row.getString("first_name")),
+					intern(names, row.getString("last_name")),
+					(int) row.getDate("birth_date").toLocalDate().toEpochDay(),
+					row.getString("gender").charAt(0),
+					(int) row.getDate("hire_date").toLocalDate().toEpochDay());
+		});
+	}
 
-		return employees;
+	@Override
+	public EmployeeColumnStore getEmployeeColumnStore() {
+		EmployeeColumnStore.Builder builder = new EmployeeColumnStore.Builder();
+		readTemplate.query(SQL_GET_EMPLOYEE_COLUMNS, JDBCStatements.NO_PARAMETERS, (RowCallbackHandler) row -> {
+			builder.add(row.getInt("employee_id"),
+					row.getInt("department_id"),
+					(int) row.getDate("birth_date").toLocalDate().toEpochDay(),
+					(int) row.getDate("hire_date").toLocalDate().toEpochDay(),
+					row.getString("gender").charAt(0) == 'F');
+		});
+		return builder.build();
 	}
 
 	@Override
-	public List<Employee> searchEmployeesByName(String firstNameSearch, String lastNameSearch) {
+	public List<Employee> getEmployeesByIds(Collection<Long> ids) {
 		List<Employee> employees = new ArrayList<>();
-
-		String sql = "SELECT employee_id, department_id, first_name, last_name, birth_date, gender, hire_date " + 
-					 "FROM employee " +
-					 "WHERE first_name LIKE ? AND last_name LIKE ?";
-
-		SqlRowSet results = jdbcTemplate.queryForRowSet(sql, firstNameSearch, lastNameSearch);
-
-		Employee e = null;
-		while (results.next()) {
-			e = this.mapRowToEmployee(results);
-			employees.add(e);
+		for (List<Long> chunk : JDBCStatements.idChunks(ids)) {
+			SqlRowSet results = readTemplate.queryForRowSet(SQL_GET_EMPLOYEES_BY_IDS, JDBCStatements.idArray(chunk));
+			employees.addAll(mapRowsToEmployees(results));
 		}
-
 		return employees;
 	}
 
 	@Override
-	public List<Employee> getEmployeesByDepartmentId(long id) {
-		List<Employee> employees = new ArrayList<>();
-
-		String sql = "SELECT employee.employee_id, employee.department_id, first_name, last_name, birth_date, gender, hire_date " + 
-					 "FROM employee " +
-					 "JOIN department ON employee.department_id = department.department_id " +
-					 "WHERE department.department_id = ?";
+	public List<EmployeeRosterEntry> getEmployeeRoster() {
+		return readTemplate.query(SQL_GET_EMPLOYEE_ROSTER, JDBCStatements.NO_PARAMETERS, (row, rowNum) -> {
+			EmployeeRosterEntry entry = new EmployeeRosterEntry();
+			entry.setEmployeeId(row.getLong("employee_id"));
+			long departmentId = row.getLong("department_id");
+			if (!row.wasNull()) {
+				entry.setDepartmentId(departmentId);
+			}
+			entry.setFirstName(row.getString("first_name"));
+			entry.setLastName(row.getString("last_name"));
+			entry.setDepartmentName(row.getString("department_name"));
+			entry.setProjectNames(Arrays.asList((String[]) row.getArray("project_names").getArray()));
+			return entry;
+		});
+	}
 
-		SqlRowSet results = jdbcTemplate.queryForRowSet(sql, id);
+	@Override
+	public List<Employee> searchEmployeesByName(String firstNameSearch, String lastNameSearch) {
+		SqlRowSet results = readTemplate.queryForRowSet(SQL_SEARCH_EMPLOYEES_BY_NAME, firstNameSearch, lastNameSearch);
+		return mapRowsToEmployees(results);
+	}
 
-		Employee e = null;
-		while (results.next()) {
-			e = this.mapRowToEmployee(results);
-			employees.add(e);
+	@Override
+	public List<Employee> getEmployeePage(String lastNamePrefix, Employee after, int pageSize) {
+		String pattern = escapeLike(lastNamePrefix == null ? "" : lastNamePrefix.trim()) + "%";
+		SqlRowSet results;
+		if (after == null) {
+			results = readTemplate.queryForRowSet(SQL_GET_FIRST_EMPLOYEE_PAGE, pattern, pageSize);
+		} else {
+			results = readTemplate.queryForRowSet(SQL_GET_NEXT_EMPLOYEE_PAGE, pattern,
+					after.getLastName(), after.getFirstName(), after.getId(), pageSize);
 		}
+		return mapRowsToEmployees(results);
+	}
 
-		return employees;
+	@Override
+	public List<Employee> getEmployeesByDepartmentId(long id) {
+		SqlRowSet results = readTemplate.queryForRowSet(SQL_GET_EMPLOYEES_BY_DEPARTMENT_ID, id);
+		return mapRowsToEmployees(results);
 	}
 
 	@Override
 	public List<Employee> getEmployeesWithoutProjects() {
-		List<Employee> employees = new ArrayList<>();
-
-		String sql = "SELECT employee_id, department_id, first_name, last_name, birth_date, gender, hire_date " + 
-				 	 "FROM employee " + 
-				 	 "WHERE employee_id NOT IN (SELECT employee.employee_id " + 
-				 						   	   "FROM employee " + 
-				 						       "JOIN project_employee " + 
-				 						       "ON employee.employee_id = project_employee.employee_id)";
+		SqlRowSet results = readTemplate.queryForRowSet(SQL_GET_EMPLOYEES_WITHOUT_PROJECTS, JDBCStatements.NO_PARAMETERS);
+		return mapRowsToEmployees(results);
+	}
 
-		SqlRowSet results = jdbcTemplate.queryForRowSet(sql);
+	@Override
+	public List<Employee> getEmployeesByProjectId(Long projectId) {
+		SqlRowSet results = readTemplate.queryForRowSet(SQL_GET_EMPLOYEES_BY_PROJECT_ID, projectId);
+		return mapRowsToEmployees(results);
+	}
 
-		Employee e = null;
-		while (results.next()) {
-			e = this.mapRowToEmployee(results);
-			employees.add(e);
+	@Override
+	public Map<Long, List<Employee>> getEmployeesByProjectIds(Collection<Long> projectIds) {
+		Map<Long, List<Employee>> employeesByProject = new HashMap<>();
+		for (List<Long> chunk : JDBCStatements.idChunks(projectIds)) {
+			for (Long projectId : chunk) {
+				employeesByProject.put(projectId, new ArrayList<>());
+			}
+			SqlRowSet results = readTemplate.queryForRowSet(SQL_GET_EMPLOYEES_BY_PROJECT_IDS, JDBCStatements.idArray(chunk));
+			while (results.next()) {
+				employeesByProject.get(results.getLong("project_id")).add(mapRowToEmployee(results));
+			}
 		}
-
-		return employees;
+		return employeesByProject;
 	}
 
 	@Override
-	public List<Employee> getEmployeesByProjectId(Long projectId) {
-		List<Employee> employees = new ArrayList<>();
+	public void changeEmployeeDepartment(Long employeeId, Long departmentId) {
+		jdbcTemplate.update(SQL_CHANGE_EMPLOYEE_DEPARTMENT, departmentId, employeeId);
+	}
 
-		String sql = "SELECT employee.employee_id, department_id, first_name, last_name, birth_date, gender, hire_date " + 
-					 "FROM employee " + 
-					 "JOIN project_employee ON project_employee.employee_id = employee.employee_id " + 
-					 "WHERE project_employee.project_id = ?";
+	@Override
+	public void changeEmployeeDepartment(Employee employee, Long departmentId) {
+		Integer version = employee.getVersion();
+		if (version == null) {
+			jdbcTemplate.update(SQL_CHANGE_EMPLOYEE_DEPARTMENT, departmentId, employee.getId());
+			employee.setDepartmentId(departmentId);
+			return;
+		}
+		int rowsUpdated = jdbcTemplate.update(SQL_CHANGE_EMPLOYEE_DEPARTMENT_AT_VERSION, departmentId, employee.getId(),
+				version);
+		if (rowsUpdated == 0) {
+			throw new OptimisticLockingFailureException("Employee " + employee.getId() +
+					" was changed or removed by someone else after version " + version + " was read");
+		}
+		employee.setDepartmentId(departmentId);
+		employee.setVersion(version + 1);
+	}
 
-		SqlRowSet results = jdbcTemplate.queryForRowSet(sql, projectId);
+	@Override
+	public void changeEmployeesDepartment(List<Long> employeeIds, Long departmentId) {
+		List<Object[]> batchArgs = new ArrayList<>();
+		for (Long employeeId : employeeIds) {
+			batchArgs.add(new Object[] { departmentId, employeeId });
+		}
+		jdbcTemplate.batchUpdate(SQL_CHANGE_EMPLOYEE_DEPARTMENT, batchArgs);
+	}
+	
+	private static String escapeLike(String text) {
+		return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
 
-		Employee e = null;
+	private static String intern(Map<String, String> names, String name) {
+		String shared = names.putIfAbsent(name, name);
+		return shared != null ? shared : name;
+	}
+	
+	static List<Employee> mapRowsToEmployees(SqlRowSet results) {
+		List<Employee> employees = new ArrayList<>();
 		while (results.next()) {
-			e = this.mapRowToEmployee(results);
-			employees.add(e);
+			employees.add(mapRowToEmployee(results));
 		}
-
 		return employees;
 	}
-
-	@Override
-	public void changeEmployeeDepartment(Long employeeId, Long departmentId) {
-		String sql = "UPDATE employee " +
-					 "SET department_id = ? " +
-					 "WHERE employee_id = ?";
-		jdbcTemplate.update(sql, departmentId, employeeId);
-	}
 	
-	private Employee mapRowToEmployee(SqlRowSet row) {
+	static Employee mapRowToEmployee(SqlRowSet row) {
 		Employee e = new Employee();
 		
 		e.setId(row.getLong("employee_id"));
@@ -135,6 +288,7 @@ public class JDBCEmployeeDAO implements EmployeeDAO {
 		e.setBirthDay(row.getDate("birth_date").toLocalDate());
 		e.setGender(row.getString("gender").charAt(0));
 		e.setHireDate(row.getDate("hire_date").toLocalDate());
+		e.setVersion(row.getInt("version"));
 		
 		return e;
 	}
@@ -2,7 +2,6 @@ package com.techelevator.projects.model.jdbc;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 
 import javax.sql.DataSource;
@@ -15,43 +14,47 @@ import com.techelevator.projects.model.ProjectDAO;
 
 public class JDBCProjectDAO implements ProjectDAO {
 
+	static final String SELECT_PROJECT = "SELECT project_id, name, from_date, to_date " +
+										 "FROM project ";
+	private static final String SQL_GET_ALL_PROJECTS = SELECT_PROJECT;
+	// Every assignment statement names its project_id so it only touches that
+	// project's partition of project_employee.
+	private static final String SQL_DELETE_ASSIGNMENT = "DELETE FROM project_employee " +
+														"WHERE project_id = ? AND employee_id = ?";
+	private static final String SQL_INSERT_ASSIGNMENT = "INSERT INTO project_employee (project_id, employee_id) " +
+														"VALUES (?, ?) " +
+														"ON CONFLICT (project_id, employee_id) DO NOTHING";
+
 	private JdbcTemplate jdbcTemplate;
+	private JdbcTemplate readTemplate;
 
 	public JDBCProjectDAO(DataSource dataSource) {
-		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.jdbcTemplate = JDBCStatements.template(dataSource);
+		this.readTemplate = JDBCStatements.template(ReadWriteRoutingDataSource.forReads(dataSource));
 	}
 
 	@Override
 	public List<Project> getAllActiveProjects() {
 		List<Project> projects = new ArrayList<>();
+		LocalDate today = LocalDate.now();
 
-		String sql = "SELECT project_id, name, from_date, to_date " + "FROM project";
-
-		SqlRowSet results = jdbcTemplate.queryForRowSet(sql);
+		for (Project p : getAllProjects()) {
+			if(p.isActiveOn(today)) {
+				projects.add(p);
+			}
+		}
 
-		Project p = null;
-		while (results.next()) {
-			p = new Project();
-			p.setId(results.getLong("project_id"));
-			p.setName(results.getString("name"));
+		return projects;
+	}
 
-			LocalDate localDate = null;
-			if (results.getDate("from_date") != null) {
-				localDate = results.getDate("from_date").toLocalDate();
-			}
-			p.setStartDate(localDate);
+	@Override
+	public List<Project> getAllProjects() {
+		List<Project> projects = new ArrayList<>();
 
-			localDate = null;
-			if (results.getDate("to_date") != null) {
-				localDate = results.getDate("to_date").toLocalDate();
-			}
-			p.setEndDate(localDate);
+		SqlRowSet results = readTemplate.queryForRowSet(SQL_GET_ALL_PROJECTS, JDBCStatements.NO_PARAMETERS);
 
-			if(p.getEndDate() == null || p.getStartDate() != null && 
-										 LocalDate.now().isAfter(p.getStartDate()) && 
-										 LocalDate.now().isBefore(p.getEndDate())) {
-				projects.add(p);
-			}
+		while (results.next()) {
+			projects.add(mapRowToProject(results));
 		}
 
 		return projects;
@@ -59,23 +62,49 @@ public class JDBCProjectDAO implements ProjectDAO {
 
 	@Override
 	public void removeEmployeeFromProject(Long projectId, Long employeeId) {
-		String sql = "SELECT * FROM project_employee "
-				+ "WHERE project_employee.project_id = ? AND project_employee.employee_id = ?";
-		SqlRowSet results = jdbcTemplate.queryForRowSet(sql, projectId, employeeId);
-		if (results.next()) {
-			sql = "DELETE FROM project_employee " + "WHERE employee_id = ? AND project_id = ?";
-			jdbcTemplate.update(sql, employeeId, projectId);
-		}
+		jdbcTemplate.update(SQL_DELETE_ASSIGNMENT, projectId, employeeId);
 	}
 
 	@Override
 	public void addEmployeeToProject(Long projectId, Long employeeId) {
-		String sql = "SELECT * FROM project_employee " +
-					 "WHERE project_employee.project_id = ? AND project_employee.employee_id = ?";
-		SqlRowSet results = jdbcTemplate.queryForRowSet(sql, projectId, employeeId);
-		if (!results.next()) {
-			sql = "INSERT INTO project_employee (project_id, employee_id) " + "VALUES (?, ?)";
-			jdbcTemplate.update(sql, projectId, employeeId);
+		jdbcTemplate.update(SQL_INSERT_ASSIGNMENT, projectId, employeeId);
+	}
+
+	@Override
+	public void addEmployeesToProject(Long projectId, List<Long> employeeIds) {
+		List<Object[]> batchArgs = new ArrayList<>();
+		for (Long employeeId : employeeIds) {
+			batchArgs.add(new Object[] { projectId, employeeId });
+		}
+		jdbcTemplate.batchUpdate(SQL_INSERT_ASSIGNMENT, batchArgs);
+	}
+
+	@Override
+	public void removeEmployeesFromProject(Long projectId, List<Long> employeeIds) {
+		List<Object[]> batchArgs = new ArrayList<>();
+		for (Long employeeId : employeeIds) {
+			batchArgs.add(new Object[] { projectId, employeeId });
 		}
+		jdbcTemplate.batchUpdate(SQL_DELETE_ASSIGNMENT, batchArgs);
+	}
+
+	static Project mapRowToProject(SqlRowSet row) {
+		Project p = new Project();
+		p.setId(row.getLong("project_id"));
+		p.setName(row.getString("name"));
+
+		LocalDate localDate = null;
+		if (row.getDate("from_date") != null) {
+			localDate = row.getDate("from_date").toLocalDate();
+		}
+		p.setStartDate(localDate);
+
+		localDate = null;
+		if (row.getDate("to_date") != null) {
+			localDate = row.getDate("to_date").toLocalDate();
+		}
+		p.setEndDate(localDate);
+
+		return p;
 	}
 }
@@ -0,0 +1,102 @@
+package com.techelevator.projects.model.jdbc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.rowset.SqlRowSet;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.techelevator.projects.model.ChangeSet;
+import com.techelevator.projects.model.ProjectAssignmentStore;
+import com.techelevator.projects.model.ReadModel;
+import com.techelevator.projects.model.ReadModelSnapshotFile;
+
+/**
+ * Builds a {@link ReadModel} from the database, or from a snapshot file when
+ * one is available.
+ */
+public class JDBCReadModelLoader {
+
+	private static final String SQL_GET_ALL_ASSIGNMENTS = "SELECT project_id, employee_id " +
+														  "FROM project_employee " +
+														  "ORDER BY employee_id, project_id";
+
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate snapshotTransaction;
+	private JDBCDepartmentDAO departmentDAO;
+	private JDBCEmployeeDAO employeeDAO;
+	private JDBCProjectDAO projectDAO;
+	private JDBCChangeTrackingDAO changeTrackingDAO;
+
+	public JDBCReadModelLoader(DataSource dataSource) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.departmentDAO = new JDBCDepartmentDAO(dataSource);
+		this.employeeDAO = new JDBCEmployeeDAO(dataSource);
+		this.projectDAO = new JDBCProjectDAO(dataSource);
+		this.changeTrackingDAO = new JDBCChangeTrackingDAO(dataSource);
+
+		// every table is read in one repeatable read transaction so they all
+		// come from the same database snapshot
+		this.snapshotTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+		this.snapshotTransaction.setReadOnly(true);
+	}
+
+	/**
+	 * Read every table from the database.
+	 */
+	public ReadModel load() {
+		return snapshotTransaction.execute(status -> {
+			SqlRowSet tokenRow = jdbcTemplate.queryForRowSet(JDBCChangeTrackingDAO.SQL_GET_CHANGE_TOKEN, JDBCStatements.NO_PARAMETERS);
+			tokenRow.next();
+			ProjectAssignmentStore.Builder assignments = new ProjectAssignmentStore.Builder();
+			jdbcTemplate.query(SQL_GET_ALL_ASSIGNMENTS, JDBCStatements.NO_PARAMETERS,
+					(RowCallbackHandler) row -> assignments.add(row.getInt("project_id"), row.getInt("employee_id")));
+
+			return new ReadModel(tokenRow.getLong("token"),
+					tokenRow.getTimestamp("read_at").toInstant(),
+					departmentDAO.getAllDepartments(),
+					projectDAO.getAllProjects(),
+					employeeDAO.getAllCompactEmployees(),
+					assignments.build());
+		});
+	}
+
+	/**
+	 * Start from the snapshot file if there is a usable one and catch it up
+	 * with only the changes made since it was written. Otherwise read the
+	 * whole database. Either way the snapshot file is left up to date for
+	 * next time.
+	 * 
+	 * @param snapshot where the snapshot file lives
+	 */
+	public ReadModel loadFromSnapshot(Path snapshot) throws IOException {
+		ReadModel model = null;
+		if (Files.exists(snapshot)) {
+			try {
+				model = ReadModelSnapshotFile.read(snapshot);
+			} catch (IOException e) {
+				// unreadable or from an older format, rebuild it below
+			}
+		}
+
+		if (model == null) {
+			model = load();
+		} else {
+			ChangeSet changes = changeTrackingDAO.changesSince(model.getChangeToken());
+			if (changes.isEmpty()) {
+				return model;
+			}
+			model = model.apply(changes);
+		}
+		ReadModelSnapshotFile.write(model, snapshot);
+		return model;
+	}
+}
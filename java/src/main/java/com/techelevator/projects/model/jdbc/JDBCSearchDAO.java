@@ -0,0 +1,107 @@
+package com.techelevator.projects.model.jdbc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.rowset.SqlRowSet;
+
+import com.techelevator.projects.model.SearchDAO;
+import com.techelevator.projects.model.SearchHit;
+
+/**
+ * Searches the {@code search_vector} columns that triggers keep on the
+ * department, employee and project tables (see projects.sql). Each word of
+ * the search text becomes a prefix term, so the GIN indexes on those columns
+ * find the matching rows without scanning.
+ * <p>
+ * Each table's matches are ranked and cut to the limit on their own before
+ * being merged, so the final sort only ever sees three limits' worth of rows.
+ * Ranking still reads every match in a table, which makes a one-letter
+ * search against a large table the slowest case.
+ */
+public class JDBCSearchDAO implements SearchDAO {
+
+	private static final String SQL_SEARCH = "WITH search AS (SELECT to_tsquery('simple', ?) AS query) " +
+											 "(SELECT 'DEPARTMENT' AS kind, department_id AS id, name AS label, " +
+											 		 "ts_rank(search_vector, query) AS rank " +
+											  "FROM department, search " +
+											  "WHERE search_vector @@ query " +
+											  "ORDER BY rank DESC, label LIMIT ?) " +
+											 "UNION ALL " +
+											 "(SELECT 'EMPLOYEE' AS kind, employee_id AS id, first_name || ' ' || last_name AS label, " +
+											 		 "ts_rank(search_vector, query) AS rank " +
+											  "FROM employee, search " +
+											  "WHERE search_vector @@ query " +
+											  "ORDER BY rank DESC, label LIMIT ?) " +
+											 "UNION ALL " +
+											 "(SELECT 'PROJECT' AS kind, project_id AS id, name AS label, " +
+											 		 "ts_rank(search_vector, query) AS rank " +
+											  "FROM project, search " +
+											  "WHERE search_vector @@ query " +
+											  "ORDER BY rank DESC, label LIMIT ?) " +
+											 "ORDER BY rank DESC, label " +
+											 "LIMIT ?";
+
+	private JdbcTemplate readTemplate;
+
+	public JDBCSearchDAO(DataSource dataSource) {
+		this.readTemplate = JDBCStatements.template(ReadWriteRoutingDataSource.forReads(dataSource));
+	}
+
+	@Override
+	public List<SearchHit> search(String text, int limit) {
+		List<SearchHit> hits = new ArrayList<>();
+		String query = toPrefixQuery(text);
+		if (query == null || limit <= 0) {
+			return hits;
+		}
+
+		SqlRowSet results = readTemplate.queryForRowSet(SQL_SEARCH, query, limit, limit, limit, limit);
+
+		while (results.next()) {
+			hits.add(mapRowToSearchHit(results));
+		}
+
+		return hits;
+	}
+
+	/**
+	 * Turns search text into a tsquery that matches rows having a word that
+	 * starts with each of its words, e.g. "Fra  tru!" becomes
+	 * {@code fra:* & tru:*}. Anything other than letters and digits only
+	 * separates words, so nothing the user types can break the query syntax.
+	 *
+	 * @return the query, or null if the text has no words
+	 */
+	static String toPrefixQuery(String text) {
+		if (text == null) {
+			return null;
+		}
+		StringBuilder query = new StringBuilder();
+		for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+			if (word.isEmpty()) {
+				continue;
+			}
+			if (query.length() > 0) {
+				query.append(" & ");
+			}
+			query.append(word).append(":*");
+		}
+		return query.length() > 0 ? query.toString() : null;
+	}
+
+	private static SearchHit mapRowToSearchHit(SqlRowSet row) {
+		SearchHit hit = new SearchHit();
+
+		hit.setKind(SearchHit.Kind.valueOf(row.getString("kind")));
+		hit.setId(row.getLong("id"));
+		hit.setLabel(row.getString("label"));
+		hit.setRank(row.getDouble("rank"));
+
+		return hit;
+	}
+}
@@ -0,0 +1,92 @@
+package com.techelevator.projects.model.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.support.AbstractSqlTypeValue;
+
+import com.techelevator.projects.model.QueryDeadline;
+
+/**
+ * Shared bits for the SQL the JDBC DAOs run.
+ */
+final class JDBCStatements {
+
+	/**
+	 * Passed to queries that take no parameters. {@code JdbcTemplate} only
+	 * uses a {@code PreparedStatement} when it is given an argument array, and
+	 * only prepared statements can be cached by the pool and turned into
+	 * server-side prepared statements by the driver.
+	 */
+	static final Object[] NO_PARAMETERS = new Object[0];
+
+	/**
+	 * The most ids bound into a single {@code = ANY(?)} array. Bigger inputs
+	 * are split so no one query has to build and hash a huge array.
+	 */
+	static final int MAX_IDS_PER_QUERY = 5_000;
+
+	private JDBCStatements() {
+	}
+
+	/**
+	 * A {@code JdbcTemplate} whose statements time out when the caller's
+	 * {@link QueryDeadline} runs out. JDBC timeouts are whole seconds, so
+	 * what is left is rounded up; a statement started after the deadline
+	 * fails without being sent.
+	 */
+	static JdbcTemplate template(DataSource dataSource) {
+		return new JdbcTemplate(dataSource) {
+			@Override
+			protected void applyStatementSettings(Statement statement) throws SQLException {
+				super.applyStatementSettings(statement);
+				long remainingMillis = QueryDeadline.remainingMillis();
+				if (remainingMillis == 0) {
+					throw new QueryTimeoutException("The query deadline passed before the statement was sent");
+				}
+				if (remainingMillis > 0) {
+					statement.setQueryTimeout((int) Math.min(Integer.MAX_VALUE, (remainingMillis + 999) / 1000));
+				}
+			}
+		};
+	}
+
+	/**
+	 * Wrap ids as a {@code bigint[]} parameter for an {@code = ANY(?)} match.
+	 */
+	static SqlTypeValue idArray(Collection<Long> ids) {
+		final Long[] values = ids.toArray(new Long[ids.size()]);
+		return new AbstractSqlTypeValue() {
+			@Override
+			protected Object createTypeValue(Connection connection, int sqlType, String typeName) throws SQLException {
+				return connection.createArrayOf("bigint", values);
+			}
+		};
+	}
+
+	/**
+	 * Drop duplicate and null ids and split what's left into lists of at most
+	 * {@link #MAX_IDS_PER_QUERY}.
+	 */
+	static List<List<Long>> idChunks(Collection<Long> ids) {
+		List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+		distinctIds.remove(null);
+
+		List<List<Long>> chunks = new ArrayList<>();
+		for (int start = 0; start < distinctIds.size(); start += MAX_IDS_PER_QUERY) {
+			int end = Math.min(start + MAX_IDS_PER_QUERY, distinctIds.size());
+			chunks.add(distinctIds.subList(start, end));
+		}
+		return chunks;
+	}
+}
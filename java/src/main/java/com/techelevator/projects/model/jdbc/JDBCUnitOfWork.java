@@ -0,0 +1,37 @@
+package com.techelevator.projects.model.jdbc;
+
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.techelevator.projects.model.UnitOfWork;
+
+/**
+ * Binds one connection from the data source to the current thread for the
+ * length of the work. The JDBC DAOs pick that connection up automatically as
+ * long as they were built with the same {@code DataSource} instance.
+ */
+public class JDBCUnitOfWork implements UnitOfWork {
+
+	private TransactionTemplate transactionTemplate;
+
+	public JDBCUnitOfWork(DataSource dataSource) {
+		this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+	}
+
+	@Override
+	public <T> T execute(Supplier<T> work) {
+		return transactionTemplate.execute(status -> work.get());
+	}
+
+	@Override
+	public void run(Runnable work) {
+		transactionTemplate.execute(status -> {
+			work.run();
+			return null;
+		});
+	}
+}
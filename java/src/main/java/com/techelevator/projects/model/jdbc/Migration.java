@@ -0,0 +1,213 @@
+package com.techelevator.projects.model.jdbc;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One versioned schema change, read from a file named
+ * {@code V<version>__<description>.sql}, e.g.
+ * {@code V4__employee_name_order_index.sql}. The description is the rest of
+ * the name with underscores as spaces.
+ * <p>
+ * The script is split into statements on semicolons outside quotes,
+ * comments and dollar-quoted bodies. Two comment directives change how it
+ * runs:
+ * <ul>
+ * <li>{@code -- @no-transaction} anywhere in the script runs each statement
+ * in its own transaction instead of the whole script in one. Statements
+ * such as {@code CREATE INDEX CONCURRENTLY} need this. If such a script
+ * fails part way it is run again from the top next time, so every
+ * statement in it must be safe to repeat. A concurrent index build that
+ * failed leaves an invalid index behind, which {@code IF NOT EXISTS} would
+ * then skip; {@link MigrationRunner} drops it before building again.</li>
+ * <li>{@code -- @repeat} just before a statement runs it again and again
+ * until it changes no rows. A backfill written to update a limited batch
+ * of unfilled rows then fills a large table a batch at a time, holding
+ * each row lock only briefly. Only allowed with {@code @no-transaction}.</li>
+ * </ul>
+ */
+public final class Migration {
+
+	private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+	private static final Pattern NO_TRANSACTION = Pattern.compile("(?m)^\\s*--\\s*@no-transaction\\s*$");
+	private static final Pattern REPEAT = Pattern.compile("(?m)^\\s*--\\s*@repeat\\s*$");
+	private static final Pattern COMMENT_LINE = Pattern.compile("(?m)^\\s*--.*$");
+	private static final Pattern CONCURRENTLY = Pattern.compile("(?i)\\bCONCURRENTLY\\b");
+	private static final Pattern CONCURRENT_INDEX = Pattern.compile(
+			"(?is)^\\s*CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+CONCURRENTLY\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?(\\S+)\\s+ON\\b.*");
+
+	/**
+	 * A statement of a migration script.
+	 */
+	public static final class Statement {
+		private final String sql;
+		private final boolean repeated;
+		private final boolean concurrent;
+		private final String concurrentIndex;
+
+		Statement(String sql, boolean repeated) {
+			this.sql = sql;
+			this.repeated = repeated;
+			String code = COMMENT_LINE.matcher(sql).replaceAll("");
+			this.concurrent = CONCURRENTLY.matcher(code).find();
+			Matcher index = CONCURRENT_INDEX.matcher(code);
+			this.concurrentIndex = index.matches() ? index.group(1) : null;
+		}
+
+		public String getSql() {
+			return sql;
+		}
+
+		/**
+		 * @return whether to run the statement until it changes no rows
+		 */
+		public boolean isRepeated() {
+			return repeated;
+		}
+
+		/**
+		 * @return whether the statement builds or drops something
+		 *         {@code CONCURRENTLY}
+		 */
+		public boolean isConcurrent() {
+			return concurrent;
+		}
+
+		/**
+		 * @return the index a {@code CREATE INDEX CONCURRENTLY} builds, as
+		 *         written, or null for any other statement
+		 */
+		public String getConcurrentIndex() {
+			return concurrentIndex;
+		}
+	}
+
+	private final int version;
+	private final String description;
+	private final boolean transactional;
+	private final List<Statement> statements;
+
+	public Migration(int version, String description, String script) {
+		this.version = version;
+		this.description = description;
+		this.transactional = !NO_TRANSACTION.matcher(script).find();
+		List<Statement> parsed = new ArrayList<>();
+		for (String sql : split(script)) {
+			boolean repeated = REPEAT.matcher(sql).find();
+			if (repeated && transactional) {
+				throw new IllegalArgumentException("Migration " + version + " uses @repeat without @no-transaction");
+			}
+			parsed.add(new Statement(sql, repeated));
+		}
+		this.statements = Collections.unmodifiableList(parsed);
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the file isn't named like a
+	 *         migration
+	 */
+	public static Migration load(Path file) throws IOException {
+		Matcher name = FILE_NAME.matcher(file.getFileName().toString());
+		if (!name.matches()) {
+			throw new IllegalArgumentException("Not a migration file name: " + file.getFileName());
+		}
+		String script = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+		return new Migration(Integer.parseInt(name.group(1)), name.group(2).replace('_', ' '), script);
+	}
+
+	static boolean isMigrationFile(Path file) {
+		return FILE_NAME.matcher(file.getFileName().toString()).matches();
+	}
+
+	public int getVersion() {
+		return version;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	/**
+	 * @return whether the whole script runs in one transaction
+	 */
+	public boolean isTransactional() {
+		return transactional;
+	}
+
+	public List<Statement> getStatements() {
+		return statements;
+	}
+
+	/*
+	 * Splits on semicolons that aren't inside a quoted string or identifier,
+	 * a comment or a dollar-quoted body. Each statement keeps the comments
+	 * before it so its directives can be found; pieces that are only
+	 * comments are dropped.
+	 */
+	static List<String> split(String script) {
+		List<String> statements = new ArrayList<>();
+		int start = 0;
+		boolean hasCode = false;
+		int i = 0;
+		while (i < script.length()) {
+			char c = script.charAt(i);
+			if (c == '-' && script.startsWith("--", i)) {
+				int end = script.indexOf('\n', i);
+				i = end < 0 ? script.length() : end + 1;
+			} else if (c == '/' && script.startsWith("/*", i)) {
+				i = skipPast(script, "*/", i + 2);
+			} else if (c == '\'' || c == '"') {
+				i = skipPast(script, String.valueOf(c), i + 1);
+				hasCode = true;
+			} else if (c == '$' && dollarTag(script, i) != null) {
+				String tag = dollarTag(script, i);
+				i = skipPast(script, tag, i + tag.length());
+				hasCode = true;
+			} else if (c == ';') {
+				if (hasCode) {
+					statements.add(script.substring(start, i).trim());
+				}
+				start = ++i;
+				hasCode = false;
+			} else {
+				hasCode |= !Character.isWhitespace(c);
+				i++;
+			}
+		}
+		if (hasCode) {
+			statements.add(script.substring(start).trim());
+		}
+		return statements;
+	}
+
+	/*
+	 * Doubled quotes inside a string or identifier end up as two adjacent
+	 * quoted pieces, which splits the same way.
+	 */
+	private static int skipPast(String script, String closing, int from) {
+		int end = script.indexOf(closing, from);
+		if (end < 0) {
+			throw new IllegalArgumentException("Unterminated " + closing + " in migration script");
+		}
+		return end + closing.length();
+	}
+
+	// The $tag$ starting at i, or null if there isn't one there.
+	private static String dollarTag(String script, int i) {
+		int j = i + 1;
+		while (j < script.length() && (Character.isLetterOrDigit(script.charAt(j)) || script.charAt(j) == '_')) {
+			j++;
+		}
+		if (j < script.length() && script.charAt(j) == '$' && (j == i + 1 || !Character.isDigit(script.charAt(i + 1)))) {
+			return script.substring(i, j + 1);
+		}
+		return null;
+	}
+}
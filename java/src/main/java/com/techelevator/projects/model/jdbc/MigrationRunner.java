@@ -0,0 +1,313 @@
+package com.techelevator.projects.model.jdbc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.support.rowset.SqlRowSet;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Brings the schema up to date by applying the {@link Migration}s in a
+ * directory that haven't been applied yet, lowest version first. Each one
+ * is recorded in the {@code schema_migration} table with when it finished
+ * and how long it took, in the same transaction as the migration when it
+ * has one.
+ * <p>
+ * Everything runs on one connection. It holds an advisory lock for the
+ * whole run so two runners can't apply the same migration, and sets a
+ * lock timeout so a DDL statement stuck behind a long transaction fails
+ * instead of queueing every other query on the table behind it. A failed
+ * migration stops the run; the ones before it stay applied.
+ * <p>
+ * {@code CONCURRENTLY} statements run without the lock timeout. They only
+ * take locks that let reads and writes through, but they wait for every
+ * older transaction to finish, and a timeout there would leave an invalid
+ * index behind. Before a concurrent index build, an invalid index of the
+ * same name left by an earlier failed run is dropped.
+ */
+public class MigrationRunner {
+
+	private static final long ADVISORY_LOCK_KEY = 0x70726f6a65637473L;
+	private static final String SQL_CREATE_HISTORY = "CREATE TABLE IF NOT EXISTS schema_migration (" +
+													 "version integer NOT NULL PRIMARY KEY, " +
+													 "description varchar(200) NOT NULL, " +
+													 "applied_at timestamp NOT NULL DEFAULT now(), " +
+													 "duration_ms bigint NOT NULL)";
+	private static final String SQL_GET_HISTORY = "SELECT version, description, applied_at, duration_ms " +
+												  "FROM schema_migration " +
+												  "ORDER BY version";
+	private static final String SQL_RECORD_MIGRATION = "INSERT INTO schema_migration (version, description, duration_ms) " +
+													   "VALUES (?, ?, ?)";
+	private static final String SQL_LOCK = "SELECT pg_advisory_lock(?)";
+	private static final String SQL_UNLOCK = "SELECT pg_advisory_unlock(?)";
+	private static final String SQL_SET_LOCK_TIMEOUT = "SELECT set_config('lock_timeout', ?, false)";
+	private static final String SQL_RESET_LOCK_TIMEOUT = "RESET lock_timeout";
+	private static final String SQL_IS_INDEX_INVALID = "SELECT count(*) FROM pg_index " +
+													   "WHERE indexrelid = to_regclass(?) AND NOT indisvalid";
+	private static final String SQL_DROP_INVALID_INDEX = "DROP INDEX CONCURRENTLY IF EXISTS %s";
+
+	/**
+	 * Told as each statement and each migration finishes.
+	 */
+	public interface ProgressListener {
+		/**
+		 * @param statement the statement's position in the script, from 1
+		 * @param runs how many times the statement ran; more than one only for
+		 *        {@code @repeat} statements
+		 * @param rows rows changed by all of its runs
+		 */
+		void statementFinished(Migration migration, int statement, int runs, long rows, long elapsedNanos);
+
+		void migrationApplied(Migration migration, long elapsedMillis);
+	}
+
+	/**
+	 * A row of {@code schema_migration}.
+	 */
+	public static final class AppliedMigration {
+		private final int version;
+		private final String description;
+		private final LocalDateTime appliedAt;
+		private final long durationMillis;
+
+		AppliedMigration(int version, String description, LocalDateTime appliedAt, long durationMillis) {
+			this.version = version;
+			this.description = description;
+			this.appliedAt = appliedAt;
+			this.durationMillis = durationMillis;
+		}
+
+		public int getVersion() {
+			return version;
+		}
+
+		public String getDescription() {
+			return description;
+		}
+
+		public LocalDateTime getAppliedAt() {
+			return appliedAt;
+		}
+
+		public long getDurationMillis() {
+			return durationMillis;
+		}
+	}
+
+	private DataSource dataSource;
+	private Path directory;
+	private long lockTimeoutMillis;
+	private ProgressListener progressListener;
+
+	/**
+	 * @param dataSource the database to migrate; always its primary
+	 * @param directory where the {@code V<version>__<description>.sql} files
+	 *        are
+	 * @param lockTimeoutMillis how long a statement may wait for a lock
+	 *        before the migration fails; 0 waits forever
+	 * @param progressListener told as statements and migrations finish, may
+	 *        be null
+	 */
+	public MigrationRunner(DataSource dataSource, Path directory, long lockTimeoutMillis,
+			ProgressListener progressListener) {
+		this.dataSource = dataSource;
+		this.directory = directory;
+		this.lockTimeoutMillis = lockTimeoutMillis;
+		this.progressListener = progressListener;
+	}
+
+	/**
+	 * @return every migration in the directory, lowest version first
+	 * @throws IllegalStateException if two files have the same version
+	 */
+	public List<Migration> getMigrations() throws IOException {
+		List<Migration> migrations = new ArrayList<>();
+		try (Stream<Path> files = Files.list(directory)) {
+			for (Path file : files.filter(Migration::isMigrationFile).collect(Collectors.toList())) {
+				migrations.add(Migration.load(file));
+			}
+		}
+		migrations.sort(Comparator.comparingInt(Migration::getVersion));
+		for (int i = 1; i < migrations.size(); i++) {
+			if (migrations.get(i).getVersion() == migrations.get(i - 1).getVersion()) {
+				throw new IllegalStateException("Two migrations have version " + migrations.get(i).getVersion());
+			}
+		}
+		return migrations;
+	}
+
+	/**
+	 * @return the applied migrations, lowest version first
+	 */
+	public List<AppliedMigration> getHistory() {
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute(SQL_CREATE_HISTORY);
+		return getHistory(jdbcTemplate);
+	}
+
+	/**
+	 * Applies every migration that hasn't been applied yet.
+	 *
+	 * @return the migrations applied by this call, in the order they were
+	 *         applied
+	 * @throws IllegalStateException if a migration fails; it is rolled back
+	 *         if it has a transaction
+	 */
+	public List<Migration> migrate() throws IOException {
+		List<Migration> migrations = getMigrations();
+		Connection connection = DataSourceUtils.getConnection(dataSource);
+		try {
+			connection.setAutoCommit(true);
+			SingleConnectionDataSource session = new SingleConnectionDataSource(connection, true);
+			JdbcTemplate jdbcTemplate = new JdbcTemplate(session);
+			TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(session));
+
+			jdbcTemplate.queryForRowSet(SQL_LOCK, ADVISORY_LOCK_KEY);
+			RuntimeException failure = null;
+			try {
+				jdbcTemplate.queryForRowSet(SQL_SET_LOCK_TIMEOUT, lockTimeoutMillis + "ms");
+				jdbcTemplate.execute(SQL_CREATE_HISTORY);
+				Set<Integer> applied = new HashSet<>();
+				for (AppliedMigration migration : getHistory(jdbcTemplate)) {
+					applied.add(migration.getVersion());
+				}
+
+				List<Migration> appliedNow = new ArrayList<>();
+				for (Migration migration : migrations) {
+					if (!applied.contains(migration.getVersion())) {
+						apply(migration, jdbcTemplate, transactionTemplate);
+						appliedNow.add(migration);
+					}
+				}
+				return appliedNow;
+			} catch (RuntimeException e) {
+				failure = e;
+				throw e;
+			} finally {
+				// The connection goes back to the pool, so leave it as it was.
+				// On a broken connection this fails too, and the failure
+				// that broke the run is the one to report.
+				try {
+					jdbcTemplate.execute(SQL_RESET_LOCK_TIMEOUT);
+					jdbcTemplate.queryForRowSet(SQL_UNLOCK, ADVISORY_LOCK_KEY);
+				} catch (RuntimeException cleanupFailure) {
+					if (failure == null) {
+						throw cleanupFailure;
+					}
+					failure.addSuppressed(cleanupFailure);
+				}
+			}
+		} catch (SQLException e) {
+			throw new IllegalStateException("Could not prepare the migration connection", e);
+		} finally {
+			DataSourceUtils.releaseConnection(connection, dataSource);
+		}
+	}
+
+	private void apply(Migration migration, JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+		long start = System.nanoTime();
+		try {
+			if (migration.isTransactional()) {
+				transactionTemplate.execute(status -> {
+					runStatements(migration, jdbcTemplate);
+					record(migration, jdbcTemplate, start);
+					return null;
+				});
+			} else {
+				runStatements(migration, jdbcTemplate);
+				record(migration, jdbcTemplate, start);
+			}
+		} catch (DataAccessException e) {
+			throw new IllegalStateException("Migration " + migration.getVersion() + " (" + migration.getDescription()
+					+ ") failed: " + e.getMostSpecificCause().getMessage(), e);
+		}
+		if (progressListener != null) {
+			progressListener.migrationApplied(migration, elapsedMillis(start));
+		}
+	}
+
+	private void runStatements(Migration migration, JdbcTemplate jdbcTemplate) {
+		List<Migration.Statement> statements = migration.getStatements();
+		for (int i = 0; i < statements.size(); i++) {
+			Migration.Statement statement = statements.get(i);
+			long start = System.nanoTime();
+			int runs = 0;
+			long rows = 0;
+			if (statement.isConcurrent()) {
+				rows = runConcurrently(statement, jdbcTemplate);
+				runs = 1;
+			} else {
+				int changed;
+				do {
+					changed = jdbcTemplate.update(statement.getSql());
+					rows += changed;
+					runs++;
+				} while (statement.isRepeated() && changed > 0);
+			}
+			if (progressListener != null) {
+				progressListener.statementFinished(migration, i + 1, runs, rows, System.nanoTime() - start);
+			}
+		}
+	}
+
+	private int runConcurrently(Migration.Statement statement, JdbcTemplate jdbcTemplate) {
+		jdbcTemplate.queryForRowSet(SQL_SET_LOCK_TIMEOUT, "0");
+		RuntimeException failure = null;
+		try {
+			String index = statement.getConcurrentIndex();
+			if (index != null && jdbcTemplate.queryForObject(SQL_IS_INDEX_INVALID, Integer.class, index) > 0) {
+				jdbcTemplate.execute(String.format(SQL_DROP_INVALID_INDEX, index));
+			}
+			return jdbcTemplate.update(statement.getSql());
+		} catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		} finally {
+			try {
+				jdbcTemplate.queryForRowSet(SQL_SET_LOCK_TIMEOUT, lockTimeoutMillis + "ms");
+			} catch (RuntimeException cleanupFailure) {
+				if (failure == null) {
+					throw cleanupFailure;
+				}
+				failure.addSuppressed(cleanupFailure);
+			}
+		}
+	}
+
+	private static void record(Migration migration, JdbcTemplate jdbcTemplate, long start) {
+		jdbcTemplate.update(SQL_RECORD_MIGRATION, migration.getVersion(), migration.getDescription(),
+				elapsedMillis(start));
+	}
+
+	private static List<AppliedMigration> getHistory(JdbcTemplate jdbcTemplate) {
+		List<AppliedMigration> history = new ArrayList<>();
+		SqlRowSet results = jdbcTemplate.queryForRowSet(SQL_GET_HISTORY, JDBCStatements.NO_PARAMETERS);
+		while (results.next()) {
+			history.add(new AppliedMigration(results.getInt("version"), results.getString("description"),
+					results.getTimestamp("applied_at").toLocalDateTime(), results.getLong("duration_ms")));
+		}
+		return history;
+	}
+
+	private static long elapsedMillis(long startNanos) {
+		return (System.nanoTime() - startNanos) / 1_000_000;
+	}
+}
@@ -0,0 +1,281 @@
+package com.techelevator.projects.model.jdbc;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.techelevator.projects.model.EmployeeColumnStore;
+import com.techelevator.projects.model.ProjectAssignmentStore;
+
+/**
+ * Loads the employee and project_employee tables into their column stores
+ * using several connections at once. The {@code employee_id} range is split
+ * into slices, each slice is read on its own pooled connection by a fork/join
+ * worker, and the slices are joined once, in id order, when all have loaded.
+ * <p>
+ * Every slice is read in a repeatable read transaction that imports a
+ * snapshot exported by a coordinating transaction
+ * ({@code pg_export_snapshot()} and {@code SET TRANSACTION SNAPSHOT}), so
+ * the result is what one transaction would have seen. {@link #load()} reads
+ * both tables from the same snapshot; {@link #loadEmployees()} and
+ * {@link #loadAssignments()} each take their own.
+ * <p>
+ * Each worker blocks on a query while it holds a connection, and the
+ * coordinating transaction holds one more, so the parallelism should be
+ * smaller than the data source's pool.
+ */
+public class ParallelSnapshotLoader {
+
+	private static final String SQL_EXPORT_SNAPSHOT = "SELECT pg_export_snapshot()";
+	// SET TRANSACTION SNAPSHOT takes no parameters; the id is checked against
+	// SNAPSHOT_ID before it is quoted into the statement.
+	private static final String SQL_IMPORT_SNAPSHOT = "SET TRANSACTION SNAPSHOT '%s'";
+	private static final Pattern SNAPSHOT_ID = Pattern.compile("[0-9A-Fa-f-]+");
+	private static final String SQL_EMPLOYEE_ID_RANGE = "SELECT min(employee_id) AS min_id, max(employee_id) AS max_id " +
+														"FROM employee";
+	private static final String SQL_GET_EMPLOYEE_COLUMNS_IN_RANGE = "SELECT employee_id, department_id, birth_date, gender, hire_date " +
+																	"FROM employee " +
+																	"WHERE employee_id >= ? AND employee_id < ? " +
+																	"ORDER BY employee_id";
+	private static final String SQL_GET_ASSIGNMENTS_IN_RANGE = "SELECT project_id, employee_id " +
+															   "FROM project_employee " +
+															   "WHERE employee_id >= ? AND employee_id < ? " +
+															   "ORDER BY employee_id, project_id";
+
+	/**
+	 * Told about every slice as it finishes loading. Called from worker
+	 * threads.
+	 */
+	public interface ProgressListener {
+		void sliceLoaded(String table, int slicesDone, int slicesTotal, long rowsLoaded);
+	}
+
+	/**
+	 * Both tables, as of the same moment.
+	 */
+	public static final class Snapshot {
+		private final EmployeeColumnStore employees;
+		private final ProjectAssignmentStore assignments;
+
+		Snapshot(EmployeeColumnStore employees, ProjectAssignmentStore assignments) {
+			this.employees = employees;
+			this.assignments = assignments;
+		}
+
+		public EmployeeColumnStore getEmployees() {
+			return employees;
+		}
+
+		public ProjectAssignmentStore getAssignments() {
+			return assignments;
+		}
+	}
+
+	private DataSource dataSource;
+	private int parallelism;
+	private long sliceSize;
+	private ProgressListener progressListener;
+
+	/**
+	 * @param dataSource where to load from; reads go to the replica if it is
+	 *        a {@link ReadWriteRoutingDataSource}, unless the calling thread
+	 *        has to read its own writes
+	 * @param parallelism how many slices to load at once
+	 * @param sliceSize how many employee ids each slice covers
+	 * @param progressListener told as each slice finishes, may be null
+	 */
+	public ParallelSnapshotLoader(DataSource dataSource, int parallelism, long sliceSize,
+			ProgressListener progressListener) {
+		this.dataSource = dataSource;
+		this.parallelism = parallelism;
+		this.sliceSize = sliceSize;
+		this.progressListener = progressListener;
+	}
+
+	public Snapshot load() {
+		return inSnapshot(snapshot -> new Snapshot(loadEmployees(snapshot), loadAssignments(snapshot)));
+	}
+
+	public EmployeeColumnStore loadEmployees() {
+		return inSnapshot(this::loadEmployees);
+	}
+
+	public ProjectAssignmentStore loadAssignments() {
+		return inSnapshot(this::loadAssignments);
+	}
+
+	private EmployeeColumnStore loadEmployees(ExportedSnapshot snapshot) {
+		return load(snapshot, "employee", this::loadEmployeeSlice, EmployeeColumnStore::size,
+				EmployeeColumnStore::concat, new EmployeeColumnStore.Builder(0).build());
+	}
+
+	private ProjectAssignmentStore loadAssignments(ExportedSnapshot snapshot) {
+		return load(snapshot, "project_employee", this::loadAssignmentSlice, ProjectAssignmentStore::size,
+				ProjectAssignmentStore::concat, new ProjectAssignmentStore.Builder().build());
+	}
+
+	/*
+	 * Every connection comes from the one database the calling thread would
+	 * read from now, since a snapshot can only be imported where it was
+	 * exported.
+	 */
+	private <R> R inSnapshot(Function<ExportedSnapshot, R> work) {
+		DataSource source = ReadWriteRoutingDataSource.currentReadTarget(dataSource);
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(source);
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			return repeatableRead(source).execute(status -> {
+				String snapshotId = jdbcTemplate.queryForObject(SQL_EXPORT_SNAPSHOT, String.class);
+				if (snapshotId == null || !SNAPSHOT_ID.matcher(snapshotId).matches()) {
+					throw new DataRetrievalFailureException("Unexpected snapshot id " + snapshotId);
+				}
+				long[] range = new long[2];
+				boolean[] empty = { true };
+				jdbcTemplate.query(SQL_EMPLOYEE_ID_RANGE, (RowCallbackHandler) row -> {
+					range[0] = row.getLong("min_id");
+					empty[0] = row.wasNull();
+					range[1] = row.getLong("max_id") + 1;
+				});
+				return work.apply(new ExportedSnapshot(source, snapshotId, pool, empty[0] ? null : range));
+			});
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private <T> T load(ExportedSnapshot snapshot, String table, BiFunction<JdbcTemplate, long[], T> sliceLoader,
+			ToIntFunction<T> sizer, Function<List<T>, T> merger, T empty) {
+		if (snapshot.idRange == null) {
+			return empty;
+		}
+		long minId = snapshot.idRange[0];
+		long maxIdExclusive = snapshot.idRange[1];
+		int slicesTotal = (int) ((maxIdExclusive - minId + sliceSize - 1) / sliceSize);
+		Progress progress = new Progress(table, slicesTotal);
+		List<SliceTask<T>> tasks = new ArrayList<>(slicesTotal);
+		for (long fromId = minId; fromId < maxIdExclusive; fromId += sliceSize) {
+			SliceTask<T> task = new SliceTask<>(snapshot, fromId, Math.min(fromId + sliceSize, maxIdExclusive),
+					sliceLoader, sizer, progress);
+			snapshot.pool.execute(task);
+			tasks.add(task);
+		}
+		// One join of all the slices, rather than a copy at every level of a
+		// merge tree.
+		List<T> slices = new ArrayList<>(slicesTotal);
+		for (SliceTask<T> task : tasks) {
+			slices.add(task.join());
+		}
+		return merger.apply(slices);
+	}
+
+	private EmployeeColumnStore loadEmployeeSlice(JdbcTemplate jdbcTemplate, long[] slice) {
+		EmployeeColumnStore.Builder builder = new EmployeeColumnStore.Builder((int) sliceSize);
+		jdbcTemplate.query(SQL_GET_EMPLOYEE_COLUMNS_IN_RANGE, new Object[] { slice[0], slice[1] },
+				(RowCallbackHandler) row -> {
+					builder.add(row.getInt("employee_id"),
+							row.getInt("department_id"),
+							(int) row.getDate("birth_date").toLocalDate().toEpochDay(),
+							(int) row.getDate("hire_date").toLocalDate().toEpochDay(),
+							row.getString("gender").charAt(0) == 'F');
+				});
+		return builder.build();
+	}
+
+	private ProjectAssignmentStore loadAssignmentSlice(JdbcTemplate jdbcTemplate, long[] slice) {
+		ProjectAssignmentStore.Builder builder = new ProjectAssignmentStore.Builder();
+		jdbcTemplate.query(SQL_GET_ASSIGNMENTS_IN_RANGE, new Object[] { slice[0], slice[1] },
+				(RowCallbackHandler) row -> builder.add(row.getInt("project_id"), row.getInt("employee_id")));
+		return builder.build();
+	}
+
+	private static TransactionTemplate repeatableRead(DataSource source) {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(source));
+		transactionTemplate.setIsolationLevel(Connection.TRANSACTION_REPEATABLE_READ);
+		transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		return transactionTemplate;
+	}
+
+	private static class ExportedSnapshot {
+		private DataSource source;
+		private String id;
+		private ForkJoinPool pool;
+		// minimum and maximum + 1 employee_id, or null if there are no employees
+		private long[] idRange;
+
+		ExportedSnapshot(DataSource source, String id, ForkJoinPool pool, long[] idRange) {
+			this.source = source;
+			this.id = id;
+			this.pool = pool;
+			this.idRange = idRange;
+		}
+	}
+
+	private class Progress {
+		private String table;
+		private int slicesTotal;
+		private AtomicInteger slicesDone = new AtomicInteger();
+		private AtomicLong rowsLoaded = new AtomicLong();
+
+		Progress(String table, int slicesTotal) {
+			this.table = table;
+			this.slicesTotal = slicesTotal;
+		}
+
+		void sliceLoaded(int rows) {
+			long rowsSoFar = rowsLoaded.addAndGet(rows);
+			int done = slicesDone.incrementAndGet();
+			if (progressListener != null) {
+				progressListener.sliceLoaded(table, done, slicesTotal, rowsSoFar);
+			}
+		}
+	}
+
+	private static class SliceTask<T> extends RecursiveTask<T> {
+		private static final long serialVersionUID = 1L;
+
+		private transient ExportedSnapshot snapshot;
+		private long fromId;
+		private long toId;
+		private transient BiFunction<JdbcTemplate, long[], T> sliceLoader;
+		private transient ToIntFunction<T> sizer;
+		private transient Progress progress;
+
+		SliceTask(ExportedSnapshot snapshot, long fromId, long toId, BiFunction<JdbcTemplate, long[], T> sliceLoader,
+				ToIntFunction<T> sizer, Progress progress) {
+			this.snapshot = snapshot;
+			this.fromId = fromId;
+			this.toId = toId;
+			this.sliceLoader = sliceLoader;
+			this.sizer = sizer;
+			this.progress = progress;
+		}
+
+		@Override
+		protected T compute() {
+			JdbcTemplate jdbcTemplate = new JdbcTemplate(snapshot.source);
+			T slice = repeatableRead(snapshot.source).execute(status -> {
+				jdbcTemplate.execute(String.format(SQL_IMPORT_SNAPSHOT, snapshot.id));
+				return sliceLoader.apply(jdbcTemplate, new long[] { fromId, toId });
+			});
+			progress.sliceLoaded(sizer.applyAsInt(slice));
+			return slice;
+		}
+	}
+}
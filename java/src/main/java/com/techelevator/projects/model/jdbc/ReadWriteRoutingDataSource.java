@@ -0,0 +1,134 @@
+package com.techelevator.projects.model.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * A data source that sends writes to a primary database and lets reads go to
+ * a replica.
+ * <p>
+ * Connections taken from this data source are always primary connections and
+ * count as a write. The JDBC DAOs run their read-only methods against
+ * {@link #forReads(DataSource)}, which hands out replica connections unless
+ * the current thread needs to see its own writes: either it is inside a
+ * transaction on this data source, or it wrote less than the stickiness
+ * window ago.
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+
+	private DataSource primary;
+	private DataSource replica;
+	private long stickinessMillis;
+	private ThreadLocal<Long> lastWriteMillis = new ThreadLocal<>();
+	private DataSource transactionalPrimary;
+	private DataSource readDataSource;
+
+	/**
+	 * @param primary where writes go
+	 * @param replica where reads go
+	 * @param stickinessMillis how long a thread keeps reading from the primary
+	 *        after it writes, long enough to cover the replica's usual lag
+	 */
+	public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, long stickinessMillis) {
+		this.primary = primary;
+		this.replica = replica;
+		this.stickinessMillis = stickinessMillis;
+		this.transactionalPrimary = new TransactionAwareDataSourceProxy(this);
+		this.readDataSource = new ReadDataSource();
+	}
+
+	/**
+	 * Get the data source a DAO should use for its read-only queries. Any data
+	 * source other than a {@code ReadWriteRoutingDataSource} is returned as is.
+	 */
+	public static DataSource forReads(DataSource dataSource) {
+		if (dataSource instanceof ReadWriteRoutingDataSource) {
+			return ((ReadWriteRoutingDataSource) dataSource).readDataSource;
+		}
+		return dataSource;
+	}
+
+	/**
+	 * Get the database the current thread's reads go to right now: the
+	 * replica, or the primary if the thread has to see its own writes. Unlike
+	 * {@link #forReads(DataSource)}, which decides again for every
+	 * connection, every connection taken from the result comes from the same
+	 * database, whichever thread takes it. Any data source other than a
+	 * {@code ReadWriteRoutingDataSource} is returned as is.
+	 */
+	public static DataSource currentReadTarget(DataSource dataSource) {
+		if (dataSource instanceof ReadWriteRoutingDataSource) {
+			ReadWriteRoutingDataSource routing = (ReadWriteRoutingDataSource) dataSource;
+			return mustReadFromPrimary(routing) ? routing.primary : routing.replica;
+		}
+		return dataSource;
+	}
+
+	/**
+	 * @return whether the current thread's reads go to the primary so it sees
+	 *         its own writes. Reads handed to another thread, such as a batch
+	 *         load, go to the replica instead, so such a thread has to read
+	 *         for itself. Always false for any other data source.
+	 */
+	public static boolean mustReadFromPrimary(DataSource dataSource) {
+		if (dataSource instanceof ReadWriteRoutingDataSource) {
+			ReadWriteRoutingDataSource routing = (ReadWriteRoutingDataSource) dataSource;
+			return routing.isInTransaction() || routing.wroteRecently();
+		}
+		return false;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		lastWriteMillis.set(System.currentTimeMillis());
+		return primary.getConnection();
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		lastWriteMillis.set(System.currentTimeMillis());
+		return primary.getConnection(username, password);
+	}
+
+	private boolean isInTransaction() {
+		return TransactionSynchronizationManager.hasResource(this);
+	}
+
+	private boolean wroteRecently() {
+		Long lastWrite = lastWriteMillis.get();
+		return lastWrite != null && System.currentTimeMillis() - lastWrite < stickinessMillis;
+	}
+
+	private class ReadDataSource extends AbstractDataSource {
+
+		@Override
+		public Connection getConnection() throws SQLException {
+			if (isInTransaction()) {
+				// hands back the transaction's own connection, and leaves it
+				// open when the DAO is done with it
+				return transactionalPrimary.getConnection();
+			}
+			if (wroteRecently()) {
+				return primary.getConnection();
+			}
+			return replica.getConnection();
+		}
+
+		@Override
+		public Connection getConnection(String username, String password) throws SQLException {
+			if (isInTransaction()) {
+				return transactionalPrimary.getConnection();
+			}
+			if (wroteRecently()) {
+				return primary.getConnection(username, password);
+			}
+			return replica.getConnection(username, password);
+		}
+	}
+}
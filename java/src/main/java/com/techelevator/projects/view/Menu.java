@@ -3,15 +3,44 @@ package com.techelevator.projects.view;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
 public class Menu {
 
+	/**
+	 * Supplies the options for {@link Menu#getChoiceFromPages} one page at a
+	 * time, usually straight from a keyset-paged DAO query.
+	 */
+	public interface PageSource<T> {
+
+		/**
+		 * @param filter the text the user typed to narrow the options, blank for none
+		 * @param after the last option of the previous page, or null for the first page
+		 * @param pageSize the most options to return
+		 * @return the options that come after {@code after}, in display order
+		 */
+		List<T> getPage(String filter, T after, int pageSize);
+	}
+
+	private static final String NEXT_PAGE = ">";
+	private static final String PREVIOUS_PAGE = "<";
+
 	private PrintWriter out;
 	private Scanner in;
 
 	public Menu(InputStream input, OutputStream output) {
-		this.out = new PrintWriter(output);
+		this(input, new PrintWriter(output));
+	}
+
+	/**
+	 * Creates a menu that writes through the caller's writer, so anything the
+	 * caller printed before the menu is flushed together with it when the
+	 * menu prompts.
+	 */
+	public Menu(InputStream input, PrintWriter output) {
+		this.out = output;
 		this.in = new Scanner(input);
 	}
 
@@ -24,6 +53,97 @@ public class Menu {
 		return choice;
 	}
 
+	/**
+	 * Lets the user pick from a list too long to show at once. Only one page
+	 * of options is fetched and displayed at a time; the user can move
+	 * between pages with {@code >} and {@code <}, or type any other text to
+	 * filter the options and start again from the first page.
+	 * 
+	 * @param source where to fetch each page from
+	 * @param pageSize how many options to show per page
+	 * @return the option the user chose
+	 */
+	public <T> T getChoiceFromPages(PageSource<T> source, int pageSize) {
+		String filter = "";
+		List<T> pageStarts = new ArrayList<>();
+		pageStarts.add(null);
+		while(true) {
+			List<T> page = source.getPage(filter, pageStarts.get(pageStarts.size() - 1), pageSize + 1);
+			boolean hasNextPage = page.size() > pageSize;
+			if(hasNextPage) {
+				page = page.subList(0, pageSize);
+			}
+			displayPage(page, pageStarts.size(), hasNextPage, filter);
+			String userInput = in.nextLine().trim();
+			if(userInput.equals(NEXT_PAGE)) {
+				if(hasNextPage) {
+					pageStarts.add(page.get(page.size() - 1));
+				} else {
+					out.println("\n*** This is the last page ***");
+				}
+			} else if(userInput.equals(PREVIOUS_PAGE)) {
+				if(pageStarts.size() > 1) {
+					pageStarts.remove(pageStarts.size() - 1);
+				} else {
+					out.println("\n*** This is the first page ***");
+				}
+			} else {
+				T choice = getChoiceFromPage(page, userInput);
+				if(choice != null) {
+					return choice;
+				}
+				if(!isNumber(userInput)) {
+					filter = userInput;
+					pageStarts.subList(1, pageStarts.size()).clear();
+				}
+			}
+		}
+	}
+
+	private <T> T getChoiceFromPage(List<T> page, String userInput) {
+		if(!isNumber(userInput)) {
+			return null;
+		}
+		// Too many digits to be an option, and too many for an int
+		int selectedOption = userInput.length() > 9 ? 0 : Integer.parseInt(userInput);
+		if(selectedOption >= 1 && selectedOption <= page.size()) {
+			return page.get(selectedOption - 1);
+		}
+		out.println("\n*** "+userInput+" is not a valid option ***");
+		return null;
+	}
+
+	private static boolean isNumber(String userInput) {
+		if(userInput.isEmpty()) {
+			return false;
+		}
+		for(int i = 0; i < userInput.length(); i++) {
+			if(!Character.isDigit(userInput.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void displayPage(List<?> page, int pageNumber, boolean hasNextPage, String filter) {
+		out.println();
+		if(page.isEmpty()) {
+			out.println("*** No results ***");
+		}
+		for(int i = 0; i < page.size(); i++) {
+			out.println((i+1)+") "+page.get(i));
+		}
+		out.print("\nPage "+pageNumber);
+		if(!filter.isEmpty()) {
+			out.print(" of options starting with '"+filter+"'");
+		}
+		out.println(". Enter "+(hasNextPage ? NEXT_PAGE+" for the next page, " : "")
+				+(pageNumber > 1 ? PREVIOUS_PAGE+" for the previous page, " : "")
+				+"or text to search.");
+		out.print("Please choose an option >>> ");
+		out.flush();
+	}
+
 	private Object getChoiceFromUserInput(Object[] options) {
 		Object choice = null;
 		String userInput = in.nextLine();
@@ -0,0 +1,168 @@
+package com.techelevator.projects;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.techelevator.projects.model.Department;
+import com.techelevator.projects.model.DepartmentDAO;
+import com.techelevator.projects.model.EmployeeDAO;
+import com.techelevator.projects.model.ProjectDAO;
+import com.techelevator.projects.model.UnitOfWork;
+
+public class BatchRunnerTest {
+
+	private List<String> calls;
+	private int unitsOfWork;
+	private StringWriter output;
+	private BatchRunner runner;
+
+	@Before
+	public void setup() {
+		calls = new ArrayList<>();
+		unitsOfWork = 0;
+		output = new StringWriter();
+		UnitOfWork unitOfWork = new UnitOfWork() {
+			@Override
+			public <T> T execute(Supplier<T> work) {
+				unitsOfWork++;
+				return work.get();
+			}
+
+			@Override
+			public void run(Runnable work) {
+				unitsOfWork++;
+				work.run();
+			}
+		};
+		runner = new BatchRunner(recording(DepartmentDAO.class), recording(EmployeeDAO.class),
+								 recording(ProjectDAO.class), unitOfWork, new PrintWriter(output));
+	}
+
+	@Test
+	public void consecutive_writes_to_the_same_target_are_sent_as_one_batch() throws IOException {
+		int status = run("assign 1 10 11\n" +
+						 "assign 1 12\n" +
+						 "assign 2 10\n" +
+						 "unassign 1 13\n" +
+						 "transfer 5 10\n" +
+						 "transfer 5 11 12\n");
+
+		Assert.assertEquals(BatchRunner.EXIT_OK, status);
+		Assert.assertEquals(Arrays.asList("addEmployeesToProject 1 [10, 11, 12]",
+										  "addEmployeesToProject 2 [10]",
+										  "removeEmployeesFromProject 1 [13]",
+										  "changeEmployeesDepartment [10, 11, 12] 5"), calls);
+		Assert.assertEquals(1, unitsOfWork);
+		Assert.assertTrue(output.toString().contains("Saved 8 changes in 4 batches"));
+	}
+
+	@Test
+	public void a_read_between_writes_keeps_them_in_separate_batches() throws IOException {
+		run("assign 1 10\n" +
+			"list departments\n" +
+			"assign 1 11\n");
+
+		Assert.assertEquals(Arrays.asList("addEmployeesToProject 1 [10]",
+										  "getAllDepartments",
+										  "addEmployeesToProject 1 [11]"), calls);
+	}
+
+	@Test
+	public void reads_are_printed_one_row_per_line() throws IOException {
+		run("# departments first\n" +
+			"\n" +
+			"search departments Store%\n");
+
+		Assert.assertEquals(Arrays.asList("searchDepartmentsByName Store%"), calls);
+		Assert.assertTrue(output.toString().startsWith("7\tStore Ops" + System.lineSeparator()));
+	}
+
+	@Test
+	public void an_invalid_line_stops_the_script_before_anything_runs() throws IOException {
+		int status = run("assign 1 10\n" +
+						 "assign 1 ten\n");
+
+		Assert.assertEquals(BatchRunner.EXIT_INVALID_SCRIPT, status);
+		Assert.assertTrue(calls.isEmpty());
+		Assert.assertEquals(0, unitsOfWork);
+		Assert.assertTrue(output.toString().startsWith("line 2: 'ten' is not an id"));
+	}
+
+	@Test
+	public void unknown_commands_are_rejected() throws IOException {
+		Assert.assertEquals(BatchRunner.EXIT_INVALID_SCRIPT, run("delete 1 10\n"));
+		Assert.assertEquals(BatchRunner.EXIT_INVALID_SCRIPT, run("list everything\n"));
+		Assert.assertEquals(BatchRunner.EXIT_INVALID_SCRIPT, run("transfer 5\n"));
+	}
+
+	@Test
+	public void a_failing_command_reports_that_nothing_was_saved() throws IOException {
+		runner = new BatchRunner(recording(DepartmentDAO.class), recording(EmployeeDAO.class), failing(ProjectDAO.class),
+								 new UnitOfWork() {
+									 @Override
+									 public <T> T execute(Supplier<T> work) {
+										 return work.get();
+									 }
+
+									 @Override
+									 public void run(Runnable work) {
+										 work.run();
+									 }
+								 }, new PrintWriter(output));
+
+		int status = run("transfer 5 10\nassign 1 10\n");
+
+		Assert.assertEquals(BatchRunner.EXIT_FAILED, status);
+		Assert.assertTrue(output.toString().startsWith("Script failed, no changes were saved: project 1 is closed"));
+	}
+
+	private int run(String script) throws IOException {
+		return runner.run(new StringReader(script));
+	}
+
+	/*
+	 * Records each call as "method arg arg". Methods returning lists return
+	 * one department for department lookups and an empty list otherwise.
+	 */
+	private <T> T recording(Class<T> type) {
+		Object stub = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+			StringBuilder call = new StringBuilder(method.getName());
+			if(args != null) {
+				for(Object arg : args) {
+					call.append(' ').append(arg);
+				}
+			}
+			calls.add(call.toString());
+			if(method.getReturnType() == List.class) {
+				if(type == DepartmentDAO.class) {
+					Department department = new Department();
+					department.setId(7L);
+					department.setName("Store Ops");
+					return Collections.singletonList(department);
+				}
+				return Collections.emptyList();
+			}
+			return null;
+		});
+		return type.cast(stub);
+	}
+
+	private <T> T failing(Class<T> type) {
+		Object stub = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+			throw new IllegalStateException("project " + args[0] + " is closed");
+		});
+		return type.cast(stub);
+	}
+}
@@ -0,0 +1,519 @@
+package com.techelevator.projects.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.techelevator.projects.model.CompactEmployee;
+import com.techelevator.projects.model.Department;
+import com.techelevator.projects.model.DepartmentDAO;
+import com.techelevator.projects.model.Employee;
+import com.techelevator.projects.model.EmployeeColumnStore;
+import com.techelevator.projects.model.ProjectAssignmentStore;
+import com.techelevator.projects.model.concurrent.BatchingDepartmentDAO;
+import com.techelevator.projects.model.concurrent.IndexedDepartmentDAO;
+import com.techelevator.projects.model.jdbc.JDBCDepartmentDAO;
+import com.techelevator.projects.model.jdbc.JDBCEmployeeDAO;
+import com.techelevator.projects.model.jdbc.ParallelSnapshotLoader;
+
+/**
+ * Hand-run timings against a local projects database. This is not a JUnit
+ * test and is not picked up by the build. To run it:
+ * 
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/classes:target/test-classes:$(cat target/cp.txt) \
+ *     com.techelevator.projects.benchmark.DAOBenchmark [scenario]
+ * </pre>
+ * 
+ * With no scenario every benchmark is run.
+ */
+public class DAOBenchmark {
+
+	private static final String URL = "jdbc:postgresql://localhost:5432/projects";
+	private static final String USERNAME = "postgres";
+	private static final String PASSWORD = "postgres1";
+
+	private static final int WARMUP_ITERATIONS = 2_000;
+	private static final int ITERATIONS = 20_000;
+
+	public static void main(String[] args) throws SQLException, IOException, InterruptedException {
+		String scenario = args.length > 0 ? args[0] : "all";
+
+		if (runs(scenario, "statement-cache")) {
+			statementCache();
+		}
+		if (runs(scenario, "multi-get")) {
+			multiGet();
+		}
+		if (runs(scenario, "employee-footprint")) {
+			employeeFootprint();
+		}
+		if (runs(scenario, "column-scan")) {
+			columnScan();
+		}
+		if (runs(scenario, "parallel-load")) {
+			parallelLoad();
+		}
+		if (runs(scenario, "batch-loader")) {
+			batchLoader();
+		}
+		if (runs(scenario, "list-printing")) {
+			listPrinting();
+		}
+		if (runs(scenario, "streaming-list")) {
+			streamingList();
+		}
+		if (runs(scenario, "name-index")) {
+			nameIndex();
+		}
+		if (runs(scenario, "assignment-partitions")) {
+			assignmentPartitions();
+		}
+	}
+
+	/**
+	 * Repeated {@code getDepartmentById} with and without pooled,
+	 * server-side prepared statements. The difference is the parse and plan
+	 * work the cached statement skips.
+	 */
+	private static void statementCache() throws SQLException {
+		for (boolean cacheStatements : new boolean[] { false, true }) {
+			BasicDataSource dataSource = createDataSource(cacheStatements);
+			try {
+				JDBCDepartmentDAO dao = new JDBCDepartmentDAO(dataSource);
+				List<Department> departments = dao.getAllDepartments();
+				if (departments.isEmpty()) {
+					System.out.println("statement-cache: no departments to look up");
+					return;
+				}
+				Long id = departments.get(0).getId();
+
+				for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+					dao.getDepartmentById(id);
+				}
+				long start = System.nanoTime();
+				for (int i = 0; i < ITERATIONS; i++) {
+					dao.getDepartmentById(id);
+				}
+				report("getDepartmentById, statement cache " + (cacheStatements ? "on" : "off"), ITERATIONS,
+						System.nanoTime() - start);
+			} finally {
+				dataSource.close();
+			}
+		}
+	}
+
+	/**
+	 * Looking up the department of every employee one id at a time versus
+	 * one {@code getDepartmentsByIds} call for the whole list.
+	 */
+	private static void multiGet() throws SQLException {
+		BasicDataSource dataSource = createDataSource(true);
+		try {
+			JDBCDepartmentDAO departmentDAO = new JDBCDepartmentDAO(dataSource);
+			List<Employee> employees = new JDBCEmployeeDAO(dataSource).getAllEmployees();
+
+			long start = System.nanoTime();
+			for (Employee employee : employees) {
+				departmentDAO.getDepartmentById(employee.getDepartmentId());
+			}
+			report("department per employee, one query each", employees.size(), System.nanoTime() - start);
+
+			start = System.nanoTime();
+			Set<Long> departmentIds = new HashSet<>();
+			for (Employee employee : employees) {
+				departmentIds.add(employee.getDepartmentId());
+			}
+			departmentDAO.getDepartmentsByIds(departmentIds);
+			report("department per employee, getDepartmentsByIds", employees.size(), System.nanoTime() - start);
+		} finally {
+			dataSource.close();
+		}
+	}
+
+	/**
+	 * Heap used by a million employees held as {@code Employee} POJOs versus
+	 * {@code CompactEmployee}s with shared names. Needs no database.
+	 */
+	private static void employeeFootprint() {
+		int count = 1_000_000;
+		String[] firstNames = { "Flo", "Franklin", "Delora", "Sid", "Mary Lou", "Jammie", "Neville", "Meg" };
+		String[] lastNames = { "Henderson", "Trumbauer", "Coty", "Goodman", "Wolinski", "Mohl", "Zellers" };
+		LocalDate epoch = LocalDate.parse("1950-01-01");
+
+		long before = usedHeap();
+		List<Employee> employees = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Employee e = new Employee();
+			e.setId((long) i + 1);
+			e.setDepartmentId((long) (i % 50) + 1);
+			// new Strings, as the driver would hand back for every row
+			e.setFirstName(new String(firstNames[i % firstNames.length]));
+			e.setLastName(new String(lastNames[i % lastNames.length]));
+			e.setBirthDay(epoch.plusDays(i % 15_000));
+			e.setGender(i % 2 == 0 ? 'M' : 'F');
+			e.setHireDate(epoch.plusDays(15_000 + i % 10_000));
+			employees.add(e);
+		}
+		long pojoBytes = usedHeap() - before;
+
+		Map<String, String> names = new HashMap<>();
+		before = usedHeap();
+		List<CompactEmployee> compactEmployees = new ArrayList<>(count);
+		for (Employee e : employees) {
+			String firstName = names.computeIfAbsent(e.getFirstName(), name -> name);
+			String lastName = names.computeIfAbsent(e.getLastName(), name -> name);
+			compactEmployees.add(new CompactEmployee(e.getId().intValue(), (int) e.getDepartmentId(), firstName,
+					lastName, (int) e.getBirthDay().toEpochDay(), e.getGender(), (int) e.getHireDate().toEpochDay()));
+		}
+		long compactBytes = usedHeap() - before;
+
+		System.out.printf("%-60s %10d rows %12.1f bytes/row%n", "Employee POJO", employees.size(),
+				(double) pojoBytes / count);
+		System.out.printf("%-60s %10d rows %12.1f bytes/row%n", "CompactEmployee, shared names",
+				compactEmployees.size(), (double) compactBytes / count);
+	}
+
+	/**
+	 * Scan rate of the columnar employee store over fifty million synthetic
+	 * rows. Needs no database.
+	 */
+	private static void columnScan() {
+		int count = 50_000_000;
+		EmployeeColumnStore.Builder builder = new EmployeeColumnStore.Builder(count);
+		for (int i = 0; i < count; i++) {
+			builder.add(i + 1, i % 50 + 1, i % 20_000, 10_000 + i % 10_000, i % 2 == 0);
+		}
+		EmployeeColumnStore store = builder.build();
+		LocalDate cutoff = LocalDate.ofEpochDay(15_000);
+
+		for (int i = 0; i < 5; i++) {
+			store.countHiredBefore(cutoff);
+			store.countHiredBeforeByDepartment(cutoff);
+		}
+		int rounds = 20;
+		long start = System.nanoTime();
+		for (int i = 0; i < rounds; i++) {
+			store.countHiredBefore(cutoff);
+		}
+		reportRate("countHiredBefore", (long) count * rounds, System.nanoTime() - start);
+
+		start = System.nanoTime();
+		for (int i = 0; i < rounds; i++) {
+			store.countHiredBeforeByDepartment(cutoff);
+		}
+		reportRate("countHiredBeforeByDepartment", (long) count * rounds, System.nanoTime() - start);
+	}
+
+	/**
+	 * Cold load of the employee and project_employee tables on one
+	 * connection versus eight, printing progress as slices finish.
+	 */
+	private static void parallelLoad() throws SQLException {
+		for (int parallelism : new int[] { 1, 8 }) {
+			BasicDataSource dataSource = createDataSource(true);
+			dataSource.setMaxTotal(parallelism);
+			try {
+				ParallelSnapshotLoader loader = new ParallelSnapshotLoader(dataSource, parallelism, 100_000,
+						(table, done, total, rows) -> {
+							if (done % 10 == 0 || done == total) {
+								System.out.printf("  %s: %d/%d slices, %d rows%n", table, done, total, rows);
+							}
+						});
+				long start = System.nanoTime();
+				ParallelSnapshotLoader.Snapshot snapshot = loader.load();
+				EmployeeColumnStore employees = snapshot.getEmployees();
+				ProjectAssignmentStore assignments = snapshot.getAssignments();
+				report("parallel load, " + parallelism + " connection(s)", employees.size() + assignments.size(),
+						System.nanoTime() - start);
+			} finally {
+				dataSource.close();
+			}
+		}
+	}
+
+	/**
+	 * Many threads each looking up departments one id at a time, straight
+	 * through the JDBC DAO versus through a {@link BatchingDepartmentDAO}
+	 * that gathers them into {@code getDepartmentsByIds} calls.
+	 */
+	private static void batchLoader() throws SQLException, InterruptedException {
+		int threads = 64;
+		int lookupsPerThread = 500;
+		BasicDataSource dataSource = createDataSource(true);
+		dataSource.setMaxTotal(8);
+		ScheduledExecutorService batchExecutor = Executors.newScheduledThreadPool(2);
+		try {
+			JDBCDepartmentDAO jdbcDAO = new JDBCDepartmentDAO(dataSource);
+			List<Department> departments = jdbcDAO.getAllDepartments();
+			if (departments.isEmpty()) {
+				System.out.println("batch-loader: no departments to look up");
+				return;
+			}
+			BatchingDepartmentDAO batchingDAO = new BatchingDepartmentDAO(jdbcDAO, 1000, 500, batchExecutor, () -> false);
+			for (DepartmentDAO dao : new DepartmentDAO[] { jdbcDAO, batchingDAO }) {
+				ExecutorService callers = Executors.newFixedThreadPool(threads);
+				long start = System.nanoTime();
+				for (int t = 0; t < threads; t++) {
+					int offset = t;
+					callers.execute(() -> {
+						for (int i = 0; i < lookupsPerThread; i++) {
+							dao.getDepartmentById(departments.get((offset + i) % departments.size()).getId());
+						}
+					});
+				}
+				callers.shutdown();
+				callers.awaitTermination(10, TimeUnit.MINUTES);
+				report("getDepartmentById from " + threads + " threads, " + dao.getClass().getSimpleName(),
+						threads * lookupsPerThread, System.nanoTime() - start);
+			}
+			System.out.println("  " + batchingDAO.getDepartmentByIdLoader());
+		} finally {
+			batchExecutor.shutdownNow();
+			dataSource.close();
+		}
+	}
+
+	/**
+	 * Printing a million employee rows the way the CLI used to, one
+	 * autoflushing {@code println} per row on a PrintStream, versus one
+	 * buffered writer flushed once at the end. Output goes to a temp file so
+	 * the terminal's speed doesn't hide the difference. Needs no database.
+	 */
+	private static void listPrinting() throws IOException {
+		int count = 1_000_000;
+		List<Employee> employees = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Employee employee = new Employee();
+			employee.setFirstName("First" + (i % 1000));
+			employee.setLastName("Last" + i);
+			employees.add(employee);
+		}
+		Path sink = Files.createTempFile("list-printing", ".txt");
+		try {
+			for (int round = 0; round < 2; round++) {
+				long start = System.nanoTime();
+				try (PrintStream out = new PrintStream(new FileOutputStream(sink.toFile()), true)) {
+					for (Employee employee : employees) {
+						out.println(employee.getLastName() + ", " + employee.getFirstName());
+					}
+				}
+				report("print 1M rows, autoflushing println per row", count, System.nanoTime() - start);
+
+				start = System.nanoTime();
+				try (PrintWriter out = new PrintWriter(new BufferedWriter(
+						new OutputStreamWriter(new FileOutputStream(sink.toFile())), 64 * 1024))) {
+					for (Employee employee : employees) {
+						out.println(employee.getLastName() + ", " + employee.getFirstName());
+					}
+					out.flush();
+				}
+				report("print 1M rows, buffered writer, one flush", count, System.nanoTime() - start);
+			}
+		} finally {
+			Files.delete(sink);
+		}
+	}
+
+	/**
+	 * How long until the first employee can be printed when the whole table
+	 * is read into a List first versus streamed with {@code forEachEmployee}.
+	 */
+	private static void streamingList() throws SQLException {
+		BasicDataSource dataSource = createDataSource(true);
+		try {
+			JDBCEmployeeDAO dao = new JDBCEmployeeDAO(dataSource);
+
+			long start = System.nanoTime();
+			List<Employee> employees = dao.getAllEmployees();
+			long firstRow = System.nanoTime() - start;
+			System.out.printf("%-60s %10d rows %9.1f ms to first row%n", "getAllEmployees", employees.size(),
+					firstRow / 1_000_000.0);
+			employees = null;
+
+			long[] streamed = new long[] { 0, -1 };
+			start = System.nanoTime();
+			dao.forEachEmployee(employee -> {
+				if (streamed[1] < 0) {
+					streamed[1] = System.nanoTime();
+				}
+				streamed[0]++;
+			});
+			System.out.printf("%-60s %10d rows %9.1f ms to first row%n", "forEachEmployee", streamed[0],
+					streamed[0] == 0 ? 0 : (streamed[1] - start) / 1_000_000.0);
+		} finally {
+			dataSource.close();
+		}
+	}
+
+	/**
+	 * Department name searches answered by {@link IndexedDepartmentDAO} over
+	 * two hundred thousand synthetic names, for a rare substring, a prefix
+	 * and a one-letter substring that has to check every name. Needs no
+	 * database.
+	 */
+	private static void nameIndex() {
+		String[] words = { "Store", "Support", "Network", "Administration", "Research", "Development", "Sales",
+				"Shipping", "Legal", "Finance", "Marketing", "Operations", "Facilities", "Security" };
+		List<Department> departments = new ArrayList<>();
+		for (int i = 0; i < 200_000; i++) {
+			Department department = new Department();
+			department.setId((long) i + 1);
+			department.setName(words[i % words.length] + " " + words[(i / words.length) % words.length] + " " + i);
+			department.setVersion(0);
+			departments.add(department);
+		}
+		DepartmentDAO stub = (DepartmentDAO) Proxy.newProxyInstance(DepartmentDAO.class.getClassLoader(),
+				new Class<?>[] { DepartmentDAO.class }, (proxy, method, args) -> departments);
+		IndexedDepartmentDAO dao = new IndexedDepartmentDAO(stub);
+
+		for (String search : new String[] { "4242", "Legal Fin", "e" }) {
+			int rounds = search.length() == 1 ? 20 : ITERATIONS;
+			for (int i = 0; i < Math.min(rounds, WARMUP_ITERATIONS); i++) {
+				dao.searchDepartmentsByName(search);
+			}
+			int matches = 0;
+			long start = System.nanoTime();
+			for (int i = 0; i < rounds; i++) {
+				matches = dao.searchDepartmentsByName(search).size();
+			}
+			report("searchDepartmentsByName(\"" + search + "\"), " + matches + " matches", rounds,
+					System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Inserts and lookups on a plain assignment table versus one hash
+	 * partitioned eight ways like {@code project_employee}, as both grow to
+	 * sixteen million rows. Each project has two hundred employees. Uses
+	 * scratch tables that are dropped afterwards.
+	 */
+	private static void assignmentPartitions() throws SQLException {
+		int employeesPerProject = 200;
+		int insertedRows = 10_000;
+		BasicDataSource dataSource = createDataSource(true);
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		String[] tables = { "bench_assignment_plain", "bench_assignment_hash" };
+		try {
+			jdbc.execute("CREATE TABLE bench_assignment_plain (project_id integer NOT NULL, employee_id integer NOT NULL, " +
+					"PRIMARY KEY (project_id, employee_id))");
+			jdbc.execute("CREATE TABLE bench_assignment_hash (project_id integer NOT NULL, employee_id integer NOT NULL, " +
+					"PRIMARY KEY (project_id, employee_id)) PARTITION BY HASH (project_id)");
+			for (int i = 0; i < 8; i++) {
+				jdbc.execute("CREATE TABLE bench_assignment_hash_p" + i + " PARTITION OF bench_assignment_hash " +
+						"FOR VALUES WITH (MODULUS 8, REMAINDER " + i + ")");
+			}
+			for (String table : tables) {
+				jdbc.execute("CREATE INDEX ON " + table + " (employee_id, project_id)");
+			}
+
+			long rows = 0;
+			for (long size : new long[] { 1_000_000, 4_000_000, 16_000_000 }) {
+				for (String table : tables) {
+					jdbc.update("INSERT INTO " + table + " (project_id, employee_id) " +
+							"SELECT n / " + employeesPerProject + ", n % 1000000 FROM generate_series(?, ?) AS n",
+							rows, size - insertedRows - 1);
+					jdbc.execute("ANALYZE " + table);
+				}
+				long projects = size / employeesPerProject;
+				System.out.printf("%d rows:%n", size);
+				for (String table : tables) {
+					List<Object[]> batchArgs = new ArrayList<>();
+					for (long n = size - insertedRows; n < size; n++) {
+						batchArgs.add(new Object[] { (int) (n / employeesPerProject), (int) (n % 1_000_000) });
+					}
+					long start = System.nanoTime();
+					for (int from = 0; from < batchArgs.size(); from += 1_000) {
+						jdbc.batchUpdate("INSERT INTO " + table + " (project_id, employee_id) VALUES (?, ?)",
+								batchArgs.subList(from, from + 1_000));
+					}
+					report("  " + table + ", insert", insertedRows, System.nanoTime() - start);
+
+					String findAssignment = "SELECT 1 FROM " + table + " WHERE project_id = ? AND employee_id = ?";
+					String findProject = "SELECT employee_id FROM " + table + " WHERE project_id = ?";
+					for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+						long n = ThreadLocalRandom.current().nextLong(size);
+						jdbc.queryForList(findAssignment, (int) (n / employeesPerProject), (int) (n % 1_000_000));
+					}
+					start = System.nanoTime();
+					for (int i = 0; i < ITERATIONS; i++) {
+						long n = ThreadLocalRandom.current().nextLong(size);
+						jdbc.queryForList(findAssignment, (int) (n / employeesPerProject), (int) (n % 1_000_000));
+					}
+					report("  " + table + ", one assignment", ITERATIONS, System.nanoTime() - start);
+					start = System.nanoTime();
+					for (int i = 0; i < ITERATIONS; i++) {
+						jdbc.queryForList(findProject, (int) ThreadLocalRandom.current().nextLong(projects));
+					}
+					report("  " + table + ", one project's employees", ITERATIONS, System.nanoTime() - start);
+				}
+				rows = size;
+			}
+		} finally {
+			for (String table : tables) {
+				jdbc.execute("DROP TABLE IF EXISTS " + table);
+			}
+			dataSource.close();
+		}
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	static BasicDataSource createDataSource(boolean cacheStatements) {
+		BasicDataSource dataSource = new BasicDataSource();
+		dataSource.setUrl(URL);
+		dataSource.setUsername(USERNAME);
+		dataSource.setPassword(PASSWORD);
+		if (cacheStatements) {
+			dataSource.setPoolPreparedStatements(true);
+			dataSource.setMaxOpenPreparedStatements(50);
+			dataSource.addConnectionProperty("prepareThreshold", "1");
+		} else {
+			dataSource.addConnectionProperty("prepareThreshold", "0");
+		}
+		return dataSource;
+	}
+
+	static void report(String label, int operations, long elapsedNanos) {
+		double micros = elapsedNanos / 1_000.0 / operations;
+		System.out.printf("%-60s %10d ops %12.2f us/op%n", label, operations, micros);
+	}
+
+	static void reportRate(String label, long rows, long elapsedNanos) {
+		double rowsPerSecond = rows / (elapsedNanos / 1_000_000_000.0);
+		System.out.printf("%-60s %10.1f M rows/s%n", label, rowsPerSecond / 1_000_000);
+	}
+
+	private static boolean runs(String scenario, String name) {
+		return scenario.equals("all") || scenario.equals(name);
+	}
+}
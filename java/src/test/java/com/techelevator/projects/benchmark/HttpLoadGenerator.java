@@ -0,0 +1,110 @@
+package com.techelevator.projects.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends GET requests to a running {@code ProjectsCLI --serve} at a fixed
+ * rate and reports latency percentiles. Like {@link DAOBenchmark} it is run
+ * by hand:
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes:$(cat target/cp.txt) \
+ *     com.techelevator.projects.benchmark.HttpLoadGenerator \
+ *     http://localhost:8080 500 30 /departments /projects /employees?projectId=1
+ * </pre>
+ *
+ * The arguments are the base URL, requests per second, seconds to run and
+ * the paths to cycle through. Requests are sent on schedule whether or not
+ * earlier ones have finished, and each latency is measured from when the
+ * request should have been sent, so a server that falls behind shows up in
+ * the percentiles instead of quietly lowering the request rate.
+ */
+public class HttpLoadGenerator {
+
+	private static final int MAX_IN_FLIGHT = 256;
+
+	public static void main(String[] args) throws InterruptedException {
+		String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+		int requestsPerSecond = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+		int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+		String[] paths = args.length > 3 ? Arrays.copyOfRange(args, 3, args.length)
+				: new String[] { "/departments", "/projects", "/employees?projectId=1" };
+
+		// Keep a connection alive per sender; the default of 5 would make most
+		// requests open a new one.
+		System.setProperty("http.maxConnections", Integer.toString(MAX_IN_FLIGHT));
+
+		int total = requestsPerSecond * seconds;
+		long intervalNanos = 1_000_000_000L / requestsPerSecond;
+		long[] latencies = new long[total];
+		AtomicInteger errors = new AtomicInteger();
+		ExecutorService senders = Executors.newFixedThreadPool(MAX_IN_FLIGHT);
+
+		long start = System.nanoTime();
+		for (int i = 0; i < total; i++) {
+			long scheduled = start + i * intervalNanos;
+			long wait = scheduled - System.nanoTime();
+			if (wait > 0) {
+				TimeUnit.NANOSECONDS.sleep(wait);
+			}
+			int request = i;
+			URL url = toUrl(baseUrl + paths[i % paths.length]);
+			senders.execute(() -> {
+				if (!get(url)) {
+					errors.incrementAndGet();
+				}
+				latencies[request] = System.nanoTime() - scheduled;
+			});
+		}
+		senders.shutdown();
+		senders.awaitTermination(1, TimeUnit.MINUTES);
+		long elapsed = System.nanoTime() - start;
+
+		Arrays.sort(latencies);
+		System.out.printf("%d requests in %.1f s (%.0f/s), %d errors%n", total, elapsed / 1e9,
+				total / (elapsed / 1e9), errors.get());
+		System.out.printf("p50 %8.2f ms%n", percentile(latencies, 0.50));
+		System.out.printf("p90 %8.2f ms%n", percentile(latencies, 0.90));
+		System.out.printf("p99 %8.2f ms%n", percentile(latencies, 0.99));
+		System.out.printf("max %8.2f ms%n", latencies[latencies.length - 1] / 1e6);
+	}
+
+	private static boolean get(URL url) {
+		try {
+			HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+			int status = connection.getResponseCode();
+			InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+			if (body != null) {
+				// Read to the end so the connection can be kept alive and reused.
+				byte[] buffer = new byte[8192];
+				while (body.read(buffer) != -1) {
+				}
+				body.close();
+			}
+			return status < 400;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	private static URL toUrl(String url) {
+		try {
+			return new URL(url);
+		} catch (IOException e) {
+			throw new IllegalArgumentException(url, e);
+		}
+	}
+
+	private static double percentile(long[] sortedNanos, double fraction) {
+		int index = (int) Math.ceil(fraction * sortedNanos.length) - 1;
+		return sortedNanos[Math.max(index, 0)] / 1e6;
+	}
+}
@@ -0,0 +1,54 @@
+package com.techelevator.projects.http;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDate;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JsonWriterTest {
+
+	@Test
+	public void writes_nested_objects_and_arrays_with_commas_between_members() throws IOException {
+		StringWriter out = new StringWriter();
+
+		new JsonWriter(out).beginArray()
+			.beginObject().name("id").value(1L).name("name").value("Store").endObject()
+			.beginObject().name("id").value(2L).name("tags").beginArray().value(true).nullValue().endArray().endObject()
+			.endArray();
+
+		Assert.assertEquals("[{\"id\":1,\"name\":\"Store\"},{\"id\":2,\"tags\":[true,null]}]", out.toString());
+	}
+
+	@Test
+	public void writes_empty_containers() throws IOException {
+		StringWriter out = new StringWriter();
+
+		new JsonWriter(out).beginObject().name("list").beginArray().endArray().endObject();
+
+		Assert.assertEquals("{\"list\":[]}", out.toString());
+	}
+
+	@Test
+	public void escapes_strings() throws IOException {
+		StringWriter out = new StringWriter();
+
+		new JsonWriter(out).value("say \"hi\"\\\n\t\u0001\u2028");
+
+		Assert.assertEquals("\"say \\\"hi\\\"\\\\\\n\\t\\u0001\\u2028\"", out.toString());
+	}
+
+	@Test
+	public void writes_nulls_and_dates() throws IOException {
+		StringWriter out = new StringWriter();
+
+		new JsonWriter(out).beginObject()
+			.name("start").value(LocalDate.parse("2017-03-01"))
+			.name("end").value((LocalDate) null)
+			.name("version").value((Integer) null)
+			.endObject();
+
+		Assert.assertEquals("{\"start\":\"2017-03-01\",\"end\":null,\"version\":null}", out.toString());
+	}
+}
@@ -0,0 +1,217 @@
+package com.techelevator.projects.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.JdbcUpdateAffectedIncorrectNumberOfRowsException;
+
+import com.techelevator.projects.model.Department;
+import com.techelevator.projects.model.DepartmentDAO;
+import com.techelevator.projects.model.Employee;
+import com.techelevator.projects.model.EmployeeDAO;
+import com.techelevator.projects.model.Project;
+import com.techelevator.projects.model.ProjectDAO;
+import com.techelevator.projects.model.SearchDAO;
+import com.techelevator.projects.model.SearchHit;
+
+public class ProjectsHttpServerTest {
+
+	private ProjectsHttpServer server;
+	private List<String> calls;
+
+	@Before
+	public void setup() throws IOException {
+		calls = new ArrayList<>();
+		server = new ProjectsHttpServer(stub(DepartmentDAO.class), stub(EmployeeDAO.class), stub(ProjectDAO.class),
+										stub(SearchDAO.class), 0, 2, 4);
+		server.start();
+	}
+
+	@After
+	public void cleanup() {
+		server.stop(0);
+	}
+
+	@Test
+	public void lists_departments_as_json() throws IOException {
+		Assert.assertEquals("200 [{\"id\":1,\"name\":\"Store \\\"A\\\"\",\"version\":3}]", send("GET", "/departments"));
+		Assert.assertEquals(Arrays.asList("getAllDepartments"), calls);
+	}
+
+	@Test
+	public void passes_query_parameters_to_the_dao() throws IOException {
+		send("GET", "/departments?name=Store%20%25");
+
+		Assert.assertEquals(Arrays.asList("searchDepartmentsByName [Store %]"), calls);
+	}
+
+	@Test
+	public void streams_every_employee() throws IOException {
+		Assert.assertEquals("200 [{\"id\":5,\"departmentId\":1,\"firstName\":\"Flo\",\"lastName\":\"Henderson\","
+				+ "\"birthDate\":null,\"gender\":\"F\",\"hireDate\":null,\"version\":0},"
+				+ "{\"id\":6,\"departmentId\":1,\"firstName\":\"Flo\",\"lastName\":\"Henderson\","
+				+ "\"birthDate\":null,\"gender\":\"F\",\"hireDate\":null,\"version\":0}]", send("GET", "/employees"));
+	}
+
+	@Test
+	public void assigns_employees_to_projects() throws IOException {
+		Assert.assertEquals("204 ", send("PUT", "/projects/4/employees/9"));
+		Assert.assertEquals(Arrays.asList("addEmployeeToProject [4, 9]"), calls);
+	}
+
+	@Test
+	public void searches_with_a_capped_limit() throws IOException {
+		Assert.assertEquals("200 [{\"kind\":\"employee\",\"id\":5,\"label\":\"Flo Henderson\",\"rank\":0.5}]",
+				send("GET", "/search?q=flo%20hen&limit=1000"));
+		Assert.assertEquals(Arrays.asList("search [flo hen, 100]"), calls);
+		Assert.assertTrue(send("GET", "/search").startsWith("400 "));
+	}
+
+	@Test
+	public void counts_active_projects_per_day() throws IOException {
+		Assert.assertEquals("200 [{\"date\":\"2016-03-12\",\"count\":1},{\"date\":\"2016-03-13\",\"count\":1},"
+				+ "{\"date\":\"2016-03-14\",\"count\":0}]",
+				send("GET", "/projects/active-counts?from=2016-03-12&to=2016-03-14"));
+		Assert.assertTrue(send("GET", "/projects?activeFrom=2016-03-14").startsWith("200 []"));
+		Assert.assertTrue(send("GET", "/projects/active-counts?from=2016-03-12&to=March").startsWith("400 "));
+	}
+
+	@Test
+	public void rejects_backwards_or_overlong_count_ranges() throws IOException {
+		Assert.assertTrue(send("GET", "/projects/active-counts?from=2016-03-14&to=2016-03-12").startsWith("400 "));
+		Assert.assertTrue(send("GET", "/projects/active-counts?from=0001-01-01&to=9999-12-31").startsWith("400 "));
+	}
+
+	@Test
+	public void reports_saving_a_missing_department_as_404() throws IOException {
+		Assert.assertEquals("404 {\"error\":\"No department 99\"}", send("PUT", "/departments/99?name=Ops"));
+	}
+
+	@Test
+	public void reports_version_conflicts_as_409() throws IOException {
+		Assert.assertTrue(send("PUT", "/departments/1?name=Ops&version=2").startsWith("409 {\"error\":"));
+	}
+
+	@Test
+	public void reports_database_timeouts_as_503() throws IOException {
+		Assert.assertTrue(send("GET", "/employees?unassigned=true").startsWith("503 {\"error\":"));
+	}
+
+	@Test
+	public void reports_bad_requests() throws IOException {
+		Assert.assertTrue(send("GET", "/departments/abc").startsWith("400 "));
+		Assert.assertTrue(send("POST", "/departments").startsWith("400 {\"error\":\"Missing parameter 'name'\"}"));
+		Assert.assertTrue(send("DELETE", "/departments").startsWith("405 "));
+		Assert.assertTrue(send("GET", "/departmentsfoo").startsWith("404 "));
+		Assert.assertTrue(send("GET", "/departments?name=%zz").startsWith("400 "));
+	}
+
+	@Test
+	public void hides_the_details_of_server_errors() throws IOException {
+		Assert.assertEquals("500 {\"error\":\"Internal server error\"}", send("GET", "/employees?departmentId=1"));
+	}
+
+	private String send(String method, String path) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path).openConnection();
+		connection.setRequestMethod(method);
+		int status = connection.getResponseCode();
+		InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		if (body != null) {
+			byte[] buffer = new byte[1024];
+			int read;
+			while ((read = body.read(buffer)) != -1) {
+				bytes.write(buffer, 0, read);
+			}
+			body.close();
+		}
+		return status + " " + new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	/*
+	 * Records calls as "method [args]". Department lookups return one
+	 * department, forEachEmployee hands out two employees, search finds one
+	 * employee, there is one project, saving a department at a version
+	 * always conflicts, looking for unassigned employees times out and
+	 * listing a department's employees fails with an SQL error.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T stub(Class<T> type) {
+		Object stub = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+			calls.add(method.getName() + (args != null ? " " + Arrays.toString(args) : ""));
+			switch (method.getName()) {
+			case "getAllDepartments":
+			case "searchDepartmentsByName":
+				return Arrays.asList(department());
+			case "forEachEmployee":
+				((Consumer<Employee>) args[0]).accept(employee(5L));
+				((Consumer<Employee>) args[0]).accept(employee(6L));
+				return null;
+			case "search":
+				SearchHit hit = new SearchHit();
+				hit.setKind(SearchHit.Kind.EMPLOYEE);
+				hit.setId(5L);
+				hit.setLabel("Flo Henderson");
+				hit.setRank(0.5);
+				return Arrays.asList(hit);
+			case "getAllProjects":
+				Project project = new Project();
+				project.setId(2L);
+				project.setName("Royal Shakespeare");
+				project.setStartDate(LocalDate.parse("2015-10-15"));
+				project.setEndDate(LocalDate.parse("2016-03-14"));
+				return Arrays.asList(project);
+			case "saveDepartment":
+				if (((Department) args[0]).getVersion() == null) {
+					throw new JdbcUpdateAffectedIncorrectNumberOfRowsException("UPDATE department", 1, 0);
+				}
+				throw new OptimisticLockingFailureException("Department 1 was changed by someone else");
+			case "getEmployeesWithoutProjects":
+				throw new QueryTimeoutException("getEmployeesWithoutProjects took longer than 5000 ms");
+			case "getEmployeesByDepartmentId":
+				throw new BadSqlGrammarException("getEmployeesByDepartmentId", "SELECT secret FROM employee",
+						new SQLException("column \"secret\" does not exist", "42703"));
+			default:
+				return null;
+			}
+		});
+		return type.cast(stub);
+	}
+
+	private static Department department() {
+		Department department = new Department();
+		department.setId(1L);
+		department.setName("Store \"A\"");
+		department.setVersion(3);
+		return department;
+	}
+
+	private static Employee employee(Long id) {
+		Employee employee = new Employee();
+		employee.setId(id);
+		employee.setDepartmentId(1L);
+		employee.setFirstName("Flo");
+		employee.setLastName("Henderson");
+		employee.setGender('F');
+		employee.setVersion(0);
+		return employee;
+	}
+}
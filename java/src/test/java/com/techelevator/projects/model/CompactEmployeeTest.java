@@ -0,0 +1,45 @@
+package com.techelevator.projects.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDate;
+
+import org.junit.Test;
+
+public class CompactEmployeeTest {
+
+	@Test
+	public void round_trips_an_employee() {
+		Employee employee = new Employee();
+		employee.setId(42L);
+		employee.setDepartmentId(7L);
+		employee.setFirstName("Flo");
+		employee.setLastName("Henderson");
+		employee.setBirthDay(LocalDate.parse("1990-12-28"));
+		employee.setGender('F');
+		employee.setHireDate(LocalDate.parse("2011-08-01"));
+
+		CompactEmployee compact = CompactEmployee.from(employee);
+		Employee copy = compact.toEmployee();
+
+		assertEquals(42, compact.getId());
+		assertEquals(7, compact.getDepartmentId());
+		assertEquals(employee.getId(), copy.getId());
+		assertEquals(employee.getDepartmentId(), copy.getDepartmentId());
+		assertEquals(employee.getFirstName(), copy.getFirstName());
+		assertEquals(employee.getLastName(), copy.getLastName());
+		assertEquals(employee.getBirthDay(), copy.getBirthDay());
+		assertEquals(employee.getGender(), copy.getGender());
+		assertEquals(employee.getHireDate(), copy.getHireDate());
+	}
+
+	@Test
+	public void dates_are_stored_as_epoch_days() {
+		CompactEmployee compact = new CompactEmployee(1, CompactEmployee.NO_DEPARTMENT, "Sid", "Goodman",
+				(int) LocalDate.parse("1972-06-04").toEpochDay(), 'F', (int) LocalDate.parse("1998-09-01").toEpochDay());
+
+		assertEquals(LocalDate.parse("1972-06-04"), compact.getBirthDay());
+		assertEquals(LocalDate.parse("1998-09-01"), compact.getHireDate());
+		assertEquals(false, compact.hasDepartment());
+	}
+}
@@ -0,0 +1,119 @@
+package com.techelevator.projects.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class EmployeeColumnStoreTest {
+
+	private EmployeeColumnStore store;
+
+	@Before
+	public void setup() {
+		store = new EmployeeColumnStore.Builder(2)
+				.add(1, 1, day("1980-01-01"), day("2000-01-01"), false)
+				.add(2, 1, day("1990-01-01"), day("2010-01-01"), true)
+				.add(3, 2, day("1970-01-01"), day("1995-06-01"), true)
+				.add(4, CompactEmployee.NO_DEPARTMENT, day("1985-05-05"), day("2020-01-01"), false)
+				.build();
+	}
+
+	@Test
+	public void counts_employees_hired_before_a_date() {
+		assertEquals(2, store.countHiredBefore(LocalDate.parse("2005-01-01")));
+		assertEquals(0, store.countHiredBefore(LocalDate.parse("1995-06-01")));
+	}
+
+	@Test
+	public void counts_employees_born_in_a_range() {
+		assertEquals(2, store.countBornBetween(LocalDate.parse("1980-01-01"), LocalDate.parse("1990-01-01")));
+	}
+
+	@Test
+	public void counts_by_gender() {
+		assertEquals(2, store.countFemale());
+		assertEquals(2, store.countMale());
+	}
+
+	@Test
+	public void counts_by_department() {
+		Map<Integer, Integer> counts = store.countByDepartment();
+
+		assertEquals(3, counts.size());
+		assertEquals(Integer.valueOf(2), counts.get(1));
+		assertEquals(Integer.valueOf(1), counts.get(2));
+		assertEquals(Integer.valueOf(1), counts.get(CompactEmployee.NO_DEPARTMENT));
+	}
+
+	@Test
+	public void counts_departments_with_large_ids() {
+		EmployeeColumnStore sparse = new EmployeeColumnStore.Builder()
+				.add(1, Integer.MAX_VALUE, day("1980-01-01"), day("2000-01-01"), false)
+				.add(2, 2_000_000_000, day("1980-01-01"), day("2000-01-01"), false)
+				.add(3, Integer.MAX_VALUE, day("1980-01-01"), day("2000-01-01"), true)
+				.build();
+
+		Map<Integer, Integer> counts = sparse.countByDepartment();
+
+		assertEquals(2, counts.size());
+		assertEquals(Integer.valueOf(2), counts.get(Integer.MAX_VALUE));
+		assertEquals(Integer.valueOf(1), counts.get(2_000_000_000));
+	}
+
+	@Test
+	public void counts_hires_before_a_date_by_department() {
+		Map<Integer, Integer> counts = store.countHiredBeforeByDepartment(LocalDate.parse("2005-01-01"));
+
+		assertEquals(2, counts.size());
+		assertEquals(Integer.valueOf(1), counts.get(1));
+		assertEquals(Integer.valueOf(1), counts.get(2));
+	}
+
+	@Test
+	public void averages_tenure() {
+		EmployeeColumnStore single = new EmployeeColumnStore.Builder()
+				.add(1, 1, day("1980-01-01"), day("2000-01-01"), false)
+				.build();
+
+		assertEquals(10.0, single.averageTenureDays(LocalDate.parse("2000-01-11")), 0.0001);
+	}
+
+	@Test
+	public void concatenates_stores_in_order() {
+		EmployeeColumnStore joined = EmployeeColumnStore.concat(Arrays.asList(store, store));
+
+		assertEquals(8, joined.size());
+		assertEquals(1, joined.getId(4));
+		assertEquals('F', joined.getGender(5));
+		assertEquals(4, joined.countFemale());
+	}
+
+	@Test
+	public void concatenates_genders_across_word_boundaries() {
+		EmployeeColumnStore.Builder builder = new EmployeeColumnStore.Builder();
+		for (int id = 1; id <= 100; id++) {
+			builder.add(id, 1, day("1980-01-01"), day("2000-01-01"), id % 3 == 0);
+		}
+		EmployeeColumnStore hundred = builder.build();
+
+		EmployeeColumnStore joined = EmployeeColumnStore.concat(Arrays.asList(store, hundred, store, hundred));
+
+		assertEquals(208, joined.size());
+		assertEquals(2 * 33 + 2 * 2, joined.countFemale());
+		for (int row = 0; row < joined.size(); row++) {
+			EmployeeColumnStore source = row < 4 || (row >= 104 && row < 108) ? store : hundred;
+			int sourceRow = row < 4 ? row : row < 104 ? row - 4 : row < 108 ? row - 104 : row - 108;
+			assertEquals(source.getId(sourceRow), joined.getId(row));
+			assertEquals(source.getGender(sourceRow), joined.getGender(row));
+		}
+	}
+
+	private static int day(String date) {
+		return (int) LocalDate.parse(date).toEpochDay();
+	}
+}
@@ -0,0 +1,22 @@
+package com.techelevator.projects.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class ProjectAssignmentStoreTest {
+
+	@Test
+	public void concatenates_stores_in_order() {
+		ProjectAssignmentStore first = new ProjectAssignmentStore.Builder().add(1, 10).add(2, 10).build();
+		ProjectAssignmentStore second = new ProjectAssignmentStore.Builder().add(1, 11).build();
+
+		ProjectAssignmentStore joined = ProjectAssignmentStore.concat(Arrays.asList(first, second));
+
+		assertEquals(3, joined.size());
+		assertEquals(11, joined.getEmployeeId(2));
+		assertEquals(2, joined.countEmployeesOnProject(1));
+	}
+}
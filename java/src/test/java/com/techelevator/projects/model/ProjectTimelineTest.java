@@ -0,0 +1,94 @@
+package com.techelevator.projects.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ProjectTimelineTest {
+
+	@Test
+	public void follows_the_active_project_rules() {
+		Project ongoing = project(1L, (String) null, null);
+		Project notStarted = project(2L, (String) null, "2020-06-30");
+		Project openEnded = project(3L, "2030-01-01", null);
+		Project finished = project(4L, "2015-10-15", "2016-03-14");
+		ProjectTimeline timeline = new ProjectTimeline(Arrays.asList(ongoing, notStarted, openEnded, finished));
+
+		assertEquals(Arrays.asList(ongoing, openEnded, finished), timeline.getActiveOn(LocalDate.parse("2016-01-01")));
+		// Start and end dates themselves are not active days.
+		assertEquals(Arrays.asList(ongoing, openEnded), timeline.getActiveOn(LocalDate.parse("2015-10-15")));
+		assertEquals(Arrays.asList(ongoing, openEnded), timeline.getActiveOn(LocalDate.parse("2016-03-14")));
+		assertEquals(3, timeline.size());
+	}
+
+	@Test
+	public void counts_active_projects_per_day() {
+		ProjectTimeline timeline = new ProjectTimeline(Arrays.asList(
+				project(1L, "2016-01-01", "2016-01-04"),
+				project(2L, "2016-01-02", "2016-01-10"),
+				project(3L, "2015-01-01", null)));
+
+		int[] counts = timeline.countActivePerDay(LocalDate.parse("2016-01-01"), LocalDate.parse("2016-01-05"));
+
+		assertArrayEquals(new int[] { 1, 2, 3, 2, 2 }, counts);
+	}
+
+	@Test
+	public void matches_checking_every_project() {
+		Random random = new Random(47);
+		LocalDate base = LocalDate.parse("2000-01-01");
+		List<Project> projects = new ArrayList<>();
+		for (long id = 1; id <= 500; id++) {
+			LocalDate start = random.nextInt(10) == 0 ? null : base.plusDays(random.nextInt(3000));
+			LocalDate end = random.nextInt(10) == 0 ? null
+					: (start == null ? base : start).plusDays(random.nextInt(400) - 20);
+			projects.add(project(id, start, end));
+		}
+		ProjectTimeline timeline = new ProjectTimeline(projects);
+
+		LocalDate from = base.plusDays(1000);
+		LocalDate to = from.plusDays(365);
+		int[] counts = timeline.countActivePerDay(from, to);
+		HashSet<Project> activeInRange = new HashSet<>();
+		for (int day = 0; day < counts.length; day++) {
+			LocalDate date = from.plusDays(day);
+			List<Project> expected = new ArrayList<>();
+			for (Project project : projects) {
+				if (project.isActiveOn(date)) {
+					expected.add(project);
+				}
+			}
+			assertEquals(new HashSet<>(expected), new HashSet<>(timeline.getActiveOn(date)));
+			assertEquals(expected.size(), counts[day]);
+			activeInRange.addAll(expected);
+		}
+		assertEquals(activeInRange, new HashSet<>(timeline.getActiveBetween(from, to)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejects_a_backwards_range() {
+		new ProjectTimeline(new ArrayList<>()).countActivePerDay(LocalDate.parse("2016-01-02"), LocalDate.parse("2016-01-01"));
+	}
+
+	private static Project project(Long id, String start, String end) {
+		return project(id, start == null ? null : LocalDate.parse(start), end == null ? null : LocalDate.parse(end));
+	}
+
+
+	private static Project project(Long id, LocalDate start, LocalDate end) {
+		Project project = new Project();
+		project.setId(id);
+		project.setName("Project " + id);
+		project.setStartDate(start);
+		project.setEndDate(end);
+		return project;
+	}
+}
@@ -0,0 +1,79 @@
+package com.techelevator.projects.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ReadModelSnapshotFileTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void round_trips_a_read_model() throws IOException {
+		Department department = new Department();
+		department.setId(3L);
+		department.setName("Research and Development");
+		department.setVersion(4);
+
+		Project project = new Project();
+		project.setId(9L);
+		project.setName("Plan 9");
+		project.setStartDate(LocalDate.parse("2014-10-01"));
+
+		CompactEmployee employee = new CompactEmployee(5, 3, "Mary Lou", "Wolinski",
+				(int) LocalDate.parse("1983-04-08").toEpochDay(), 'F', (int) LocalDate.parse("2012-04-01").toEpochDay());
+
+		ReadModel model = new ReadModel(1234L, Instant.parse("2020-01-02T03:04:05.123456Z"),
+				Arrays.asList(department), Arrays.asList(project), Arrays.asList(employee),
+				new ProjectAssignmentStore.Builder().add(9, 5).build());
+		Path path = folder.getRoot().toPath().resolve("model.snapshot");
+
+		ReadModelSnapshotFile.write(model, path);
+		ReadModel copy = ReadModelSnapshotFile.read(path);
+
+		assertEquals(1234L, copy.getChangeToken());
+		assertEquals(model.getTakenAt(), copy.getTakenAt());
+		assertEquals(Long.valueOf(3), copy.getDepartments().get(0).getId());
+		assertEquals("Research and Development", copy.getDepartments().get(0).getName());
+		assertEquals(Integer.valueOf(4), copy.getDepartments().get(0).getVersion());
+		assertEquals("Plan 9", copy.getProjects().get(0).getName());
+		assertEquals(LocalDate.parse("2014-10-01"), copy.getProjects().get(0).getStartDate());
+		assertNull(copy.getProjects().get(0).getEndDate());
+		assertEquals(employee, copy.getEmployees().get(0));
+		assertEquals(1, copy.getAssignments().size());
+		assertEquals(5, copy.getAssignments().getEmployeeId(0));
+	}
+
+	@Test(expected = IOException.class)
+	public void rejects_files_that_are_not_snapshots() throws IOException {
+		Path path = folder.newFile("garbage").toPath();
+		Files.write(path, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+
+		ReadModelSnapshotFile.read(path);
+	}
+
+	@Test(expected = IOException.class)
+	public void rejects_truncated_snapshots() throws IOException {
+		ReadModel model = new ReadModel(0L, Instant.now(), Collections.<Department>emptyList(),
+				Collections.<Project>emptyList(), Collections.<CompactEmployee>emptyList(),
+				new ProjectAssignmentStore.Builder().build());
+		Path path = folder.getRoot().toPath().resolve("model.snapshot");
+		ReadModelSnapshotFile.write(model, path);
+		byte[] bytes = Files.readAllBytes(path);
+		Files.write(path, Arrays.copyOf(bytes, bytes.length - 2));
+
+		ReadModelSnapshotFile.read(path);
+	}
+}
@@ -0,0 +1,49 @@
+package com.techelevator.projects.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class ReadModelTest {
+
+	@Test
+	public void applying_changes_upserts_rows_and_moves_assignments() {
+		Department department = department(1L, "Store Support");
+		CompactEmployee employee = new CompactEmployee(7, 1, "Jarred", "Lukach", 0, 'M', 0);
+		ReadModel model = new ReadModel(10L, Instant.EPOCH, Arrays.asList(department),
+				Collections.<Project>emptyList(), Arrays.asList(employee),
+				new ProjectAssignmentStore.Builder().add(1, 7).add(2, 7).build());
+
+		Employee moved = employee.toEmployee();
+		moved.setDepartmentId(2L);
+		ChangeSet changes = new ChangeSet(20L, Instant.EPOCH.plusSeconds(60),
+				Arrays.asList(department(1L, "Store Operations"), department(2L, "Network Administration")),
+				Collections.<Project>emptyList(), Arrays.asList(moved),
+				new ProjectAssignmentStore.Builder().add(3, 7).build(),
+				new ProjectAssignmentStore.Builder().add(1, 7).build());
+
+		ReadModel updated = model.apply(changes);
+
+		assertEquals(20L, updated.getChangeToken());
+		assertEquals(2, updated.getDepartments().size());
+		assertEquals("Store Operations", updated.getDepartments().get(0).getName());
+		assertEquals(1, updated.getEmployees().size());
+		assertEquals(2, updated.getEmployees().get(0).getDepartmentId());
+		assertEquals(LocalDate.ofEpochDay(0), updated.getEmployees().get(0).getHireDate());
+		assertEquals(2, updated.getAssignments().size());
+		assertEquals(2, updated.getAssignments().getProjectId(0));
+		assertEquals(3, updated.getAssignments().getProjectId(1));
+	}
+
+	private Department department(Long id, String name) {
+		Department d = new Department();
+		d.setId(id);
+		d.setName(name);
+		return d;
+	}
+}
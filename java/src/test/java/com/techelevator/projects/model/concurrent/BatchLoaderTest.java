@@ -0,0 +1,171 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BatchLoaderTest {
+
+	private static final long LONG_WINDOW_MICROS = TimeUnit.SECONDS.toMicros(10);
+
+	private ScheduledExecutorService executor;
+	private List<Set<Integer>> batches;
+
+	@Before
+	public void setup() {
+		executor = Executors.newScheduledThreadPool(2);
+		batches = Collections.synchronizedList(new ArrayList<>());
+	}
+
+	@After
+	public void cleanup() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void keys_requested_within_the_window_are_loaded_in_one_batch() throws Exception {
+		BatchLoader<Integer, String> loader = new BatchLoader<>(this::load, 50_000, 100, executor);
+
+		CompletableFuture<String> one = loader.load(1);
+		CompletableFuture<String> two = loader.load(2);
+		CompletableFuture<String> three = loader.load(3);
+
+		Assert.assertEquals("value 1", one.get(5, TimeUnit.SECONDS));
+		Assert.assertEquals("value 2", two.get(5, TimeUnit.SECONDS));
+		Assert.assertEquals("value 3", three.get(5, TimeUnit.SECONDS));
+		Assert.assertEquals(Arrays.asList(set(1, 2, 3)), batches);
+		Assert.assertEquals(1, loader.getBatches());
+		Assert.assertEquals(3, loader.getKeysLoaded());
+	}
+
+	@Test
+	public void a_full_batch_is_sent_without_waiting_for_the_window() throws Exception {
+		BatchLoader<Integer, String> loader = new BatchLoader<>(this::load, LONG_WINDOW_MICROS, 2, executor);
+
+		CompletableFuture<String> one = loader.load(1);
+		CompletableFuture<String> two = loader.load(2);
+
+		Assert.assertEquals("value 1", one.get(5, TimeUnit.SECONDS));
+		Assert.assertEquals("value 2", two.get(5, TimeUnit.SECONDS));
+		Assert.assertEquals(Arrays.asList(set(1, 2)), batches);
+	}
+
+	@Test
+	public void a_key_requested_twice_in_a_batch_is_loaded_once() throws Exception {
+		BatchLoader<Integer, String> loader = new BatchLoader<>(this::load, LONG_WINDOW_MICROS, 2, executor);
+
+		CompletableFuture<String> first = loader.load(7);
+		CompletableFuture<String> second = loader.load(7);
+		loader.load(8);
+
+		Assert.assertSame(first, second);
+		Assert.assertEquals("value 7", second.get(5, TimeUnit.SECONDS));
+		Assert.assertEquals(Arrays.asList(set(7, 8)), batches);
+	}
+
+	@Test
+	public void keys_the_batch_did_not_return_load_as_null() {
+		BatchLoader<Integer, String> loader = new BatchLoader<>(keys -> new HashMap<>(), 1_000, 10, executor);
+
+		Assert.assertNull(loader.get(1));
+	}
+
+	@Test
+	public void every_key_in_a_failed_batch_fails() throws Exception {
+		BatchLoader<Integer, String> loader = new BatchLoader<>(keys -> {
+			throw new IllegalStateException("database down");
+		}, LONG_WINDOW_MICROS, 2, executor);
+
+		CompletableFuture<String> one = loader.load(1);
+		CompletableFuture<String> two = loader.load(2);
+
+		for (CompletableFuture<String> future : Arrays.asList(one, two)) {
+			try {
+				future.get(5, TimeUnit.SECONDS);
+				Assert.fail("expected the batch's exception");
+			} catch (ExecutionException e) {
+				Assert.assertEquals("database down", e.getCause().getMessage());
+			}
+		}
+	}
+
+	@Test
+	public void get_rethrows_the_batch_failure() {
+		BatchLoader<Integer, String> loader = new BatchLoader<>(keys -> {
+			throw new IllegalStateException("database down");
+		}, 1_000, 10, executor);
+
+		try {
+			loader.get(1);
+			Assert.fail("expected the batch's exception");
+		} catch (IllegalStateException e) {
+			Assert.assertEquals("database down", e.getMessage());
+		}
+	}
+
+	@Test(expected = RejectedExecutionException.class)
+	public void lookups_fail_when_the_executor_is_shut_down() {
+		BatchLoader<Integer, String> loader = new BatchLoader<>(this::load, 1_000, 10, executor);
+		executor.shutdown();
+
+		loader.get(1);
+	}
+
+	@Test
+	public void a_full_batch_the_executor_refuses_fails_every_key() throws Exception {
+		ScheduledExecutorService timersOnly = new ScheduledThreadPoolExecutor(1) {
+			@Override
+			public void execute(Runnable command) {
+				throw new RejectedExecutionException("queue full");
+			}
+		};
+		try {
+			BatchLoader<Integer, String> loader = new BatchLoader<>(this::load, LONG_WINDOW_MICROS, 2, timersOnly);
+
+			CompletableFuture<String> one = loader.load(1);
+			CompletableFuture<String> two = loader.load(2);
+
+			for (CompletableFuture<String> future : Arrays.asList(one, two)) {
+				try {
+					future.get(5, TimeUnit.SECONDS);
+					Assert.fail("expected the rejection");
+				} catch (ExecutionException e) {
+					Assert.assertEquals("queue full", e.getCause().getMessage());
+				}
+			}
+			Assert.assertTrue(batches.isEmpty());
+		} finally {
+			timersOnly.shutdownNow();
+		}
+	}
+
+	private Map<Integer, String> load(Set<Integer> keys) {
+		batches.add(new HashSet<>(keys));
+		Map<Integer, String> values = new HashMap<>();
+		for (Integer key : keys) {
+			values.put(key, "value " + key);
+		}
+		return values;
+	}
+
+	private static Set<Integer> set(Integer... keys) {
+		return new HashSet<>(Arrays.asList(keys));
+	}
+}
@@ -0,0 +1,69 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.techelevator.projects.model.Department;
+import com.techelevator.projects.model.DepartmentDAO;
+
+public class BatchingDepartmentDAOTest {
+
+	private List<String> threadsQueried;
+	private DepartmentDAO stub;
+	private ScheduledExecutorService executor;
+
+	@Before
+	public void setup() {
+		threadsQueried = Collections.synchronizedList(new ArrayList<>());
+		stub = (DepartmentDAO) Proxy.newProxyInstance(DepartmentDAO.class.getClassLoader(),
+				new Class<?>[] { DepartmentDAO.class }, (proxy, method, args) -> {
+					threadsQueried.add(method.getName() + " on " + Thread.currentThread().getName());
+					Department department = new Department();
+					department.setId(1L);
+					department.setName("Store");
+					if (method.getName().equals("getDepartmentsByIds")) {
+						List<Department> departments = new ArrayList<>();
+						for (int i = 0; i < ((Collection<?>) args[0]).size(); i++) {
+							departments.add(department);
+						}
+						return departments;
+					}
+					return department;
+				});
+		executor = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "batch"));
+	}
+
+	@After
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void lookups_are_loaded_by_the_batch_threads() {
+		BatchingDepartmentDAO dao = new BatchingDepartmentDAO(stub, 100, 10, executor, () -> false);
+
+		Assert.assertEquals("Store", dao.getDepartmentById(1L).getName());
+
+		Assert.assertEquals(Collections.singletonList("getDepartmentsByIds on batch"), threadsQueried);
+	}
+
+	@Test
+	public void callers_that_must_read_their_own_writes_skip_the_batch() {
+		BatchingDepartmentDAO dao = new BatchingDepartmentDAO(stub, 100, 10, executor, () -> true);
+
+		Assert.assertEquals("Store", dao.getDepartmentById(1L).getName());
+
+		Assert.assertEquals(Collections.singletonList("getDepartmentById on " + Thread.currentThread().getName()),
+				threadsQueried);
+	}
+}
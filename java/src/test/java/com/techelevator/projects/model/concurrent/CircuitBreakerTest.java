@@ -0,0 +1,77 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.techelevator.projects.model.concurrent.CircuitBreaker.State;
+
+public class CircuitBreakerTest {
+
+	private long now;
+	private List<String> changes;
+	private CircuitBreaker breaker;
+
+	@Before
+	public void setup() {
+		changes = new ArrayList<>();
+		breaker = new CircuitBreaker(3, 1000, (from, to) -> changes.add(from + "->" + to), () -> now);
+	}
+
+	@Test
+	public void opens_after_enough_failures_in_a_row() {
+		breaker.onFailure();
+		breaker.onFailure();
+		breaker.onSuccess();
+		breaker.onFailure();
+		breaker.onFailure();
+		Assert.assertEquals(State.CLOSED, breaker.getState());
+
+		breaker.onFailure();
+
+		Assert.assertEquals(State.OPEN, breaker.getState());
+		Assert.assertFalse(breaker.tryAcquire());
+		Assert.assertEquals(1, breaker.getRejectedCalls());
+	}
+
+	@Test
+	public void lets_one_trial_through_after_the_open_period() {
+		open();
+		now += TimeUnit.MILLISECONDS.toNanos(1000);
+
+		Assert.assertTrue(breaker.tryAcquire());
+		Assert.assertFalse(breaker.tryAcquire());
+		Assert.assertEquals(State.HALF_OPEN, breaker.getState());
+
+		breaker.onSuccess();
+
+		Assert.assertEquals(State.CLOSED, breaker.getState());
+		Assert.assertTrue(breaker.tryAcquire());
+		Assert.assertEquals(Arrays.asList("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED"), changes);
+	}
+
+	@Test
+	public void a_failed_trial_opens_it_again() {
+		open();
+		now += TimeUnit.MILLISECONDS.toNanos(1000);
+		breaker.tryAcquire();
+
+		breaker.onFailure();
+
+		Assert.assertEquals(State.OPEN, breaker.getState());
+		Assert.assertEquals(2, breaker.getTimesOpened());
+		now += TimeUnit.MILLISECONDS.toNanos(999);
+		Assert.assertFalse(breaker.tryAcquire());
+	}
+
+	private void open() {
+		for (int i = 0; i < 3; i++) {
+			breaker.onFailure();
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.techelevator.projects.model.Department;
+import com.techelevator.projects.model.DepartmentDAO;
+
+public class CoalescingDepartmentDAOTest {
+
+	private AtomicInteger queries;
+	private DepartmentDAO stub;
+	private CoalescingDepartmentDAO dao;
+
+	@Before
+	public void setup() {
+		queries = new AtomicInteger();
+		stub = (DepartmentDAO) Proxy.newProxyInstance(DepartmentDAO.class.getClassLoader(),
+				new Class<?>[] { DepartmentDAO.class }, (proxy, method, args) -> {
+					queries.incrementAndGet();
+					Department department = new Department();
+					department.setId(1L);
+					department.setName("Store");
+					department.setVersion(0);
+					return method.getName().equals("getDepartmentById") ? department : Arrays.asList(department);
+				});
+		dao = new CoalescingDepartmentDAO(stub, () -> false);
+	}
+
+	@Test
+	public void callers_get_their_own_copies() {
+		Department first = dao.getDepartmentById(1L);
+		first.setName("Changed");
+
+		Department second = dao.getDepartmentById(1L);
+
+		Assert.assertEquals("Store", second.getName());
+		Assert.assertEquals(Long.valueOf(1L), second.getId());
+		Assert.assertEquals(Integer.valueOf(0), second.getVersion());
+	}
+
+	@Test
+	public void lookups_are_counted_by_their_flight() {
+		dao.getDepartmentById(1L);
+		List<Department> departments = dao.getAllDepartments();
+
+		Assert.assertEquals(1, departments.size());
+		Assert.assertEquals(1, dao.getDepartmentByIdFlight().getCalls());
+		Assert.assertEquals(1, dao.getAllDepartmentsFlight().getCalls());
+	}
+
+	@Test
+	public void a_read_after_a_write_does_not_join_an_older_query() throws Exception {
+		AtomicReference<String> storedName = new AtomicReference<>("Store");
+		CountDownLatch firstQueryStarted = new CountDownLatch(1);
+		CountDownLatch releaseFirstQuery = new CountDownLatch(1);
+		AtomicInteger lookups = new AtomicInteger();
+		DepartmentDAO slowStub = (DepartmentDAO) Proxy.newProxyInstance(DepartmentDAO.class.getClassLoader(),
+				new Class<?>[] { DepartmentDAO.class }, (proxy, method, args) -> {
+					if (method.getName().equals("saveDepartment")) {
+						storedName.set(((Department) args[0]).getName());
+						return null;
+					}
+					Department department = new Department();
+					department.setId(1L);
+					department.setName(storedName.get());
+					if (lookups.incrementAndGet() == 1) {
+						firstQueryStarted.countDown();
+						releaseFirstQuery.await(5, TimeUnit.SECONDS);
+					}
+					return department;
+				});
+		CoalescingDepartmentDAO coalescing = new CoalescingDepartmentDAO(slowStub, () -> false);
+		ExecutorService reader = Executors.newSingleThreadExecutor();
+		try {
+			Future<Department> olderRead = reader.submit(() -> coalescing.getDepartmentById(1L));
+			Assert.assertTrue(firstQueryStarted.await(5, TimeUnit.SECONDS));
+
+			Department renamed = new Department();
+			renamed.setId(1L);
+			renamed.setName("Ops");
+			coalescing.saveDepartment(renamed);
+			Department readBack = coalescing.getDepartmentById(1L);
+			releaseFirstQuery.countDown();
+
+			Assert.assertEquals("Ops", readBack.getName());
+			Assert.assertEquals("Store", olderRead.get(5, TimeUnit.SECONDS).getName());
+			Assert.assertEquals(0, coalescing.getDepartmentByIdFlight().getCoalescedCalls());
+		} finally {
+			releaseFirstQuery.countDown();
+			reader.shutdownNow();
+		}
+	}
+
+	@Test
+	public void lookups_inside_a_transaction_are_not_merged() {
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		try {
+			dao.getDepartmentById(1L);
+		} finally {
+			TransactionSynchronizationManager.setActualTransactionActive(false);
+		}
+
+		Assert.assertEquals(1, queries.get());
+		Assert.assertEquals(0, dao.getDepartmentByIdFlight().getCalls());
+	}
+
+	@Test
+	public void callers_that_must_read_their_own_writes_are_not_merged() {
+		CoalescingDepartmentDAO primaryReads = new CoalescingDepartmentDAO(stub, () -> true);
+
+		primaryReads.getDepartmentById(1L);
+		primaryReads.getAllDepartments();
+
+		Assert.assertEquals(2, queries.get());
+		Assert.assertEquals(0, primaryReads.getDepartmentByIdFlight().getCalls());
+		Assert.assertEquals(0, primaryReads.getAllDepartmentsFlight().getCalls());
+	}
+}
@@ -0,0 +1,97 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.techelevator.projects.model.Employee;
+import com.techelevator.projects.model.EmployeeDAO;
+import com.techelevator.projects.model.ProjectDAO;
+
+public class CoalescingEmployeeDAOTest {
+
+	private AtomicInteger queries;
+	private EmployeeDAO stub;
+	private CoalescingEmployeeDAO dao;
+
+	@Before
+	public void setup() {
+		queries = new AtomicInteger();
+		stub = (EmployeeDAO) Proxy.newProxyInstance(EmployeeDAO.class.getClassLoader(),
+				new Class<?>[] { EmployeeDAO.class }, (proxy, method, args) -> {
+					queries.incrementAndGet();
+					Employee employee = new Employee();
+					employee.setId(1L);
+					employee.setDepartmentId(2L);
+					employee.setFirstName("Flo");
+					employee.setLastName("Henderson");
+					employee.setVersion(0);
+					return method.getReturnType() == List.class ? Arrays.asList(employee) : null;
+				});
+		dao = new CoalescingEmployeeDAO(stub, () -> false);
+	}
+
+	@Test
+	public void callers_get_their_own_copies() {
+		dao.getEmployeesByProjectId(3L).get(0).setLastName("Changed");
+
+		Employee second = dao.getEmployeesByProjectId(3L).get(0);
+
+		Assert.assertEquals("Henderson", second.getLastName());
+		Assert.assertEquals(Integer.valueOf(0), second.getVersion());
+	}
+
+	@Test
+	public void lookups_are_counted_by_their_flight() {
+		dao.getEmployeesByProjectId(3L);
+		dao.getEmployeesByDepartmentId(2L);
+
+		Assert.assertEquals(1, dao.getEmployeesByProjectIdFlight().getCalls());
+		Assert.assertEquals(1, dao.getEmployeesByDepartmentIdFlight().getCalls());
+	}
+
+	@Test
+	public void lookups_inside_a_transaction_are_not_merged() {
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		try {
+			dao.getEmployeesByProjectId(3L);
+		} finally {
+			TransactionSynchronizationManager.setActualTransactionActive(false);
+		}
+
+		Assert.assertEquals(1, queries.get());
+		Assert.assertEquals(0, dao.getEmployeesByProjectIdFlight().getCalls());
+	}
+
+	@Test
+	public void callers_that_must_read_their_own_writes_are_not_merged() {
+		CoalescingEmployeeDAO primaryReads = new CoalescingEmployeeDAO(stub, () -> true);
+
+		primaryReads.getEmployeesByProjectId(3L);
+		primaryReads.getEmployeesByDepartmentId(2L);
+
+		Assert.assertEquals(2, queries.get());
+		Assert.assertEquals(0, primaryReads.getEmployeesByProjectIdFlight().getCalls());
+		Assert.assertEquals(0, primaryReads.getEmployeesByDepartmentIdFlight().getCalls());
+	}
+
+	@Test
+	public void assignment_changes_still_reach_the_wrapped_project_dao() {
+		AtomicInteger assignments = new AtomicInteger();
+		ProjectDAO projects = (ProjectDAO) Proxy.newProxyInstance(ProjectDAO.class.getClassLoader(),
+				new Class<?>[] { ProjectDAO.class }, (proxy, method, args) -> {
+					assignments.incrementAndGet();
+					return null;
+				});
+
+		dao.watchingAssignments(projects).addEmployeeToProject(3L, 1L);
+
+		Assert.assertEquals(1, assignments.get());
+	}
+}
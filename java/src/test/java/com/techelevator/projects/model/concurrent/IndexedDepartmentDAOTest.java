@@ -0,0 +1,184 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.JdbcUpdateAffectedIncorrectNumberOfRowsException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.techelevator.projects.model.ChangeSet;
+import com.techelevator.projects.model.Department;
+import com.techelevator.projects.model.DepartmentDAO;
+
+public class IndexedDepartmentDAOTest {
+
+	private List<String> calls;
+	private Runnable duringLoad;
+	private IndexedDepartmentDAO dao;
+
+	@Before
+	public void setup() {
+		calls = new ArrayList<>();
+		DepartmentDAO stub = (DepartmentDAO) Proxy.newProxyInstance(DepartmentDAO.class.getClassLoader(),
+				new Class<?>[] { DepartmentDAO.class }, (proxy, method, args) -> {
+					calls.add(method.getName());
+					switch (method.getName()) {
+					case "getAllDepartments":
+						if (duringLoad != null) {
+							duringLoad.run();
+						}
+						return Arrays.asList(department(1L, "Store Support", 0), department(2L, "Research", 4));
+					case "saveDepartment":
+						Department saved = (Department) args[0];
+						if (saved.getId() == 9L) {
+							throw new JdbcUpdateAffectedIncorrectNumberOfRowsException("UPDATE", 1, 0);
+						}
+						if (saved.getVersion() != null) {
+							saved.setVersion(saved.getVersion() + 1);
+						}
+						return null;
+					case "createDepartment":
+						((Department) args[0]).setId(3L);
+						((Department) args[0]).setVersion(0);
+						return args[0];
+					default:
+						return null;
+					}
+				});
+		dao = new IndexedDepartmentDAO(stub);
+		calls.clear();
+	}
+
+	@After
+	public void cleanup() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		TransactionSynchronizationManager.setActualTransactionActive(false);
+	}
+
+	@Test
+	public void searches_without_asking_the_datastore() {
+		List<Department> departments = dao.searchDepartmentsByName("Sup");
+
+		Assert.assertEquals(1, departments.size());
+		Assert.assertEquals("Store Support", departments.get(0).getName());
+		Assert.assertEquals(Integer.valueOf(0), departments.get(0).getVersion());
+		Assert.assertTrue(calls.isEmpty());
+	}
+
+	@Test
+	public void callers_get_their_own_copies() {
+		dao.searchDepartmentsByName("Sup").get(0).setName("Changed");
+
+		Assert.assertEquals("Store Support", dao.searchDepartmentsByName("Sup").get(0).getName());
+	}
+
+	@Test
+	public void saved_and_created_departments_are_indexed() {
+		dao.saveDepartment(department(2L, "Research and Development", 4));
+		Department created = new Department();
+		created.setName("Shipping");
+		dao.createDepartment(created);
+
+		Assert.assertEquals("Research and Development", dao.searchDepartmentsByName("Dev").get(0).getName());
+		Assert.assertEquals(Long.valueOf(3L), dao.searchDepartmentsByName("Ship").get(0).getId());
+	}
+
+	@Test
+	public void unversioned_saves_are_stale_until_the_row_is_applied() {
+		dao.saveDepartment(department(1L, "Store Operations", null));
+
+		Assert.assertNull(dao.searchDepartmentsByName("Store").get(0).getVersion());
+		dao.apply(changes(department(1L, "Store Operations", 1)));
+		Assert.assertEquals(Integer.valueOf(1), dao.searchDepartmentsByName("Store").get(0).getVersion());
+	}
+
+	@Test
+	public void saves_that_write_nothing_are_not_indexed() {
+		try {
+			dao.saveDepartment(department(9L, "Nowhere", null));
+			Assert.fail("Expected the save to fail");
+		} catch (JdbcUpdateAffectedIncorrectNumberOfRowsException e) {
+			Assert.assertTrue(dao.searchDepartmentsByName("Nowhere").isEmpty());
+		}
+	}
+
+	@Test
+	public void changes_older_than_the_indexed_row_are_skipped() {
+		dao.saveDepartment(department(2L, "Research and Development", 4));
+
+		dao.apply(changes(department(2L, "Research", 4)));
+
+		Assert.assertEquals(1, dao.searchDepartmentsByName("Dev").size());
+	}
+
+	@Test
+	public void changes_wait_for_their_transaction_to_commit() {
+		TransactionSynchronizationManager.initSynchronization();
+		dao.saveDepartment(department(2L, "Research and Development", 4));
+
+		Assert.assertTrue(dao.searchDepartmentsByName("Dev").isEmpty());
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			synchronization.afterCommit();
+		}
+		Assert.assertEquals(1, dao.searchDepartmentsByName("Dev").size());
+	}
+
+	@Test
+	public void saves_committed_during_a_reload_are_kept() {
+		duringLoad = () -> dao.saveDepartment(department(2L, "Research and Development", 4));
+
+		dao.reload();
+
+		Department saved = dao.searchDepartmentsByName("Dev").get(0);
+		Assert.assertEquals(Integer.valueOf(5), saved.getVersion());
+		Assert.assertEquals(1, dao.searchDepartmentsByName("Research").size());
+	}
+
+	@Test
+	public void a_reload_keeps_rows_newer_than_changes_made_while_it_read() {
+		duringLoad = () -> dao.apply(changes(department(2L, "Old Research", 3)));
+
+		dao.reload();
+
+		Assert.assertTrue(dao.searchDepartmentsByName("Old").isEmpty());
+		Assert.assertEquals(Integer.valueOf(4), dao.searchDepartmentsByName("Research").get(0).getVersion());
+	}
+
+	@Test
+	public void a_null_search_matches_nothing() {
+		Assert.assertTrue(dao.searchDepartmentsByName(null).isEmpty());
+	}
+
+	@Test
+	public void searches_inside_a_transaction_go_to_the_datastore() {
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+
+		dao.searchDepartmentsByName("Sup");
+
+		Assert.assertEquals(Arrays.asList("searchDepartmentsByName"), calls);
+	}
+
+	private static ChangeSet changes(Department department) {
+		return new ChangeSet(0, Instant.now(), Collections.singletonList(department), Collections.emptyList(),
+				Collections.emptyList(), null, null);
+	}
+
+	private static Department department(Long id, String name, Integer version) {
+		Department department = new Department();
+		department.setId(id);
+		department.setName(name);
+		department.setVersion(version);
+		return department;
+	}
+}
@@ -0,0 +1,93 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.techelevator.projects.model.Employee;
+import com.techelevator.projects.model.EmployeeDAO;
+
+public class IndexedEmployeeDAOTest {
+
+	private Runnable duringLoad;
+	private IndexedEmployeeDAO dao;
+
+	@Before
+	public void setup() {
+		EmployeeDAO stub = (EmployeeDAO) Proxy.newProxyInstance(EmployeeDAO.class.getClassLoader(),
+				new Class<?>[] { EmployeeDAO.class }, (proxy, method, args) -> {
+					if (method.getName().equals("changeEmployeeDepartment") && args[0] instanceof Employee) {
+						Employee moved = (Employee) args[0];
+						moved.setDepartmentId((Long) args[1]);
+						moved.setVersion(moved.getVersion() + 1);
+					}
+					if (method.getName().equals("forEachEmployee")) {
+						if (duringLoad != null) {
+							duringLoad.run();
+						}
+						@SuppressWarnings("unchecked")
+						Consumer<Employee> action = (Consumer<Employee>) args[0];
+						action.accept(employee(1L, "Franklin", "Trumbauer"));
+						action.accept(employee(2L, "Flo", "Henderson"));
+						action.accept(employee(3L, "Frank", "Henderson"));
+					}
+					return null;
+				});
+		dao = new IndexedEmployeeDAO(stub);
+	}
+
+	@Test
+	public void both_name_patterns_must_match() {
+		List<Employee> employees = dao.searchEmployeesByName("Fr%", "%der%");
+
+		Assert.assertEquals(1, employees.size());
+		Assert.assertEquals(Long.valueOf(3L), employees.get(0).getId());
+		Assert.assertEquals(2, dao.searchEmployeesByName("%", "Henderson").size());
+		Assert.assertTrue(dao.searchEmployeesByName("fr%", "%").isEmpty());
+	}
+
+	@Test
+	public void department_changes_move_the_indexed_copy() {
+		dao.changeEmployeesDepartment(Arrays.asList(2L, 3L), 7L);
+
+		Employee frank = dao.searchEmployeesByName("Frank", "%").get(0);
+		Assert.assertEquals(7L, frank.getDepartmentId());
+		Assert.assertNull(frank.getVersion());
+	}
+
+	@Test
+	public void versioned_department_changes_keep_the_new_version() {
+		Employee flo = dao.searchEmployeesByName("Flo", "%").get(0);
+		dao.changeEmployeeDepartment(flo, 7L);
+
+		Assert.assertEquals(Integer.valueOf(1), dao.searchEmployeesByName("Flo", "%").get(0).getVersion());
+	}
+
+	@Test
+	public void department_changes_committed_during_a_reload_are_kept() {
+		duringLoad = () -> dao.changeEmployeeDepartment(1L, 7L);
+
+		dao.reload();
+
+		Employee franklin = dao.searchEmployeesByName("Franklin", "%").get(0);
+		Assert.assertEquals(7L, franklin.getDepartmentId());
+		Assert.assertNull(franklin.getVersion());
+		Assert.assertEquals(1L, dao.searchEmployeesByName("Flo", "%").get(0).getDepartmentId());
+	}
+
+	private static Employee employee(Long id, String firstName, String lastName) {
+		Employee employee = new Employee();
+		employee.setId(id);
+		employee.setDepartmentId(1L);
+		employee.setFirstName(firstName);
+		employee.setLastName(lastName);
+		employee.setGender('M');
+		employee.setVersion(0);
+		return employee;
+	}
+}
@@ -0,0 +1,73 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NameIndexTest {
+
+	private NameIndex index;
+
+	@Before
+	public void setup() {
+		index = new NameIndex();
+		index.put(1L, "Research and Development");
+		index.put(2L, "Network Administration");
+		index.put(3L, "Store Support");
+		index.put(4L, "100% Uptime");
+		index.put(5L, "Store_Front");
+	}
+
+	@Test
+	public void contains_matches_like_a_like_scan() {
+		Assert.assertEquals(ids(1L), matching("%ment%"));
+		Assert.assertEquals(ids(1L, 2L, 5L), matching("%n%"));
+		Assert.assertEquals(ids(3L), matching("%Sup%"));
+		Assert.assertEquals(ids(), matching("%sup%"));
+	}
+
+	@Test
+	public void short_prefixes_use_the_sorted_names() {
+		Assert.assertEquals(ids(3L, 5L), matching("St%"));
+		Assert.assertEquals(ids(1L), matching("R%"));
+		Assert.assertEquals(ids(3L), matching("Store Support"));
+	}
+
+	@Test
+	public void wildcards_and_escapes_follow_postgres() {
+		Assert.assertEquals(ids(3L, 5L), matching("Store_%"));
+		Assert.assertEquals(ids(5L), matching("Store\\_%"));
+		Assert.assertEquals(ids(4L), matching("%\\%%"));
+		Assert.assertEquals(ids(1L, 2L, 3L, 4L, 5L), matching("%"));
+		Assert.assertEquals(ids(2L), matching("%w_rk%"));
+		Assert.assertEquals(ids(), matching(null));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void a_trailing_escape_is_rejected() {
+		LikePattern.compile("Store\\");
+	}
+
+	@Test
+	public void renamed_and_removed_names_are_forgotten() {
+		index.put(3L, "Warehouse Support");
+		index.remove(1L);
+
+		Assert.assertEquals(ids(), matching("%Store S%"));
+		Assert.assertEquals(ids(3L), matching("%house%"));
+		Assert.assertEquals(ids(), matching("%Research%"));
+	}
+
+	private Set<Long> matching(String like) {
+		return index.matching(LikePattern.compile(like));
+	}
+
+	private static Set<Long> ids(Long... ids) {
+		return ids.length == 0 ? Collections.<Long>emptySet() : new HashSet<>(Arrays.asList(ids));
+	}
+}
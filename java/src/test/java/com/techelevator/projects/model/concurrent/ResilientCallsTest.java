@@ -0,0 +1,163 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.CannotSerializeTransactionException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.techelevator.projects.model.QueryDeadline;
+import com.techelevator.projects.model.concurrent.CircuitBreaker.State;
+import com.techelevator.projects.model.concurrent.ResilientCalls.Kind;
+
+public class ResilientCallsTest {
+
+	private CircuitBreaker breaker;
+	private ResilientCalls calls;
+	private AtomicInteger attempts;
+
+	@Before
+	public void setup() {
+		breaker = new CircuitBreaker(2, 60_000, null);
+		calls = new ResilientCalls(breaker, 3, 1, 5_000, Collections.singletonMap("slow", 10_000L));
+		attempts = new AtomicInteger();
+	}
+
+	@Test
+	public void retries_serialization_failures() {
+		String result = calls.call("read", Kind.WRITE, failingTimes(2, new CannotSerializeTransactionException("40001")));
+
+		Assert.assertEquals("done", result);
+		Assert.assertEquals(3, attempts.get());
+		Assert.assertEquals(2, calls.getRetries());
+		Assert.assertEquals(State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	public void gives_up_after_the_last_attempt() {
+		try {
+			calls.call("read", Kind.READ, failingTimes(5, new CannotSerializeTransactionException("40001")));
+			Assert.fail("Expected the conflict to be rethrown");
+		} catch (CannotSerializeTransactionException e) {
+			Assert.assertEquals(3, attempts.get());
+		}
+	}
+
+	@Test
+	public void retries_lost_connections_only_for_reads() {
+		Assert.assertEquals("done", calls.call("read", Kind.READ, failingTimes(1, sqlFailure("08006"))));
+
+		attempts.set(0);
+		try {
+			calls.call("write", Kind.WRITE, failingTimes(1, sqlFailure("08006")));
+			Assert.fail("Expected the write not to be retried");
+		} catch (UncategorizedSQLException e) {
+			Assert.assertEquals(1, attempts.get());
+		}
+	}
+
+	@Test
+	public void does_not_retry_other_errors_and_counts_them_as_answers() {
+		breaker.onFailure();
+		try {
+			calls.call("write", Kind.WRITE, failingTimes(1, new DataIntegrityViolationException("duplicate")));
+			Assert.fail("Expected the violation to be rethrown");
+		} catch (DataIntegrityViolationException e) {
+			Assert.assertEquals(1, attempts.get());
+		}
+		breaker.onFailure();
+
+		Assert.assertEquals(State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	public void counts_cancelled_statements_as_timeouts_and_opens_the_breaker() {
+		for (int i = 0; i < 2; i++) {
+			try {
+				calls.call("slow", Kind.READ, failingTimes(1, sqlFailure("57014")));
+				Assert.fail("Expected a timeout");
+			} catch (QueryTimeoutException e) {
+				Assert.assertTrue(e.getMessage().startsWith("slow took longer than 10000 ms"));
+			}
+			attempts.set(0);
+		}
+
+		Assert.assertEquals(2, calls.getTimeouts());
+		Assert.assertEquals(Collections.singletonMap("slow", 2L), calls.getTimeoutsByMethod());
+		Assert.assertEquals(State.OPEN, breaker.getState());
+		try {
+			calls.call("read", Kind.READ, failingTimes(0, null));
+			Assert.fail("Expected the open breaker to refuse the call");
+		} catch (TransientDataAccessResourceException e) {
+			Assert.assertEquals(0, attempts.get());
+		}
+	}
+
+	@Test
+	public void runs_the_work_under_the_method_time_limit() {
+		long remaining = calls.call("slow", Kind.READ, QueryDeadline::remainingMillis);
+
+		Assert.assertTrue(remaining > 9_000 && remaining <= 10_000);
+		Assert.assertEquals(-1, QueryDeadline.remainingMillis());
+	}
+
+	@Test
+	public void runs_calls_inside_a_transaction_under_the_time_limit_without_retries() {
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		try {
+			long remaining = calls.call("slow", Kind.READ, QueryDeadline::remainingMillis);
+			Assert.assertTrue(remaining > 9_000 && remaining <= 10_000);
+
+			try {
+				calls.call("write", Kind.WRITE, failingTimes(1, new CannotSerializeTransactionException("40001")));
+				Assert.fail("Expected the conflict to be left to the transaction");
+			} catch (CannotSerializeTransactionException e) {
+				Assert.assertEquals(1, attempts.get());
+			}
+		} finally {
+			TransactionSynchronizationManager.setActualTransactionActive(false);
+		}
+		Assert.assertEquals(0, calls.getCalls());
+	}
+
+	@Test
+	public void an_error_during_a_half_open_trial_reopens_the_breaker() {
+		breaker = new CircuitBreaker(1, 0, null);
+		calls = new ResilientCalls(breaker, 3, 1, 5_000, Collections.emptyMap());
+		breaker.onFailure();
+
+		try {
+			calls.call("read", Kind.READ, () -> {
+				throw new StackOverflowError();
+			});
+			Assert.fail("Expected the error to be rethrown");
+		} catch (StackOverflowError e) {
+			Assert.assertEquals(State.OPEN, breaker.getState());
+		}
+
+		Assert.assertEquals("done", calls.call("read", Kind.READ, failingTimes(0, null)));
+		Assert.assertEquals(State.CLOSED, breaker.getState());
+	}
+
+	private Supplier<String> failingTimes(int failures, RuntimeException failure) {
+		return () -> {
+			if (attempts.incrementAndGet() <= failures) {
+				throw failure;
+			}
+			return "done";
+		};
+	}
+
+	private static RuntimeException sqlFailure(String sqlState) {
+		return new UncategorizedSQLException("test", "SELECT 1", new SQLException("failed", sqlState));
+	}
+}
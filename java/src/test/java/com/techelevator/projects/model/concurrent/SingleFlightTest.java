@@ -0,0 +1,169 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SingleFlightTest {
+
+	private static final int CALLERS = 8;
+
+	private ExecutorService callers;
+	private SingleFlight<String, String> flight;
+	private AtomicInteger runs;
+	private AtomicInteger started;
+	private CountDownLatch release;
+
+	@Before
+	public void setup() {
+		callers = Executors.newFixedThreadPool(CALLERS);
+		flight = new SingleFlight<>();
+		runs = new AtomicInteger();
+		started = new AtomicInteger();
+		release = new CountDownLatch(1);
+	}
+
+	@After
+	public void cleanup() {
+		callers.shutdownNow();
+	}
+
+	@Test
+	public void concurrent_calls_for_the_same_key_run_the_work_once() throws Exception {
+		List<Future<String>> results = startCallers("project-1", CALLERS);
+		waitForCoalescedCalls(CALLERS - 1);
+		release.countDown();
+
+		for (Future<String> result : results) {
+			Assert.assertEquals("result 1", result.get(5, TimeUnit.SECONDS));
+		}
+		Assert.assertEquals(1, runs.get());
+		Assert.assertEquals(CALLERS, flight.getCalls());
+		Assert.assertEquals(CALLERS - 1, flight.getCoalescedCalls());
+		Assert.assertEquals(1, flight.getExecutions());
+	}
+
+	@Test
+	public void calls_for_different_keys_are_not_merged() throws Exception {
+		release.countDown();
+
+		Assert.assertEquals("result 1", flight.execute("a", this::slowWork));
+		Assert.assertEquals("result 2", flight.execute("b", this::slowWork));
+		Assert.assertEquals(0, flight.getCoalescedCalls());
+	}
+
+	@Test
+	public void results_are_not_cached_after_the_work_finishes() {
+		release.countDown();
+
+		flight.execute("a", this::slowWork);
+		String second = flight.execute("a", this::slowWork);
+
+		Assert.assertEquals("result 2", second);
+		Assert.assertEquals(2, flight.getExecutions());
+	}
+
+	@Test
+	public void callers_after_an_invalidation_do_not_join_older_runs() throws Exception {
+		List<Future<String>> before = startCallers("a", 2);
+		waitForCoalescedCalls(1);
+
+		flight.invalidate("a");
+		List<Future<String>> after = startCallers("a", 2);
+		waitForCoalescedCalls(2);
+		release.countDown();
+
+		String first = before.get(0).get(5, TimeUnit.SECONDS);
+		Assert.assertEquals(first, before.get(1).get(5, TimeUnit.SECONDS));
+		String second = after.get(0).get(5, TimeUnit.SECONDS);
+		Assert.assertEquals(second, after.get(1).get(5, TimeUnit.SECONDS));
+		Assert.assertNotEquals(first, second);
+		Assert.assertEquals(2, runs.get());
+	}
+
+	@Test
+	public void invalidating_every_key_stops_joins_too() throws Exception {
+		List<Future<String>> before = startCallers("a", 1);
+		waitForRuns(before);
+
+		flight.invalidateAll();
+		List<Future<String>> after = startCallers("a", 1);
+		release.countDown();
+
+		Assert.assertNotEquals(before.get(0).get(5, TimeUnit.SECONDS), after.get(0).get(5, TimeUnit.SECONDS));
+		Assert.assertEquals(0, flight.getCoalescedCalls());
+	}
+
+	@Test
+	public void every_waiting_caller_gets_the_failure() throws Exception {
+		List<Future<String>> results = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			results.add(callers.submit(() -> flight.execute("a", () -> {
+				awaitRelease();
+				throw new IllegalStateException("database down");
+			})));
+		}
+		waitForCoalescedCalls(2);
+		release.countDown();
+
+		for (Future<String> result : results) {
+			try {
+				result.get(5, TimeUnit.SECONDS);
+				Assert.fail("expected the work's exception");
+			} catch (ExecutionException e) {
+				Assert.assertEquals("database down", e.getCause().getMessage());
+			}
+		}
+		release = new CountDownLatch(0);
+		Assert.assertEquals("result 1", flight.execute("a", this::slowWork));
+	}
+
+	private List<Future<String>> startCallers(String key, int count) {
+		List<Future<String>> results = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			results.add(callers.submit(() -> flight.execute(key, this::slowWork)));
+		}
+		return results;
+	}
+
+	private String slowWork() {
+		started.incrementAndGet();
+		awaitRelease();
+		return "result " + runs.incrementAndGet();
+	}
+
+	private void waitForRuns(List<Future<String>> callers) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (started.get() < callers.size() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(1);
+		}
+		Assert.assertEquals(callers.size(), started.get());
+	}
+
+	private void awaitRelease() {
+		try {
+			release.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void waitForCoalescedCalls(long expected) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (flight.getCoalescedCalls() < expected && System.currentTimeMillis() < deadline) {
+			Thread.sleep(1);
+		}
+		Assert.assertEquals(expected, flight.getCoalescedCalls());
+	}
+}
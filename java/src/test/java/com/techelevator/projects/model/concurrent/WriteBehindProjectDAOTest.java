@@ -0,0 +1,225 @@
+package com.techelevator.projects.model.concurrent;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import com.techelevator.projects.model.ProjectDAO;
+import com.techelevator.projects.model.UnitOfWork;
+
+public class WriteBehindProjectDAOTest {
+
+	// Long enough that nothing is written unless a test asks for it.
+	private static final long NEVER = TimeUnit.HOURS.toMillis(1);
+
+	private List<String> calls;
+	private int unitsOfWork;
+	private volatile boolean failing;
+	private volatile CountDownLatch writeGate;
+	private ProjectDAO stub;
+	private UnitOfWork unitOfWork;
+	private Path journal;
+	private WriteBehindProjectDAO dao;
+
+	@Before
+	public void setup() throws IOException {
+		calls = Collections.synchronizedList(new ArrayList<>());
+		stub = (ProjectDAO) Proxy.newProxyInstance(ProjectDAO.class.getClassLoader(),
+				new Class<?>[] { ProjectDAO.class }, (proxy, method, args) -> {
+					if (writeGate != null) {
+						writeGate.await();
+					}
+					if (failing) {
+						throw new DataAccessResourceFailureException("database is down");
+					}
+					calls.add(method.getName() + " " + args[0] + " " + args[1]);
+					return null;
+				});
+		unitOfWork = new UnitOfWork() {
+			@Override
+			public <T> T execute(Supplier<T> work) {
+				unitsOfWork++;
+				return work.get();
+			}
+
+			@Override
+			public void run(Runnable work) {
+				unitsOfWork++;
+				work.run();
+			}
+		};
+		journal = Files.createTempFile("write-behind", ".journal");
+		Files.delete(journal);
+	}
+
+	@After
+	public void cleanup() throws IOException {
+		failing = false;
+		if (writeGate != null) {
+			writeGate.countDown();
+		}
+		if (dao != null) {
+			dao.close();
+		}
+		Files.deleteIfExists(journal);
+	}
+
+	@Test
+	public void only_the_last_change_to_each_assignment_is_written() throws IOException {
+		dao = new WriteBehindProjectDAO(stub, unitOfWork, 100, NEVER, null);
+
+		dao.addEmployeeToProject(1L, 10L);
+		dao.removeEmployeeFromProject(1L, 10L);
+		dao.addEmployeeToProject(1L, 11L);
+		dao.addEmployeesToProject(2L, Arrays.asList(10L, 11L));
+		dao.removeEmployeesFromProject(2L, Arrays.asList(11L));
+		dao.flush();
+
+		Assert.assertEquals(Arrays.asList("removeEmployeesFromProject 1 [10]",
+										  "removeEmployeesFromProject 2 [11]",
+										  "addEmployeesToProject 1 [11]",
+										  "addEmployeesToProject 2 [10]"), calls);
+		Assert.assertEquals(1, unitsOfWork);
+		Assert.assertEquals(4, dao.getChangesWritten());
+		Assert.assertEquals(2, dao.getChangesCoalesced());
+		Assert.assertEquals(0, dao.getPendingChanges());
+	}
+
+	@Test
+	public void changes_are_written_in_the_background() throws Exception {
+		dao = new WriteBehindProjectDAO(stub, unitOfWork, 100, 10, null);
+
+		dao.addEmployeeToProject(1L, 10L);
+		dao.addEmployeeToProject(1L, 11L);
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (dao.getChangesWritten() < 2 && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		Assert.assertEquals(Arrays.asList("addEmployeesToProject 1 [10, 11]"), calls);
+	}
+
+	@Test
+	public void a_full_queue_blocks_callers_until_the_writer_takes_it() throws Exception {
+		writeGate = new CountDownLatch(1);
+		dao = new WriteBehindProjectDAO(stub, unitOfWork, 2, NEVER, null);
+		dao.addEmployeeToProject(1L, 10L);
+		dao.addEmployeeToProject(1L, 11L);
+		// The writer takes the full queue and stalls on the gate.
+		dao.addEmployeeToProject(1L, 12L);
+		dao.addEmployeeToProject(1L, 13L);
+
+		CountDownLatch added = new CountDownLatch(1);
+		Thread caller = new Thread(() -> {
+			dao.addEmployeeToProject(1L, 14L);
+			added.countDown();
+		});
+		caller.start();
+
+		Assert.assertFalse(added.await(100, TimeUnit.MILLISECONDS));
+		writeGate.countDown();
+		Assert.assertTrue(added.await(5, TimeUnit.SECONDS));
+		dao.flush();
+		Assert.assertEquals(5, dao.getChangesWritten());
+	}
+
+	@Test
+	public void failed_batches_are_kept_and_retried() throws IOException {
+		dao = new WriteBehindProjectDAO(stub, unitOfWork, 100, 1, null);
+		failing = true;
+		dao.addEmployeeToProject(1L, 10L);
+
+		try {
+			dao.flush();
+			Assert.fail("flush should report the failure");
+		} catch (DataAccessResourceFailureException e) {
+			// expected
+		}
+		Assert.assertEquals(1, dao.getPendingChanges());
+
+		// A newer change to the same assignment wins over the failed one.
+		dao.removeEmployeeFromProject(1L, 10L);
+		failing = false;
+		dao.flush();
+
+		Assert.assertEquals(Arrays.asList("removeEmployeesFromProject 1 [10]"), calls);
+		Assert.assertTrue(dao.getFailedFlushes() >= 1);
+	}
+
+	@Test
+	public void journaled_changes_survive_a_crash() throws IOException {
+		failing = true;
+		WriteBehindProjectDAO crashed = new WriteBehindProjectDAO(stub, unitOfWork, 100, NEVER, journal);
+		crashed.addEmployeeToProject(1L, 10L);
+		crashed.addEmployeeToProject(1L, 11L);
+		crashed.removeEmployeeFromProject(1L, 11L);
+		try {
+			crashed.close();
+			Assert.fail("close should report the unwritten changes");
+		} catch (IllegalStateException e) {
+			// expected; the process "dies" here with the changes still queued
+		}
+
+		failing = false;
+		dao = new WriteBehindProjectDAO(stub, unitOfWork, 100, NEVER, journal);
+		Assert.assertEquals(2, dao.getPendingChanges());
+		dao.flush();
+
+		Assert.assertEquals(Arrays.asList("removeEmployeesFromProject 1 [11]",
+										  "addEmployeesToProject 1 [10]"), calls);
+		Assert.assertEquals(0, Files.size(journal));
+	}
+
+	@Test
+	public void a_torn_last_journal_line_is_ignored() throws IOException {
+		Files.write(journal, "+ 1 10\n+ 1".getBytes("UTF-8"));
+
+		dao = new WriteBehindProjectDAO(stub, unitOfWork, 100, NEVER, journal);
+		dao.flush();
+
+		Assert.assertEquals(Arrays.asList("addEmployeesToProject 1 [10]"), calls);
+	}
+
+	@Test
+	public void a_last_line_cut_inside_the_employee_id_is_ignored() throws IOException {
+		Files.write(journal, "+ 1 10\n- 1 15\n+ 1 1".getBytes("UTF-8"));
+
+		dao = new WriteBehindProjectDAO(stub, unitOfWork, 100, NEVER, journal);
+		dao.flush();
+
+		Assert.assertEquals(Arrays.asList("removeEmployeesFromProject 1 [15]",
+										  "addEmployeesToProject 1 [10]"), calls);
+	}
+
+	@Test
+	public void unreadable_journal_lines_are_skipped() throws IOException {
+		Files.write(journal, "+ 1 10\n* 1 11\n+ 1 x\n+ 1 12\n".getBytes("UTF-8"));
+
+		dao = new WriteBehindProjectDAO(stub, unitOfWork, 100, NEVER, journal);
+		dao.flush();
+
+		Assert.assertEquals(Arrays.asList("addEmployeesToProject 1 [10, 12]"), calls);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void changes_are_refused_after_close() throws IOException {
+		WriteBehindProjectDAO closed = new WriteBehindProjectDAO(stub, unitOfWork, 100, NEVER, null);
+		closed.close();
+
+		closed.addEmployeeToProject(1L, 10L);
+	}
+}
@@ -0,0 +1,113 @@
+package com.techelevator.projects.model.jdbc;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.SQLException;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.techelevator.projects.model.QueryDeadline;
+import com.techelevator.projects.model.concurrent.CircuitBreaker;
+import com.techelevator.projects.model.concurrent.ResilientCalls;
+import com.techelevator.projects.model.concurrent.ResilientCalls.Kind;
+
+public class DeadlinePoolDataSourceTest {
+
+	private DeadlinePoolDataSource dataSource;
+	private Connection held;
+
+	@Before
+	public void setup() throws SQLException {
+		dataSource = new DeadlinePoolDataSource();
+		dataSource.setDriver(stubDriver());
+		dataSource.setUrl("jdbc:stub");
+		dataSource.setMaxTotal(1);
+		dataSource.setMaxWaitMillis(10_000);
+		held = dataSource.getConnection();
+	}
+
+	@After
+	public void cleanup() throws SQLException {
+		held.close();
+		dataSource.close();
+	}
+
+	@Test
+	public void an_exhausted_pool_is_waited_on_only_until_the_deadline() {
+		long start = System.nanoTime();
+		try {
+			QueryDeadline.within(200, () -> {
+				try {
+					return dataSource.getConnection();
+				} catch (SQLException e) {
+					throw new CannotGetJdbcConnectionException("No connection", e);
+				}
+			});
+			Assert.fail("Expected the pool to stay exhausted");
+		} catch (CannotGetJdbcConnectionException e) {
+			Assert.assertTrue(elapsedMillis(start) < 2_000);
+		}
+	}
+
+	@Test
+	public void a_call_finding_the_pool_exhausted_fails_within_its_limit() {
+		ResilientCalls calls = new ResilientCalls(new CircuitBreaker(5, 60_000, null), 3, 1, 300,
+				Collections.emptyMap());
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+		long start = System.nanoTime();
+		try {
+			calls.call("getAllDepartments", Kind.READ,
+					() -> jdbcTemplate.queryForObject("SELECT 1", Integer.class));
+			Assert.fail("Expected the pool to stay exhausted");
+		} catch (CannotGetJdbcConnectionException e) {
+			Assert.assertTrue(elapsedMillis(start) < 2_000);
+		}
+	}
+
+	private static long elapsedMillis(long start) {
+		return (System.nanoTime() - start) / 1_000_000;
+	}
+
+	private static Driver stubDriver() {
+		return (Driver) Proxy.newProxyInstance(Driver.class.getClassLoader(), new Class<?>[] { Driver.class },
+				(proxy, method, args) -> {
+					if (method.getName().equals("connect")) {
+						return stubConnection();
+					}
+					return method.getReturnType() == boolean.class ? true : null;
+				});
+	}
+
+	private static Connection stubConnection() {
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+					case "isValid":
+					case "getAutoCommit":
+						return true;
+					case "isClosed":
+					case "isReadOnly":
+						return false;
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					case "equals":
+						return proxy == args[0];
+					}
+					if (method.getReturnType() == boolean.class) {
+						return false;
+					}
+					if (method.getReturnType() == int.class) {
+						return 0;
+					}
+					return null;
+				});
+	}
+}
@@ -0,0 +1,115 @@
+package com.techelevator.projects.model.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.sql.SQLException;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import com.techelevator.projects.model.ChangeSet;
+import com.techelevator.projects.model.Department;
+
+public class JDBCChangeTrackingDAOTest {
+
+	private static SingleConnectionDataSource dataSource;
+
+	private JdbcTemplate template;
+	private JDBCChangeTrackingDAO dao;
+	private JDBCDepartmentDAO departmentDAO;
+	private Long projectId;
+	private Long employeeId;
+
+	@BeforeClass
+	public static void setupDataSource() {
+		dataSource = new SingleConnectionDataSource();
+		dataSource.setUrl("jdbc:postgresql://localhost:5432/projects");
+		dataSource.setUsername("postgres");
+		dataSource.setAutoCommit(false);
+	}
+
+	@AfterClass
+	public static void closeDataSource() {
+		dataSource.destroy();
+	}
+
+	@Before
+	public void setup() {
+		template = new JdbcTemplate(dataSource);
+		template.update("DELETE FROM project_employee;" + "DELETE FROM project_employee_tombstone;"
+				+ "DELETE FROM project;" + "DELETE FROM employee;" + "DELETE FROM department");
+
+		projectId = template.queryForObject("INSERT INTO project (name) VALUES ('Test Project') RETURNING project_id",
+				Long.class);
+		employeeId = template.queryForObject("INSERT INTO employee (first_name, last_name, birth_date, gender, hire_date) "
+				+ "VALUES ('test_first_name', 'test_last_name', '1980-01-01', 'M', '2005-01-01') RETURNING employee_id",
+				Long.class);
+
+		dao = new JDBCChangeTrackingDAO(dataSource);
+		departmentDAO = new JDBCDepartmentDAO(dataSource);
+	}
+
+	@After
+	public void rollback() throws SQLException {
+		dataSource.getConnection().rollback();
+	}
+
+	@Test
+	public void finds_rows_written_since_the_token() {
+		long token = dao.getCurrentChangeToken();
+		Department department = new Department();
+		department.setName("Test Department");
+		departmentDAO.createDepartment(department);
+
+		ChangeSet changes = dao.changesSince(token);
+
+		assertEquals(1, changes.getDepartments().size());
+		assertEquals(department.getId(), changes.getDepartments().get(0).getId());
+		assertEquals(1, changes.getProjects().size());
+		assertEquals(1, changes.getEmployees().size());
+	}
+
+	@Test
+	public void updates_of_only_the_search_vector_are_not_changes() {
+		template.update("ALTER TABLE project DISABLE TRIGGER tr_project_track_change");
+		template.update("UPDATE project SET change_txid = 0 WHERE project_id = ?", projectId);
+		template.update("ALTER TABLE project ENABLE TRIGGER tr_project_track_change");
+
+		template.update("UPDATE project SET name = name WHERE project_id = ?", projectId);
+		assertEquals(Long.valueOf(0), template.queryForObject("SELECT change_txid FROM project WHERE project_id = ?",
+				Long.class, projectId));
+
+		template.update("UPDATE project SET name = 'Renamed Project' WHERE project_id = ?", projectId);
+		assertNotEquals(Long.valueOf(0), template.queryForObject("SELECT change_txid FROM project WHERE project_id = ?",
+				Long.class, projectId));
+	}
+
+	@Test
+	public void reports_deleted_assignments() {
+		long token = dao.getCurrentChangeToken();
+		template.update("INSERT INTO project_employee (project_id, employee_id) VALUES (?, ?)", projectId, employeeId);
+		template.update("DELETE FROM project_employee WHERE project_id = ? AND employee_id = ?", projectId, employeeId);
+
+		ChangeSet changes = dao.changesSince(token);
+
+		assertEquals(0, changes.getAddedAssignments().size());
+		assertEquals(1, changes.getRemovedAssignments().size());
+		assertEquals(employeeId.intValue(), changes.getRemovedAssignments().getEmployeeId(0));
+	}
+
+	@Test
+	public void purged_tombstones_are_not_reported() {
+		template.update("INSERT INTO project_employee (project_id, employee_id) VALUES (?, ?)", projectId, employeeId);
+		template.update("DELETE FROM project_employee WHERE project_id = ? AND employee_id = ?", projectId, employeeId);
+
+		dao.purgeTombstonesBefore(Long.MAX_VALUE);
+
+		assertEquals(0, dao.changesSince(0).getRemovedAssignments().size());
+	}
+}
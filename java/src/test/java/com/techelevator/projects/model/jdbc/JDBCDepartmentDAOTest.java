@@ -4,6 +4,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.After;
@@ -11,6 +12,8 @@ import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.springframework.dao.IncorrectUpdateSemanticsDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.SingleConnectionDataSource;
 
@@ -87,6 +90,14 @@ public class JDBCDepartmentDAOTest {
 		this.assertAreSameDepartment(departments.get(0), testDepartment1);
 	}
 	
+	@Test
+	public void finds_no_departments_for_a_null_search() {
+		testDepartment1.setName("Nullable Widgets");
+		dao.saveDepartment(testDepartment1);
+
+		assertEquals(0, dao.searchDepartmentsByName(null).size());
+	}
+	
 	@Test
 	public void updates_department_to_match_object() {
 		testDepartment1.setName("Brand new test deparment name");
@@ -98,6 +109,37 @@ public class JDBCDepartmentDAOTest {
 		this.assertAreSameDepartment(testDepartment, testDepartment1);
 	}
 	
+	@Test(expected = OptimisticLockingFailureException.class)
+	public void rejects_saving_a_department_someone_else_changed() {
+		Department firstCopy = dao.getDepartmentById(testDepartment1.getId());
+		Department secondCopy = dao.getDepartmentById(testDepartment1.getId());
+		
+		firstCopy.setName("First editor's name");
+		dao.saveDepartment(firstCopy);
+		secondCopy.setName("Second editor's name");
+		dao.saveDepartment(secondCopy);
+	}
+	
+	@Test(expected = IncorrectUpdateSemanticsDataAccessException.class)
+	public void rejects_saving_a_department_that_does_not_exist() {
+		Department missing = new Department();
+		missing.setId(-1L);
+		missing.setName("Nowhere");
+		
+		dao.saveDepartment(missing);
+	}
+	
+	@Test
+	public void saving_a_department_bumps_its_version() {
+		Integer version = testDepartment1.getVersion();
+		testDepartment1.setName("Brand new test deparment name");
+		
+		dao.saveDepartment(testDepartment1);
+		
+		assertEquals(Integer.valueOf(version + 1), dao.getDepartmentById(testDepartment1.getId()).getVersion());
+		assertEquals(Integer.valueOf(version + 1), testDepartment1.getVersion());
+	}
+	
 	@Test
 	public void creates_new_department_from_object() {
 		Department newDepartment = new Department();
@@ -118,6 +160,13 @@ public class JDBCDepartmentDAOTest {
 		this.assertAreSameDepartment(d, testDepartment2);
 	}
 	
+	@Test
+	public void finds_departments_from_several_ids() {
+		List<Department> departments = dao.getDepartmentsByIds(Arrays.asList(testDepartment1.getId(), testDepartment2.getId(), -1L));
+		
+		assertEquals(departments.size(), 2);
+	}
+	
 	private void assertAreSameDepartment(Department d1, Department d2) {
 		assertEquals(d1.getId(), d2.getId());
 		assertEquals(d1.getName(), d2.getName());
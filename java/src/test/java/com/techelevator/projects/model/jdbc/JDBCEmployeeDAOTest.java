@@ -1,22 +1,32 @@
 package com.techelevator.projects.model.jdbc;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.SingleConnectionDataSource;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 
+import com.techelevator.projects.model.CompactEmployee;
 import com.techelevator.projects.model.Department;
 import com.techelevator.projects.model.Employee;
+import com.techelevator.projects.model.EmployeeColumnStore;
+import com.techelevator.projects.model.EmployeeRosterEntry;
 import com.techelevator.projects.model.Project;
 
 public class JDBCEmployeeDAOTest {
@@ -105,6 +115,59 @@ public class JDBCEmployeeDAOTest {
 		}
 	}
 
+	@Test
+	public void streams_every_employee_in_table() {
+		List<Employee> employees = new ArrayList<>();
+
+		dao.forEachEmployee(employees::add);
+
+		assertEquals(employees.size(), 2);
+	}
+
+	@Test
+	public void gets_all_employees_as_compact_employees() {
+		List<CompactEmployee> employees = dao.getAllCompactEmployees();
+
+		assertEquals(employees.size(), 2);
+		for (CompactEmployee e : employees) {
+			Employee expected = e.getId() == testEmployee1.getId().intValue() ? testEmployee1 : testEmployee2;
+			this.assertAreSameEmployee(e.toEmployee(), expected);
+		}
+	}
+
+	@Test
+	public void loads_employees_into_column_store() {
+		EmployeeColumnStore store = dao.getEmployeeColumnStore();
+
+		assertEquals(store.size(), 2);
+		assertEquals(store.countFemale(), 1);
+		assertEquals(store.countHiredBefore(HIRE_DATE_2), 1);
+		assertEquals(store.countByDepartment().get(testDepartment1.getId().intValue()), Integer.valueOf(2));
+	}
+
+	@Test
+	public void gets_employees_from_several_ids() {
+		List<Employee> employees = dao.getEmployeesByIds(Arrays.asList(testEmployee2.getId(), testEmployee2.getId()));
+
+		assertEquals(employees.size(), 1);
+		this.assertAreSameEmployee(employees.get(0), testEmployee2);
+	}
+
+	@Test
+	public void roster_includes_department_and_project_names() {
+		String sql = "INSERT INTO project_employee (project_id, employee_id) " + "VALUES (?, ?)";
+		template.update(sql, testProject.getId(), testEmployee1.getId());
+
+		List<EmployeeRosterEntry> roster = dao.getEmployeeRoster();
+
+		assertEquals(roster.size(), 2);
+		EmployeeRosterEntry entry = roster.get(0);
+		assertEquals(entry.getEmployeeId(), testEmployee1.getId());
+		assertEquals(entry.getDepartmentName(), DEPARTMENT_NAME_1);
+		assertEquals(entry.getProjectNames(), Arrays.asList(TEST_PROJECT_NAME));
+		assertEquals(roster.get(1).getProjectNames().size(), 0);
+	}
+
 	@Test
 	public void finds_employee_by_first_and_last_name() {
 		List<Employee> employees = dao.searchEmployeesByName(EMPLOYEE_FIRST_NAME_1, EMPLOYEE_LAST_NAME_1);
@@ -162,6 +225,53 @@ public class JDBCEmployeeDAOTest {
 		}
 	}
 
+	@Test
+	public void finds_employees_for_several_projects_at_once() {
+		String sql = "INSERT INTO project_employee (project_id, employee_id) " + "VALUES (?, ?)";
+		template.update(sql, testProject.getId(), testEmployee1.getId());
+		Long emptyProjectId = createAndStoreProject().getId();
+
+		Map<Long, List<Employee>> employees = dao.getEmployeesByProjectIds(Arrays.asList(testProject.getId(), emptyProjectId));
+
+		assertEquals(employees.size(), 2);
+		assertEquals(employees.get(testProject.getId()).size(), 1);
+		this.assertAreSameEmployee(employees.get(testProject.getId()).get(0), testEmployee1);
+		assertEquals(employees.get(emptyProjectId).size(), 0);
+	}
+
+	@Test
+	public void pages_through_employees_in_name_order() {
+		List<Employee> firstPage = dao.getEmployeePage("", null, 1);
+		List<Employee> secondPage = dao.getEmployeePage("", firstPage.get(0), 1);
+		List<Employee> thirdPage = dao.getEmployeePage("", secondPage.get(0), 1);
+
+		this.assertAreSameEmployee(firstPage.get(0), testEmployee1);
+		this.assertAreSameEmployee(secondPage.get(0), testEmployee2);
+		assertEquals(thirdPage.size(), 0);
+	}
+
+	@Test
+	public void pages_only_employees_whose_last_name_starts_with_prefix() {
+		List<Employee> employees = dao.getEmployeePage(EMPLOYEE_LAST_NAME_2.toUpperCase(), null, 10);
+
+		assertEquals(employees.size(), 1);
+		this.assertAreSameEmployee(employees.get(0), testEmployee2);
+		assertEquals(dao.getEmployeePage("test%", null, 10).size(), 0);
+	}
+
+	@Test
+	public void pages_with_a_range_scan_of_the_name_index() {
+		template.execute("SET LOCAL enable_seqscan = off");
+
+		List<String> plan = template.queryForList("EXPLAIN " + JDBCEmployeeDAO.SQL_GET_NEXT_EMPLOYEE_PAGE, String.class,
+				"smi%", "Smith", "Anne", 1L, 10);
+
+		String text = String.join("\n", plan);
+		assertTrue(text, text.contains("ix_employee_lower_name_order"));
+		assertTrue(text, text.matches("(?s).*Index Cond: .*>= 'smi'.*"));
+		assertFalse(text, text.contains("Sort"));
+	}
+
 	@Test
 	public void change_employee_department_id() {
 		dao.changeEmployeeDepartment(testEmployee1.getId(), testDepartment2.getId());
@@ -171,6 +281,46 @@ public class JDBCEmployeeDAOTest {
 		assertEquals(employees.size(), 1);
 	}
 
+	@Test
+	public void change_department_for_several_employees() {
+		dao.changeEmployeesDepartment(Arrays.asList(testEmployee1.getId(), testEmployee2.getId()), testDepartment2.getId());
+
+		List<Employee> employees = dao.getEmployeesByDepartmentId(testDepartment2.getId());
+
+		assertEquals(employees.size(), 2);
+	}
+
+	@Test
+	public void change_department_of_employee_read_at_current_version() {
+		Employee employee = dao.getEmployeesByIds(Arrays.asList(testEmployee1.getId())).get(0);
+
+		dao.changeEmployeeDepartment(employee, testDepartment2.getId());
+
+		assertEquals(employee.getDepartmentId(), testDepartment2.getId().longValue());
+		assertEquals(dao.getEmployeesByDepartmentId(testDepartment2.getId()).size(), 1);
+	}
+
+	@Test
+	public void changes_department_of_employee_without_a_version_unconditionally() {
+		Employee employee = dao.getEmployeesByIds(Arrays.asList(testEmployee1.getId())).get(0);
+		dao.changeEmployeeDepartment(testEmployee1.getId(), testDepartment2.getId());
+		employee.setVersion(null);
+
+		dao.changeEmployeeDepartment(employee, testDepartment1.getId());
+
+		assertEquals(employee.getDepartmentId(), testDepartment1.getId().longValue());
+		assertNull(employee.getVersion());
+		assertEquals(dao.getEmployeesByDepartmentId(testDepartment1.getId()).size(), 2);
+	}
+
+	@Test(expected = OptimisticLockingFailureException.class)
+	public void rejects_department_change_on_employee_someone_else_changed() {
+		Employee employee = dao.getEmployeesByIds(Arrays.asList(testEmployee1.getId())).get(0);
+		dao.changeEmployeeDepartment(testEmployee1.getId(), testDepartment2.getId());
+
+		dao.changeEmployeeDepartment(employee, testDepartment1.getId());
+	}
+
 	private void assertAreSameEmployee(Employee e1, Employee e2) {
 		assertEquals(e1.getFirstName(), e2.getFirstName());
 		assertEquals(e1.getLastName(), e2.getLastName());
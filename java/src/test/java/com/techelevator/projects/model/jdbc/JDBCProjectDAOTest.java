@@ -6,6 +6,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.After;
@@ -100,6 +101,13 @@ public class JDBCProjectDAOTest {
 		assertEquals(p.getEndDate(), testProjectActive.getEndDate());
 	}
 	
+	@Test
+	public void gets_all_projects() {
+		List<Project> projects = dao.getAllProjects();
+		
+		assertEquals(projects.size(), 2);
+	}
+	
 	@Test
 	public void employee_can_be_removed_from_project() {
 		String sql = "INSERT INTO project_employee (project_id, employee_id) " +
@@ -131,6 +139,49 @@ public class JDBCProjectDAOTest {
 		assertEquals(results.getLong("employee_id"), testEmployee.getId().longValue());		
 	}
 	
+	@Test
+	public void adding_an_existing_assignment_changes_nothing() {
+		dao.addEmployeeToProject(testProjectActive.getId(), testEmployee.getId());
+		dao.addEmployeeToProject(testProjectActive.getId(), testEmployee.getId());
+
+		String sql = "SELECT COUNT(*) " +
+					 "FROM project_employee " +
+					 "WHERE project_id = ?";
+		Long count = template.queryForObject(sql, Long.class, testProjectActive.getId());
+
+		assertEquals(1L, count.longValue());
+	}
+
+	@Test
+	public void employees_can_be_added_to_project_in_a_batch() {
+		dao.addEmployeeToProject(testProjectActive.getId(), testEmployee.getId());
+		Employee secondEmployee = this.createAndStoreEmployee(testDepartment.getId());
+		
+		dao.addEmployeesToProject(testProjectActive.getId(), Arrays.asList(testEmployee.getId(), secondEmployee.getId()));
+		
+		String sql = "SELECT COUNT(*) " + 
+					 "FROM project_employee " +
+					 "WHERE project_id = ?";
+		Long count = template.queryForObject(sql, Long.class, testProjectActive.getId());
+		
+		assertEquals(2L, count.longValue());
+	}
+	
+	@Test
+	public void employees_can_be_removed_from_project_in_a_batch() {
+		Employee secondEmployee = this.createAndStoreEmployee(testDepartment.getId());
+		dao.addEmployeesToProject(testProjectActive.getId(), Arrays.asList(testEmployee.getId(), secondEmployee.getId()));
+		
+		dao.removeEmployeesFromProject(testProjectActive.getId(), Arrays.asList(testEmployee.getId(), secondEmployee.getId()));
+		
+		String sql = "SELECT employee_id " + 
+					 "FROM project_employee " +
+					 "WHERE project_id = ?";
+		SqlRowSet results = template.queryForRowSet(sql, testProjectActive.getId());
+		
+		assertFalse(results.next());
+	}
+	
 	private Project createAndStoreProject(String name, LocalDate fromDate, LocalDate toDate) {
 		Project newProject = new Project();
 		newProject.setName(name);
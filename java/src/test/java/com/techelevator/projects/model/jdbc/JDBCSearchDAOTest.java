@@ -0,0 +1,121 @@
+package com.techelevator.projects.model.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import com.techelevator.projects.model.SearchHit;
+
+public class JDBCSearchDAOTest {
+
+	private static SingleConnectionDataSource dataSource;
+
+	private JdbcTemplate template;
+	private JDBCSearchDAO dao;
+
+	@BeforeClass
+	public static void setupDataSource() {
+		dataSource = new SingleConnectionDataSource();
+		dataSource.setUrl("jdbc:postgresql://localhost:5432/projects");
+		dataSource.setUsername("postgres");
+		dataSource.setAutoCommit(false);
+	}
+
+	@AfterClass
+	public static void closeDataSource() {
+		dataSource.destroy();
+	}
+
+	@Before
+	public void setup() {
+		template = new JdbcTemplate(dataSource);
+		String sql = "DELETE FROM project_employee;" +
+					 "DELETE FROM project;" +
+					 "DELETE FROM employee;" +
+					 "DELETE FROM department";
+		template.update(sql);
+
+		template.update("INSERT INTO department (name) VALUES ('Research and Development')");
+		template.update("INSERT INTO department (name) VALUES ('Store Support')");
+		template.update("INSERT INTO project (name) VALUES ('Research Sprint')");
+		template.update("INSERT INTO employee (first_name, last_name, birth_date, gender, hire_date) " +
+						"VALUES ('Franklin', 'Trumbauer', '1980-07-14', 'M', '1998-09-01')");
+		template.update("INSERT INTO employee (first_name, last_name, birth_date, gender, hire_date) " +
+						"VALUES ('Trudy', 'Research', '1980-07-14', 'F', '1998-09-01')");
+
+		dao = new JDBCSearchDAO(dataSource);
+	}
+
+	@After
+	public void rollback() throws SQLException {
+		dataSource.getConnection().rollback();
+	}
+
+	@Test
+	public void finds_every_kind_by_word_prefix() {
+		List<SearchHit> hits = dao.search("resea", 10);
+
+		assertEquals(3, hits.size());
+		assertTrue(hasHit(hits, SearchHit.Kind.DEPARTMENT, "Research and Development"));
+		assertTrue(hasHit(hits, SearchHit.Kind.PROJECT, "Research Sprint"));
+		assertTrue(hasHit(hits, SearchHit.Kind.EMPLOYEE, "Trudy Research"));
+	}
+
+	@Test
+	public void every_word_must_match() {
+		List<SearchHit> hits = dao.search("Fra TRU", 10);
+
+		assertEquals(1, hits.size());
+		assertEquals(SearchHit.Kind.EMPLOYEE, hits.get(0).getKind());
+		assertEquals("Franklin Trumbauer", hits.get(0).getLabel());
+	}
+
+	@Test
+	public void last_names_rank_above_first_names() {
+		List<SearchHit> hits = dao.search("tru", 10);
+
+		assertEquals(2, hits.size());
+		assertEquals("Franklin Trumbauer", hits.get(0).getLabel());
+		assertEquals("Trudy Research", hits.get(1).getLabel());
+	}
+
+	@Test
+	public void returns_at_most_the_limit() {
+		assertEquals(2, dao.search("resea", 2).size());
+	}
+
+	@Test
+	public void renamed_rows_are_found_by_their_new_name() {
+		template.update("UPDATE department SET name = 'Warehouse Support' WHERE name = 'Store Support'");
+
+		assertEquals(0, dao.search("store", 10).size());
+		assertTrue(hasHit(dao.search("wareh", 10), SearchHit.Kind.DEPARTMENT, "Warehouse Support"));
+	}
+
+	@Test
+	public void punctuation_only_separates_words() {
+		assertEquals("fra:* & tru:*", JDBCSearchDAO.toPrefixQuery("  Fra & (tru:*)! "));
+		assertNull(JDBCSearchDAO.toPrefixQuery("&|!"));
+		assertEquals(0, dao.search("&|!", 10).size());
+	}
+
+	private static boolean hasHit(List<SearchHit> hits, SearchHit.Kind kind, String label) {
+		for (SearchHit hit : hits) {
+			if (hit.getKind() == kind && hit.getLabel().equals(label)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,39 @@
+package com.techelevator.projects.model.jdbc;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class JDBCStatementsTest {
+
+	@Test
+	public void id_chunks_drop_duplicates_and_nulls() {
+		List<List<Long>> chunks = JDBCStatements.idChunks(Arrays.asList(3L, null, 1L, 3L));
+
+		assertEquals(1, chunks.size());
+		assertEquals(Arrays.asList(3L, 1L), chunks.get(0));
+	}
+
+	@Test
+	public void id_chunks_split_large_inputs() {
+		List<Long> ids = new ArrayList<>();
+		for (long id = 0; id < JDBCStatements.MAX_IDS_PER_QUERY * 2 + 1; id++) {
+			ids.add(id);
+		}
+
+		List<List<Long>> chunks = JDBCStatements.idChunks(ids);
+
+		assertEquals(3, chunks.size());
+		assertEquals(JDBCStatements.MAX_IDS_PER_QUERY, chunks.get(0).size());
+		assertEquals(1, chunks.get(2).size());
+	}
+
+	@Test
+	public void id_chunks_of_nothing_is_empty() {
+		assertEquals(0, JDBCStatements.idChunks(new ArrayList<Long>()).size());
+	}
+}
@@ -0,0 +1,134 @@
+package com.techelevator.projects.model.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+/*
+ * Migrations commit, so these tests clean up after themselves instead of
+ * rolling back. Their versions are far above any real migration.
+ */
+public class MigrationRunnerTest {
+
+	private static SingleConnectionDataSource dataSource;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private JdbcTemplate template;
+	private List<String> progress = new ArrayList<>();
+	private MigrationRunner runner;
+
+	@BeforeClass
+	public static void setupDataSource() {
+		dataSource = new SingleConnectionDataSource();
+		dataSource.setUrl("jdbc:postgresql://localhost:5432/projects");
+		dataSource.setUsername("postgres");
+		dataSource.setSuppressClose(true);
+	}
+
+	@AfterClass
+	public static void closeDataSource() {
+		dataSource.destroy();
+	}
+
+	@Before
+	public void setup() {
+		template = new JdbcTemplate(dataSource);
+		cleanUp();
+		runner = new MigrationRunner(dataSource, folder.getRoot().toPath(), 1000, new MigrationRunner.ProgressListener() {
+			@Override
+			public void statementFinished(Migration migration, int statement, int runs, long rows, long elapsedNanos) {
+				progress.add(migration.getVersion() + "." + statement + ": " + runs + " runs, " + rows + " rows");
+			}
+
+			@Override
+			public void migrationApplied(Migration migration, long elapsedMillis) {
+				progress.add(migration.getVersion() + " applied");
+			}
+		});
+	}
+
+	@After
+	public void cleanUp() {
+		template.execute("DROP TABLE IF EXISTS migration_runner_test");
+		template.execute("CREATE TABLE IF NOT EXISTS schema_migration (version integer NOT NULL PRIMARY KEY, " +
+						 "description varchar(200) NOT NULL, applied_at timestamp NOT NULL DEFAULT now(), " +
+						 "duration_ms bigint NOT NULL)");
+		template.update("DELETE FROM schema_migration WHERE version >= 900000");
+	}
+
+	@Test
+	public void applies_pending_migrations_in_order_and_records_them() throws IOException {
+		write("V900001__create_test_table.sql", "CREATE TABLE migration_runner_test (id integer PRIMARY KEY, filled boolean);\n" +
+												"INSERT INTO migration_runner_test SELECT n, null FROM generate_series(1, 25) AS n;");
+		write("V900002__backfill_test_table.sql", "-- @no-transaction\n" +
+												  "-- @repeat\n" +
+												  "UPDATE migration_runner_test SET filled = true WHERE id IN " +
+												  "(SELECT id FROM migration_runner_test WHERE filled IS NULL LIMIT 10);\n" +
+												  "CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_migration_runner_test_filled " +
+												  "ON migration_runner_test (filled);");
+
+		List<Migration> applied = runner.migrate();
+
+		assertEquals(2, applied.size());
+		assertEquals(900001, applied.get(0).getVersion());
+		assertEquals(0L, (long) template.queryForObject("SELECT COUNT(*) FROM migration_runner_test WHERE filled IS NULL", Long.class));
+		assertTrue(progress.contains("900002.1: 4 runs, 25 rows"));
+		assertTrue(progress.indexOf("900001 applied") < progress.indexOf("900002 applied"));
+		List<MigrationRunner.AppliedMigration> history = runner.getHistory();
+		MigrationRunner.AppliedMigration last = history.get(history.size() - 1);
+		assertEquals(900002, last.getVersion());
+		assertEquals("backfill test table", last.getDescription());
+		assertTrue(last.getDurationMillis() >= 0);
+	}
+
+	@Test
+	public void skips_migrations_already_applied() throws IOException {
+		write("V900001__create_test_table.sql", "CREATE TABLE migration_runner_test (id integer PRIMARY KEY);");
+		runner.migrate();
+
+		assertTrue(runner.migrate().isEmpty());
+	}
+
+	@Test
+	public void rolls_back_a_failed_migration_and_stops() throws IOException {
+		write("V900001__create_test_table.sql", "CREATE TABLE migration_runner_test (id integer PRIMARY KEY);");
+		write("V900002__broken.sql", "INSERT INTO migration_runner_test VALUES (1);\n" +
+									 "INSERT INTO no_such_table VALUES (1);");
+		write("V900003__never_reached.sql", "INSERT INTO migration_runner_test VALUES (3);");
+
+		try {
+			runner.migrate();
+			fail("Expected the broken migration to fail");
+		} catch (IllegalStateException e) {
+			assertTrue(e.getMessage().startsWith("Migration 900002 (broken) failed"));
+		}
+
+		assertEquals(0L, (long) template.queryForObject("SELECT COUNT(*) FROM migration_runner_test", Long.class));
+		List<MigrationRunner.AppliedMigration> history = runner.getHistory();
+		assertEquals(900001, history.get(history.size() - 1).getVersion());
+		assertFalse(progress.contains("900003 applied"));
+	}
+
+	private void write(String fileName, String script) throws IOException {
+		Files.write(folder.getRoot().toPath().resolve(fileName), script.getBytes(StandardCharsets.UTF_8));
+	}
+}
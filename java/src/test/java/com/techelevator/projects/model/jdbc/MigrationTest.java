@@ -0,0 +1,140 @@
+package com.techelevator.projects.model.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MigrationTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void splits_on_semicolons_outside_quotes_and_comments() {
+		String script = "-- first; not a statement\n" +
+						"INSERT INTO t VALUES ('a;b', 'it''s');\n" +
+						"/* also; not */ UPDATE \"odd;name\" SET x = 1;\n" +
+						"CREATE FUNCTION f() RETURNS trigger AS $$ BEGIN RETURN NEW; END; $$ LANGUAGE plpgsql;\n" +
+						"SELECT $tag$ ; $$ ; $tag$, $1\n";
+
+		List<String> statements = Migration.split(script);
+
+		assertEquals(Arrays.asList("-- first; not a statement\nINSERT INTO t VALUES ('a;b', 'it''s')",
+				"/* also; not */ UPDATE \"odd;name\" SET x = 1",
+				"CREATE FUNCTION f() RETURNS trigger AS $$ BEGIN RETURN NEW; END; $$ LANGUAGE plpgsql",
+				"SELECT $tag$ ; $$ ; $tag$, $1"), statements);
+	}
+
+	@Test
+	public void drops_pieces_that_are_only_comments() {
+		assertEquals(Arrays.asList("SELECT 1"), Migration.split("SELECT 1;\n-- the end;\n;\n"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejects_an_unterminated_string() {
+		Migration.split("SELECT 'oops;");
+	}
+
+	@Test
+	public void scripts_run_in_one_transaction_by_default() {
+		Migration migration = new Migration(1, "plain", "ALTER TABLE t ADD COLUMN c integer;");
+
+		assertTrue(migration.isTransactional());
+		assertFalse(migration.getStatements().get(0).isRepeated());
+	}
+
+	@Test
+	public void reads_no_transaction_and_repeat_directives() {
+		Migration migration = new Migration(2, "backfill", "-- @no-transaction\n" +
+														   "-- @repeat\n" +
+														   "UPDATE t SET c = 0 WHERE id IN (SELECT id FROM t WHERE c IS NULL LIMIT 10);\n" +
+														   "CREATE INDEX CONCURRENTLY ix_t_c ON t (c);\n");
+
+		assertFalse(migration.isTransactional());
+		assertEquals(2, migration.getStatements().size());
+		assertTrue(migration.getStatements().get(0).isRepeated());
+		assertFalse(migration.getStatements().get(1).isRepeated());
+	}
+
+	@Test
+	public void finds_the_index_a_concurrent_build_creates() {
+		Migration migration = new Migration(4, "indexes", "-- @no-transaction\n" +
+														  "-- Not CONCURRENTLY; the build is below.\n" +
+														  "UPDATE t SET c = 0;\n" +
+														  "CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_t_c ON t (c);\n" +
+														  "create unique index concurrently \"ix_T\" on t (d);\n" +
+														  "DROP INDEX CONCURRENTLY IF EXISTS ix_old;\n");
+
+		List<Migration.Statement> statements = migration.getStatements();
+		assertFalse(statements.get(0).isConcurrent());
+		assertEquals(null, statements.get(0).getConcurrentIndex());
+		assertTrue(statements.get(1).isConcurrent());
+		assertEquals("ix_t_c", statements.get(1).getConcurrentIndex());
+		assertEquals("\"ix_T\"", statements.get(2).getConcurrentIndex());
+		assertTrue(statements.get(3).isConcurrent());
+		assertEquals(null, statements.get(3).getConcurrentIndex());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void repeat_needs_no_transaction() {
+		new Migration(3, "bad", "-- @repeat\nUPDATE t SET c = 0;");
+	}
+
+	@Test
+	public void loads_version_and_description_from_the_file_name() throws IOException {
+		Path file = folder.newFile("V12__add_an_index.sql").toPath();
+		Files.write(file, "CREATE INDEX ix ON t (c);".getBytes(StandardCharsets.UTF_8));
+
+		Migration migration = Migration.load(file);
+
+		assertEquals(12, migration.getVersion());
+		assertEquals("add an index", migration.getDescription());
+		assertEquals("CREATE INDEX ix ON t (c)", migration.getStatements().get(0).getSql());
+	}
+
+	@Test
+	public void runner_lists_migrations_in_version_order_and_skips_other_files() throws IOException {
+		folder.newFile("V10__ten.sql");
+		folder.newFile("V9__nine.sql");
+		folder.newFile("README.txt");
+		MigrationRunner runner = new MigrationRunner(null, folder.getRoot().toPath(), 0, null);
+
+		List<Migration> migrations = runner.getMigrations();
+
+		assertEquals(2, migrations.size());
+		assertEquals(9, migrations.get(0).getVersion());
+		assertEquals(10, migrations.get(1).getVersion());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void runner_rejects_duplicate_versions() throws IOException {
+		folder.newFile("V1__one.sql");
+		folder.newFile("V01__also_one.sql");
+
+		new MigrationRunner(null, folder.getRoot().toPath(), 0, null).getMigrations();
+	}
+
+	@Test
+	public void shipped_migrations_parse() throws IOException {
+		List<Migration> migrations = new MigrationRunner(null, Paths.get("database/migrations"), 0, null).getMigrations();
+
+		for (int i = 0; i < migrations.size(); i++) {
+			assertEquals(i + 1, migrations.get(i).getVersion());
+			assertFalse(migrations.get(i).getStatements().isEmpty());
+		}
+		assertFalse(migrations.get(1).isTransactional());
+		assertTrue(migrations.get(1).getStatements().get(0).isRepeated());
+	}
+}
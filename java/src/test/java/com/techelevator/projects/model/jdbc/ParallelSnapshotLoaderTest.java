@@ -0,0 +1,246 @@
+package com.techelevator.projects.model.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import com.techelevator.projects.model.EmployeeColumnStore;
+import com.techelevator.projects.model.ProjectAssignmentStore;
+
+public class ParallelSnapshotLoaderTest {
+
+	private static final String SNAPSHOT_ID = "00000003-0000001B-1";
+
+	private List<Object[]> employees;
+	private List<Object[]> assignments;
+	private List<List<String>> sessions;
+	private StubDataSource dataSource;
+
+	@Before
+	public void setup() {
+		employees = new ArrayList<>();
+		assignments = new ArrayList<>();
+		for (int id : new int[] { 2, 3, 5, 6, 7, 11 }) {
+			employees.add(new Object[] { id, id % 2 + 1, Date.valueOf("1980-01-01"), id % 3 == 0 ? "F" : "M",
+										 Date.valueOf("2000-01-01") });
+			assignments.add(new Object[] { 100 + id, id });
+		}
+		sessions = Collections.synchronizedList(new ArrayList<>());
+		dataSource = new StubDataSource();
+	}
+
+	@Test
+	public void loads_every_slice_in_id_order() {
+		ParallelSnapshotLoader loader = new ParallelSnapshotLoader(dataSource, 3, 3, null);
+
+		ParallelSnapshotLoader.Snapshot snapshot = loader.load();
+
+		EmployeeColumnStore loaded = snapshot.getEmployees();
+		assertEquals(6, loaded.size());
+		int[] expectedIds = { 2, 3, 5, 6, 7, 11 };
+		for (int row = 0; row < expectedIds.length; row++) {
+			assertEquals(expectedIds[row], loaded.getId(row));
+			assertEquals(expectedIds[row] % 2 + 1, loaded.getDepartmentId(row));
+			assertEquals(expectedIds[row] % 3 == 0 ? 'F' : 'M', loaded.getGender(row));
+		}
+		ProjectAssignmentStore loadedAssignments = snapshot.getAssignments();
+		assertEquals(6, loadedAssignments.size());
+		for (int row = 0; row < expectedIds.length; row++) {
+			assertEquals(expectedIds[row], loadedAssignments.getEmployeeId(row));
+			assertEquals(100 + expectedIds[row], loadedAssignments.getProjectId(row));
+		}
+	}
+
+	@Test
+	public void reads_every_slice_from_the_exported_snapshot() {
+		ParallelSnapshotLoader loader = new ParallelSnapshotLoader(dataSource, 3, 3, null);
+
+		loader.load();
+
+		// one coordinating session, then four slices of ids 2..11 per table
+		assertEquals(9, sessions.size());
+		int coordinators = 0;
+		for (List<String> session : sessions) {
+			assertEquals("isolation " + Connection.TRANSACTION_REPEATABLE_READ, session.get(0));
+			if (session.get(1).equals("SELECT pg_export_snapshot()")) {
+				coordinators++;
+			} else {
+				assertEquals("SET TRANSACTION SNAPSHOT '" + SNAPSHOT_ID + "'", session.get(1));
+				assertTrue(session.get(2).contains("WHERE employee_id >= ? AND employee_id < ?"));
+			}
+			assertEquals("commit", session.get(session.size() - 1));
+		}
+		assertEquals(1, coordinators);
+	}
+
+	@Test
+	public void loads_nothing_from_an_empty_table() {
+		employees.clear();
+		ParallelSnapshotLoader loader = new ParallelSnapshotLoader(dataSource, 3, 3, null);
+
+		assertEquals(0, loader.loadEmployees().size());
+		assertEquals(1, sessions.size());
+	}
+
+	/*
+	 * Each connection records what it was asked to do in its own session
+	 * log and answers the loader's queries from the lists above.
+	 */
+	private class StubDataSource extends AbstractDataSource {
+
+		@Override
+		public Connection getConnection() {
+			List<String> session = Collections.synchronizedList(new ArrayList<>());
+			sessions.add(session);
+			Map<String, Object> state = new HashMap<>();
+			state.put("autoCommit", true);
+			state.put("isolation", Connection.TRANSACTION_READ_COMMITTED);
+			return stub(Connection.class, (method, args) -> {
+				switch (method.getName()) {
+				case "getAutoCommit":
+					return state.get("autoCommit");
+				case "setAutoCommit":
+					return state.put("autoCommit", args[0]);
+				case "getTransactionIsolation":
+					return state.get("isolation");
+				case "setTransactionIsolation":
+					if (!state.get("isolation").equals(args[0]) && !(Boolean) state.get("autoCommit")) {
+						throw new IllegalStateException("isolation changed inside a transaction");
+					}
+					if (args[0].equals(Connection.TRANSACTION_REPEATABLE_READ)) {
+						session.add("isolation " + args[0]);
+					}
+					return state.put("isolation", args[0]);
+				case "commit":
+				case "rollback":
+					session.add(method.getName());
+					return null;
+				case "createStatement":
+					return statement(Statement.class, null, session);
+				case "prepareStatement":
+					return statement(PreparedStatement.class, (String) args[0], session);
+				default:
+					return null;
+				}
+			});
+		}
+
+		@Override
+		public Connection getConnection(String username, String password) {
+			return getConnection();
+		}
+	}
+
+	private <T extends Statement> T statement(Class<T> type, String preparedSql, List<String> session) {
+		Map<Integer, Object> parameters = new HashMap<>();
+		return stub(type, (method, args) -> {
+			switch (method.getName()) {
+			case "setObject":
+				return parameters.put((Integer) args[0], args[1]);
+			case "execute":
+				session.add((String) args[0]);
+				return false;
+			case "executeQuery":
+				String sql = preparedSql != null ? preparedSql : (String) args[0];
+				session.add(sql);
+				return results(sql, parameters);
+			default:
+				return null;
+			}
+		});
+	}
+
+	private ResultSet results(String sql, Map<Integer, Object> parameters) {
+		List<String> columns;
+		List<Object[]> rows = new ArrayList<>();
+		if (sql.contains("pg_export_snapshot")) {
+			columns = Arrays.asList("pg_export_snapshot");
+			rows.add(new Object[] { SNAPSHOT_ID });
+		} else if (sql.contains("min(employee_id)")) {
+			columns = Arrays.asList("min_id", "max_id");
+			Integer min = null;
+			Integer max = null;
+			for (Object[] employee : employees) {
+				int id = (Integer) employee[0];
+				min = min == null ? id : Math.min(min, id);
+				max = max == null ? id : Math.max(max, id);
+			}
+			rows.add(new Object[] { min, max });
+		} else {
+			boolean employeeTable = sql.contains("FROM employee ");
+			columns = employeeTable ? Arrays.asList("employee_id", "department_id", "birth_date", "gender", "hire_date")
+					: Arrays.asList("project_id", "employee_id");
+			long from = ((Number) parameters.get(1)).longValue();
+			long to = ((Number) parameters.get(2)).longValue();
+			for (Object[] row : employeeTable ? employees : assignments) {
+				int employeeId = (Integer) row[columns.indexOf("employee_id")];
+				if (employeeId >= from && employeeId < to) {
+					rows.add(row);
+				}
+			}
+		}
+		int[] position = { -1 };
+		Object[] last = new Object[1];
+		ResultSetMetaData metaData = stub(ResultSetMetaData.class,
+				(method, args) -> method.getName().equals("getColumnCount") ? columns.size() : null);
+		return stub(ResultSet.class, (method, args) -> {
+			switch (method.getName()) {
+			case "next":
+				return ++position[0] < rows.size();
+			case "wasNull":
+				return last[0] == null;
+			case "getMetaData":
+				return metaData;
+			case "getInt":
+			case "getLong":
+			case "getDate":
+			case "getString":
+				int column = args[0] instanceof Integer ? (Integer) args[0] - 1 : columns.indexOf(args[0]);
+				last[0] = rows.get(position[0])[column];
+				if (last[0] == null) {
+					return method.getName().equals("getLong") ? 0L : null;
+				}
+				return method.getName().equals("getLong") ? ((Number) last[0]).longValue() : last[0];
+			default:
+				return null;
+			}
+		});
+	}
+
+	private interface Handler {
+		Object invoke(Method method, Object[] args) throws Exception;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T stub(Class<T> type, Handler handler) {
+		return (T) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { type },
+				(proxy, method, args) -> {
+					Object result = handler.invoke(method, args);
+					if (result == null && method.getReturnType() == boolean.class) {
+						return false;
+					}
+					if (result == null && method.getReturnType() == int.class) {
+						return 0;
+					}
+					return result;
+				});
+	}
+}
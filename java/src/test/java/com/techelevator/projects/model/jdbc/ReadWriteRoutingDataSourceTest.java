@@ -0,0 +1,98 @@
+package com.techelevator.projects.model.jdbc;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+
+import javax.sql.DataSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+public class ReadWriteRoutingDataSourceTest {
+
+	private Connection primaryConnection;
+	private Connection replicaConnection;
+	private DataSource primary;
+	private DataSource replica;
+
+	@Before
+	public void setup() {
+		primaryConnection = stubConnection();
+		replicaConnection = stubConnection();
+		primary = stubDataSource(primaryConnection);
+		replica = stubDataSource(replicaConnection);
+	}
+
+	@Test
+	public void reads_go_to_the_replica() throws Exception {
+		ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(primary, replica, 60000);
+
+		assertSame(replicaConnection, ReadWriteRoutingDataSource.forReads(dataSource).getConnection());
+	}
+
+	@Test
+	public void writes_go_to_the_primary() throws Exception {
+		ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(primary, replica, 60000);
+
+		assertSame(primaryConnection, dataSource.getConnection());
+	}
+
+	@Test
+	public void reads_stick_to_the_primary_after_a_write() throws Exception {
+		ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(primary, replica, 60000);
+
+		dataSource.getConnection();
+
+		assertSame(primaryConnection, ReadWriteRoutingDataSource.forReads(dataSource).getConnection());
+	}
+
+	@Test
+	public void reads_return_to_the_replica_once_stickiness_runs_out() throws Exception {
+		ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(primary, replica, 0);
+
+		dataSource.getConnection();
+
+		assertSame(replicaConnection, ReadWriteRoutingDataSource.forReads(dataSource).getConnection());
+	}
+
+	@Test
+	public void the_current_read_target_follows_stickiness() throws Exception {
+		ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(primary, replica, 60000);
+
+		assertSame(replica, ReadWriteRoutingDataSource.currentReadTarget(dataSource));
+		assertFalse(ReadWriteRoutingDataSource.mustReadFromPrimary(dataSource));
+		dataSource.getConnection();
+		assertSame(primary, ReadWriteRoutingDataSource.currentReadTarget(dataSource));
+		assertTrue(ReadWriteRoutingDataSource.mustReadFromPrimary(dataSource));
+		assertFalse(ReadWriteRoutingDataSource.mustReadFromPrimary(primary));
+	}
+
+	@Test
+	public void other_data_sources_are_used_for_reads_as_is() {
+		assertSame(primary, ReadWriteRoutingDataSource.forReads(primary));
+	}
+
+	private Connection stubConnection() {
+		return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+				(proxy, method, args) -> null);
+	}
+
+	private DataSource stubDataSource(Connection connection) {
+		return new AbstractDataSource() {
+			@Override
+			public Connection getConnection() {
+				return connection;
+			}
+
+			@Override
+			public Connection getConnection(String username, String password) {
+				return connection;
+			}
+		};
+	}
+}
@@ -2,6 +2,9 @@ package com.techelevator.projects.view;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -84,6 +87,85 @@ public class MenuTest {
 		Assert.assertEquals(expected, output.toString());
 	}
 
+	@Test
+	public void pages_show_only_one_page_of_options_at_a_time() {
+		Menu menu = getMenuForTestingWithUserInput("2\n");
+
+		String choice = menu.getChoiceFromPages(namesSource(), 2);
+
+		Assert.assertEquals("Baker", choice);
+		Assert.assertEquals("\n" +
+							"1) Adams\n" +
+							"2) Baker\n\n" +
+							"Page 1. Enter > for the next page, or text to search.\n" +
+							"Please choose an option >>> ", output.toString());
+		Assert.assertEquals(Arrays.asList("'' after null"), pageRequests);
+	}
+
+	@Test
+	public void next_and_previous_page_continue_from_the_last_option_shown() {
+		Menu menu = getMenuForTestingWithUserInput(">\n>\n>\n<\n1\n");
+
+		String choice = menu.getChoiceFromPages(namesSource(), 2);
+
+		Assert.assertEquals("Clark", choice);
+		Assert.assertEquals(Arrays.asList("'' after null", "'' after Baker", "'' after Davis", "'' after Davis",
+										  "'' after Baker"), pageRequests);
+		Assert.assertTrue(output.toString().contains("1) Evans\n\nPage 3. Enter < for the previous page, or text to search."));
+		Assert.assertTrue(output.toString().contains("*** This is the last page ***"));
+	}
+
+	@Test
+	public void typing_text_filters_the_options_and_starts_from_the_first_page() {
+		Menu menu = getMenuForTestingWithUserInput(">\nda\n1\n");
+
+		String choice = menu.getChoiceFromPages(namesSource(), 2);
+
+		Assert.assertEquals("Davis", choice);
+		Assert.assertEquals(Arrays.asList("'' after null", "'' after Baker", "'da' after null"), pageRequests);
+		Assert.assertTrue(output.toString().contains("Page 1 of options starting with 'da'."));
+	}
+
+	@Test
+	public void pages_reject_numbers_that_are_not_on_the_page() {
+		Menu menu = getMenuForTestingWithUserInput("3\n0\n1\n");
+
+		String choice = menu.getChoiceFromPages(namesSource(), 2);
+
+		Assert.assertEquals("Adams", choice);
+		Assert.assertTrue(output.toString().contains("*** 3 is not a valid option ***"));
+		Assert.assertTrue(output.toString().contains("*** 0 is not a valid option ***"));
+		Assert.assertEquals(3, pageRequests.size());
+	}
+
+	@Test
+	public void pages_reject_numbers_too_long_to_be_options() {
+		Menu menu = getMenuForTestingWithUserInput("12345678901\n1\n");
+
+		String choice = menu.getChoiceFromPages(namesSource(), 2);
+
+		Assert.assertEquals("Adams", choice);
+		Assert.assertTrue(output.toString().contains("*** 12345678901 is not a valid option ***"));
+		Assert.assertEquals(Arrays.asList("'' after null", "'' after null"), pageRequests);
+	}
+
+	private List<String> pageRequests = new ArrayList<>();
+
+	private Menu.PageSource<String> namesSource() {
+		List<String> names = Arrays.asList("Adams", "Baker", "Clark", "Davis", "Evans");
+		return (filter, after, pageSize) -> {
+			pageRequests.add("'" + filter + "' after " + after);
+			List<String> page = new ArrayList<>();
+			for(String name : names) {
+				if(name.toLowerCase().startsWith(filter.toLowerCase()) && (after == null || name.compareTo(after) > 0)
+						&& page.size() < pageSize) {
+					page.add(name);
+				}
+			}
+			return page;
+		};
+	}
+
 	private Menu getMenuForTestingWithUserInput(String userInput) {
 		ByteArrayInputStream input = new ByteArrayInputStream(String.valueOf(userInput).getBytes());
 		return new Menu(input, output);